@@ -0,0 +1,161 @@
+package com.example.Book.Management.System.archive;
+
+import com.example.Book.Management.System.dto.BorrowHistoryDto;
+import com.example.Book.Management.System.entity.BorrowStatus;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The RETURNED loans of one month, decoded into parallel arrays sorted by id. Ids of users,
+ * books and copies are {@code 0} for null; dates are epoch days, {@link #NO_DATE} for null.
+ * Immutable once built, so cached segments are shared between request threads.
+ */
+final class ArchiveSegment {
+
+    static final int NO_DATE = Integer.MIN_VALUE;
+
+    final LocalDate month;
+    final int size;
+    final long[] ids;
+    final long[] userIds;
+    final long[] bookIds;
+    final long[] copyIds;
+    final int[] borrowDays;
+    final int[] dueDays;
+    final int[] returnDays;
+
+    private ArchiveSegment(LocalDate month, int size, long[] ids, long[] userIds, long[] bookIds, long[] copyIds,
+                           int[] borrowDays, int[] dueDays, int[] returnDays) {
+        this.month = month;
+        this.size = size;
+        this.ids = ids;
+        this.userIds = userIds;
+        this.bookIds = bookIds;
+        this.copyIds = copyIds;
+        this.borrowDays = borrowDays;
+        this.dueDays = dueDays;
+        this.returnDays = returnDays;
+    }
+
+    /**
+     * Adds to {@code sink} the loans of the given user or book that sort before
+     * {@code (beforeDay, beforeId)} in history order.
+     */
+    void collect(boolean byUser, long memberId, int beforeDay, long beforeId, List<BorrowHistoryDto> sink) {
+        long[] members = byUser ? userIds : bookIds;
+        for (int i = 0; i < size; i++) {
+            if (members[i] != memberId) {
+                continue;
+            }
+            if (borrowDays[i] > beforeDay || (borrowDays[i] == beforeDay && ids[i] >= beforeId)) {
+                continue;
+            }
+            BorrowHistoryDto dto = new BorrowHistoryDto();
+            dto.setId(ids[i]);
+            dto.setUserId(userIds[i] == 0 ? null : userIds[i]);
+            dto.setBookId(bookIds[i] == 0 ? null : bookIds[i]);
+            dto.setCopyId(copyIds[i] == 0 ? null : copyIds[i]);
+            dto.setBorrowDate(date(borrowDays[i]));
+            dto.setDueDate(date(dueDays[i]));
+            dto.setReturnDate(date(returnDays[i]));
+            dto.setStatus(BorrowStatus.RETURNED);
+            sink.add(dto);
+        }
+    }
+
+    /**
+     * @return the rows of both segments, by id; a row present in both is taken from {@code newer}
+     */
+    static ArchiveSegment merge(ArchiveSegment older, ArchiveSegment newer) {
+        Builder builder = new Builder(newer.month, older.size + newer.size);
+        int a = 0;
+        int b = 0;
+        while (a < older.size || b < newer.size) {
+            if (b < newer.size && (a == older.size || newer.ids[b] <= older.ids[a])) {
+                if (a < older.size && older.ids[a] == newer.ids[b]) {
+                    a++;
+                }
+                builder.copy(newer, b++);
+            } else {
+                builder.copy(older, a++);
+            }
+        }
+        return builder.build();
+    }
+
+    static LocalDate date(int epochDay) {
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    /**
+     * Collects rows in ascending id order.
+     */
+    static final class Builder {
+        private final LocalDate month;
+        private int size;
+        private long[] ids;
+        private long[] userIds;
+        private long[] bookIds;
+        private long[] copyIds;
+        private int[] borrowDays;
+        private int[] dueDays;
+        private int[] returnDays;
+
+        Builder(LocalDate month, int expected) {
+            int capacity = Math.max(16, expected);
+            this.month = month;
+            this.ids = new long[capacity];
+            this.userIds = new long[capacity];
+            this.bookIds = new long[capacity];
+            this.copyIds = new long[capacity];
+            this.borrowDays = new int[capacity];
+            this.dueDays = new int[capacity];
+            this.returnDays = new int[capacity];
+        }
+
+        void add(long id, long userId, long bookId, long copyId, int borrowDay, int dueDay, int returnDay) {
+            if (size > 0 && id <= ids[size - 1]) {
+                throw new IllegalArgumentException("Archive rows must be added in ascending id order");
+            }
+            if (size == ids.length) {
+                grow();
+            }
+            ids[size] = id;
+            userIds[size] = userId;
+            bookIds[size] = bookId;
+            copyIds[size] = copyId;
+            borrowDays[size] = borrowDay;
+            dueDays[size] = dueDay;
+            returnDays[size] = returnDay;
+            size++;
+        }
+
+        int size() {
+            return size;
+        }
+
+        ArchiveSegment build() {
+            return new ArchiveSegment(month, size, Arrays.copyOf(ids, size), Arrays.copyOf(userIds, size),
+                    Arrays.copyOf(bookIds, size), Arrays.copyOf(copyIds, size), Arrays.copyOf(borrowDays, size),
+                    Arrays.copyOf(dueDays, size), Arrays.copyOf(returnDays, size));
+        }
+
+        private void copy(ArchiveSegment from, int i) {
+            add(from.ids[i], from.userIds[i], from.bookIds[i], from.copyIds[i], from.borrowDays[i],
+                    from.dueDays[i], from.returnDays[i]);
+        }
+
+        private void grow() {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            userIds = Arrays.copyOf(userIds, capacity);
+            bookIds = Arrays.copyOf(bookIds, capacity);
+            copyIds = Arrays.copyOf(copyIds, capacity);
+            borrowDays = Arrays.copyOf(borrowDays, capacity);
+            dueDays = Arrays.copyOf(dueDays, capacity);
+            returnDays = Arrays.copyOf(returnDays, capacity);
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.example.Book.Management.System.archive;
+
+import com.example.Book.Management.System.dto.BorrowHistoryDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Old RETURNED loans, moved out of {@code borrow_record} into one compressed file per month of
+ * borrow date (see {@link BorrowArchiveFile}). {@code borrow_archive_segments} names the current
+ * file of each month and {@code borrow_archive_members} lists the months each user and book
+ * appear in, so a history page only decodes the months it can use. Decoded months are cached,
+ * weighted by rows.
+ *
+ * <p>Every instance serves history from the files, so {@code borrow.archive.dir} must be shared
+ * storage. Files are only ever replaced, never rewritten in place.
+ */
+@Service
+public class BorrowArchive {
+
+    private static final Logger logger = LoggerFactory.getLogger(BorrowArchive.class);
+
+    private static final DateTimeFormatter FILE_MONTH = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    public static final Comparator<BorrowHistoryDto> HISTORY_ORDER =
+            Comparator.comparing(BorrowHistoryDto::getBorrowDate).thenComparing(BorrowHistoryDto::getId).reversed();
+
+    private static final String MONTH_ROWS_SQL = """
+            SELECT id, user_id, book_id, copy_id, borrow_date, due_date, return_date FROM borrow_record
+            WHERE borrow_date >= ? AND borrow_date < ? AND status = 'RETURNED' ORDER BY id
+            """;
+
+    private static final String UPSERT_SEGMENT_SQL = """
+            INSERT INTO borrow_archive_segments (month, file_name, row_count, last_return_date, archived_at)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (month) DO UPDATE SET file_name = EXCLUDED.file_name, row_count = EXCLUDED.row_count,
+                last_return_date = EXCLUDED.last_return_date, archived_at = EXCLUDED.archived_at
+            """;
+
+    private static final String INSERT_MEMBERS_SQL =
+            "INSERT INTO borrow_archive_members (kind, member_id, month) SELECT ?, m, ? FROM unnest(?) AS m ON CONFLICT DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Path dir;
+    private final Cache<String, ArchiveSegment> segments;
+
+    public BorrowArchive(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                         @Value("${borrow.archive.dir:data/borrow-archive}") String dir,
+                         @Value("${borrow.archive.cache-rows:1000000}") long cacheRows,
+                         MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dir = Paths.get(dir);
+        this.segments = Caffeine.newBuilder()
+                .maximumWeight(cacheRows)
+                .weigher((String name, ArchiveSegment segment) -> Math.max(1, segment.size))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, segments, "borrow_archive");
+    }
+
+    /**
+     * Archived loans of one user or book that sort before {@code (beforeDate, beforeId)} in
+     * history order, newest first. At most {@code max} are returned.
+     *
+     * @param beforeDate {@code null} to start from the newest
+     */
+    public List<BorrowHistoryDto> history(boolean byUser, long memberId, LocalDate beforeDate, long beforeId, int max) {
+        int beforeDay = beforeDate == null ? Integer.MAX_VALUE : (int) beforeDate.toEpochDay();
+        long beforeEntry = beforeDate == null ? Long.MAX_VALUE : beforeId;
+        List<LocalDate> months = beforeDate == null
+                ? jdbcTemplate.queryForList(
+                        "SELECT month FROM borrow_archive_members WHERE kind = ? AND member_id = ? ORDER BY month DESC",
+                        LocalDate.class, byUser ? "U" : "B", memberId)
+                : jdbcTemplate.queryForList(
+                        "SELECT month FROM borrow_archive_members WHERE kind = ? AND member_id = ? AND month <= ? ORDER BY month DESC",
+                        LocalDate.class, byUser ? "U" : "B", memberId, Date.valueOf(beforeDate.withDayOfMonth(1)));
+
+        List<BorrowHistoryDto> rows = new ArrayList<>();
+        for (LocalDate month : months) {
+            // Every row of a month sorts after every row of the months before it.
+            if (rows.size() >= max) {
+                break;
+            }
+            ArchiveSegment segment = segment(month);
+            if (segment != null) {
+                segment.collect(byUser, memberId, beforeDay, beforeEntry, rows);
+            }
+        }
+        rows.sort(HISTORY_ORDER);
+        return rows.size() > max ? new ArrayList<>(rows.subList(0, max)) : rows;
+    }
+
+    /**
+     * Visits every archived loan, oldest month first and by id within a month, or the reverse
+     * when {@code newestFirst}. The months come from the caller's transaction, so a snapshot
+     * sees the files it should; files are read one at a time and not cached.
+     *
+     * @throws IOException if a month's file is unreadable, or was replaced and deleted after the
+     * caller's snapshot was taken
+     */
+    public void forEachLoan(boolean newestFirst, LoanVisitor visitor) throws IOException {
+        List<String> files = jdbcTemplate.queryForList(
+                "SELECT file_name FROM borrow_archive_segments ORDER BY month" + (newestFirst ? " DESC" : ""),
+                String.class);
+        for (String file : files) {
+            ArchiveSegment segment = segments.getIfPresent(file);
+            if (segment == null) {
+                segment = BorrowArchiveFile.read(dir.resolve(file));
+            }
+            for (int n = 0; n < segment.size; n++) {
+                int i = newestFirst ? segment.size - 1 - n : n;
+                visitor.visit(segment.ids[i], nullIfZero(segment.userIds[i]), nullIfZero(segment.bookIds[i]),
+                        nullIfZero(segment.copyIds[i]), ArchiveSegment.date(segment.borrowDays[i]),
+                        ArchiveSegment.date(segment.dueDays[i]), ArchiveSegment.date(segment.returnDays[i]));
+            }
+        }
+    }
+
+    /**
+     * @return the day from which circulation rollups can be rebuilt from {@code borrow_record}
+     * alone, or {@code null} when nothing is archived
+     */
+    public LocalDate rollupRebuildFloor() {
+        return jdbcTemplate.queryForObject("""
+                SELECT GREATEST(CAST(MAX(month) + INTERVAL '1 month' AS date), MAX(last_return_date) + 1)
+                FROM borrow_archive_segments
+                """, LocalDate.class);
+    }
+
+    /**
+     * Moves the RETURNED loans borrowed in {@code month} into the month's archive file, merging
+     * with what is already archived. The new file is written and read back first; then one
+     * transaction repoints the segment, records the members, deletes the rows and runs
+     * {@code inTransaction}. Rows are only gone once the file holding them is committed.
+     *
+     * @return the number of loans moved
+     */
+    public int archiveMonth(LocalDate month, Runnable inTransaction) throws IOException {
+        LocalDate end = month.plusMonths(1);
+        ArchiveSegment.Builder builder = new ArchiveSegment.Builder(month, 1024);
+        jdbcTemplate.query(MONTH_ROWS_SQL, rs -> {
+            LocalDate due = rs.getObject("due_date", LocalDate.class);
+            LocalDate returned = rs.getObject("return_date", LocalDate.class);
+            builder.add(rs.getLong("id"), rs.getLong("user_id"), rs.getLong("book_id"), rs.getLong("copy_id"),
+                    (int) rs.getObject("borrow_date", LocalDate.class).toEpochDay(),
+                    due == null ? ArchiveSegment.NO_DATE : (int) due.toEpochDay(),
+                    returned == null ? ArchiveSegment.NO_DATE : (int) returned.toEpochDay());
+        }, Date.valueOf(month), Date.valueOf(end));
+        if (builder.size() == 0) {
+            transactionTemplate.executeWithoutResult(status -> inTransaction.run());
+            return 0;
+        }
+        ArchiveSegment fresh = builder.build();
+
+        List<String> current = jdbcTemplate.queryForList(
+                "SELECT file_name FROM borrow_archive_segments WHERE month = ?", String.class, Date.valueOf(month));
+        String previous = current.isEmpty() ? null : current.get(0);
+        ArchiveSegment merged = previous == null ? fresh : ArchiveSegment.merge(load(previous), fresh);
+
+        String fileName = "borrow-" + month.format(FILE_MONTH) + "-" + System.currentTimeMillis() + ".lbra";
+        Path path = dir.resolve(fileName);
+        BorrowArchiveFile.write(merged, path);
+        try {
+            if (BorrowArchiveFile.read(path).size != merged.size) {
+                throw new IOException("Archive file " + path + " did not read back intact");
+            }
+            int lastReturn = ArchiveSegment.NO_DATE;
+            for (int day : merged.returnDays) {
+                lastReturn = Math.max(lastReturn, day);
+            }
+            LocalDate lastReturnDate = lastReturn == ArchiveSegment.NO_DATE ? null : LocalDate.ofEpochDay(lastReturn);
+            transactionTemplate.executeWithoutResult(status -> {
+                // Locks the month against a concurrent archiver, which could otherwise drop rows from the file.
+                List<String> locked = jdbcTemplate.queryForList(
+                        "SELECT file_name FROM borrow_archive_segments WHERE month = ? FOR UPDATE",
+                        String.class, Date.valueOf(month));
+                if (!locked.equals(current)) {
+                    throw new IllegalStateException("Archive of " + month + " changed while it was being written");
+                }
+                jdbcTemplate.update(UPSERT_SEGMENT_SQL, Date.valueOf(month), fileName, merged.size,
+                        lastReturnDate == null ? null : Date.valueOf(lastReturnDate), Timestamp.valueOf(LocalDateTime.now()));
+                insertMembers("U", month, fresh.userIds);
+                insertMembers("B", month, fresh.bookIds);
+                int deleted = jdbcTemplate.update(
+                        "DELETE FROM borrow_record WHERE borrow_date >= ? AND borrow_date < ? AND status = 'RETURNED' AND id = ANY (?)",
+                        ps -> {
+                            ps.setDate(1, Date.valueOf(month));
+                            ps.setDate(2, Date.valueOf(end));
+                            ps.setArray(3, bigints(ps.getConnection(), fresh.ids));
+                        });
+                if (deleted != fresh.size) {
+                    throw new IllegalStateException("Expected to archive " + fresh.size + " loans of " + month
+                            + " but " + deleted + " were still there");
+                }
+                inTransaction.run();
+            });
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(path);
+            throw e;
+        }
+
+        if (previous != null) {
+            segments.invalidate(previous);
+            try {
+                Files.deleteIfExists(dir.resolve(previous));
+            } catch (IOException e) {
+                logger.warn("Could not delete replaced archive file {}. Error: {}", previous, e.getMessage());
+            }
+        }
+        return fresh.size;
+    }
+
+    private void insertMembers(String kind, LocalDate month, long[] ids) {
+        long[] distinct = Arrays.stream(ids).filter(id -> id != 0).distinct().toArray();
+        jdbcTemplate.update(INSERT_MEMBERS_SQL, ps -> {
+            ps.setString(1, kind);
+            ps.setDate(2, Date.valueOf(month));
+            ps.setArray(3, bigints(ps.getConnection(), distinct));
+        });
+    }
+
+    private static Long nullIfZero(long id) {
+        return id == 0 ? null : id;
+    }
+
+    private static Array bigints(Connection connection, long[] values) throws SQLException {
+        Long[] boxed = new Long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            boxed[i] = values[i];
+        }
+        return connection.createArrayOf("bigint", boxed);
+    }
+
+    /**
+     * The current segment of {@code month}, or {@code null} if its file is missing. A file
+     * replaced while this request was looking the month up is retried once under its new name.
+     */
+    private ArchiveSegment segment(LocalDate month) {
+        String previous = null;
+        for (int attempt = 0; attempt < 2; attempt++) {
+            List<String> names = jdbcTemplate.queryForList(
+                    "SELECT file_name FROM borrow_archive_segments WHERE month = ?", String.class, Date.valueOf(month));
+            if (names.isEmpty() || names.get(0).equals(previous)) {
+                break;
+            }
+            previous = names.get(0);
+            try {
+                return load(previous);
+            } catch (NoSuchFileException e) {
+                // Replaced by a concurrent archive run, or the directory is not shared.
+            } catch (IOException e) {
+                logger.error("Unreadable archive file {}. Error: {}", previous, e.getMessage(), e);
+                return null;
+            }
+        }
+        logger.error("Archive file {} for {} is missing from {}; its loans are left out of history.",
+                previous, month, dir.toAbsolutePath());
+        return null;
+    }
+
+    /**
+     * One archived loan; every loan in the archive is RETURNED.
+     */
+    @FunctionalInterface
+    public interface LoanVisitor {
+        void visit(long id, Long userId, Long bookId, Long copyId, LocalDate borrowDate, LocalDate dueDate,
+                   LocalDate returnDate);
+    }
+
+    private ArchiveSegment load(String fileName) throws IOException {
+        try {
+            return segments.get(fileName, name -> {
+                try {
+                    return BorrowArchiveFile.read(dir.resolve(name));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.Book.Management.System.archive;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * On-disk format of one archive segment.
+ *
+ * <pre>
+ * int    magic ("LBRA")
+ * int    format version
+ * int    month, as the epoch day of its first day
+ * int    row count
+ * gzip   per row, as unsigned LEB128 varints:
+ *          id minus the previous row's id (rows ascend by id)
+ *          user id, book id, copy id (0 for null)
+ *          borrow date minus the month's first day
+ *          due date and return date, each 0 for null, else zigzag(date - borrow date) + 1
+ * </pre>
+ *
+ * Most rows take 10-15 bytes before compression. The gzip trailer's CRC catches a corrupt file
+ * on read.
+ */
+final class BorrowArchiveFile {
+
+    private static final int MAGIC = 0x4C425241;
+    private static final int VERSION = 1;
+
+    private BorrowArchiveFile() {}
+
+    static void write(ArchiveSegment segment, Path target) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        int monthDay = (int) segment.month.toEpochDay();
+
+        try (OutputStream file = Files.newOutputStream(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream header = new DataOutputStream(file);
+            header.writeInt(MAGIC);
+            header.writeInt(VERSION);
+            header.writeInt(monthDay);
+            header.writeInt(segment.size);
+            header.flush();
+
+            GZIPOutputStream gzip = new GZIPOutputStream(file, 1 << 16) {
+                {
+                    def.setLevel(Deflater.BEST_COMPRESSION);
+                }
+            };
+            OutputStream out = new BufferedOutputStream(gzip, 1 << 16);
+            long previousId = 0;
+            for (int i = 0; i < segment.size; i++) {
+                writeVar(out, segment.ids[i] - previousId);
+                previousId = segment.ids[i];
+                writeVar(out, segment.userIds[i]);
+                writeVar(out, segment.bookIds[i]);
+                writeVar(out, segment.copyIds[i]);
+                writeVar(out, segment.borrowDays[i] - monthDay);
+                writeVar(out, offset(segment.dueDays[i], segment.borrowDays[i]));
+                writeVar(out, offset(segment.returnDays[i], segment.borrowDays[i]));
+            }
+            out.flush();
+            gzip.finish();
+        }
+        // The file must be durable before the rows it holds are deleted.
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static ArchiveSegment read(Path source) throws IOException {
+        try (InputStream file = new BufferedInputStream(Files.newInputStream(source), 1 << 16)) {
+            DataInputStream header = new DataInputStream(file);
+            if (header.readInt() != MAGIC) {
+                throw new IOException("Not a borrow archive segment: " + source);
+            }
+            int version = header.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported borrow archive version " + version);
+            }
+            int monthDay = header.readInt();
+            int count = header.readInt();
+
+            ArchiveSegment.Builder builder = new ArchiveSegment.Builder(LocalDate.ofEpochDay(monthDay), count);
+            InputStream in = new BufferedInputStream(new GZIPInputStream(file, 1 << 16), 1 << 16);
+            long id = 0;
+            for (int i = 0; i < count; i++) {
+                id += readVar(in);
+                long userId = readVar(in);
+                long bookId = readVar(in);
+                long copyId = readVar(in);
+                int borrowDay = monthDay + (int) readVar(in);
+                int dueDay = date(readVar(in), borrowDay);
+                int returnDay = date(readVar(in), borrowDay);
+                builder.add(id, userId, bookId, copyId, borrowDay, dueDay, returnDay);
+            }
+            // Reading to the end makes the stream check the gzip CRC.
+            if (in.read() != -1) {
+                throw new IOException("Trailing data in borrow archive segment: " + source);
+            }
+            return builder.build();
+        }
+    }
+
+    private static long offset(int day, int borrowDay) {
+        if (day == ArchiveSegment.NO_DATE) {
+            return 0;
+        }
+        long delta = (long) day - borrowDay;
+        return ((delta << 1) ^ (delta >> 63)) + 1;
+    }
+
+    private static int date(long encoded, int borrowDay) {
+        if (encoded == 0) {
+            return ArchiveSegment.NO_DATE;
+        }
+        long zigzag = encoded - 1;
+        return borrowDay + (int) ((zigzag >>> 1) ^ -(zigzag & 1));
+    }
+
+    private static void writeVar(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVar(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Truncated borrow archive segment");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in borrow archive segment");
+    }
+}
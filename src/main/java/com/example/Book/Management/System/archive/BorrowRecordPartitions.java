@@ -0,0 +1,288 @@
+package com.example.Book.Management.System.archive;
+
+import com.example.Book.Management.System.cluster.ClusterSingleton;
+import com.example.Book.Management.System.config.BorrowHistoryIndexes;
+import com.example.Book.Management.System.entity.AdminJob;
+import com.example.Book.Management.System.entity.JobStatus;
+import com.example.Book.Management.System.repository.AdminJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps {@code borrow_record} range partitioned by month of {@code borrow_date} on PostgreSQL.
+ *
+ * <p>Hibernate creates the table unpartitioned, so it is converted in place by the
+ * {@code borrow-record-partitioning} job, which one instance queues at startup whenever the
+ * conversion or the history indexes are outstanding; startup itself runs no DDL. The
+ * existing table is renamed {@code borrow_record_p_legacy} and attached as the partition of
+ * everything before the next month, and monthly partitions {@code borrow_record_pYYYY_MM} follow
+ * it. The slow steps (a validated range check and a unique index) run first without blocking
+ * writes; the swap itself is catalog-only and takes an exclusive lock for milliseconds. Giving up
+ * on the lock after {@code lock-timeout-ms} fails the job and leaves the table as it was for the
+ * next start.
+ *
+ * <p>A partitioned table's unique keys must contain the partition key, so the parent carries
+ * {@code UNIQUE (id, borrow_date)} instead of a primary key; ids still come from one sequence.
+ * There is no default partition: a loan always has today's borrow date, and the maintenance run
+ * keeps {@code months-ahead} months of partitions ready.
+ */
+@Component
+public class BorrowRecordPartitions {
+
+    private static final Logger logger = LoggerFactory.getLogger(BorrowRecordPartitions.class);
+
+    public static final String PREPARE_JOB = "borrow-record-partitioning";
+    static final String LEGACY = "borrow_record_p_legacy";
+    private static final String LEGACY_RANGE = "borrow_record_legacy_range";
+    private static final String LEGACY_KEY = "borrow_record_legacy_id_date";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final Pattern UPPER_BOUND = Pattern.compile("TO \\('(\\d{4}-\\d{2}-\\d{2})'\\)");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BorrowHistoryIndexes historyIndexes;
+    private final AdminJobRepository jobRepository;
+
+    @Value("${borrow.partitioning.enabled:true}")
+    private boolean enabled;
+
+    @Value("${borrow.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${borrow.partitioning.lock-timeout-ms:10000}")
+    private long lockTimeoutMs;
+
+    public BorrowRecordPartitions(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                  BorrowHistoryIndexes historyIndexes, AdminJobRepository jobRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.historyIndexes = historyIndexes;
+        this.jobRepository = jobRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @ClusterSingleton
+    public void prepareOnStartup() {
+        try {
+            if (!historyIndexes.allValid() || (enabled && "r".equals(relkind("borrow_record")))) {
+                if (!jobRepository.existsByTypeAndStatusIn(PREPARE_JOB, List.of(JobStatus.QUEUED, JobStatus.RUNNING))) {
+                    // Picked up by the job queue poll on whichever instance has a free worker.
+                    jobRepository.save(new AdminJob(PREPARE_JOB, null, "startup"));
+                    logger.info("Queued a {} job.", PREPARE_JOB);
+                }
+            } else if (enabled) {
+                createAhead();
+            }
+        } catch (DataAccessException e) {
+            logger.error("Could not check borrow_record partitioning. Error: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Creates the history indexes, converts {@code borrow_record} if it is still a plain table and
+     * creates the partitions ahead. Idempotent. The indexes go first so the conversion carries
+     * them over to every partition.
+     */
+    public void prepare() {
+        historyIndexes.createIndexes();
+        if (!enabled) {
+            return;
+        }
+        if ("r".equals(relkind("borrow_record"))) {
+            convert();
+        }
+        createAhead();
+    }
+
+    @Scheduled(cron = "${borrow.partitioning.maintenance-cron:0 20 2 * * *}")
+    @ClusterSingleton
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            createAhead();
+        } catch (DataAccessException e) {
+            logger.error("Could not create borrow_record partitions. Error: {}", e.getMessage(), e);
+        }
+    }
+
+    public boolean isPartitioned() {
+        return "p".equals(relkind("borrow_record"));
+    }
+
+    /**
+     * Drops the partition of {@code month} once archiving has emptied it. The legacy partition
+     * and the current and future months are never dropped.
+     */
+    public void dropIfEmpty(LocalDate month) {
+        String name = partitionName(month);
+        if (!enabled || !month.isBefore(LocalDate.now().withDayOfMonth(1)) || relkind(name) == null) {
+            return;
+        }
+        try {
+            Boolean dropped = transactionTemplate.execute(status -> {
+                jdbcTemplate.execute("SET LOCAL lock_timeout = " + lockTimeoutMs);
+                jdbcTemplate.execute("LOCK TABLE " + name + " IN ACCESS EXCLUSIVE MODE");
+                Boolean empty = jdbcTemplate.queryForObject("SELECT NOT EXISTS (SELECT 1 FROM " + name + ")", Boolean.class);
+                if (!Boolean.TRUE.equals(empty)) {
+                    return false;
+                }
+                jdbcTemplate.execute("ALTER TABLE borrow_record DETACH PARTITION " + name);
+                jdbcTemplate.execute("DROP TABLE " + name);
+                return true;
+            });
+            if (Boolean.TRUE.equals(dropped)) {
+                logger.info("Dropped empty partition {}.", name);
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Could not drop partition {}. Error: {}", name, e.getMessage());
+        }
+    }
+
+    static String partitionName(LocalDate month) {
+        return "borrow_record_p" + month.format(SUFFIX);
+    }
+
+    private void convert() {
+        Integer version = jdbcTemplate.queryForObject("SELECT current_setting('server_version_num')::int", Integer.class);
+        if (version == null || version < 120000) {
+            logger.warn("Partitioning borrow_record needs PostgreSQL 12 or later; leaving it unpartitioned.");
+            return;
+        }
+        long start = System.currentTimeMillis();
+
+        // Rows without a borrow date have no partition; none have been written for a long time.
+        int dated = jdbcTemplate.update(
+                "UPDATE borrow_record SET borrow_date = COALESCE(return_date, due_date, CURRENT_DATE) WHERE borrow_date IS NULL");
+        if (dated > 0) {
+            logger.warn("Gave {} borrow records without a borrow date the date they were returned or due.", dated);
+        }
+        LocalDate latest = jdbcTemplate.queryForObject("SELECT MAX(borrow_date) FROM borrow_record", LocalDate.class);
+        LocalDate today = LocalDate.now();
+        LocalDate bound = (latest == null || latest.isBefore(today) ? today : latest).withDayOfMonth(1).plusMonths(1);
+
+        // A validated check lets ATTACH PARTITION and SET NOT NULL skip their full scans under the
+        // exclusive lock. VALIDATE only blocks other schema changes.
+        jdbcTemplate.execute("ALTER TABLE borrow_record DROP CONSTRAINT IF EXISTS " + LEGACY_RANGE);
+        jdbcTemplate.execute("ALTER TABLE borrow_record ADD CONSTRAINT " + LEGACY_RANGE
+                + " CHECK (borrow_date IS NOT NULL AND borrow_date < DATE '" + bound + "') NOT VALID");
+        jdbcTemplate.execute("ALTER TABLE borrow_record VALIDATE CONSTRAINT " + LEGACY_RANGE);
+        // The partition's half of the parent's UNIQUE (id, borrow_date).
+        List<Boolean> valid = jdbcTemplate.queryForList(
+                "SELECT i.indisvalid FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid WHERE c.relname = ?",
+                Boolean.class, LEGACY_KEY);
+        if (!valid.isEmpty() && !valid.get(0)) {
+            jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + LEGACY_KEY);
+        }
+        jdbcTemplate.execute("CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS " + LEGACY_KEY + " ON borrow_record (id, borrow_date)");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("SET LOCAL lock_timeout = " + lockTimeoutMs);
+            jdbcTemplate.execute("LOCK TABLE borrow_record IN ACCESS EXCLUSIVE MODE");
+            if (!"r".equals(relkind("borrow_record"))) {
+                return;
+            }
+            jdbcTemplate.execute("ALTER TABLE borrow_record ADD CONSTRAINT " + LEGACY_KEY + " UNIQUE USING INDEX " + LEGACY_KEY);
+
+            // Unique indexes other than the key above cannot carry over: they lack borrow_date.
+            List<String> indexes = jdbcTemplate.queryForList("""
+                    SELECT pg_get_indexdef(i.indexrelid) FROM pg_index i
+                    WHERE i.indrelid = 'borrow_record'::regclass AND NOT i.indisunique
+                    """, String.class);
+            List<String> foreignKeys = jdbcTemplate.queryForList("""
+                    SELECT 'ALTER TABLE borrow_record ADD CONSTRAINT ' || quote_ident(conname) || ' ' || pg_get_constraintdef(oid)
+                    FROM pg_constraint WHERE conrelid = 'borrow_record'::regclass AND contype = 'f'
+                    """, String.class);
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM borrow_record", Long.class);
+
+            // Index names are per schema, so the partition's indexes make way for the parent's.
+            jdbcTemplate.execute("ALTER TABLE borrow_record RENAME TO " + LEGACY);
+            jdbcTemplate.queryForList("""
+                    SELECT c.relname FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid
+                    WHERE i.indrelid = 'borrow_record_p_legacy'::regclass
+                    """, String.class).forEach(index -> jdbcTemplate.execute("ALTER INDEX " + index + " RENAME TO "
+                    + (index.length() > 55 ? index.substring(0, 55) : index) + "_legacy"));
+
+            // ids move from the table's own identity to a sequence owned by the parent.
+            jdbcTemplate.execute("ALTER TABLE " + LEGACY + " ALTER COLUMN id DROP IDENTITY IF EXISTS");
+            jdbcTemplate.execute("ALTER TABLE " + LEGACY + " ALTER COLUMN id DROP DEFAULT");
+            jdbcTemplate.execute("ALTER TABLE " + LEGACY + " ALTER COLUMN borrow_date SET NOT NULL");
+            jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS borrow_record_id_seq");
+            jdbcTemplate.queryForObject("SELECT setval('borrow_record_id_seq', ?, false)", Long.class, maxId + 1);
+
+            jdbcTemplate.execute("CREATE TABLE borrow_record (LIKE " + LEGACY
+                    + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS) PARTITION BY RANGE (borrow_date)");
+            jdbcTemplate.execute("ALTER TABLE borrow_record DROP CONSTRAINT " + LEGACY_RANGE);
+            jdbcTemplate.execute("ALTER TABLE borrow_record ALTER COLUMN id SET DEFAULT nextval('borrow_record_id_seq')");
+            jdbcTemplate.execute("ALTER SEQUENCE borrow_record_id_seq OWNED BY borrow_record.id");
+            jdbcTemplate.execute("ALTER TABLE borrow_record ATTACH PARTITION " + LEGACY
+                    + " FOR VALUES FROM (MINVALUE) TO ('" + bound + "')");
+            // Each of these finds its twin on the legacy partition and attaches it instead of building one.
+            jdbcTemplate.execute("ALTER TABLE borrow_record ADD CONSTRAINT borrow_record_id_date_key UNIQUE (id, borrow_date)");
+            indexes.forEach(jdbcTemplate::execute);
+            foreignKeys.forEach(jdbcTemplate::execute);
+        });
+        if ("p".equals(relkind("borrow_record"))) {
+            logger.info("Partitioned borrow_record by month in {} ms; existing rows are in {}.",
+                    System.currentTimeMillis() - start, LEGACY);
+        }
+    }
+
+    private void createAhead() {
+        if (!isPartitioned()) {
+            return;
+        }
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        LocalDate legacyEnd = legacyUpperBound();
+        if (legacyEnd != null && legacyEnd.isAfter(month)) {
+            month = legacyEnd;
+        }
+        LocalDate last = LocalDate.now().withDayOfMonth(1).plusMonths(monthsAhead);
+        for (; !month.isAfter(last); month = month.plusMonths(1)) {
+            String name = partitionName(month);
+            if (relkind(name) != null) {
+                continue;
+            }
+            LocalDate from = month;
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute("SET LOCAL lock_timeout = " + lockTimeoutMs);
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF borrow_record FOR VALUES FROM ('"
+                        + from + "') TO ('" + from.plusMonths(1) + "')");
+            });
+            logger.info("Created partition {}.", name);
+        }
+    }
+
+    private LocalDate legacyUpperBound() {
+        List<String> bounds = jdbcTemplate.queryForList(
+                "SELECT pg_get_expr(c.relpartbound, c.oid) FROM pg_class c WHERE c.oid = to_regclass(?) AND c.relispartition",
+                String.class, LEGACY);
+        if (bounds.isEmpty()) {
+            return null;
+        }
+        Matcher matcher = UPPER_BOUND.matcher(bounds.get(0));
+        return matcher.find() ? LocalDate.parse(matcher.group(1)) : null;
+    }
+
+    private String relkind(String table) {
+        List<String> kinds = jdbcTemplate.queryForList(
+                "SELECT relkind::text FROM pg_class WHERE oid = to_regclass(?)", String.class, table);
+        return kinds.isEmpty() ? null : kinds.get(0);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.Book.Management.System.cache;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A fully serialized response body, optionally with a pre-gzipped copy, plus the headers
+ * (ETag, CORS, Vary) that the controller originally produced.
+ */
+public class CachedResponse {
+
+    private final byte[] body;
+    private final byte[] gzipped;
+    private final String contentType;
+    private final String etag;
+    private final Map<String, List<String>> headers;
+    private final Long bookId;
+
+    public CachedResponse(byte[] body, byte[] gzipped, String contentType, String etag,
+                          Map<String, List<String>> headers, Long bookId) {
+        this.body = body;
+        this.gzipped = gzipped;
+        this.contentType = contentType;
+        this.etag = etag;
+        this.headers = headers;
+        this.bookId = bookId;
+    }
+
+    public byte[] getBody() { return body; }
+
+    public byte[] getGzipped() { return gzipped; }
+
+    public String getContentType() { return contentType; }
+
+    public String getEtag() { return etag; }
+
+    public Map<String, List<String>> getHeaders() { return headers; }
+
+    /**
+     * Id of the book a detail response belongs to, or {@code null} for list pages.
+     */
+    public Long getBookId() { return bookId; }
+
+    public int weight() {
+        return body.length + (gzipped == null ? 0 : gzipped.length);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.Book.Management.System.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Byte-bounded cache of serialized catalog responses.
+ * Caffeine's default eviction policy is W-TinyLFU, so one-off scans of cold pages do not
+ * push out the popular detail pages.
+ *
+ * <p>Keys are indexed by the book they show (list pages under no book), so invalidating a book
+ * touches only its own entries and the list pages instead of scanning the whole cache. The
+ * index may briefly name keys that are gone; it never misses one that is present.
+ */
+@Component
+public class ResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCache.class);
+
+    private static final Long LIST_PAGES = 0L;
+
+    private final Cache<String, CachedResponse> cache;
+    private final Map<Long, Set<String>> keysByBook = new ConcurrentHashMap<>();
+
+    public ResponseCache(@Value("${cache.response.max-bytes:67108864}") long maxBytes, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, CachedResponse value) -> key.length() + value.weight())
+                // Runs inside the eviction, so a key put again afterwards is not unindexed.
+                .evictionListener((String key, CachedResponse value, RemovalCause cause) -> {
+                    if (key != null && value != null) {
+                        unindex(key, value);
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "response_cache");
+    }
+
+    public CachedResponse get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(String key, CachedResponse response) {
+        // Indexed first, so an invalidation racing with the put finds the key. If it ran in between
+        // it took the index entry along, and the response may be stale: drop it again.
+        Long owner = owner(response);
+        keysByBook.computeIfAbsent(owner, id -> ConcurrentHashMap.newKeySet()).add(key);
+        cache.put(key, response);
+        Set<String> keys = keysByBook.get(owner);
+        if (keys == null || !keys.contains(key)) {
+            cache.invalidate(key);
+        }
+    }
+
+    /**
+     * Drops the detail entries of the given books and every list page.
+     */
+    public void invalidateBooks(Collection<Long> bookIds) {
+        invalidateOwner(LIST_PAGES);
+        bookIds.forEach(this::invalidateOwner);
+        logger.debug("Response cache invalidated for books {}.", bookIds);
+    }
+
+    public void invalidateAll() {
+        keysByBook.clear();
+        cache.invalidateAll();
+    }
+
+    /**
+     * Invalidates once the current transaction commits, so a concurrent reader cannot re-cache
+     * the old row in the window between invalidation and commit.
+     */
+    public void invalidateBooksAfterCommit(Collection<Long> bookIds) {
+        runAfterCommit(() -> invalidateBooks(bookIds));
+    }
+
+    public void invalidateAllAfterCommit() {
+        runAfterCommit(this::invalidateAll);
+    }
+
+    private void invalidateOwner(Long owner) {
+        Set<String> keys = keysByBook.remove(owner);
+        if (keys != null) {
+            cache.invalidateAll(keys);
+        }
+    }
+
+    private void unindex(String key, CachedResponse value) {
+        keysByBook.computeIfPresent(owner(value), (id, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private static Long owner(CachedResponse response) {
+        return response.getBookId() == null ? LIST_PAGES : response.getBookId();
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.Book.Management.System.cache;
+
+import com.example.Book.Management.System.trending.TrendingCounters;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves hot catalog reads ({@code GET /api/books}, {@code /api/books/{id}}, {@code /api/books/isbn/{isbn}})
+ * straight from {@link ResponseCache}. A hit skips the database, ModelMapper and Jackson entirely.
+ * Registered as a plain servlet filter, so it runs after the Spring Security chain.
+ */
+@Component
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCacheFilter.class);
+
+    private static final String LIST_PATH = "/api/books";
+    private static final Pattern DETAIL_PATH = Pattern.compile("^/api/books/(\\d+)$");
+    private static final Pattern ISBN_PATH = Pattern.compile("^/api/books/isbn/[^/]+$");
+    private static final Set<String> SKIPPED_HEADERS = Set.of(
+            HttpHeaders.CONTENT_LENGTH.toLowerCase(), HttpHeaders.CONTENT_TYPE.toLowerCase(),
+            HttpHeaders.TRANSFER_ENCODING.toLowerCase(), HttpHeaders.DATE.toLowerCase(),
+            HttpHeaders.SET_COOKIE.toLowerCase(), HttpHeaders.CONTENT_ENCODING.toLowerCase());
+
+    private final ResponseCache responseCache;
+    private final ObjectMapper objectMapper;
+    private final TrendingCounters trendingCounters;
+
+    @Value("${cache.response.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cache.response.gzip:true}")
+    private boolean gzip;
+
+    @Value("${cache.response.gzip-min-bytes:512}")
+    private int gzipMinBytes;
+
+    // Only the first few list pages are hot; deeper pages would just churn the cache.
+    @Value("${cache.response.max-list-page:3}")
+    private int maxListPage;
+
+    public ResponseCacheFilter(ResponseCache responseCache, ObjectMapper objectMapper, TrendingCounters trendingCounters) {
+        this.responseCache = responseCache;
+        this.objectMapper = objectMapper;
+        this.trendingCounters = trendingCounters;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled || !"GET".equals(request.getMethod())) {
+            return true;
+        }
+        String path = path(request);
+        if (LIST_PATH.equals(path)) {
+            String page = request.getParameter("page");
+            try {
+                return page != null && Integer.parseInt(page) > maxListPage;
+            } catch (NumberFormatException e) {
+                return true;
+            }
+        }
+        return !DETAIL_PATH.matcher(path).matches() && !ISBN_PATH.matcher(path).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = key(request);
+        CachedResponse hit = responseCache.get(key);
+        if (hit != null) {
+            // A hit never reaches BookService.getBookById, so count the view here.
+            if (hit.getBookId() != null && DETAIL_PATH.matcher(path(request)).matches()) {
+                trendingCounters.recordView(hit.getBookId());
+            }
+            serve(hit, request, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(request, wrapper);
+            if (wrapper.getStatus() == HttpServletResponse.SC_OK) {
+                store(key, request, wrapper);
+            }
+        } finally {
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private void store(String key, HttpServletRequest request, ContentCachingResponseWrapper wrapper) {
+        byte[] body = wrapper.getContentAsByteArray();
+        if (body.length == 0) {
+            return;
+        }
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : wrapper.getHeaderNames()) {
+            if (!SKIPPED_HEADERS.contains(name.toLowerCase())) {
+                headers.put(name, new ArrayList<>(wrapper.getHeaders(name)));
+            }
+        }
+        byte[] gzipped = gzip && body.length >= gzipMinBytes ? gzip(body) : null;
+        responseCache.put(key, new CachedResponse(body, gzipped, wrapper.getContentType(),
+                wrapper.getHeader(HttpHeaders.ETAG), headers, bookId(path(request), body)));
+    }
+
+    private void serve(CachedResponse hit, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        hit.getHeaders().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        if (hit.getEtag() != null && etagMatches(request.getHeader(HttpHeaders.IF_NONE_MATCH), hit.getEtag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        byte[] bytes = hit.getBody();
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (hit.getGzipped() != null && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            bytes = hit.getGzipped();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(hit.getContentType());
+        response.setContentLength(bytes.length);
+        response.getOutputStream().write(bytes);
+    }
+
+    private Long bookId(String path, byte[] body) {
+        Matcher detail = DETAIL_PATH.matcher(path);
+        if (detail.matches()) {
+            return Long.valueOf(detail.group(1));
+        }
+        if (ISBN_PATH.matcher(path).matches()) {
+            try {
+                JsonNode id = objectMapper.readTree(body).get("id");
+                return id == null ? null : id.asLong();
+            } catch (IOException e) {
+                logger.warn("Could not read book id from cached ISBN response: {}", e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String strong = etag.startsWith("W/") ? etag.substring(2) : etag;
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+                .anyMatch(tag -> tag.equals("*") || tag.equals(strong));
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 2);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(body);
+        } catch (IOException e) {
+            return null;
+        }
+        return out.toByteArray();
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static String key(HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(path(request));
+        Map<String, String[]> params = new TreeMap<>(request.getParameterMap());
+        char separator = '?';
+        for (Map.Entry<String, String[]> param : params.entrySet()) {
+            for (String value : param.getValue()) {
+                key.append(separator).append(param.getKey()).append('=').append(value);
+                separator = '&';
+            }
+        }
+        return key.toString();
+    }
+}
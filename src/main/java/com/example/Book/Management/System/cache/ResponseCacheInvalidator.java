@@ -0,0 +1,118 @@
+package com.example.Book.Management.System.cache;
+
+import com.example.Book.Management.System.entity.CatalogEntityType;
+import com.example.Book.Management.System.entity.CatalogTombstone;
+import com.example.Book.Management.System.repository.AuthorRepository;
+import com.example.Book.Management.System.repository.BookRepository;
+import com.example.Book.Management.System.repository.CatalogTombstoneRepository;
+import com.example.Book.Management.System.repository.PublisherRepository;
+import com.example.Book.Management.System.repository.VersionStamp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Propagates writes made on other nodes into the local {@link ResponseCache}.
+ * Local writes invalidate synchronously after commit; this poll picks up everything else from the
+ * {@code updated_at} and tombstone indexes, with an overlap window that also catches late commits.
+ * Rows seen in the window are remembered with their timestamp, so a change is applied once
+ * rather than on every poll that overlaps it.
+ */
+@Component
+public class ResponseCacheInvalidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCacheInvalidator.class);
+    private static final int MAX_IDS = 1000;
+
+    private final ResponseCache responseCache;
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final PublisherRepository publisherRepository;
+    private final CatalogTombstoneRepository tombstoneRepository;
+
+    @Value("${cache.response.invalidation-overlap-seconds:10}")
+    private long overlapSeconds;
+
+    private LocalDateTime lastPoll = LocalDateTime.now();
+
+    // "<kind>:<id>" of rows already applied, with the timestamp they were applied at
+    private final Map<String, LocalDateTime> applied = new HashMap<>();
+
+    public ResponseCacheInvalidator(ResponseCache responseCache, BookRepository bookRepository,
+                                    AuthorRepository authorRepository, PublisherRepository publisherRepository,
+                                    CatalogTombstoneRepository tombstoneRepository) {
+        this.responseCache = responseCache;
+        this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+        this.publisherRepository = publisherRepository;
+        this.tombstoneRepository = tombstoneRepository;
+    }
+
+    @Scheduled(fixedDelayString = "${cache.response.invalidation-interval-ms:1000}")
+    public void poll() {
+        LocalDateTime start = LocalDateTime.now();
+        LocalDateTime since = lastPoll.minusSeconds(overlapSeconds);
+        try {
+            PageRequest limit = PageRequest.of(0, MAX_IDS + 1);
+            Map<String, LocalDateTime> fresh = new HashMap<>();
+            // Book representations embed author/publisher names.
+            boolean names = collect("A", authorRepository.findStampsUpdatedAfter(since, limit), fresh) > 0;
+            names |= collect("P", publisherRepository.findStampsUpdatedAfter(since, limit), fresh) > 0;
+
+            Set<Long> changed = new HashSet<>();
+            for (VersionStamp stamp : bookRepository.findStampsUpdatedAfter(since, limit)) {
+                if (isNew("B:" + stamp.getId(), stamp.getUpdatedAt(), fresh)) {
+                    changed.add(stamp.getId());
+                }
+            }
+            for (CatalogTombstone tombstone : tombstoneRepository.findDeletedAfter(CatalogEntityType.BOOK, since, 0L, limit)) {
+                if (isNew("T:" + tombstone.getId(), tombstone.getDeletedAt(), fresh)) {
+                    changed.add(tombstone.getEntityId());
+                }
+            }
+
+            if (names || changed.size() > MAX_IDS) {
+                responseCache.invalidateAll();
+            } else if (!changed.isEmpty()) {
+                responseCache.invalidateBooks(changed);
+            }
+            applied.putAll(fresh);
+            // What the next window cannot return again need not be remembered.
+            LocalDateTime nextSince = start.minusSeconds(overlapSeconds);
+            applied.values().removeIf(at -> at == null || !at.isAfter(nextSince));
+            lastPoll = start;
+        } catch (RuntimeException e) {
+            // Keep lastPoll so the next run covers this window as well.
+            logger.warn("Response cache invalidation poll failed: {}", e.getMessage());
+        }
+    }
+
+    private int collect(String kind, List<VersionStamp> stamps, Map<String, LocalDateTime> fresh) {
+        int count = 0;
+        for (VersionStamp stamp : stamps) {
+            if (isNew(kind + ":" + stamp.getId(), stamp.getUpdatedAt(), fresh)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private boolean isNew(String key, LocalDateTime at, Map<String, LocalDateTime> fresh) {
+        LocalDateTime seen = applied.get(key);
+        if (seen != null && at != null && !at.isAfter(seen)) {
+            return false;
+        }
+        fresh.put(key, at);
+        return true;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.Book.Management.System.cache;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller runs the loader, everyone arriving
+ * while it is in flight waits for and shares its result. Nothing is kept once the load completes.
+ * The number of callers each load served is published as {@code singleflight.callers}.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+    private final DistributionSummary callersPerLoad;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.callersPerLoad = DistributionSummary.builder("singleflight.callers")
+                .description("Callers served by a single coalesced load")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        Flight<V> mine = new Flight<>();
+        Flight<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            existing.callers.incrementAndGet();
+            return await(existing);
+        }
+
+        try {
+            mine.result.complete(loader.get());
+        } catch (RuntimeException | Error e) {
+            mine.result.completeExceptionally(e);
+        } finally {
+            inFlight.remove(key, mine);
+            callersPerLoad.record(mine.callers.get());
+        }
+        return await(mine);
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    private static <V> V await(Flight<V> flight) {
+        try {
+            return flight.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Flight<V> {
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        private final AtomicInteger callers = new AtomicInteger(1);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.Book.Management.System.catalog;
+
+import com.example.Book.Management.System.entity.BookStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * JPQL projection used to (re)build the catalog without loading full {@code Book} entities.
+ */
+public class CatalogBookRow {
+
+    private final Long id;
+    private final String isbn;
+    private final BookStatus status;
+    private final Long authorId;
+    private final Long publisherId;
+    private final LocalDateTime updatedAt;
+
+    public CatalogBookRow(Long id, String isbn, BookStatus status, Long authorId, Long publisherId,
+                          LocalDateTime updatedAt) {
+        this.id = id;
+        this.isbn = isbn;
+        this.status = status;
+        this.authorId = authorId;
+        this.publisherId = publisherId;
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getId() { return id; }
+
+    public String getIsbn() { return isbn; }
+
+    public BookStatus getStatus() { return status; }
+
+    public Long getAuthorId() { return authorId; }
+
+    public Long getPublisherId() { return publisherId; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
@@ -0,0 +1,34 @@
+package com.example.Book.Management.System.catalog;
+
+import com.example.Book.Management.System.entity.BookStatus;
+
+/**
+ * Compact, immutable view of a single book as held by the in-memory catalog.
+ * Only the keys needed for lookups are kept here; full rows still come from the database.
+ */
+public class CatalogEntry {
+
+    private final long id;
+    private final String isbn;
+    private final BookStatus status;
+    private final long authorId;
+    private final long publisherId;
+
+    public CatalogEntry(long id, String isbn, BookStatus status, long authorId, long publisherId) {
+        this.id = id;
+        this.isbn = isbn;
+        this.status = status;
+        this.authorId = authorId;
+        this.publisherId = publisherId;
+    }
+
+    public long getId() { return id; }
+
+    public String getIsbn() { return isbn; }
+
+    public BookStatus getStatus() { return status; }
+
+    public long getAuthorId() { return authorId; }
+
+    public long getPublisherId() { return publisherId; }
+}
@@ -0,0 +1,99 @@
+package com.example.Book.Management.System.catalog;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory catalog of book keys and author/publisher names.
+ * Populated from the snapshot file on startup and kept current by replaying rows
+ * whose {@code updatedAt} is newer than {@link #getWatermark()}.
+ */
+@Component
+public class CatalogIndex {
+
+    private final Map<Long, CatalogEntry> books = new ConcurrentHashMap<>();
+    private final Map<String, Long> booksByIsbn = new ConcurrentHashMap<>();
+    private final Map<Long, String> authorNames = new ConcurrentHashMap<>();
+    private final Map<Long, String> publisherNames = new ConcurrentHashMap<>();
+
+    private volatile LocalDateTime watermark;
+
+    public void putBook(CatalogEntry entry) {
+        CatalogEntry previous = books.put(entry.getId(), entry);
+        if (previous != null && previous.getIsbn() != null && !previous.getIsbn().equals(entry.getIsbn())) {
+            booksByIsbn.remove(previous.getIsbn(), previous.getId());
+        }
+        if (entry.getIsbn() != null) {
+            booksByIsbn.put(entry.getIsbn(), entry.getId());
+        }
+    }
+
+    public void removeBook(long id) {
+        CatalogEntry previous = books.remove(id);
+        if (previous != null && previous.getIsbn() != null) {
+            booksByIsbn.remove(previous.getIsbn(), id);
+        }
+    }
+
+    public void putAuthorName(long id, String name) {
+        authorNames.put(id, name);
+    }
+
+    public void putPublisherName(long id, String name) {
+        publisherNames.put(id, name);
+    }
+
+    public Optional<CatalogEntry> getBook(long id) {
+        return Optional.ofNullable(books.get(id));
+    }
+
+    public Optional<CatalogEntry> getBookByIsbn(String isbn) {
+        Long id = booksByIsbn.get(isbn);
+        return id == null ? Optional.empty() : getBook(id);
+    }
+
+    public String getAuthorName(long id) {
+        return authorNames.get(id);
+    }
+
+    public String getPublisherName(long id) {
+        return publisherNames.get(id);
+    }
+
+    public Collection<CatalogEntry> books() {
+        return books.values();
+    }
+
+    public Map<Long, String> authorNames() {
+        return authorNames;
+    }
+
+    public Map<Long, String> publisherNames() {
+        return publisherNames;
+    }
+
+    public int size() {
+        return books.size();
+    }
+
+    public LocalDateTime getWatermark() {
+        return watermark;
+    }
+
+    public void setWatermark(LocalDateTime watermark) {
+        this.watermark = watermark;
+    }
+
+    public void clear() {
+        books.clear();
+        booksByIsbn.clear();
+        authorNames.clear();
+        publisherNames.clear();
+        watermark = null;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.Book.Management.System.catalog;
+
+import java.time.LocalDateTime;
+
+/**
+ * JPQL projection of an author or publisher id/name pair.
+ */
+public class CatalogNameRow {
+
+    private final Long id;
+    private final String name;
+    private final LocalDateTime updatedAt;
+
+    public CatalogNameRow(Long id, String name, LocalDateTime updatedAt) {
+        this.id = id;
+        this.name = name;
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getId() { return id; }
+
+    public String getName() { return name; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
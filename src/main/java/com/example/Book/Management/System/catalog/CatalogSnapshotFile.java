@@ -0,0 +1,168 @@
+package com.example.Book.Management.System.catalog;
+
+import com.example.Book.Management.System.entity.BookStatus;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary on-disk format of the catalog snapshot.
+ *
+ * <pre>
+ * int    magic ("LBCS")
+ * int    format version
+ * long   watermark epoch seconds, int watermark nanos
+ * int    string count, then per string: int length, UTF-8 bytes
+ * int    author count, then per author: long id, int name ref
+ * int    publisher count, then per publisher: long id, int name ref
+ * int    book count, then per book: long id, int isbn ref, int status ref, long author id, long publisher id
+ * </pre>
+ *
+ * Names, ISBNs and status values are interned into the string table and referenced by index
+ * ({@code -1} for null), so repeated author/publisher names cost four bytes per row.
+ */
+final class CatalogSnapshotFile {
+
+    private static final int MAGIC = 0x4C424353;
+    private static final int VERSION = 1;
+
+    private CatalogSnapshotFile() {}
+
+    static void write(CatalogIndex index, LocalDateTime watermark, Path target) throws IOException {
+        Map<String, Integer> refs = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        List<CatalogEntry> books = new ArrayList<>(index.books());
+        Map<Long, String> authors = new HashMap<>(index.authorNames());
+        Map<Long, String> publishers = new HashMap<>(index.publisherNames());
+        authors.values().forEach(name -> intern(name, refs, strings));
+        publishers.values().forEach(name -> intern(name, refs, strings));
+        for (CatalogEntry book : books) {
+            intern(book.getIsbn(), refs, strings);
+            intern(book.getStatus() == null ? null : book.getStatus().name(), refs, strings);
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(watermark.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(watermark.getNano());
+
+            out.writeInt(strings.size());
+            for (String s : strings) {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+
+            writeNames(out, authors, refs);
+            writeNames(out, publishers, refs);
+
+            out.writeInt(books.size());
+            for (CatalogEntry book : books) {
+                out.writeLong(book.getId());
+                out.writeInt(ref(book.getIsbn(), refs));
+                out.writeInt(ref(book.getStatus() == null ? null : book.getStatus().name(), refs));
+                out.writeLong(book.getAuthorId());
+                out.writeLong(book.getPublisherId());
+            }
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps the snapshot into memory and loads it into {@code index}.
+     *
+     * @return the watermark stored in the snapshot
+     */
+    static LocalDateTime read(Path source, CatalogIndex index) throws IOException {
+        MappedByteBuffer buf;
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buf.getInt() != MAGIC) {
+            throw new IOException("Not a catalog snapshot: " + source);
+        }
+        int version = buf.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported catalog snapshot version " + version);
+        }
+        LocalDateTime watermark = LocalDateTime.ofEpochSecond(buf.getLong(), buf.getInt(), ZoneOffset.UTC);
+
+        String[] strings = new String[buf.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] bytes = new byte[buf.getInt()];
+            buf.get(bytes);
+            strings[i] = bytes.length == 0 ? "" : new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        int authorCount = buf.getInt();
+        for (int i = 0; i < authorCount; i++) {
+            long id = buf.getLong();
+            index.putAuthorName(id, lookup(strings, buf.getInt()));
+        }
+        int publisherCount = buf.getInt();
+        for (int i = 0; i < publisherCount; i++) {
+            long id = buf.getLong();
+            index.putPublisherName(id, lookup(strings, buf.getInt()));
+        }
+
+        int bookCount = buf.getInt();
+        for (int i = 0; i < bookCount; i++) {
+            long id = buf.getLong();
+            String isbn = lookup(strings, buf.getInt());
+            String status = lookup(strings, buf.getInt());
+            long authorId = buf.getLong();
+            long publisherId = buf.getLong();
+            index.putBook(new CatalogEntry(id, isbn, status == null ? null : BookStatus.valueOf(status),
+                    authorId, publisherId));
+        }
+        return watermark;
+    }
+
+    private static void writeNames(DataOutputStream out, Map<Long, String> names, Map<String, Integer> refs)
+            throws IOException {
+        out.writeInt(names.size());
+        for (Map.Entry<Long, String> e : names.entrySet()) {
+            out.writeLong(e.getKey());
+            out.writeInt(ref(e.getValue(), refs));
+        }
+    }
+
+    private static void intern(String s, Map<String, Integer> refs, List<String> strings) {
+        if (s != null && !refs.containsKey(s)) {
+            refs.put(s, strings.size());
+            strings.add(s);
+        }
+    }
+
+    private static int ref(String s, Map<String, Integer> refs) {
+        return s == null ? -1 : refs.get(s);
+    }
+
+    private static String lookup(String[] strings, int ref) {
+        return ref < 0 ? null : strings[ref];
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.Book.Management.System.catalog;
+
+import com.example.Book.Management.System.repository.AuthorRepository;
+import com.example.Book.Management.System.entity.CatalogEntityType;
+import com.example.Book.Management.System.entity.CatalogTombstone;
+import com.example.Book.Management.System.repository.BookRepository;
+import com.example.Book.Management.System.repository.CatalogTombstoneRepository;
+import com.example.Book.Management.System.repository.PublisherRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Keeps {@link CatalogIndex} warm across restarts.
+ * On startup the snapshot file is memory-mapped and only rows changed after its watermark are
+ * replayed from the database; a full keyset scan is only needed when no usable snapshot exists.
+ */
+@Service
+public class CatalogSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+    private final CatalogIndex catalogIndex;
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final PublisherRepository publisherRepository;
+    private final CatalogTombstoneRepository tombstoneRepository;
+
+    @Value("${catalog.snapshot.path:data/catalog.snapshot}")
+    private String snapshotPath;
+
+    @Value("${catalog.snapshot.page-size:5000}")
+    private int pageSize;
+
+    // Rows are stamped at flush time but become visible at commit, so replay overlaps a little.
+    @Value("${catalog.snapshot.replay-margin-seconds:60}")
+    private long replayMarginSeconds;
+
+    private volatile boolean loaded;
+
+    public CatalogSnapshotService(CatalogIndex catalogIndex, BookRepository bookRepository,
+                                  AuthorRepository authorRepository, PublisherRepository publisherRepository,
+                                  CatalogTombstoneRepository tombstoneRepository) {
+        this.catalogIndex = catalogIndex;
+        this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+        this.publisherRepository = publisherRepository;
+        this.tombstoneRepository = tombstoneRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void loadOnStartup() {
+        if (loaded) {
+            return;
+        }
+        Path path = Paths.get(snapshotPath);
+        long start = System.currentTimeMillis();
+
+        if (Files.isReadable(path)) {
+            try {
+                LocalDateTime watermark = CatalogSnapshotFile.read(path, catalogIndex);
+                catalogIndex.setWatermark(watermark);
+                logger.info("Catalog snapshot mapped: {} books, watermark {}.", catalogIndex.size(), watermark);
+                replayChanges();
+                loaded = true;
+                logger.info("Catalog warm start finished in {} ms.", System.currentTimeMillis() - start);
+                return;
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Catalog snapshot {} unusable, falling back to full load. Error: {}", path, e.getMessage());
+                catalogIndex.clear();
+            }
+        }
+
+        try {
+            fullLoad();
+            loaded = true;
+            logger.info("Catalog cold start loaded {} books in {} ms.", catalogIndex.size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            // Do not block startup; the next refresh retries the load.
+            logger.error("Catalog full load failed. Error: {}", e.getMessage(), e);
+            catalogIndex.clear();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.snapshot.refresh-interval-ms:30000}",
+            initialDelayString = "${catalog.snapshot.refresh-interval-ms:30000}")
+    public synchronized void refresh() {
+        if (!loaded) {
+            loadOnStartup();
+            return;
+        }
+        try {
+            replayChanges();
+        } catch (RuntimeException e) {
+            logger.error("Catalog refresh failed. Error: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.snapshot.write-interval-ms:600000}",
+            initialDelayString = "${catalog.snapshot.write-interval-ms:600000}")
+    public synchronized void writeSnapshot() {
+        if (!loaded || catalogIndex.getWatermark() == null) {
+            return;
+        }
+        Path path = Paths.get(snapshotPath);
+        try {
+            long start = System.currentTimeMillis();
+            CatalogSnapshotFile.write(catalogIndex, catalogIndex.getWatermark(), path);
+            logger.info("Catalog snapshot written to {} ({} books) in {} ms.",
+                    path, catalogIndex.size(), System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            logger.error("Failed to write catalog snapshot to {}. Error: {}", path, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reloads the whole index from the database and writes a fresh snapshot. Used by the
+     * {@code catalog-reindex} job when the index is suspected to have drifted.
+     *
+     * @return the number of books indexed
+     */
+    public synchronized int rebuild() {
+        long start = System.currentTimeMillis();
+        catalogIndex.clear();
+        fullLoad();
+        loaded = true;
+        logger.info("Catalog index rebuilt with {} books in {} ms.", catalogIndex.size(), System.currentTimeMillis() - start);
+        writeSnapshot();
+        return catalogIndex.size();
+    }
+
+    @PreDestroy
+    public void writeOnShutdown() {
+        writeSnapshot();
+    }
+
+    private void fullLoad() {
+        LocalDateTime watermark = nextWatermark();
+        scan((afterId, page) -> authorRepository.findCatalogNamesAfterId(afterId, page),
+                row -> catalogIndex.putAuthorName(row.getId(), row.getName()), CatalogNameRow::getId);
+        scan((afterId, page) -> publisherRepository.findCatalogNamesAfterId(afterId, page),
+                row -> catalogIndex.putPublisherName(row.getId(), row.getName()), CatalogNameRow::getId);
+        scan((afterId, page) -> bookRepository.findCatalogRowsAfterId(afterId, page),
+                this::applyBook, CatalogBookRow::getId);
+        catalogIndex.setWatermark(watermark);
+    }
+
+    private void replayChanges() {
+        LocalDateTime since = catalogIndex.getWatermark();
+        LocalDateTime watermark = nextWatermark();
+
+        int authors = scan((afterId, page) -> authorRepository.findCatalogNamesUpdatedAfter(since, afterId, page),
+                row -> catalogIndex.putAuthorName(row.getId(), row.getName()), CatalogNameRow::getId);
+        int publishers = scan((afterId, page) -> publisherRepository.findCatalogNamesUpdatedAfter(since, afterId, page),
+                row -> catalogIndex.putPublisherName(row.getId(), row.getName()), CatalogNameRow::getId);
+        int books = scan((afterId, page) -> bookRepository.findCatalogRowsUpdatedAfter(since, afterId, page),
+                this::applyBook, CatalogBookRow::getId);
+        int deleted = scan((afterId, page) -> tombstoneRepository.findDeletedAfter(CatalogEntityType.BOOK, since, afterId, page),
+                tombstone -> catalogIndex.removeBook(tombstone.getEntityId()), CatalogTombstone::getId);
+
+        if (watermark.isAfter(since)) {
+            catalogIndex.setWatermark(watermark);
+        }
+        logger.debug("Catalog replay since {}: {} books, {} deletes, {} authors, {} publishers.",
+                since, books, deleted, authors, publishers);
+    }
+
+    private void applyBook(CatalogBookRow row) {
+        catalogIndex.putBook(new CatalogEntry(row.getId(), row.getIsbn(), row.getStatus(),
+                row.getAuthorId() == null ? 0L : row.getAuthorId(),
+                row.getPublisherId() == null ? 0L : row.getPublisherId()));
+    }
+
+    private LocalDateTime nextWatermark() {
+        return LocalDateTime.now().minusSeconds(replayMarginSeconds);
+    }
+
+    private <T> int scan(BiFunction<Long, Pageable, List<T>> query, Consumer<T> sink,
+                         Function<T, Long> idOf) {
+        Pageable page = PageRequest.of(0, pageSize);
+        long afterId = 0L;
+        int total = 0;
+        List<T> rows;
+        do {
+            rows = query.apply(afterId, page);
+            for (T row : rows) {
+                sink.accept(row);
+                afterId = idOf.apply(row);
+            }
+            total += rows.size();
+        } while (rows.size() == pageSize);
+        return total;
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.Book.Management.System.cluster;
+
+import com.example.Book.Management.System.config.NodeIdentity;
+import com.example.Book.Management.System.entity.ClusterLease;
+import com.example.Book.Management.System.repository.ClusterLeaseRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Database-backed leases for work that must run on one instance at a time.
+ *
+ * <p>Acquisition is a conditional UPDATE that only succeeds on an expired lease and bumps the
+ * fencing token. Held leases are renewed at a third of their TTL on a dedicated thread, so a
+ * long-running holder keeps its lease even when the Spring scheduler is busy. A holder that
+ * misses its renewals loses the lease, and {@link #fence()} makes its next write fail.
+ * Expiry uses application clocks, so instances are assumed to be NTP-synced; the skew between
+ * them should be small next to the TTL.
+ */
+@Service
+public class ClusterLeaseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterLeaseService.class);
+
+    private final ClusterLeaseRepository leaseRepository;
+    private final String owner;
+    private final ThreadLocal<Lease> current = new ThreadLocal<>();
+    private final ScheduledExecutorService renewer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "cluster-lease-renewer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ClusterLeaseService(ClusterLeaseRepository leaseRepository, NodeIdentity nodeIdentity) {
+        this.leaseRepository = leaseRepository;
+        this.owner = nodeIdentity.getId();
+    }
+
+    /**
+     * @return the lease if this instance got it, empty if another instance holds it
+     */
+    public Optional<Lease> tryAcquire(String name, Duration ttl) {
+        ensureRow(name);
+        LocalDateTime now = LocalDateTime.now();
+        if (leaseRepository.acquire(name, owner, now, now.plus(ttl)) == 0) {
+            return Optional.empty();
+        }
+        long token = leaseRepository.findToken(name, owner)
+                .orElseThrow(() -> new LeaseLostException(name, -1));
+        Lease lease = new Lease(name, token, ttl, now);
+        long period = Math.max(1000L, ttl.toMillis() / 3);
+        lease.renewal = renewer.scheduleWithFixedDelay(() -> renew(lease), period, period, TimeUnit.MILLISECONDS);
+        logger.debug("Acquired cluster lease {} with token {}.", name, token);
+        return Optional.of(lease);
+    }
+
+    /**
+     * Stops renewing and lets the lease run out at {@code holdUntil}, or at once if that has passed.
+     */
+    public void release(Lease lease, LocalDateTime holdUntil) {
+        lease.renewal.cancel(false);
+        if (lease.lost) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            leaseRepository.release(lease.name, owner, lease.token, holdUntil.isAfter(now) ? holdUntil : now);
+        } catch (RuntimeException e) {
+            // Not fatal: the lease simply expires at its TTL.
+            logger.warn("Could not release cluster lease {}. Error: {}", lease.name, e.getMessage());
+        }
+    }
+
+    /**
+     * Checks, inside the caller's transaction, that the lease bound to this thread is still held.
+     * The lease row stays share-locked until the transaction ends, so no other instance can take
+     * the lease over between this check and the commit. Does nothing when no lease is bound.
+     *
+     * @throws LeaseLostException if the lease has expired or moved to another instance
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void fence() {
+        Lease lease = current.get();
+        if (lease == null) {
+            return;
+        }
+        if (lease.lost) {
+            throw new LeaseLostException(lease.name, lease.token);
+        }
+        ClusterLease row = leaseRepository.findForShare(lease.name).orElse(null);
+        if (row == null || row.getToken() != lease.token || !owner.equals(row.getOwner())
+                || row.getExpiresAt() == null || row.getExpiresAt().isBefore(LocalDateTime.now())) {
+            lease.lost = true;
+            throw new LeaseLostException(lease.name, lease.token);
+        }
+    }
+
+    Lease current() {
+        return current.get();
+    }
+
+    void bind(Lease lease) {
+        if (lease == null) {
+            current.remove();
+        } else {
+            current.set(lease);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renewer.shutdownNow();
+    }
+
+    private void renew(Lease lease) {
+        if (lease.lost) {
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            if (leaseRepository.renew(lease.name, owner, lease.token, now, now.plus(lease.ttl)) == 0) {
+                lease.lost = true;
+                lease.renewal.cancel(false);
+                logger.warn("Cluster lease {} (token {}) was lost before the holder finished.", lease.name, lease.token);
+            }
+        } catch (RuntimeException e) {
+            // Keep trying until the TTL runs out; fence() catches an expired lease.
+            logger.warn("Renewal of cluster lease {} failed. Error: {}", lease.name, e.getMessage());
+        }
+    }
+
+    private void ensureRow(String name) {
+        if (leaseRepository.existsById(name)) {
+            return;
+        }
+        try {
+            leaseRepository.save(new ClusterLease(name));
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Cluster lease {} created concurrently by another instance.", name);
+        }
+    }
+
+    /**
+     * A lease held by this instance.
+     */
+    public static final class Lease {
+        private final String name;
+        private final long token;
+        private final Duration ttl;
+        private final LocalDateTime acquiredAt;
+        private volatile boolean lost;
+        private volatile ScheduledFuture<?> renewal;
+
+        private Lease(String name, long token, Duration ttl, LocalDateTime acquiredAt) {
+            this.name = name;
+            this.token = token;
+            this.ttl = ttl;
+            this.acquiredAt = acquiredAt;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public long token() {
+            return token;
+        }
+
+        public LocalDateTime acquiredAt() {
+            return acquiredAt;
+        }
+
+        public boolean isLost() {
+            return lost;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.Book.Management.System.cluster;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs the annotated method on at most one instance at a time. The first instance to take the
+ * lease runs it; the others skip that invocation and return immediately. Meant for
+ * {@code @Scheduled} methods, which should be {@code void}.
+ *
+ * <p>The lease is renewed in the background while the method runs. If the holder dies, the lease
+ * runs out after {@link #leaseSeconds()} and the next scheduled run on any instance takes over.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ClusterSingleton {
+
+    /**
+     * Lease name; defaults to {@code SimpleClassName.methodName}.
+     */
+    String value() default "";
+
+    /**
+     * How long the lease lasts without renewal. Negative means {@code cluster.lease.ttl-seconds}.
+     */
+    long leaseSeconds() default -1;
+
+    /**
+     * Minimum time the lease is held after the run starts, even if the run is shorter. This stops
+     * an instance whose clock or scheduler is a little behind from running the same cron tick
+     * again. Negative means {@code cluster.lease.min-hold-seconds}.
+     */
+    long minHoldSeconds() default -1;
+}
@@ -0,0 +1,79 @@
+package com.example.Book.Management.System.cluster;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Applies {@link ClusterSingleton}. Ordered just after Spring's {@code ExposeInvocationInterceptor}
+ * ({@code HIGHEST_PRECEDENCE + 1}), which has to run first for the annotation to be bound, and
+ * ahead of the transaction advisor, so the lease is taken outside any {@code @Transactional}
+ * boundary on the same method.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class ClusterSingletonAspect {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterSingletonAspect.class);
+
+    private final ClusterLeaseService leaseService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${cluster.lease.ttl-seconds:30}")
+    private long defaultTtlSeconds;
+
+    @Value("${cluster.lease.min-hold-seconds:10}")
+    private long defaultMinHoldSeconds;
+
+    public ClusterSingletonAspect(ClusterLeaseService leaseService, MeterRegistry meterRegistry) {
+        this.leaseService = leaseService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("@annotation(singleton)")
+    public Object runOnOneInstance(ProceedingJoinPoint joinPoint, ClusterSingleton singleton) throws Throwable {
+        String name = singleton.value().isEmpty()
+                ? joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName()
+                : singleton.value();
+        ClusterLeaseService.Lease outer = leaseService.current();
+        if (outer != null && outer.name().equals(name)) {
+            return joinPoint.proceed();
+        }
+
+        long ttlSeconds = singleton.leaseSeconds() >= 0 ? singleton.leaseSeconds() : defaultTtlSeconds;
+        long minHoldSeconds = singleton.minHoldSeconds() >= 0 ? singleton.minHoldSeconds() : defaultMinHoldSeconds;
+        Optional<ClusterLeaseService.Lease> lease;
+        try {
+            lease = leaseService.tryAcquire(name, Duration.ofSeconds(ttlSeconds));
+        } catch (RuntimeException e) {
+            logger.warn("Skipping {}: could not reach the lease table. Error: {}", name, e.getMessage());
+            meterRegistry.counter("cluster.singleton.runs", "name", name, "outcome", "error").increment();
+            return null;
+        }
+        if (lease.isEmpty()) {
+            logger.debug("Skipping {}: another instance holds the lease.", name);
+            meterRegistry.counter("cluster.singleton.runs", "name", name, "outcome", "skipped").increment();
+            return null;
+        }
+
+        meterRegistry.counter("cluster.singleton.runs", "name", name, "outcome", "ran").increment();
+        leaseService.bind(lease.get());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            leaseService.bind(outer);
+            leaseService.release(lease.get(), lease.get().acquiredAt().plusSeconds(minHoldSeconds));
+        }
+    }
+}
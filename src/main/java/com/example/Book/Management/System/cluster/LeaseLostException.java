@@ -0,0 +1,14 @@
+package com.example.Book.Management.System.cluster;
+
+/**
+ * The current thread's cluster lease expired or was taken over by another instance, so the work
+ * it guards must stop without committing.
+ */
+public class LeaseLostException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public LeaseLostException(String name, long token) {
+        super("Cluster lease '" + name + "' (token " + token + ") is no longer held by this instance");
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.Book.Management.System.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Partial indexes over open loans for the "active only" history pages. JPA cannot declare a
+ * partial index, so they are created here after startup. {@code CONCURRENTLY} keeps
+ * {@code borrow_record} writable during the build; an index left invalid by an interrupted build
+ * is dropped and built again by the next run. Run by the {@code borrow-record-partitioning} job
+ * that {@code BorrowRecordPartitions} queues at startup, before it partitions the table. Once partitioned, the table only takes plain
+ * {@code CREATE INDEX}, which blocks writes while it builds; the indexes are normally carried
+ * over by the conversion, so that only happens when one was lost.
+ */
+@Component
+public class BorrowHistoryIndexes {
+
+    private static final Logger logger = LoggerFactory.getLogger(BorrowHistoryIndexes.class);
+
+    // The predicate must match BorrowHistoryService's activeOnly filter.
+    private static final Map<String, String> INDEXES = Map.of(
+            "idx_borrow_record_user_active",
+            "ON borrow_record (user_id, borrow_date, id) WHERE status <> 'RETURNED'",
+            "idx_borrow_record_book_active",
+            "ON borrow_record (book_id, borrow_date, id) WHERE status <> 'RETURNED'");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BorrowHistoryIndexes(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean allValid() {
+        Integer valid = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid WHERE c.relname IN ('"
+                        + String.join("', '", INDEXES.keySet()) + "') AND i.indisvalid", Integer.class);
+        return valid != null && valid == INDEXES.size();
+    }
+
+    // Not transactional: CREATE INDEX CONCURRENTLY cannot run inside a transaction block.
+    public void createIndexes() {
+        List<String> kind = jdbcTemplate.queryForList(
+                "SELECT relkind::text FROM pg_class WHERE oid = to_regclass('borrow_record')", String.class);
+        String concurrently = kind.equals(List.of("p")) ? "" : "CONCURRENTLY ";
+        INDEXES.forEach((name, definition) -> {
+            try {
+                List<Boolean> valid = jdbcTemplate.queryForList(
+                        "SELECT i.indisvalid FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid WHERE c.relname = ?",
+                        Boolean.class, name);
+                if (!valid.isEmpty() && valid.get(0)) {
+                    return;
+                }
+                if (!valid.isEmpty()) {
+                    logger.warn("Index {} is invalid, rebuilding.", name);
+                    jdbcTemplate.execute("DROP INDEX " + concurrently + "IF EXISTS " + name);
+                }
+                long start = System.currentTimeMillis();
+                jdbcTemplate.execute("CREATE INDEX " + concurrently + "IF NOT EXISTS " + name + " " + definition);
+                logger.info("Created index {} in {} ms.", name, System.currentTimeMillis() - start);
+            } catch (DataAccessException e) {
+                // Active-only history still works without it, just by filtering the full index.
+                logger.error("Could not create index {}. Error: {}", name, e.getMessage(), e);
+            }
+        });
+    }
+}
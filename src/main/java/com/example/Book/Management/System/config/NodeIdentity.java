@@ -0,0 +1,32 @@
+package com.example.Book.Management.System.config;
+
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.util.UUID;
+
+/**
+ * Identifies this application instance in shared tables (job owners, batch checkpoints).
+ * The random suffix keeps two processes on one host, or a restarted process, distinct.
+ */
+@Component
+public class NodeIdentity {
+
+    private final String id;
+
+    public NodeIdentity() {
+        this.id = hostName() + ":" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.Book.Management.System.controller;
+
+import com.example.Book.Management.System.exporter.CatalogExportService;
+import com.example.Book.Management.System.exporter.ExportDataset;
+import com.example.Book.Management.System.exporter.ExportFormat;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api/admin/export")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminExportController {
+
+    @Autowired
+    private CatalogExportService catalogExportService;
+
+    @GetMapping("/{dataset}")
+    @Operation(summary = "Export a dataset",
+            description = "Streams books, authors, publishers, users or borrow-records as CSV or NDJSON "
+                    + "from one consistent snapshot. User password hashes are not exported. Borrow records "
+                    + "include archived loans unless archived=false.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Export streamed"),
+            @ApiResponse(responseCode = "400", description = "Unknown dataset or format")
+    })
+    public ResponseEntity<StreamingResponseBody> export(
+            @Parameter(description = "books, authors, publishers, users or borrow-records") @PathVariable String dataset,
+            @Parameter(description = "CSV or NDJSON") @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @Parameter(description = "Gzip the file") @RequestParam(defaultValue = "false") boolean gzip,
+            @Parameter(description = "Include archived borrow records") @RequestParam(defaultValue = "true") boolean archived) {
+        ExportDataset source = ExportDataset.fromPath(dataset);
+        String fileName = source.getPath() + "." + format.getExtension() + (gzip ? ".gz" : "");
+
+        StreamingResponseBody body = out -> catalogExportService.export(source, format, gzip, archived, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : format.getContentType()))
+                .body(body);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.Book.Management.System.controller;
+
+import com.example.Book.Management.System.dto.JobDto;
+import com.example.Book.Management.System.entity.AdminJob;
+import com.example.Book.Management.System.job.JobService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/admin/jobs")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminJobController {
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PostMapping("/{type}")
+    @Operation(summary = "Submit a background job",
+            description = "Queues a long-running admin operation and returns immediately. Types: catalog-import "
+                    + "(file, format), catalog-reindex, book-status-change (from, to, authorId | publisherId), "
+                    + "circulation-rollup-backfill (from, through), catalog-count-reconcile, borrow-archive (before), "
+                    + "borrow-record-partitioning.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Job queued; poll the Location URL for progress"),
+            @ApiResponse(responseCode = "400", description = "Unknown job type or invalid parameters")
+    })
+    public ResponseEntity<JobDto> submit(@PathVariable String type, @RequestBody(required = false) JsonNode params,
+                                         Authentication authentication) {
+        AdminJob job = jobService.submit(type, params, authentication == null ? null : authentication.getName());
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/api/admin/jobs/{id}").buildAndExpand(job.getId()).toUri())
+                .body(convertToDto(job));
+    }
+
+    @GetMapping
+    @Operation(summary = "List recent jobs", description = "Newest first")
+    public ResponseEntity<List<JobDto>> listJobs(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(jobService.recentJobs(limit).stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList()));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get job status and progress")
+    public ResponseEntity<JobDto> getJob(@PathVariable Long id) {
+        return jobService.getJob(id)
+                .map(job -> ResponseEntity.ok(convertToDto(job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/{id}/cancel")
+    @Operation(summary = "Cancel a job",
+            description = "Queued jobs are cancelled at once; running jobs stop after their current chunk")
+    public ResponseEntity<JobDto> cancelJob(@PathVariable Long id) {
+        return jobService.cancel(id)
+                .map(job -> ResponseEntity.ok(convertToDto(job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private JobDto convertToDto(AdminJob job) {
+        JobDto dto = new JobDto();
+        dto.setId(job.getId());
+        dto.setType(job.getType());
+        dto.setStatus(job.getStatus());
+        dto.setParams(readJson(job.getParams()));
+        dto.setProcessed(job.getProcessed());
+        dto.setTotal(job.getTotal());
+        dto.setResult(readJson(job.getResult()));
+        dto.setMessage(job.getMessage());
+        dto.setSubmittedBy(job.getSubmittedBy());
+        dto.setCancelRequested(job.isCancelRequested());
+        dto.setCreatedAt(job.getCreatedAt());
+        dto.setStartedAt(job.getStartedAt());
+        dto.setFinishedAt(job.getFinishedAt());
+        return dto;
+    }
+
+    private JsonNode readJson(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            return objectMapper.getNodeFactory().textNode(json);
+        }
+    }
+}
@@ -1,16 +1,24 @@
 package com.example.Book.Management.System.controller;
 
+import com.example.Book.Management.System.exception.ConcurrentUpdateException;
+import com.example.Book.Management.System.service.JsonMergePatch;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.example.Book.Management.System.entity.Author;
+import com.example.Book.Management.System.entity.CatalogEntityType;
 import com.example.Book.Management.System.service.AuthorService;
+import com.example.Book.Management.System.service.CatalogVersionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -23,27 +31,46 @@ public class AuthorController {
     @Autowired
     private AuthorService authorService;
 
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
     @GetMapping
     @Operation(summary = "Get all authors", description = "Returns a list of all authors available in the system.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Successfully retrieved list of authors"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<List<Author>> getAllAuthors() {
+    public ResponseEntity<List<Author>> getAllAuthors(WebRequest request) {
+        // Authors are serialized with their books, so book changes invalidate them too.
+        String etag = ETags.forList("authors", catalogVersionService.current(CatalogEntityType.AUTHOR),
+                catalogVersionService.current(CatalogEntityType.BOOK));
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         List<Author> authors = authorService.getAllAuthors();
-        return ResponseEntity.ok(authors);
+        return ResponseEntity.ok().eTag(etag).body(authors);
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get author by ID", description = "Retrieves a specific author using their unique ID.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Author found"),
+            @ApiResponse(responseCode = "304", description = "Author not modified since the given ETag"),
             @ApiResponse(responseCode = "404", description = "Author not found")
     })
     public ResponseEntity<Author> getAuthorById(
-            @Parameter(description = "ID of the author to retrieve") @PathVariable Long id) {
+            @Parameter(description = "ID of the author to retrieve") @PathVariable Long id,
+            WebRequest request) {
+        Optional<String> etag = authorService.getAuthorStamp(id)
+                .map(stamp -> ETags.of("a", stamp, catalogVersionService.current(CatalogEntityType.BOOK)));
+        if (etag.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(etag.get())) {
+            return null;
+        }
         Optional<Author> author = authorService.getAuthorById(id);
-        return author.map(ResponseEntity::ok)
+        return author.map(a -> ResponseEntity.ok().eTag(etag.get()).body(a))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -66,7 +93,8 @@ public class AuthorController {
     @Operation(summary = "Update an existing author", description = "Updates the information of an existing author using their ID.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Author updated successfully"),
-            @ApiResponse(responseCode = "404", description = "Author not found")
+            @ApiResponse(responseCode = "404", description = "Author not found"),
+            @ApiResponse(responseCode = "409", description = "Concurrent modification; body carries the current version")
     })
     public ResponseEntity<Author> updateAuthor(
             @Parameter(description = "ID of the author to update") @PathVariable Long id,
@@ -74,6 +102,28 @@ public class AuthorController {
         try {
             Author updatedAuthor = authorService.updateAuthor(id, author);
             return ResponseEntity.ok(updatedAuthor);
+        } catch (ConcurrentUpdateException e) {
+            throw e; // 409 via GlobalExceptionHandler
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PatchMapping(value = "/{id}", consumes = JsonMergePatch.MEDIA_TYPE)
+    @Operation(summary = "Partially update a author", description = "Apply an RFC 7386 JSON merge patch: only the supplied fields change and null clears a field. An optional version member must match the current version.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Author patched successfully"),
+            @ApiResponse(responseCode = "400", description = "Malformed patch or validation failure"),
+            @ApiResponse(responseCode = "404", description = "Author not found"),
+            @ApiResponse(responseCode = "409", description = "Concurrent modification; body carries the current version")
+    })
+    public ResponseEntity<Author> patchAuthor(
+            @Parameter(description = "ID of the author to patch") @PathVariable Long id,
+            @RequestBody JsonNode patch) {
+        try {
+            return ResponseEntity.ok(authorService.patchAuthor(id, patch));
+        } catch (ConcurrentUpdateException | IllegalArgumentException | ConstraintViolationException e) {
+            throw e; // 409 / 400 via GlobalExceptionHandler
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -95,6 +145,24 @@ public class AuthorController {
         }
     }
 
+    @GetMapping("/top")
+    @Operation(summary = "Authors with the most titles",
+            description = "Ranked by number of titles, or with by=available by titles that have a copy on the shelf. "
+                    + "Ties are broken by ID.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Ranking retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Unknown ranking, or bad page or size")
+    })
+    public ResponseEntity<Page<Author>> getTopAuthors(
+            @Parameter(description = "books or available") @RequestParam(defaultValue = "books") String by,
+            @Parameter(description = "Page number to retrieve") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Number of items per page (1-100)") @RequestParam(defaultValue = "10") int size) {
+        if (!by.equals("books") && !by.equals("available") || page < 0 || size < 1 || size > 100) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(authorService.getTopAuthors(by.equals("available"), page, size));
+    }
+
     @GetMapping("/search")
     @Operation(summary = "Search authors by name", description = "Returns a list of authors whose name matches the given keyword.")
     @ApiResponses({
@@ -1,8 +1,26 @@
 package com.example.Book.Management.System.controller;
 
+import com.example.Book.Management.System.exception.ConcurrentUpdateException;
+import com.example.Book.Management.System.service.JsonMergePatch;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.example.Book.Management.System.dto.AvailabilityDto;
 import com.example.Book.Management.System.dto.BookDto;
+import com.example.Book.Management.System.dto.ChangeFeedDto;
+import com.example.Book.Management.System.dto.RelatedBookDto;
+import com.example.Book.Management.System.dto.TrendingBookDto;
 import com.example.Book.Management.System.entity.BookStatus;
+import com.example.Book.Management.System.entity.CatalogEntityType;
+import com.example.Book.Management.System.inventory.AvailabilityCounters;
+import com.example.Book.Management.System.inventory.AvailabilityFeed;
+import com.example.Book.Management.System.inventory.FeedPolicy;
+import com.example.Book.Management.System.related.RelatedBooks;
+import com.example.Book.Management.System.repository.VersionStamp;
 import com.example.Book.Management.System.service.BookService;
+import com.example.Book.Management.System.service.CatalogChangeService;
+import com.example.Book.Management.System.service.CatalogVersionService;
+import com.example.Book.Management.System.trending.TrendingCounters;
+import com.example.Book.Management.System.trending.TrendingMetric;
+import com.example.Book.Management.System.trending.TrendingWindow;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -11,12 +29,18 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/books")
@@ -26,6 +50,24 @@ public class BookController {
     @Autowired
     private BookService bookService;
 
+    @Autowired
+    private CatalogChangeService catalogChangeService;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private AvailabilityCounters availabilityCounters;
+
+    @Autowired
+    private AvailabilityFeed availabilityFeed;
+
+    @Autowired
+    private TrendingCounters trendingCounters;
+
+    @Autowired
+    private RelatedBooks relatedBooks;
+
     @GetMapping
     @Operation(summary = "Get all books", description = "Returns a paginated and sorted list of all available books in the system.")
     @ApiResponses({
@@ -36,21 +78,42 @@ public class BookController {
     public ResponseEntity<Page<BookDto>> getAllBooks(
             @Parameter(description = "Page number to retrieve") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Number of items per page") @RequestParam(defaultValue = "5") int size,
-            @Parameter(description = "Field to sort by") @RequestParam(defaultValue = "title") String sortBy) {
-        Page<BookDto> books = bookService.getAllBooks(page, size, sortBy);
-        return ResponseEntity.ok(books);
+            @Parameter(description = "Field to sort by") @RequestParam(defaultValue = "title") String sortBy,
+            WebRequest request) {
+        // Counters and page from one snapshot, so the tag never runs ahead of the body.
+        return bookService.inSnapshot(() -> {
+            String etag = ETags.forList("books", catalogVersionService.current(CatalogEntityType.BOOK),
+                    catalogVersionService.current(CatalogEntityType.AUTHOR),
+                    catalogVersionService.current(CatalogEntityType.PUBLISHER));
+            if (request.checkNotModified(etag)) {
+                return null;
+            }
+            Page<BookDto> books = bookService.getAllBooks(page, size, sortBy);
+            return ResponseEntity.ok().eTag(etag).body(books);
+        });
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get a book by ID", description = "Retrieve a book's details using its unique ID.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Book found"),
+            @ApiResponse(responseCode = "304", description = "Book not modified since the given ETag"),
             @ApiResponse(responseCode = "404", description = "Book not found")
     })
     public ResponseEntity<BookDto> getBookById(
-            @Parameter(description = "ID of the book to retrieve") @PathVariable Long id) {
-        Optional<BookDto> book = bookService.getBookById(id);
-        return book.map(ResponseEntity::ok)
+            @Parameter(description = "ID of the book to retrieve") @PathVariable Long id,
+            WebRequest request) {
+        Optional<String> etag = bookService.inSnapshot(() -> bookService.getBookStamp(id).map(this::bookETag));
+        if (etag.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(etag.get())) {
+            trendingCounters.recordView(id);
+            return null;
+        }
+        // Tagged from the same read as the body, which may be older than the stamp above.
+        return bookService.getStampedBook(id)
+                .map(stamped -> ResponseEntity.ok().eTag(bookETag(stamped)).body(stamped.book()))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -73,7 +136,8 @@ public class BookController {
     @Operation(summary = "Update an existing book", description = "Update a book's details by providing its ID and new data.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Book updated successfully"),
-            @ApiResponse(responseCode = "404", description = "Book not found")
+            @ApiResponse(responseCode = "404", description = "Book not found"),
+            @ApiResponse(responseCode = "409", description = "Concurrent modification; body carries the current version")
     })
     public ResponseEntity<BookDto> updateBook(
             @Parameter(description = "ID of the book to update") @PathVariable Long id,
@@ -81,11 +145,135 @@ public class BookController {
         try {
             BookDto updatedBook = bookService.updateBook(id, bookDto);
             return ResponseEntity.ok(updatedBook);
+        } catch (ConcurrentUpdateException e) {
+            throw e; // 409 via GlobalExceptionHandler
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    @PatchMapping(value = "/{id}", consumes = JsonMergePatch.MEDIA_TYPE)
+    @Operation(summary = "Partially update a book", description = "Apply an RFC 7386 JSON merge patch: only the supplied fields change and null clears a field. An optional version member must match the current version.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Book patched successfully"),
+            @ApiResponse(responseCode = "400", description = "Malformed patch or validation failure"),
+            @ApiResponse(responseCode = "404", description = "Book not found"),
+            @ApiResponse(responseCode = "409", description = "Concurrent modification; body carries the current version")
+    })
+    public ResponseEntity<BookDto> patchBook(
+            @Parameter(description = "ID of the book to patch") @PathVariable Long id,
+            @RequestBody JsonNode patch) {
+        // 404, 409 and 400 via GlobalExceptionHandler
+        return ResponseEntity.ok(bookService.patchBook(id, patch));
+    }
+
+    @GetMapping("/{id}/availability")
+    @Operation(summary = "Get available copies", description = "Number of copies that can be borrowed right now, served from memory.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Availability retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Book not found")
+    })
+    public ResponseEntity<AvailabilityDto> getAvailability(
+            @Parameter(description = "ID of the book") @PathVariable Long id) {
+        long available = availabilityCounters.available(id);
+        if (available < 0) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(new AvailabilityDto(id, available));
+    }
+
+    @GetMapping(value = "/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream availability changes",
+            description = "Server-Sent Events with the new status and copy counts of titles as they are borrowed, returned, "
+                    + "reserved or edited. Filters combine with OR; no filter streams every title. "
+                    + "An 'overflow' event means changes were dropped and shown titles should be re-read.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Stream opened"),
+            @ApiResponse(responseCode = "400", description = "Too many ids in the filters"),
+            @ApiResponse(responseCode = "503", description = "This instance has no room for more subscribers")
+    })
+    public ResponseEntity<SseEmitter> streamAvailability(
+            @Parameter(description = "Book IDs to follow") @RequestParam(required = false) List<Long> ids,
+            @Parameter(description = "Author IDs to follow") @RequestParam(required = false) List<Long> authorIds,
+            @Parameter(description = "Publisher IDs to follow") @RequestParam(required = false) List<Long> publisherIds,
+            @Parameter(description = "COALESCE keeps the latest change per title; DROP_OLDEST keeps every change")
+            @RequestParam(defaultValue = "COALESCE") FeedPolicy policy) {
+        Set<Long> books = ids == null ? Set.of() : Set.copyOf(ids);
+        Set<Long> authors = authorIds == null ? Set.of() : Set.copyOf(authorIds);
+        Set<Long> publishers = publisherIds == null ? Set.of() : Set.copyOf(publisherIds);
+        if (books.size() + authors.size() + publishers.size() > 1000) {
+            return ResponseEntity.badRequest().build();
+        }
+        SseEmitter emitter = availabilityFeed.subscribe(books, authors, publishers, policy);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
+    @GetMapping("/trending")
+    @Operation(summary = "Get trending books",
+            description = "Titles most borrowed or most viewed on this instance over a sliding window, served from memory. "
+                    + "Counts are estimates that may run slightly high and restart empty with the instance.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Trending books retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Unknown window or limit out of range")
+    })
+    public ResponseEntity<List<TrendingBookDto>> getTrending(
+            @Parameter(description = "Window: 1h, 24h or 7d") @RequestParam(defaultValue = "24h") String window,
+            @Parameter(description = "BORROWS or VIEWS") @RequestParam(defaultValue = "BORROWS") TrendingMetric metric,
+            @Parameter(description = "Number of titles to return") @RequestParam(defaultValue = "20") int limit) {
+        TrendingWindow trendingWindow = TrendingWindow.fromLabel(window);
+        if (trendingWindow == null || limit < 1 || limit > trendingCounters.getMaxResults()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(trendingCounters.top(metric, trendingWindow, limit));
+    }
+
+    @GetMapping("/{id}/related")
+    @Operation(summary = "Get related books",
+            description = "Titles most often borrowed by patrons who also borrowed this one, served from memory. "
+                    + "An unknown or never-borrowed title has no related books.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Related books retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Limit out of range"),
+            @ApiResponse(responseCode = "503", description = "The model is still being built on this instance")
+    })
+    public ResponseEntity<List<RelatedBookDto>> getRelated(
+            @Parameter(description = "ID of the book") @PathVariable Long id,
+            @Parameter(description = "Number of titles to return") @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > relatedBooks.getCapacity()) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!relatedBooks.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(relatedBooks.related(id, limit));
+    }
+
+    @PostMapping("/{id}/copies")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Add copies of a book", description = "Adds copies to a title; waiting holds are served first. Only Admins can perform this.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Copies added"),
+            @ApiResponse(responseCode = "400", description = "Invalid count"),
+            @ApiResponse(responseCode = "404", description = "Book not found")
+    })
+    public ResponseEntity<BookDto> addCopies(
+            @Parameter(description = "ID of the book") @PathVariable Long id,
+            @Parameter(description = "Number of copies to add (1-1000)") @RequestParam(defaultValue = "1") int count) {
+        if (count < 1 || count > 1000) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            bookService.addCopies(id, count);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+        return bookService.getBookById(id).map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasAuthority('BOOK_DELETE') or hasRole('ADMIN')")
     @Operation(summary = "Delete a book", description = "Delete a book from the system using its ID. Only Admins can perform this.")
@@ -122,9 +310,17 @@ public class BookController {
             @ApiResponse(responseCode = "404", description = "Book not found")
     })
     public ResponseEntity<BookDto> getBookByIsbn(
-            @Parameter(description = "ISBN of the book to search") @PathVariable String isbn) {
-        Optional<BookDto> book = bookService.findByIsbn(isbn);
-        return book.map(ResponseEntity::ok)
+            @Parameter(description = "ISBN of the book to search") @PathVariable String isbn,
+            WebRequest request) {
+        Optional<String> etag = bookService.inSnapshot(() -> bookService.getBookStampByIsbn(isbn).map(this::bookETag));
+        if (etag.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(etag.get())) {
+            return null;
+        }
+        return bookService.findStampedByIsbn(isbn)
+                .map(stamped -> ResponseEntity.ok().eTag(bookETag(stamped)).body(stamped.book()))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -164,6 +360,36 @@ public class BookController {
         return ResponseEntity.ok(books);
     }
 
+    @GetMapping("/changes")
+    @Operation(summary = "Get book changes since a watermark",
+            description = "Returns upserts and delete tombstones in keyset order. Start with 'since', then follow 'nextCursor'.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Changes retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Neither 'since' nor 'cursor' was provided"),
+            @ApiResponse(responseCode = "410", description = "Watermark is older than the tombstone retention; resync required")
+    })
+    public ResponseEntity<ChangeFeedDto> getBookChanges(
+            @Parameter(description = "ISO timestamp to start from (first request)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @Parameter(description = "Cursor returned by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of changes to return") @RequestParam(defaultValue = "500") int limit) {
+        if (since == null && cursor == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (catalogChangeService.requiresFullResync(since, cursor)) {
+            return ResponseEntity.status(HttpStatus.GONE).build();
+        }
+        return ResponseEntity.ok(catalogChangeService.getBookChanges(since, cursor, limit));
+    }
 
+    // Book representations embed author and publisher names, so renames must change the tag too.
+    // Call inside the transaction that read the stamp.
+    private String bookETag(VersionStamp stamp) {
+        return ETags.of("b", stamp, catalogVersionService.current(CatalogEntityType.AUTHOR),
+                catalogVersionService.current(CatalogEntityType.PUBLISHER));
+    }
 
+    private static String bookETag(BookService.StampedBook stamped) {
+        return ETags.of("b", stamped, stamped.authorVersion(), stamped.publisherVersion());
+    }
 }
@@ -1,6 +1,9 @@
 package com.example.Book.Management.System.controller;
 
+import com.example.Book.Management.System.dto.BorrowHistoryPageDto;
 import com.example.Book.Management.System.entity.BorrowRecord;
+import com.example.Book.Management.System.entity.BorrowStatus;
+import com.example.Book.Management.System.service.BorrowHistoryService;
 import com.example.Book.Management.System.service.BorrowService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -8,19 +11,28 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Set;
+
 @RestController
 @RequestMapping("/borrow")
 public class BorrowController {
 
+    private static final int MAX_HISTORY_LIMIT = 100;
+
     private final BorrowService borrowService;
+    private final BorrowHistoryService historyService;
 
-    public BorrowController(BorrowService borrowService) {
+    public BorrowController(BorrowService borrowService, BorrowHistoryService historyService) {
         this.borrowService = borrowService;
+        this.historyService = historyService;
     }
 
     @Operation(
@@ -58,4 +70,56 @@ public class BorrowController {
     ) {
         return ResponseEntity.ok(borrowService.returnBook(recordId));
     }
+
+    @Operation(
+            summary = "Borrow history of a user",
+            description = "Newest first. Follow 'nextCursor' for older records. 'active=true' keeps loans not yet "
+                    + "returned; 'status' may be repeated."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "History page retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, status or limit"),
+            @ApiResponse(responseCode = "403", description = "Not an admin and not the user's own history")
+    })
+    @GetMapping("/history/user/{userId}")
+    @PreAuthorize("hasRole('ADMIN') or @userAccess.isSelf(authentication, #userId)")
+    public ResponseEntity<BorrowHistoryPageDto> getUserHistory(
+            @Parameter(description = "ID of the user", required = true, example = "1")
+            @PathVariable Long userId,
+            @Parameter(description = "Cursor returned by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Only loans not yet returned") @RequestParam(defaultValue = "false") boolean active,
+            @Parameter(description = "Only records in these statuses") @RequestParam(required = false) Set<BorrowStatus> status,
+            @Parameter(description = "Number of records (1-100)") @RequestParam(defaultValue = "20") int limit
+    ) {
+        if (limit < 1 || limit > MAX_HISTORY_LIMIT) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(historyService.userHistory(userId, cursor, active, status, limit));
+    }
+
+    @Operation(
+            summary = "Borrow history of a book",
+            description = "Newest first. Follow 'nextCursor' for older records. 'active=true' keeps loans not yet "
+                    + "returned; 'status' may be repeated."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "History page retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, status or limit")
+    })
+    // Shows who borrowed the title, so staff only.
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/history/book/{bookId}")
+    public ResponseEntity<BorrowHistoryPageDto> getBookHistory(
+            @Parameter(description = "ID of the book", required = true, example = "101")
+            @PathVariable Long bookId,
+            @Parameter(description = "Cursor returned by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Only loans not yet returned") @RequestParam(defaultValue = "false") boolean active,
+            @Parameter(description = "Only records in these statuses") @RequestParam(required = false) Set<BorrowStatus> status,
+            @Parameter(description = "Number of records (1-100)") @RequestParam(defaultValue = "20") int limit
+    ) {
+        if (limit < 1 || limit > MAX_HISTORY_LIMIT) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(historyService.bookHistory(bookId, cursor, active, status, limit));
+    }
 }
@@ -0,0 +1,43 @@
+package com.example.Book.Management.System.controller;
+
+import com.example.Book.Management.System.dto.ImportReportDto;
+import com.example.Book.Management.System.importer.CatalogImportService;
+import com.example.Book.Management.System.importer.ImportFormat;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/admin/import")
+@PreAuthorize("hasRole('ADMIN')")
+public class CatalogImportController {
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @PostMapping(value = "/books", consumes = {"text/csv", "application/x-ndjson", "application/jsonl"})
+    @Operation(summary = "Bulk import books",
+            description = "Streams a CSV (with header) or JSON Lines body and upserts books by ISBN in batches. "
+                    + "Unknown authors and publishers are created by name. Bad rows are reported, not fatal.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Import finished; the report lists per-row errors"),
+            @ApiResponse(responseCode = "400", description = "Unreadable input (e.g. empty CSV)")
+    })
+    public ResponseEntity<ImportReportDto> importBooks(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @Parameter(description = "Overrides the format implied by Content-Type") @RequestParam(required = false) ImportFormat format,
+            InputStream body) throws IOException {
+        ImportFormat resolved = format != null ? format
+                : contentType.startsWith("text/csv") ? ImportFormat.CSV : ImportFormat.JSONL;
+        return ResponseEntity.ok(catalogImportService.importBooks(body, resolved));
+    }
+}
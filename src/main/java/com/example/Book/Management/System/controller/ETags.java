@@ -0,0 +1,39 @@
+package com.example.Book.Management.System.controller;
+
+import com.example.Book.Management.System.repository.VersionStamp;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Builds strong ETags for catalog resources.
+ * Single resources use their {@code updatedAt}; lists use the per-table change counters.
+ */
+final class ETags {
+
+    private ETags() {}
+
+    static String of(String kind, VersionStamp stamp, long... dependencies) {
+        StringBuilder tag = new StringBuilder("\"").append(kind).append('-').append(stamp.getId())
+                .append('-').append(micros(stamp.getUpdatedAt()));
+        for (long dependency : dependencies) {
+            tag.append('-').append(dependency);
+        }
+        return tag.append('"').toString();
+    }
+
+    static String forList(String kind, long... counters) {
+        StringBuilder tag = new StringBuilder("\"").append(kind);
+        for (long counter : counters) {
+            tag.append('-').append(counter);
+        }
+        return tag.append('"').toString();
+    }
+
+    private static long micros(LocalDateTime time) {
+        if (time == null) {
+            return 0L;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.Book.Management.System.controller;
+
+import com.example.Book.Management.System.entity.EventAggregate;
+import com.example.Book.Management.System.outbox.OutboxSseHub;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/events")
+public class EventController {
+
+    private final OutboxSseHub sseHub;
+
+    public EventController(OutboxSseHub sseHub) {
+        this.sseHub = sseHub;
+    }
+
+    @Operation(
+            summary = "Stream domain events",
+            description = "Server-Sent Events stream of book, author, publisher, user and borrow changes. "
+                    + "Reconnect with Last-Event-ID to resume; a 'resync' event means the gap was too large to replay."
+    )
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public SseEmitter stream(
+            @Parameter(description = "Aggregates to receive (BOOK, AUTHOR, PUBLISHER, USER, BORROW); all if omitted")
+            @RequestParam(required = false) List<EventAggregate> types,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId
+    ) {
+        Set<EventAggregate> filter = types == null || types.isEmpty() ? Set.of() : EnumSet.copyOf(types);
+        return sseHub.subscribe(filter, lastEventId);
+    }
+}
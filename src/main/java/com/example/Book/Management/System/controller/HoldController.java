@@ -0,0 +1,100 @@
+package com.example.Book.Management.System.controller;
+
+import com.example.Book.Management.System.dto.HoldDto;
+import com.example.Book.Management.System.entity.BookHold;
+import com.example.Book.Management.System.service.HoldService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/holds")
+public class HoldController {
+
+    private final HoldService holdService;
+
+    public HoldController(HoldService holdService) {
+        this.holdService = holdService;
+    }
+
+    @Operation(
+            summary = "Place a hold on a borrowed book",
+            description = "Joins the book's FIFO hold queue. When the book comes back it is RESERVED for the "
+                    + "oldest hold until its pickup deadline."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Hold placed"),
+            @ApiResponse(responseCode = "400", description = "Book is available, not holdable, or already held by the user"),
+            @ApiResponse(responseCode = "403", description = "Holds can only be placed for yourself unless you are an admin")
+    })
+    @PostMapping("/{userId}/{bookId}")
+    @PreAuthorize("hasRole('ADMIN') or @userAccess.isSelf(authentication, #userId)")
+    public ResponseEntity<HoldDto> placeHold(
+            @Parameter(description = "ID of the user placing the hold", required = true, example = "1")
+            @PathVariable Long userId,
+
+            @Parameter(description = "ID of the book to hold", required = true, example = "101")
+            @PathVariable Long bookId
+    ) {
+        BookHold hold = holdService.placeHold(userId, bookId);
+        return ResponseEntity.status(HttpStatus.CREATED).body(convertToDto(hold));
+    }
+
+    @Operation(summary = "Get a hold with its queue position")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Hold found"),
+            @ApiResponse(responseCode = "403", description = "The hold belongs to another user"),
+            @ApiResponse(responseCode = "404", description = "Hold not found")
+    })
+    @GetMapping("/{holdId}")
+    public ResponseEntity<HoldDto> getHold(@PathVariable Long holdId) {
+        return holdService.getHold(holdId)
+                .map(hold -> ResponseEntity.ok(convertToDto(hold)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "List a user's waiting and ready holds")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Holds listed"),
+            @ApiResponse(responseCode = "403", description = "Only admins can list another user's holds")
+    })
+    @GetMapping("/user/{userId}")
+    @PreAuthorize("hasRole('ADMIN') or @userAccess.isSelf(authentication, #userId)")
+    public ResponseEntity<List<HoldDto>> getUserHolds(@PathVariable Long userId) {
+        return ResponseEntity.ok(holdService.getActiveHolds(userId).stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList()));
+    }
+
+    @Operation(summary = "Cancel a hold", description = "Cancelling a READY hold passes the book to the next in line")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Hold cancelled"),
+            @ApiResponse(responseCode = "400", description = "Hold not found or already closed"),
+            @ApiResponse(responseCode = "403", description = "The hold belongs to another user")
+    })
+    @DeleteMapping("/{holdId}")
+    public ResponseEntity<HoldDto> cancelHold(@PathVariable Long holdId) {
+        return ResponseEntity.ok(convertToDto(holdService.cancelHold(holdId)));
+    }
+
+    private HoldDto convertToDto(BookHold hold) {
+        HoldDto dto = new HoldDto();
+        dto.setId(hold.getId());
+        dto.setBookId(hold.getBookId());
+        dto.setUserId(hold.getUserId());
+        dto.setStatus(hold.getStatus());
+        dto.setPosition(holdService.queuePosition(hold));
+        dto.setCreatedAt(hold.getCreatedAt());
+        dto.setReadyAt(hold.getReadyAt());
+        dto.setPickupDeadline(hold.getPickupDeadline());
+        return dto;
+    }
+}
@@ -1,16 +1,24 @@
 package com.example.Book.Management.System.controller;
 
+import com.example.Book.Management.System.exception.ConcurrentUpdateException;
+import com.example.Book.Management.System.service.JsonMergePatch;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.example.Book.Management.System.entity.CatalogEntityType;
 import com.example.Book.Management.System.entity.Publisher;
+import com.example.Book.Management.System.service.CatalogVersionService;
 import com.example.Book.Management.System.service.PublisherService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -23,26 +31,45 @@ public class PublisherController {
     @Autowired
     private PublisherService publisherService;
 
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
     @Operation(summary = "Get all publishers", description = "Returns a list of all publishers in the system.")
     @ApiResponse(responseCode = "200", description = "Publishers retrieved successfully")
     @GetMapping
-    public ResponseEntity<List<Publisher>> getAllPublishers() {
+    public ResponseEntity<List<Publisher>> getAllPublishers(WebRequest request) {
+        // Publishers are serialized with their books, so book changes invalidate them too.
+        String etag = ETags.forList("publishers", catalogVersionService.current(CatalogEntityType.PUBLISHER),
+                catalogVersionService.current(CatalogEntityType.BOOK));
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         List<Publisher> publishers = publisherService.getAllPublishers();
-        return ResponseEntity.ok(publishers);
+        return ResponseEntity.ok().eTag(etag).body(publishers);
     }
 
     @Operation(summary = "Get publisher by ID", description = "Fetch a single publisher using its unique ID.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Publisher found"),
+            @ApiResponse(responseCode = "304", description = "Publisher not modified since the given ETag"),
             @ApiResponse(responseCode = "404", description = "Publisher not found")
     })
     @GetMapping("/{id}")
     public ResponseEntity<Publisher> getPublisherById(
             @Parameter(description = "ID of the publisher", required = true, example = "1")
-            @PathVariable Long id
+            @PathVariable Long id,
+            WebRequest request
     ) {
+        Optional<String> etag = publisherService.getPublisherStamp(id)
+                .map(stamp -> ETags.of("p", stamp, catalogVersionService.current(CatalogEntityType.BOOK)));
+        if (etag.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(etag.get())) {
+            return null;
+        }
         Optional<Publisher> publisher = publisherService.getPublisherById(id);
-        return publisher.map(ResponseEntity::ok)
+        return publisher.map(p -> ResponseEntity.ok().eTag(etag.get()).body(p))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -67,7 +94,8 @@ public class PublisherController {
     @Operation(summary = "Update an existing publisher", description = "Update the details of a publisher using its ID.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Publisher updated successfully"),
-            @ApiResponse(responseCode = "404", description = "Publisher not found")
+            @ApiResponse(responseCode = "404", description = "Publisher not found"),
+            @ApiResponse(responseCode = "409", description = "Concurrent modification; body carries the current version")
     })
     @PutMapping("/{id}")
     public ResponseEntity<Publisher> updatePublisher(
@@ -80,6 +108,28 @@ public class PublisherController {
         try {
             Publisher updatedPublisher = publisherService.updatePublisher(id, publisher);
             return ResponseEntity.ok(updatedPublisher);
+        } catch (ConcurrentUpdateException e) {
+            throw e; // 409 via GlobalExceptionHandler
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PatchMapping(value = "/{id}", consumes = JsonMergePatch.MEDIA_TYPE)
+    @Operation(summary = "Partially update a publisher", description = "Apply an RFC 7386 JSON merge patch: only the supplied fields change and null clears a field. An optional version member must match the current version.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Publisher patched successfully"),
+            @ApiResponse(responseCode = "400", description = "Malformed patch or validation failure"),
+            @ApiResponse(responseCode = "404", description = "Publisher not found"),
+            @ApiResponse(responseCode = "409", description = "Concurrent modification; body carries the current version")
+    })
+    public ResponseEntity<Publisher> patchPublisher(
+            @Parameter(description = "ID of the publisher to patch") @PathVariable Long id,
+            @RequestBody JsonNode patch) {
+        try {
+            return ResponseEntity.ok(publisherService.patchPublisher(id, patch));
+        } catch (ConcurrentUpdateException | IllegalArgumentException | ConstraintViolationException e) {
+            throw e; // 409 / 400 via GlobalExceptionHandler
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -103,6 +153,24 @@ public class PublisherController {
         }
     }
 
+    @Operation(summary = "Publishers with the most titles",
+            description = "Ranked by number of titles, or with by=available by titles that have a copy on the shelf. "
+                    + "Ties are broken by ID.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Ranking retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Unknown ranking, or bad page or size")
+    })
+    @GetMapping("/top")
+    public ResponseEntity<Page<Publisher>> getTopPublishers(
+            @Parameter(description = "books or available") @RequestParam(defaultValue = "books") String by,
+            @Parameter(description = "Page number to retrieve") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Number of items per page (1-100)") @RequestParam(defaultValue = "10") int size) {
+        if (!by.equals("books") && !by.equals("available") || page < 0 || size < 1 || size > 100) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(publisherService.getTopPublishers(by.equals("available"), page, size));
+    }
+
     @Operation(summary = "Search publishers by name", description = "Find all publishers that match the given name.")
     @ApiResponse(responseCode = "200", description = "Search results returned successfully")
     @GetMapping("/search")
@@ -0,0 +1,138 @@
+package com.example.Book.Management.System.controller;
+
+import com.example.Book.Management.System.dto.ActiveLoansDto;
+import com.example.Book.Management.System.dto.StatsBucketDto;
+import com.example.Book.Management.System.dto.StatsTotalDto;
+import com.example.Book.Management.System.entity.RollupDimension;
+import com.example.Book.Management.System.entity.RollupGrain;
+import com.example.Book.Management.System.stats.CirculationStatsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/stats")
+@PreAuthorize("hasRole('ADMIN')")
+public class StatsController {
+
+    // Caps a single response at a few thousand buckets.
+    private static final Duration MAX_HOURLY_RANGE = Duration.ofDays(92);
+    private static final Duration MAX_DAILY_RANGE = Duration.ofDays(3660);
+
+    @Autowired
+    private CirculationStatsService statsService;
+
+    @GetMapping("/borrows")
+    @Operation(summary = "Library-wide borrows and returns per bucket",
+            description = "HOUR buckets cover the last stats.hourly-retention-days only. Defaults to the last 30 days, "
+                    + "or the last 48 hours for HOUR. Buckets without activity are omitted.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Series retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Range empty or too long for the grain")
+    })
+    public ResponseEntity<List<StatsBucketDto>> getBorrows(
+            @Parameter(description = "HOUR or DAY") @RequestParam(defaultValue = "DAY") RollupGrain grain,
+            @Parameter(description = "Start of the range (inclusive)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "End of the range (exclusive)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from
+                : grain == RollupGrain.HOUR ? end.minusHours(48) : end.truncatedTo(ChronoUnit.DAYS).minusDays(30);
+        if (!validRange(start, end, grain == RollupGrain.HOUR ? MAX_HOURLY_RANGE : MAX_DAILY_RANGE)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(statsService.series(RollupDimension.ALL, 0L, grain, start, end));
+    }
+
+    @GetMapping("/{dimension}/{id}/borrows")
+    @Operation(summary = "Daily borrows and returns of one author, publisher or user",
+            description = "Dimension is authors, publishers or users. Defaults to the last 30 days. "
+                    + "Days without activity are omitted.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Series retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Unknown dimension, or range empty or too long")
+    })
+    public ResponseEntity<List<StatsBucketDto>> getDimensionBorrows(
+            @Parameter(description = "authors, publishers or users") @PathVariable String dimension,
+            @Parameter(description = "ID of the author, publisher or user") @PathVariable long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        RollupDimension rollupDimension = dimension(dimension);
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.truncatedTo(ChronoUnit.DAYS).minusDays(30);
+        if (rollupDimension == null || !validRange(start, end, MAX_DAILY_RANGE)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(statsService.series(rollupDimension, id, RollupGrain.DAY, start, end));
+    }
+
+    @GetMapping("/{dimension}/top")
+    @Operation(summary = "Authors, publishers or users with the most borrows",
+            description = "Ranked by borrows over whole days in the range. Defaults to the last 30 days.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Ranking retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Unknown dimension, bad limit, or range empty or too long")
+    })
+    public ResponseEntity<List<StatsTotalDto>> getTop(
+            @Parameter(description = "authors, publishers or users") @PathVariable String dimension,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Number of entries (1-100)") @RequestParam(defaultValue = "10") int limit) {
+        RollupDimension rollupDimension = dimension(dimension);
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.truncatedTo(ChronoUnit.DAYS).minusDays(30);
+        if (rollupDimension == null || limit < 1 || limit > 100 || !validRange(start, end, MAX_DAILY_RANGE)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(statsService.top(rollupDimension, start, end, limit));
+    }
+
+    @GetMapping("/active-loans")
+    @Operation(summary = "Loans currently out across the library",
+            description = "Borrowed and not yet returned, including overdue and lost loans.")
+    public ResponseEntity<ActiveLoansDto> getActiveLoans() {
+        return ResponseEntity.ok(statsService.activeLoans(RollupDimension.ALL, 0L));
+    }
+
+    @GetMapping("/{dimension}/{id}/active-loans")
+    @Operation(summary = "Loans currently out for one author, publisher or user",
+            description = "Borrowed and not yet returned, including overdue and lost loans.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Count retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Unknown dimension")
+    })
+    public ResponseEntity<ActiveLoansDto> getDimensionActiveLoans(
+            @Parameter(description = "authors, publishers or users") @PathVariable String dimension,
+            @Parameter(description = "ID of the author, publisher or user") @PathVariable long id) {
+        RollupDimension rollupDimension = dimension(dimension);
+        if (rollupDimension == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(statsService.activeLoans(rollupDimension, id));
+    }
+
+    private static boolean validRange(LocalDateTime from, LocalDateTime to, Duration max) {
+        return from.isBefore(to) && Duration.between(from, to).compareTo(max) <= 0;
+    }
+
+    private static RollupDimension dimension(String path) {
+        return switch (path) {
+            case "authors" -> RollupDimension.AUTHOR;
+            case "publishers" -> RollupDimension.PUBLISHER;
+            case "users" -> RollupDimension.USER;
+            default -> null;
+        };
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.Book.Management.System.controller;
 
+import com.example.Book.Management.System.exception.ConcurrentUpdateException;
+import com.example.Book.Management.System.service.JsonMergePatch;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.example.Book.Management.System.entity.User;
 import com.example.Book.Management.System.entity.UserRole;
 import com.example.Book.Management.System.service.UserService;
@@ -7,6 +10,7 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -77,7 +81,8 @@ public class UserController {
     @Operation(summary = "Update existing user", description = "Update user details using their ID.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "User updated successfully"),
-            @ApiResponse(responseCode = "404", description = "User not found")
+            @ApiResponse(responseCode = "404", description = "User not found"),
+            @ApiResponse(responseCode = "409", description = "Concurrent modification; body carries the current version")
     })
 
     //TODO not working correctly
@@ -92,6 +97,30 @@ public class UserController {
         try {
             User updatedUser = userService.updateUser(id, user);
             return ResponseEntity.ok(updatedUser);
+        } catch (ConcurrentUpdateException e) {
+            throw e; // 409 via GlobalExceptionHandler
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PatchMapping(value = "/{id}", consumes = JsonMergePatch.MEDIA_TYPE)
+    @PreAuthorize("hasRole('ADMIN') or @userAccess.isSelf(authentication, #id)")
+    @Operation(summary = "Partially update a user", description = "Apply an RFC 7386 JSON merge patch to firstName, lastName or email: only the supplied fields change and null clears a field. An optional version member must match the current version. Users may patch only their own record.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "User patched successfully"),
+            @ApiResponse(responseCode = "400", description = "Malformed patch or validation failure"),
+            @ApiResponse(responseCode = "403", description = "Not an admin and not the user's own record"),
+            @ApiResponse(responseCode = "404", description = "User not found"),
+            @ApiResponse(responseCode = "409", description = "Concurrent modification; body carries the current version")
+    })
+    public ResponseEntity<User> patchUser(
+            @Parameter(description = "ID of the user to patch") @PathVariable Long id,
+            @RequestBody JsonNode patch) {
+        try {
+            return ResponseEntity.ok(userService.patchUser(id, patch));
+        } catch (ConcurrentUpdateException | IllegalArgumentException | ConstraintViolationException e) {
+            throw e; // 409 / 400 via GlobalExceptionHandler
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -0,0 +1,76 @@
+package com.example.Book.Management.System.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the auto-configured DataSource with a primary/replica router when
+ * {@code datasource.routing.replicas} is set. Without replicas the application keeps the single pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.routing.replicas[0].url")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+        return dataSource;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaPool replicaPool(ReplicaProperties routing, DataSourceProperties primary, MeterRegistry meterRegistry) {
+        List<HikariDataSource> dataSources = new ArrayList<>();
+        for (int i = 0; i < routing.getReplicas().size(); i++) {
+            ReplicaProperties.Replica replica = routing.getReplicas().get(i);
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("replica-" + i);
+            dataSource.setJdbcUrl(replica.getUrl());
+            dataSource.setUsername(replica.getUsername() != null ? replica.getUsername() : primary.getUsername());
+            dataSource.setPassword(replica.getPassword() != null ? replica.getPassword() : primary.getPassword());
+            dataSource.setDriverClassName(primary.getDriverClassName());
+            dataSource.setReadOnly(true);
+            // Do not fail startup on a replica that is down; the health check keeps it out of rotation.
+            dataSource.setInitializationFailTimeout(-1);
+            dataSources.add(dataSource);
+        }
+        return new ReplicaPool(dataSources, routing.getMaxLagSeconds(), meterRegistry);
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(ReplicaProperties routing) {
+        return new ReadYourWritesTracker(Duration.ofSeconds(routing.getReadYourWritesSeconds()));
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaPool replicaPool,
+                                 ReadYourWritesTracker readYourWritesTracker) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReplicaRoutingDataSource.PRIMARY, primaryDataSource);
+        replicaPool.dataSources().forEach(ds -> targets.put(ds.getPoolName(), ds));
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(replicaPool, readYourWritesTracker);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
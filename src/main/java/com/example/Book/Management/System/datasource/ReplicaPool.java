@@ -0,0 +1,125 @@
+package com.example.Book.Management.System.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The configured read replicas and their last observed health and replication lag.
+ * Lag is measured with {@code pg_last_xact_replay_timestamp()}; a replica that is streaming from
+ * the primary and has replayed everything it received counts as zero lag even when the primary
+ * has been idle. Without a streaming WAL receiver the replica cannot know what it is missing, so
+ * its lag is the age of its last replayed transaction (unbounded if it has replayed none). Reading
+ * the receiver's status needs {@code pg_read_all_stats}, so grant it (or {@code pg_monitor}) to
+ * the replica user; otherwise an idle primary takes replicas out of rotation.
+ */
+public class ReplicaPool implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaPool.class);
+
+    private static final String LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 "
+            + "WHEN EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') "
+            + "AND pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp())::float8, "
+            + "'Infinity'::float8) END";
+
+    private final List<Replica> replicas;
+    private final long maxLagSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaPool(List<HikariDataSource> dataSources, long maxLagSeconds, MeterRegistry meterRegistry) {
+        this.replicas = dataSources.stream().map(Replica::new).toList();
+        this.maxLagSeconds = maxLagSeconds;
+        for (Replica replica : replicas) {
+            Gauge.builder("datasource.replica.lag.seconds", replica, r -> r.healthy ? r.lagSeconds : Double.NaN)
+                    .tag("replica", replica.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    public List<HikariDataSource> dataSources() {
+        return replicas.stream().map(r -> r.dataSource).toList();
+    }
+
+    /**
+     * Round-robins over healthy replicas within the lag budget.
+     *
+     * @return the pool name of the chosen replica, or {@code null} if none is usable
+     */
+    public String choose() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy && replica.lagSeconds <= maxLagSeconds) {
+                return replica.name();
+            }
+        }
+        return null;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.routing.health-check-interval-ms:2000}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean wasUsable = replica.healthy && replica.lagSeconds <= maxLagSeconds;
+            check(replica);
+            boolean usable = replica.healthy && replica.lagSeconds <= maxLagSeconds;
+            if (wasUsable != usable) {
+                logger.warn("Replica {} is now {} (healthy={}, lag={}s).", replica.name(),
+                        usable ? "in rotation" : "out of rotation", replica.healthy, replica.lagSeconds);
+            }
+        }
+    }
+
+    private void check(Replica replica) {
+        try (Connection connection = replica.dataSource.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(2);
+                try (ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+                    rs.next();
+                    replica.lagSeconds = rs.getDouble(1);
+                }
+            } catch (SQLException e) {
+                // Not PostgreSQL (e.g. an H2 stand-in): no lag to measure, only liveness.
+                if (!connection.isValid(2)) {
+                    throw e;
+                }
+                replica.lagSeconds = 0;
+            }
+            replica.healthy = true;
+        } catch (SQLException e) {
+            replica.healthy = false;
+            logger.debug("Replica {} health check failed: {}", replica.name(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(r -> r.dataSource.close());
+    }
+
+    private static final class Replica {
+        private final HikariDataSource dataSource;
+        // Start out of rotation until the first check has measured the lag.
+        private volatile boolean healthy;
+        private volatile double lagSeconds;
+
+        private Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        private String name() {
+            return dataSource.getPoolName();
+        }
+    }
+}
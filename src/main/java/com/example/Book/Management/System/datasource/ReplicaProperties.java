@@ -0,0 +1,51 @@
+package com.example.Book.Management.System.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replica settings under {@code datasource.routing}. Routing is only enabled when at least one
+ * replica URL is configured; credentials default to those of the primary.
+ */
+@ConfigurationProperties(prefix = "datasource.routing")
+public class ReplicaProperties {
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    // Replicas further behind than this are skipped until they catch up.
+    private long maxLagSeconds = 5;
+
+    private long healthCheckIntervalMs = 2000;
+
+    // How long a user's reads stay on the primary after one of their own writes.
+    private long readYourWritesSeconds = 10;
+
+    public List<Replica> getReplicas() { return replicas; }
+    public void setReplicas(List<Replica> replicas) { this.replicas = replicas; }
+
+    public long getMaxLagSeconds() { return maxLagSeconds; }
+    public void setMaxLagSeconds(long maxLagSeconds) { this.maxLagSeconds = maxLagSeconds; }
+
+    public long getHealthCheckIntervalMs() { return healthCheckIntervalMs; }
+    public void setHealthCheckIntervalMs(long healthCheckIntervalMs) { this.healthCheckIntervalMs = healthCheckIntervalMs; }
+
+    public long getReadYourWritesSeconds() { return readYourWritesSeconds; }
+    public void setReadYourWritesSeconds(long readYourWritesSeconds) { this.readYourWritesSeconds = readYourWritesSeconds; }
+
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+
+        public String getUrl() { return url; }
+        public void setUrl(String url) { this.url = url; }
+
+        public String getUsername() { return username; }
+        public void setUsername(String username) { this.username = username; }
+
+        public String getPassword() { return password; }
+        public void setPassword(String password) { this.password = password; }
+    }
+}
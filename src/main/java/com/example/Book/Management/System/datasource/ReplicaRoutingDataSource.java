@@ -0,0 +1,37 @@
+package com.example.Book.Management.System.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read-only transactions to a replica and everything else to the primary.
+ * Must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, so the
+ * lookup happens once the transaction's read-only flag is known rather than at transaction begin.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final ReplicaPool replicaPool;
+    private final ReadYourWritesTracker readYourWrites;
+
+    public ReplicaRoutingDataSource(ReplicaPool replicaPool, ReadYourWritesTracker readYourWrites) {
+        this.replicaPool = replicaPool;
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                readYourWrites.recordWrite();
+            }
+            return PRIMARY;
+        }
+        if (readYourWrites.isPinned()) {
+            return PRIMARY;
+        }
+        String replica = replicaPool.choose();
+        return replica != null ? replica : PRIMARY;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.Book.Management.System.dto;
+
+import com.example.Book.Management.System.entity.RollupDimension;
+
+public class ActiveLoansDto {
+
+    private RollupDimension dimension;
+    // Author, publisher or user id; 0 for the whole library
+    private long id;
+    // Borrowed and not yet returned, including overdue and lost loans
+    private long activeLoans;
+
+    public ActiveLoansDto() {}
+
+    public ActiveLoansDto(RollupDimension dimension, long id, long activeLoans) {
+        this.dimension = dimension;
+        this.id = id;
+        this.activeLoans = activeLoans;
+    }
+
+    public RollupDimension getDimension() { return dimension; }
+    public void setDimension(RollupDimension dimension) { this.dimension = dimension; }
+
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+
+    public long getActiveLoans() { return activeLoans; }
+    public void setActiveLoans(long activeLoans) { this.activeLoans = activeLoans; }
+}
@@ -0,0 +1,51 @@
+package com.example.Book.Management.System.dto;
+
+import com.example.Book.Management.System.entity.BookStatus;
+
+/**
+ * Availability of a title after a change, as pushed to availability feed subscribers.
+ */
+public class AvailabilityChangeDto {
+
+    private Long bookId;
+    private BookStatus status;
+    private int availableCopies;
+    private int totalCopies;
+    private Long authorId;
+    private Long publisherId;
+    // The title no longer exists
+    private boolean deleted;
+
+    public AvailabilityChangeDto() {}
+
+    public AvailabilityChangeDto(Long bookId, BookStatus status, int availableCopies, int totalCopies,
+                                 Long authorId, Long publisherId) {
+        this.bookId = bookId;
+        this.status = status;
+        this.availableCopies = availableCopies;
+        this.totalCopies = totalCopies;
+        this.authorId = authorId;
+        this.publisherId = publisherId;
+    }
+
+    public Long getBookId() { return bookId; }
+    public void setBookId(Long bookId) { this.bookId = bookId; }
+
+    public BookStatus getStatus() { return status; }
+    public void setStatus(BookStatus status) { this.status = status; }
+
+    public int getAvailableCopies() { return availableCopies; }
+    public void setAvailableCopies(int availableCopies) { this.availableCopies = availableCopies; }
+
+    public int getTotalCopies() { return totalCopies; }
+    public void setTotalCopies(int totalCopies) { this.totalCopies = totalCopies; }
+
+    public Long getAuthorId() { return authorId; }
+    public void setAuthorId(Long authorId) { this.authorId = authorId; }
+
+    public Long getPublisherId() { return publisherId; }
+    public void setPublisherId(Long publisherId) { this.publisherId = publisherId; }
+
+    public boolean isDeleted() { return deleted; }
+    public void setDeleted(boolean deleted) { this.deleted = deleted; }
+}
@@ -0,0 +1,21 @@
+package com.example.Book.Management.System.dto;
+
+public class AvailabilityDto {
+
+    private Long bookId;
+    // From the per-node counter; may trail a borrow on another instance by one refresh interval
+    private long availableCopies;
+
+    public AvailabilityDto() {}
+
+    public AvailabilityDto(Long bookId, long availableCopies) {
+        this.bookId = bookId;
+        this.availableCopies = availableCopies;
+    }
+
+    public Long getBookId() { return bookId; }
+    public void setBookId(Long bookId) { this.bookId = bookId; }
+
+    public long getAvailableCopies() { return availableCopies; }
+    public void setAvailableCopies(long availableCopies) { this.availableCopies = availableCopies; }
+}
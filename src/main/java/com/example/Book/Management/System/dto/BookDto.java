@@ -39,6 +39,14 @@ public class BookDto {
     private String authorName;
     private String publisherName;
 
+    // Copies to create with a new book (default 1); read-only afterwards, see POST /api/books/{id}/copies.
+    @Min(value = 1, message = "A book needs at least one copy")
+    private Integer totalCopies;
+    private Integer availableCopies;
+
+    // Optional on update: when present it must match the stored version, otherwise 409.
+    private Long version;
+
     // Constructors
     public BookDto() {}
 
@@ -70,6 +78,12 @@ public class BookDto {
     public String getCoverImageUrl() { return coverImageUrl; }
     public void setCoverImageUrl(String coverImageUrl) { this.coverImageUrl = coverImageUrl; }
 
+    public Integer getTotalCopies() { return totalCopies; }
+    public void setTotalCopies(Integer totalCopies) { this.totalCopies = totalCopies; }
+
+    public Integer getAvailableCopies() { return availableCopies; }
+    public void setAvailableCopies(Integer availableCopies) { this.availableCopies = availableCopies; }
+
     public Long getAuthorId() { return authorId; }
     public void setAuthorId(Long authorId) { this.authorId = authorId; }
 
@@ -81,4 +95,7 @@ public class BookDto {
 
     public String getPublisherName() { return publisherName; }
     public void setPublisherName(String publisherName) { this.publisherName = publisherName; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
@@ -0,0 +1,43 @@
+package com.example.Book.Management.System.dto;
+
+import com.example.Book.Management.System.entity.BorrowStatus;
+
+import java.time.LocalDate;
+
+public class BorrowHistoryDto {
+
+    private Long id;
+    private Long userId;
+    private Long bookId;
+    private Long copyId;
+    private LocalDate borrowDate;
+    private LocalDate dueDate;
+    private LocalDate returnDate;
+    private BorrowStatus status;
+
+    public BorrowHistoryDto() {}
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Long getBookId() { return bookId; }
+    public void setBookId(Long bookId) { this.bookId = bookId; }
+
+    public Long getCopyId() { return copyId; }
+    public void setCopyId(Long copyId) { this.copyId = copyId; }
+
+    public LocalDate getBorrowDate() { return borrowDate; }
+    public void setBorrowDate(LocalDate borrowDate) { this.borrowDate = borrowDate; }
+
+    public LocalDate getDueDate() { return dueDate; }
+    public void setDueDate(LocalDate dueDate) { this.dueDate = dueDate; }
+
+    public LocalDate getReturnDate() { return returnDate; }
+    public void setReturnDate(LocalDate returnDate) { this.returnDate = returnDate; }
+
+    public BorrowStatus getStatus() { return status; }
+    public void setStatus(BorrowStatus status) { this.status = status; }
+}
@@ -0,0 +1,31 @@
+package com.example.Book.Management.System.dto;
+
+import java.util.List;
+
+/**
+ * One page of a borrow history, newest first. Pass {@code nextCursor} back as {@code cursor} to
+ * continue.
+ */
+public class BorrowHistoryPageDto {
+
+    private List<BorrowHistoryDto> records;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public BorrowHistoryPageDto() {}
+
+    public BorrowHistoryPageDto(List<BorrowHistoryDto> records, String nextCursor, boolean hasMore) {
+        this.records = records;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<BorrowHistoryDto> getRecords() { return records; }
+    public void setRecords(List<BorrowHistoryDto> records) { this.records = records; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
@@ -0,0 +1,37 @@
+package com.example.Book.Management.System.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A single entry of the delta feed: either an upsert carrying the current row or a delete tombstone.
+ */
+public class ChangeDto {
+
+    public enum Operation { UPSERT, DELETE }
+
+    private Operation op;
+    private Long id;
+    private LocalDateTime changedAt;
+    private BookDto book;
+
+    public ChangeDto() {}
+
+    public ChangeDto(Operation op, Long id, LocalDateTime changedAt, BookDto book) {
+        this.op = op;
+        this.id = id;
+        this.changedAt = changedAt;
+        this.book = book;
+    }
+
+    public Operation getOp() { return op; }
+    public void setOp(Operation op) { this.op = op; }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public LocalDateTime getChangedAt() { return changedAt; }
+    public void setChangedAt(LocalDateTime changedAt) { this.changedAt = changedAt; }
+
+    public BookDto getBook() { return book; }
+    public void setBook(BookDto book) { this.book = book; }
+}
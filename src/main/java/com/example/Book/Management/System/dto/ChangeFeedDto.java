@@ -0,0 +1,30 @@
+package com.example.Book.Management.System.dto;
+
+import java.util.List;
+
+/**
+ * One page of the delta feed. Pass {@code nextCursor} back as {@code cursor} to continue.
+ */
+public class ChangeFeedDto {
+
+    private List<ChangeDto> changes;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public ChangeFeedDto() {}
+
+    public ChangeFeedDto(List<ChangeDto> changes, String nextCursor, boolean hasMore) {
+        this.changes = changes;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<ChangeDto> getChanges() { return changes; }
+    public void setChanges(List<ChangeDto> changes) { this.changes = changes; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
@@ -0,0 +1,44 @@
+package com.example.Book.Management.System.dto;
+
+import com.example.Book.Management.System.entity.HoldStatus;
+
+import java.time.LocalDateTime;
+
+public class HoldDto {
+
+    private Long id;
+    private Long bookId;
+    private Long userId;
+    private HoldStatus status;
+    // 1 = next in line; 0 once the hold is no longer waiting
+    private long position;
+    private LocalDateTime createdAt;
+    private LocalDateTime readyAt;
+    private LocalDateTime pickupDeadline;
+
+    public HoldDto() {}
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getBookId() { return bookId; }
+    public void setBookId(Long bookId) { this.bookId = bookId; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public HoldStatus getStatus() { return status; }
+    public void setStatus(HoldStatus status) { this.status = status; }
+
+    public long getPosition() { return position; }
+    public void setPosition(long position) { this.position = position; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getReadyAt() { return readyAt; }
+    public void setReadyAt(LocalDateTime readyAt) { this.readyAt = readyAt; }
+
+    public LocalDateTime getPickupDeadline() { return pickupDeadline; }
+    public void setPickupDeadline(LocalDateTime pickupDeadline) { this.pickupDeadline = pickupDeadline; }
+}
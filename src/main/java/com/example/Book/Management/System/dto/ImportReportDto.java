@@ -0,0 +1,53 @@
+package com.example.Book.Management.System.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportReportDto {
+
+    private long rowsRead;
+    private long upserted;
+    private long failed;
+    private boolean errorsTruncated;
+    private long durationMs;
+    private final List<RowError> errors = new ArrayList<>();
+
+    public ImportReportDto() {}
+
+    public void addError(long line, String isbn, String message, int maxErrors) {
+        failed++;
+        if (errors.size() < maxErrors) {
+            errors.add(new RowError(line, isbn, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    public void rowRead() { rowsRead++; }
+    public void upserted(long count) { upserted += count; }
+
+    public long getRowsRead() { return rowsRead; }
+    public long getUpserted() { return upserted; }
+    public long getFailed() { return failed; }
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+    public List<RowError> getErrors() { return errors; }
+
+    public long getDurationMs() { return durationMs; }
+    public void setDurationMs(long durationMs) { this.durationMs = durationMs; }
+
+    public static class RowError {
+        private final long line;
+        private final String isbn;
+        private final String message;
+
+        public RowError(long line, String isbn, String message) {
+            this.line = line;
+            this.isbn = isbn;
+            this.message = message;
+        }
+
+        public long getLine() { return line; }
+        public String getIsbn() { return isbn; }
+        public String getMessage() { return message; }
+    }
+}
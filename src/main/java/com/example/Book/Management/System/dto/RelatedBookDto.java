@@ -0,0 +1,33 @@
+package com.example.Book.Management.System.dto;
+
+import com.example.Book.Management.System.entity.BookStatus;
+
+public class RelatedBookDto {
+
+    private Long bookId;
+    private String isbn;
+    private BookStatus status;
+    // Patrons who borrowed both titles; an upper bound once the neighbor list has filled up
+    private int coBorrowers;
+
+    public RelatedBookDto() {}
+
+    public RelatedBookDto(Long bookId, String isbn, BookStatus status, int coBorrowers) {
+        this.bookId = bookId;
+        this.isbn = isbn;
+        this.status = status;
+        this.coBorrowers = coBorrowers;
+    }
+
+    public Long getBookId() { return bookId; }
+    public void setBookId(Long bookId) { this.bookId = bookId; }
+
+    public String getIsbn() { return isbn; }
+    public void setIsbn(String isbn) { this.isbn = isbn; }
+
+    public BookStatus getStatus() { return status; }
+    public void setStatus(BookStatus status) { this.status = status; }
+
+    public int getCoBorrowers() { return coBorrowers; }
+    public void setCoBorrowers(int coBorrowers) { this.coBorrowers = coBorrowers; }
+}
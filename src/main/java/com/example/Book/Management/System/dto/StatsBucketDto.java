@@ -0,0 +1,27 @@
+package com.example.Book.Management.System.dto;
+
+import java.time.LocalDateTime;
+
+public class StatsBucketDto {
+
+    private LocalDateTime bucketStart;
+    private long borrows;
+    private long returns;
+
+    public StatsBucketDto() {}
+
+    public StatsBucketDto(LocalDateTime bucketStart, long borrows, long returns) {
+        this.bucketStart = bucketStart;
+        this.borrows = borrows;
+        this.returns = returns;
+    }
+
+    public LocalDateTime getBucketStart() { return bucketStart; }
+    public void setBucketStart(LocalDateTime bucketStart) { this.bucketStart = bucketStart; }
+
+    public long getBorrows() { return borrows; }
+    public void setBorrows(long borrows) { this.borrows = borrows; }
+
+    public long getReturns() { return returns; }
+    public void setReturns(long returns) { this.returns = returns; }
+}
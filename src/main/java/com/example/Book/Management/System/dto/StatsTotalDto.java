@@ -0,0 +1,33 @@
+package com.example.Book.Management.System.dto;
+
+import com.example.Book.Management.System.entity.RollupDimension;
+
+public class StatsTotalDto {
+
+    private RollupDimension dimension;
+    // Author, publisher or user id; 0 for the whole library
+    private long id;
+    private long borrows;
+    private long returns;
+
+    public StatsTotalDto() {}
+
+    public StatsTotalDto(RollupDimension dimension, long id, long borrows, long returns) {
+        this.dimension = dimension;
+        this.id = id;
+        this.borrows = borrows;
+        this.returns = returns;
+    }
+
+    public RollupDimension getDimension() { return dimension; }
+    public void setDimension(RollupDimension dimension) { this.dimension = dimension; }
+
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+
+    public long getBorrows() { return borrows; }
+    public void setBorrows(long borrows) { this.borrows = borrows; }
+
+    public long getReturns() { return returns; }
+    public void setReturns(long returns) { this.returns = returns; }
+}
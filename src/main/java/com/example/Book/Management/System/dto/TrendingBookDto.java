@@ -0,0 +1,33 @@
+package com.example.Book.Management.System.dto;
+
+import com.example.Book.Management.System.entity.BookStatus;
+
+public class TrendingBookDto {
+
+    private Long bookId;
+    private String isbn;
+    private BookStatus status;
+    // Count-min estimate for this instance's traffic; may overcount slightly, never undercounts
+    private long estimatedCount;
+
+    public TrendingBookDto() {}
+
+    public TrendingBookDto(Long bookId, String isbn, BookStatus status, long estimatedCount) {
+        this.bookId = bookId;
+        this.isbn = isbn;
+        this.status = status;
+        this.estimatedCount = estimatedCount;
+    }
+
+    public Long getBookId() { return bookId; }
+    public void setBookId(Long bookId) { this.bookId = bookId; }
+
+    public String getIsbn() { return isbn; }
+    public void setIsbn(String isbn) { this.isbn = isbn; }
+
+    public BookStatus getStatus() { return status; }
+    public void setStatus(BookStatus status) { this.status = status; }
+
+    public long getEstimatedCount() { return estimatedCount; }
+    public void setEstimatedCount(long estimatedCount) { this.estimatedCount = estimatedCount; }
+}
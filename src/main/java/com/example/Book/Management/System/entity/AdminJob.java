@@ -0,0 +1,85 @@
+package com.example.Book.Management.System.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A long-running admin operation. The checkpoint is written by the handler after every chunk,
+ * so a job picked up again after a crash or restart continues from there.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "admin_jobs", indexes = {
+        @Index(name = "idx_admin_jobs_status", columnList = "status, id")
+})
+public class AdminJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 50)
+    private String type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private JobStatus status;
+
+    // JSON object given at submission
+    @Column(columnDefinition = "text")
+    private String params;
+
+    // Opaque handler-defined resume position
+    @Column(columnDefinition = "text")
+    private String checkpoint;
+
+    @Column(nullable = false)
+    private long processed;
+
+    private Long total;
+
+    // JSON summary written when the job finishes
+    @Column(columnDefinition = "text")
+    private String result;
+
+    @Column(length = 1000)
+    private String message;
+
+    @Column(name = "submitted_by", length = 100)
+    private String submittedBy;
+
+    // Node currently running the job
+    @Column(length = 100)
+    private String owner;
+
+    @Column(name = "cancel_requested", nullable = false)
+    private boolean cancelRequested;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    public AdminJob(String type, String params, String submittedBy) {
+        this.type = type;
+        this.params = params;
+        this.submittedBy = submittedBy;
+        this.status = JobStatus.QUEUED;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
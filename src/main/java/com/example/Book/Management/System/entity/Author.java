@@ -1,6 +1,7 @@
 package com.example.Book.Management.System.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -10,7 +11,12 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "authors")
+@DynamicUpdate
+@Table(name = "authors", indexes = {
+        @Index(name = "idx_authors_updated_at", columnList = "updated_at, id"),
+        @Index(name = "idx_authors_book_count", columnList = "book_count DESC, id"),
+        @Index(name = "idx_authors_available_count", columnList = "available_count DESC, id")
+})
 public class Author {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -37,6 +43,19 @@ public class Author {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    private Long version;
+
+    // Maintained by CatalogCountService in the transactions that change the author's titles;
+    // never written through the entity.
+    @Column(name = "book_count", columnDefinition = "integer default 0 not null", insertable = false, updatable = false)
+    private int bookCount;
+
+    // Titles with at least one copy on the shelf
+    @Column(name = "available_count", columnDefinition = "integer default 0 not null", insertable = false, updatable = false)
+    private int availableCount;
+
     @OneToMany(mappedBy = "author", cascade = {CascadeType.PERSIST, CascadeType.MERGE}, fetch = FetchType.LAZY)
     @JsonManagedReference
     private List<Book> books;
@@ -84,6 +103,13 @@ public class Author {
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    public int getBookCount() { return bookCount; }
+
+    public int getAvailableCount() { return availableCount; }
+
     public List<Book> getBooks() { return books; }
     public void setBooks(List<Book> books) { this.books = books; }
 }
@@ -0,0 +1,43 @@
+package com.example.Book.Management.System.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Shared cursor of a batch pass over a large table. Instances lock the row, take the next
+ * keyset window and advance {@code lastId} in the same transaction as the window's updates,
+ * so several nodes can work through one pass without overlapping and a restart resumes it.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "batch_checkpoints")
+public class BatchCheckpoint {
+
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    // Highest id already processed in the current pass; 0 between passes
+    @Column(name = "last_id", nullable = false)
+    private long lastId;
+
+    @Column(name = "pass_started_at")
+    private LocalDateTime passStartedAt;
+
+    @Column(name = "pass_finished_at")
+    private LocalDateTime passFinishedAt;
+
+    @Column(name = "updated_by", length = 100)
+    private String updatedBy;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public BatchCheckpoint(String name) {
+        this.name = name;
+    }
+}
@@ -2,6 +2,7 @@ package com.example.Book.Management.System.entity;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import jakarta.validation.constraints.Min;
@@ -14,7 +15,12 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "books")
+@DynamicUpdate
+@Table(name = "books", indexes = {
+        @Index(name = "idx_books_updated_at", columnList = "updated_at, id"),
+        @Index(name = "idx_books_author_id", columnList = "author_id"),
+        @Index(name = "idx_books_publisher_id", columnList = "publisher_id")
+})
 @AllArgsConstructor
 public class Book {
     @Id
@@ -44,19 +50,32 @@ public class Book {
     @Column(precision = 10, scale = 2)
     private BigDecimal price;
 
+    // Follows the copies (see InventoryService); staff blocks go through the status-change job.
     @Enumerated(EnumType.STRING)
-    @Column(nullable = false)
+    @Column(nullable = false, updatable = false)
     private BookStatus status = BookStatus.AVAILABLE;
 
     @Column(name = "cover_image_url")
     private String coverImageUrl;
 
+    // Maintained by circulation (see InventoryService), not by catalog edits.
+    @Column(name = "total_copies", updatable = false, columnDefinition = "integer default 1 not null")
+    private Integer totalCopies = 1;
+
+    @Column(name = "available_copies", updatable = false, columnDefinition = "integer default 1 not null")
+    private Integer availableCopies = 1;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Default keeps ddl-auto able to add the column to tables that already have rows.
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id", nullable = false)
     @JsonBackReference
@@ -125,12 +144,21 @@ public class Book {
     public String getCoverImageUrl() { return coverImageUrl; }
     public void setCoverImageUrl(String coverImageUrl) { this.coverImageUrl = coverImageUrl; }
 
+    public Integer getTotalCopies() { return totalCopies; }
+    public void setTotalCopies(Integer totalCopies) { this.totalCopies = totalCopies; }
+
+    public Integer getAvailableCopies() { return availableCopies; }
+    public void setAvailableCopies(Integer availableCopies) { this.availableCopies = availableCopies; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     public Author getAuthor() { return author; }
     public void setAuthor(Author author) { this.author = author; }
 
@@ -0,0 +1,37 @@
+package com.example.Book.Management.System.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One physical copy of a title ({@link Book}). Circulation moves copies; the title only keeps
+ * the {@code available_copies} counter.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "book_copies", indexes = {
+        @Index(name = "idx_book_copies_book_status", columnList = "book_id, status, id")
+})
+public class BookCopy {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    @Column(nullable = false, unique = true, length = 40)
+    private String barcode;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private CopyStatus status;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,62 @@
+package com.example.Book.Management.System.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A patron's place in a book's hold queue. Holds are served in id order.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "book_holds", indexes = {
+        @Index(name = "idx_book_holds_book_status", columnList = "book_id, status, id"),
+        @Index(name = "idx_book_holds_user_status", columnList = "user_id, status"),
+        @Index(name = "idx_book_holds_status_deadline", columnList = "status, pickup_deadline")
+})
+public class BookHold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private HoldStatus status;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Copy set aside for a READY hold
+    @Column(name = "copy_id")
+    private Long copyId;
+
+    @Column(name = "ready_at")
+    private LocalDateTime readyAt;
+
+    @Column(name = "pickup_deadline")
+    private LocalDateTime pickupDeadline;
+
+    @Column(name = "closed_at")
+    private LocalDateTime closedAt;
+
+    public BookHold(Long bookId, Long userId) {
+        this.bookId = bookId;
+        this.userId = userId;
+        this.status = HoldStatus.WAITING;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.Book.Management.System.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Says that a user or a book has loans in the archive segment of {@code month}, so a history
+ * page only opens the segments that can contain its rows.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "borrow_archive_members", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_borrow_archive_members", columnNames = {"kind", "member_id", "month"})
+})
+public class BorrowArchiveMember {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // 'U' for a user, 'B' for a book
+    @Column(nullable = false, length = 1)
+    private String kind;
+
+    @Column(name = "member_id", nullable = false)
+    private long memberId;
+
+    @Column(nullable = false)
+    private LocalDate month;
+}
@@ -0,0 +1,43 @@
+package com.example.Book.Management.System.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One archive file of RETURNED loans, holding every archived loan borrowed in {@code month}.
+ * Re-archiving a month writes a new file and repoints the row, so readers never see a half
+ * written file.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "borrow_archive_segments", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_borrow_archive_segments_month", columnNames = "month")
+})
+public class BorrowArchiveSegment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // First day of the month
+    @Column(nullable = false)
+    private LocalDate month;
+
+    @Column(name = "file_name", nullable = false, length = 100)
+    private String fileName;
+
+    @Column(name = "row_count", nullable = false)
+    private long rowCount;
+
+    // Latest return among the archived loans; circulation rollups cannot be rebuilt up to it
+    @Column(name = "last_return_date")
+    private LocalDate lastReturnDate;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -12,7 +12,15 @@ import java.time.LocalDate;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "borrow_record")
+@Table(name = "borrow_record", indexes = {
+        @Index(name = "idx_borrow_record_status_id", columnList = "status, id"),
+        // Day ranges for the circulation rollup backfill
+        @Index(name = "idx_borrow_record_borrow_date", columnList = "borrow_date"),
+        @Index(name = "idx_borrow_record_return_date", columnList = "return_date"),
+        // Keyset history pages; the open-loan variants are partial, see BorrowHistoryIndexes
+        @Index(name = "idx_borrow_record_user_history", columnList = "user_id, borrow_date, id"),
+        @Index(name = "idx_borrow_record_book_history", columnList = "book_id, borrow_date, id")
+})
 public class BorrowRecord {
 
     @Id
@@ -29,10 +37,19 @@ public class BorrowRecord {
     @JsonBackReference
     private Book book;
 
+    // The physical copy lent out; null for loans recorded before copies were tracked
+    @Column(name = "copy_id")
+    private Long copyId;
+
+    // Partition key of borrow_record, see BorrowRecordPartitions
+    @Column(name = "borrow_date", nullable = false)
     private LocalDate borrowDate;
 
     private LocalDate returnDate;
 
+    // Null for loans recorded before due dates were tracked
+    private LocalDate dueDate;
+
     @Enumerated(EnumType.STRING)
     private BorrowStatus status;
 
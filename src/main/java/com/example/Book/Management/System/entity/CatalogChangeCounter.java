@@ -0,0 +1,25 @@
+package com.example.Book.Management.System.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-table counter bumped by every committed write, used to derive list ETags cheaply.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "catalog_change_counters")
+public class CatalogChangeCounter {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", length = 20)
+    private CatalogEntityType entityType;
+
+    @Column(nullable = false)
+    private long version;
+}
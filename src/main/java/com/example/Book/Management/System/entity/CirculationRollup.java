@@ -0,0 +1,48 @@
+package com.example.Book.Management.System.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Borrows and returns counted per time bucket and dimension, so circulation dashboards read a
+ * handful of rows per bucket instead of scanning {@code borrow_record}. HOUR rows exist for the
+ * library as a whole only; DAY rows for every dimension.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "circulation_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_circulation_rollups_bucket",
+                columnNames = {"dimension", "dimension_id", "grain", "bucket_start"})
+}, indexes = {
+        @Index(name = "idx_circulation_rollups_ranking", columnList = "dimension, grain, bucket_start")
+})
+public class CirculationRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private RollupDimension dimension;
+
+    @Column(name = "dimension_id", nullable = false)
+    private long dimensionId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private RollupGrain grain;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false)
+    private long borrows;
+
+    @Column(nullable = false)
+    private long returns;
+}
@@ -0,0 +1,42 @@
+package com.example.Book.Management.System.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A named, time-limited lock shared by all instances. {@code token} grows by one on every
+ * acquisition and serves as a fencing token: a holder whose token is no longer current has lost
+ * the lease, whatever it believes.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "cluster_leases")
+public class ClusterLease {
+
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    @Column(length = 100)
+    private String owner;
+
+    @Column(nullable = false)
+    private long token;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    @Column(name = "acquired_at")
+    private LocalDateTime acquiredAt;
+
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    public ClusterLease(String name) {
+        this.name = name;
+    }
+}
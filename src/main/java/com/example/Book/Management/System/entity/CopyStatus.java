@@ -0,0 +1,8 @@
+package com.example.Book.Management.System.entity;
+
+public enum CopyStatus {
+    AVAILABLE, BORROWED,
+    // Held for the patron at the head of the title's hold queue
+    RESERVED,
+    WITHDRAWN
+}
@@ -0,0 +1,9 @@
+package com.example.Book.Management.System.entity;
+
+public enum HoldStatus {
+    // In the queue behind other patrons
+    WAITING,
+    // The book is RESERVED for this patron until the pickup deadline
+    READY,
+    FULFILLED, EXPIRED, CANCELLED
+}
@@ -0,0 +1,45 @@
+package com.example.Book.Management.System.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A client-supplied {@code Idempotency-Key} and the response it produced. While the first request
+ * is still running the response columns are empty and {@code expiresAt} is a short claim timeout,
+ * so a key left behind by a crashed instance can be taken over.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_expires", columnList = "expires_at")
+})
+public class IdempotencyKey {
+
+    // "<username>:<key>", so clients cannot collide with each other's keys
+    @Id
+    @Column(length = 250)
+    private String id;
+
+    // SHA-256 of method, path and body; a reused key with a different request is rejected
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(name = "response_status")
+    private Integer responseStatus;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Column(name = "response_body", columnDefinition = "bytea")
+    private byte[] responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -1,19 +1,27 @@
 package com.example.Book.Management.System.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "publishers")
+@DynamicUpdate
+@Table(name = "publishers", indexes = {
+        @Index(name = "idx_publishers_updated_at", columnList = "updated_at, id"),
+        @Index(name = "idx_publishers_book_count", columnList = "book_count DESC, id"),
+        @Index(name = "idx_publishers_available_count", columnList = "available_count DESC, id")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -43,6 +51,19 @@ public class Publisher {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    private Long version;
+
+    // Maintained by CatalogCountService, like Author's
+    @Column(name = "book_count", columnDefinition = "integer default 0 not null", insertable = false, updatable = false)
+    @Setter(AccessLevel.NONE)
+    private int bookCount;
+
+    @Column(name = "available_count", columnDefinition = "integer default 0 not null", insertable = false, updatable = false)
+    @Setter(AccessLevel.NONE)
+    private int availableCount;
+
     @OneToMany(mappedBy = "publisher", cascade = {CascadeType.PERSIST, CascadeType.MERGE}, fetch = FetchType.LAZY)
     @JsonManagedReference
     private List<Book> books;
@@ -91,6 +112,13 @@ public class Publisher {
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    public int getBookCount() { return bookCount; }
+
+    public int getAvailableCount() { return availableCount; }
+
     public List<Book> getBooks() { return books; }
     public void setBooks(List<Book> books) { this.books = books; }
 }
\ No newline at end of file
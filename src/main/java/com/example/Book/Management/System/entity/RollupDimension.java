@@ -0,0 +1,6 @@
+package com.example.Book.Management.System.entity;
+
+// ALL rows are library-wide and use dimension id 0.
+public enum RollupDimension {
+    ALL, AUTHOR, PUBLISHER, USER
+}
@@ -0,0 +1,5 @@
+package com.example.Book.Management.System.entity;
+
+public enum RollupGrain {
+    HOUR, DAY
+}
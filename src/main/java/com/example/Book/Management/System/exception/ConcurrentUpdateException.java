@@ -0,0 +1,21 @@
+package com.example.Book.Management.System.exception;
+
+/**
+ * Thrown when an update lost an optimistic-locking race, either because the caller sent a stale
+ * version or because retries against concurrent writers ran out.
+ */
+public class ConcurrentUpdateException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long currentVersion;
+
+    public ConcurrentUpdateException(String entity, Long id, Long currentVersion) {
+        super(entity + " " + id + " was modified concurrently; current version is " + currentVersion);
+        this.currentVersion = currentVersion;
+    }
+
+    public Long getCurrentVersion() {
+        return currentVersion;
+    }
+}
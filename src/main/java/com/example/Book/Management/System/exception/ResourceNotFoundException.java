@@ -0,0 +1,13 @@
+package com.example.Book.Management.System.exception;
+
+/**
+ * Thrown when the record a request addresses does not exist. Mapped to {@code 404}.
+ */
+public class ResourceNotFoundException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ResourceNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.Book.Management.System.exception;
+
+/**
+ * Thrown when a bounded resource is saturated and the request is shed rather than queued.
+ * Mapped to {@code 503} with a {@code Retry-After} header.
+ */
+public class ServerBusyException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public ServerBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.Book.Management.System.exception;
+
+/**
+ * Thrown when a caller has used up its request allowance. Mapped to {@code 429} with a
+ * {@code Retry-After} header.
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.Book.Management.System.exporter;
+
+import com.example.Book.Management.System.archive.BorrowArchive;
+import com.example.Book.Management.System.entity.BorrowStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams whole tables out of the database for offline analysis.
+ * Each export runs in one read-only REPEATABLE READ transaction, so it sees a single consistent
+ * snapshot no matter how long it takes. Rows come from a server-side cursor ({@code fetchSize})
+ * and go straight to the response stream. A slow client blocks the writer, and the writer stops
+ * fetching, so memory stays bounded by the fetch size and the write buffer. Archived borrow
+ * records follow the live ones, month by month, from the archive files of the same snapshot.
+ */
+@Service
+public class CatalogExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogExportService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate snapshotTx;
+    private final ObjectMapper objectMapper;
+    private final BorrowArchive archive;
+
+    public CatalogExportService(DataSource dataSource, PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper, BorrowArchive archive,
+                                @Value("${catalog.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.snapshotTx = new TransactionTemplate(transactionManager);
+        this.snapshotTx.setReadOnly(true);
+        this.snapshotTx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.objectMapper = objectMapper;
+        this.archive = archive;
+    }
+
+    /**
+     * @param includeArchived for datasets with an archive, also export the archived rows
+     */
+    public void export(ExportDataset dataset, ExportFormat format, boolean gzip, boolean includeArchived,
+                       OutputStream target) throws IOException {
+        long start = System.currentTimeMillis();
+        OutputStream stream = gzip ? new GZIPOutputStream(target, 1 << 16) : target;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), 1 << 16);
+        RowWriter rows = format == ExportFormat.NDJSON ? new NdjsonRowWriter(writer, objectMapper) : new CsvRowWriter(writer);
+
+        long count;
+        try {
+            count = snapshotTx.execute(status -> {
+                long written = jdbcTemplate.query(dataset.getSql(), (ResultSetExtractor<Long>) rs -> writeAll(rs, rows));
+                return includeArchived && dataset.hasArchive() ? written + writeArchived(rows) : written;
+            });
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; the transaction has been rolled back and the cursor closed.
+            logger.warn("Export of {} aborted after {} ms: {}", dataset, System.currentTimeMillis() - start,
+                    e.getCause().getMessage());
+            throw e.getCause();
+        }
+
+        rows.finish();
+        writer.flush();
+        if (stream instanceof GZIPOutputStream gz) {
+            gz.finish();
+        }
+        logger.info("Exported {} {} rows as {} in {} ms.", count, dataset, format, System.currentTimeMillis() - start);
+    }
+
+    private static long writeAll(ResultSet rs, RowWriter rows) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        int columnCount = meta.getColumnCount();
+        String[] columns = new String[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            columns[i] = meta.getColumnLabel(i + 1).toLowerCase();
+        }
+
+        long count = 0;
+        Object[] values = new Object[columnCount];
+        try {
+            rows.header(columns);
+            while (rs.next()) {
+                for (int i = 0; i < columnCount; i++) {
+                    values[i] = normalize(rs.getObject(i + 1));
+                }
+                rows.row(values);
+                count++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count;
+    }
+
+    private long writeArchived(RowWriter rows) {
+        long[] count = {0};
+        try {
+            archive.forEachLoan(false, (id, userId, bookId, copyId, borrowDate, dueDate, returnDate) -> {
+                try {
+                    rows.row(new Object[]{id, userId, bookId, string(borrowDate), string(dueDate), string(returnDate),
+                            BorrowStatus.RETURNED.name(), copyId});
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                count[0]++;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count[0];
+    }
+
+    private static String string(Object value) {
+        return value == null ? null : value.toString();
+    }
+
+    private static Object normalize(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toString();
+        }
+        if (value instanceof Date date) {
+            return date.toLocalDate().toString();
+        }
+        if (value instanceof Number || value instanceof Boolean || value == null) {
+            return value;
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.Book.Management.System.exporter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+
+class CsvRowWriter implements RowWriter {
+
+    private final Writer out;
+
+    CsvRowWriter(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public void header(String[] columns) throws IOException {
+        row(columns);
+    }
+
+    @Override
+    public void row(Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            if (values[i] != null) {
+                writeField(values[i] instanceof BigDecimal decimal ? decimal.toPlainString() : values[i].toString());
+            }
+        }
+        out.write("\r\n");
+    }
+
+    @Override
+    public void finish() throws IOException {
+        out.flush();
+    }
+
+    private void writeField(String value) throws IOException {
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.Book.Management.System.exporter;
+
+/**
+ * Exportable tables and the columns each one exposes. Password hashes are never exported.
+ * Borrow records also cover the loans moved to the borrow archive, in the same columns.
+ */
+public enum ExportDataset {
+    BOOKS("books", "SELECT id, isbn, title, description, publication_date, page_count, price, status, "
+            + "total_copies, available_copies, cover_image_url, author_id, publisher_id, created_at, updated_at, version FROM books ORDER BY id"),
+    AUTHORS("authors", "SELECT id, name, email, birth_date, biography, created_at, updated_at, version "
+            + "FROM authors ORDER BY id"),
+    PUBLISHERS("publishers", "SELECT id, name, email, address, phone_number, created_at, updated_at, version "
+            + "FROM publishers ORDER BY id"),
+    USERS("users", "SELECT id, username, first_name, last_name, email, role, created_at, updated_at, version "
+            + "FROM users ORDER BY id"),
+    // Columns in the order BorrowArchive.LoanVisitor rows are written in
+    BORROW_RECORDS("borrow-records", "SELECT id, user_id, book_id, borrow_date, due_date, return_date, status, copy_id "
+            + "FROM borrow_record ORDER BY id", true);
+
+    private final String path;
+    private final String sql;
+    private final boolean archived;
+
+    ExportDataset(String path, String sql) {
+        this(path, sql, false);
+    }
+
+    ExportDataset(String path, String sql, boolean archived) {
+        this.path = path;
+        this.sql = sql;
+        this.archived = archived;
+    }
+
+    public String getPath() { return path; }
+    String getSql() { return sql; }
+    public boolean hasArchive() { return archived; }
+
+    public static ExportDataset fromPath(String path) {
+        for (ExportDataset dataset : values()) {
+            if (dataset.path.equals(path)) {
+                return dataset;
+            }
+        }
+        throw new IllegalArgumentException("Unknown export dataset: " + path);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.Book.Management.System.exporter;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+
+class NdjsonRowWriter implements RowWriter {
+
+    private final JsonGenerator generator;
+    private String[] columns;
+
+    NdjsonRowWriter(Writer out, ObjectMapper objectMapper) throws IOException {
+        this.generator = objectMapper.getFactory().createGenerator(out);
+        this.generator.setRootValueSeparator(null);
+    }
+
+    @Override
+    public void header(String[] columns) {
+        this.columns = columns;
+    }
+
+    @Override
+    public void row(Object[] values) throws IOException {
+        generator.writeStartObject();
+        for (int i = 0; i < columns.length; i++) {
+            Object value = values[i];
+            generator.writeFieldName(columns[i]);
+            if (value == null) {
+                generator.writeNull();
+            } else if (value instanceof BigDecimal decimal) {
+                generator.writeNumber(decimal);
+            } else if (value instanceof Long || value instanceof Integer || value instanceof Short) {
+                generator.writeNumber(((Number) value).longValue());
+            } else if (value instanceof Number number) {
+                generator.writeNumber(number.doubleValue());
+            } else if (value instanceof Boolean bool) {
+                generator.writeBoolean(bool);
+            } else {
+                generator.writeString(value.toString());
+            }
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void finish() throws IOException {
+        generator.flush();
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.Book.Management.System.exporter;
+
+import java.io.IOException;
+
+/**
+ * Serializes result rows to the export stream. Values are already normalized to
+ * String, Number, Boolean or null.
+ */
+interface RowWriter {
+
+    void header(String[] columns) throws IOException;
+
+    void row(Object[] values) throws IOException;
+
+    void finish() throws IOException;
+}
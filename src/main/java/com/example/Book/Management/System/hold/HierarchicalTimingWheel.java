@@ -0,0 +1,150 @@
+package com.example.Book.Management.System.hold;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hierarchical timing wheel: O(1) schedule and cancel for large numbers of deadlines spread over
+ * seconds to months, advanced by one clock instead of one timer per deadline.
+ *
+ * <p>Level {@code i} has {@code wheelSize} slots of {@code tickMs * wheelSize^i} each. A deadline
+ * goes in the finest level whose span still reaches it; when time enters a coarse slot, its
+ * entries cascade into finer levels. Deadlines beyond the top level wait in an overflow set that
+ * is re-sorted on every top-level tick. Keys fire at most {@code tickMs} late and never early.
+ * Not thread-safe; callers synchronize.
+ */
+public class HierarchicalTimingWheel<K> {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long[] levelTicks;
+    private final List<List<Set<K>>> levels = new ArrayList<>();
+    private final Set<K> overflow = new LinkedHashSet<>();
+    private final Map<K, Entry> entries = new HashMap<>();
+    private long now;
+
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, int levelCount, long startMs) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.levelTicks = new long[levelCount];
+        long tick = tickMs;
+        for (int i = 0; i < levelCount; i++) {
+            levelTicks[i] = tick;
+            List<Set<K>> slots = new ArrayList<>(wheelSize);
+            for (int s = 0; s < wheelSize; s++) {
+                slots.add(new LinkedHashSet<>());
+            }
+            levels.add(slots);
+            tick = Math.multiplyExact(tick, wheelSize);
+        }
+        this.now = startMs - Math.floorMod(startMs, tickMs);
+    }
+
+    /**
+     * Schedules or reschedules {@code key}.
+     *
+     * @return {@code false} if the deadline has already passed; the caller should fire it itself
+     */
+    public boolean schedule(K key, long deadlineMs) {
+        cancel(key);
+        if (deadlineMs <= now) {
+            return false;
+        }
+        Entry entry = new Entry(deadlineMs);
+        place(key, entry);
+        entries.put(key, entry);
+        return true;
+    }
+
+    public boolean cancel(K key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        entry.slot.remove(key);
+        return true;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Moves the clock forward to {@code nowMs}.
+     *
+     * @return keys whose deadlines passed, in deadline order within each tick
+     */
+    public List<K> advance(long nowMs) {
+        List<K> expired = new ArrayList<>();
+        while (now + tickMs <= nowMs) {
+            // Level-0 slot of the tick that is ending holds deadlines in [now, now + tickMs).
+            Set<K> slot = levels.get(0).get(slotIndex(0, now));
+            for (K key : slot) {
+                entries.remove(key);
+                expired.add(key);
+            }
+            slot.clear();
+            now += tickMs;
+
+            for (int i = levelTicks.length - 1; i >= 1; i--) {
+                if (now % levelTicks[i] == 0) {
+                    cascade(levels.get(i).get(slotIndex(i, now)), expired);
+                }
+            }
+            if (!overflow.isEmpty() && now % levelTicks[levelTicks.length - 1] == 0) {
+                cascade(overflow, expired);
+            }
+        }
+        return expired;
+    }
+
+    private void cascade(Set<K> slot, List<K> expired) {
+        if (slot.isEmpty()) {
+            return;
+        }
+        List<K> keys = new ArrayList<>(slot);
+        slot.clear();
+        for (K key : keys) {
+            Entry entry = entries.get(key);
+            if (entry.deadlineMs <= now) {
+                entries.remove(key);
+                expired.add(key);
+            } else {
+                place(key, entry);
+            }
+        }
+    }
+
+    private void place(K key, Entry entry) {
+        for (int i = 0; i < levelTicks.length; i++) {
+            long slotTick = entry.deadlineMs / levelTicks[i];
+            long currentTick = now / levelTicks[i];
+            // Level 0's current slot is still pending; coarser current slots have already cascaded.
+            boolean fits = slotTick < currentTick + wheelSize && (i == 0 || slotTick > currentTick);
+            if (fits) {
+                entry.slot = levels.get(i).get((int) Math.floorMod(slotTick, (long) wheelSize));
+                entry.slot.add(key);
+                return;
+            }
+        }
+        entry.slot = overflow;
+        overflow.add(key);
+    }
+
+    private int slotIndex(int level, long timeMs) {
+        return (int) Math.floorMod(timeMs / levelTicks[level], (long) wheelSize);
+    }
+
+    private final class Entry {
+        private final long deadlineMs;
+        private Set<K> slot;
+
+        private Entry(long deadlineMs) {
+            this.deadlineMs = deadlineMs;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.Book.Management.System.hold;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * In-memory pickup-deadline timers for READY holds, driven by one {@link HierarchicalTimingWheel}
+ * ticking once per {@code holds.wheel.tick-ms}. Expired hold ids are handed to the registered
+ * handler on a separate thread so database work never delays the tick.
+ */
+@Component
+public class HoldExpiryWheel {
+
+    private static final Logger logger = LoggerFactory.getLogger(HoldExpiryWheel.class);
+
+    private final HierarchicalTimingWheel<Long> wheel;
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "hold-wheel-tick"));
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> daemon(r, "hold-expiry"));
+    private volatile LongConsumer handler = id -> { };
+
+    public HoldExpiryWheel(@Value("${holds.wheel.tick-ms:1000}") long tickMs,
+                           @Value("${holds.wheel.size:64}") int wheelSize) {
+        // Four levels of 64 one-second slots reach about 194 days before the overflow set is used.
+        this.wheel = new HierarchicalTimingWheel<>(tickMs, wheelSize, 4, System.currentTimeMillis());
+        ticker.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void onExpiry(LongConsumer handler) {
+        this.handler = handler;
+    }
+
+    public void schedule(long holdId, LocalDateTime deadline) {
+        long deadlineMs = deadline.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        boolean scheduled;
+        synchronized (wheel) {
+            scheduled = wheel.schedule(holdId, deadlineMs);
+        }
+        if (!scheduled) {
+            worker.execute(() -> fire(holdId));
+        }
+    }
+
+    public void cancel(long holdId) {
+        synchronized (wheel) {
+            wheel.cancel(holdId);
+        }
+    }
+
+    public int size() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+        worker.shutdownNow();
+    }
+
+    private void tick() {
+        List<Long> expired;
+        synchronized (wheel) {
+            expired = wheel.advance(System.currentTimeMillis());
+        }
+        for (Long holdId : expired) {
+            worker.execute(() -> fire(holdId));
+        }
+    }
+
+    private void fire(long holdId) {
+        try {
+            handler.accept(holdId);
+        } catch (RuntimeException e) {
+            // The DB sweep in HoldService catches anything that failed here.
+            logger.error("Expiring hold {} failed. Error: {}", holdId, e.getMessage(), e);
+        }
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread thread = new Thread(r, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
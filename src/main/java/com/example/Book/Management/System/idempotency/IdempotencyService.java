@@ -0,0 +1,158 @@
+package com.example.Book.Management.System.idempotency;
+
+import com.example.Book.Management.System.cluster.ClusterSingleton;
+import com.example.Book.Management.System.entity.IdempotencyKey;
+import com.example.Book.Management.System.repository.IdempotencyKeyRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Stores idempotency keys and their responses. Completed responses are kept in the
+ * {@code idempotency_keys} table for {@code idempotency.ttl-hours} and mirrored in a byte-bounded
+ * local cache, so a retry storm on one instance is answered from memory. The table is the source
+ * of truth: a retry that lands on another instance finds the response there.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public enum Outcome {
+        // This request owns the key and must run
+        ACQUIRED,
+        // A response is stored; replay it
+        REPLAY,
+        // The first request with this key has not finished yet
+        IN_PROGRESS,
+        // The key was used before for a different request
+        MISMATCH
+    }
+
+    private final IdempotencyKeyRepository keyRepository;
+    private final Cache<String, StoredResponse> cache;
+    private final Duration ttl;
+
+    // How long a claim survives without a response before another request may take the key over.
+    @Value("${idempotency.claim-timeout-seconds:60}")
+    private long claimTimeoutSeconds;
+
+    @Value("${idempotency.purge-chunk-size:5000}")
+    private int purgeChunkSize;
+
+    public IdempotencyService(IdempotencyKeyRepository keyRepository,
+                              @Value("${idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${idempotency.cache.max-bytes:16777216}") long maxBytes,
+                              MeterRegistry meterRegistry) {
+        this.keyRepository = keyRepository;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, StoredResponse value) -> key.length() + value.weight())
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "idempotency_cache");
+    }
+
+    public Claim begin(String id, String requestHash) {
+        StoredResponse cached = cache.getIfPresent(id);
+        if (cached != null) {
+            return replay(cached, requestHash);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime claimUntil = now.plusSeconds(claimTimeoutSeconds);
+        if (keyRepository.claim(id, requestHash, now, claimUntil) == 1
+                || keyRepository.takeOver(id, requestHash, now, claimUntil) == 1) {
+            return Claim.of(Outcome.ACQUIRED);
+        }
+
+        IdempotencyKey existing = keyRepository.findById(id).orElse(null);
+        if (existing == null) {
+            // Purged between the two statements; the client's next retry claims it.
+            return Claim.of(Outcome.IN_PROGRESS);
+        }
+        if (existing.getResponseStatus() == null) {
+            return Claim.of(existing.getRequestHash().equals(requestHash) ? Outcome.IN_PROGRESS : Outcome.MISMATCH);
+        }
+        StoredResponse stored = new StoredResponse(existing.getRequestHash(), existing.getResponseStatus(),
+                existing.getContentType(), existing.getResponseBody());
+        cache.put(id, stored);
+        return replay(stored, requestHash);
+    }
+
+    public void complete(String id, StoredResponse response) {
+        if (keyRepository.complete(id, response.getRequestHash(), response.getStatus(), response.getContentType(),
+                response.getBody(), LocalDateTime.now().plus(ttl)) == 0) {
+            // Our claim timed out and another request took the key; its response wins.
+            logger.warn("Idempotency key {} was taken over before its response was stored.", id);
+            return;
+        }
+        cache.put(id, response);
+    }
+
+    /**
+     * Frees a claimed key without storing a response, so the client's retry runs the request again.
+     */
+    public void release(String id, String requestHash) {
+        keyRepository.release(id, requestHash);
+    }
+
+    @ClusterSingleton
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:600000}",
+            initialDelayString = "${idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        long purged = 0;
+        int deleted;
+        do {
+            deleted = keyRepository.purgeExpired(now, purgeChunkSize);
+            purged += deleted;
+        } while (deleted == purgeChunkSize);
+        if (purged > 0) {
+            logger.info("Purged {} expired idempotency keys.", purged);
+        }
+    }
+
+    private static Claim replay(StoredResponse stored, String requestHash) {
+        if (!stored.getRequestHash().equals(requestHash)) {
+            return Claim.of(Outcome.MISMATCH);
+        }
+        return new Claim(Outcome.REPLAY, stored);
+    }
+
+    /**
+     * Result of {@link #begin}; the response is set for {@link Outcome#REPLAY} only.
+     */
+    public static final class Claim {
+        private final Outcome outcome;
+        private final StoredResponse response;
+
+        private Claim(Outcome outcome, StoredResponse response) {
+            this.outcome = outcome;
+            this.response = response;
+        }
+
+        private static Claim of(Outcome outcome) {
+            return new Claim(outcome, null);
+        }
+
+        public Outcome outcome() {
+            return outcome;
+        }
+
+        public StoredResponse response() {
+            return response;
+        }
+    }
+}
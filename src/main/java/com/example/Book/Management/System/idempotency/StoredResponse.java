@@ -0,0 +1,31 @@
+package com.example.Book.Management.System.idempotency;
+
+/**
+ * The response recorded for an idempotency key, replayed verbatim to retries.
+ */
+public class StoredResponse {
+
+    private final String requestHash;
+    private final int status;
+    private final String contentType;
+    private final byte[] body;
+
+    public StoredResponse(String requestHash, int status, String contentType, byte[] body) {
+        this.requestHash = requestHash;
+        this.status = status;
+        this.contentType = contentType;
+        this.body = body == null ? new byte[0] : body;
+    }
+
+    public String getRequestHash() { return requestHash; }
+
+    public int getStatus() { return status; }
+
+    public String getContentType() { return contentType; }
+
+    public byte[] getBody() { return body; }
+
+    public int weight() {
+        return body.length + 128;
+    }
+}
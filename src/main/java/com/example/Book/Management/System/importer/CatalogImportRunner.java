@@ -0,0 +1,74 @@
+package com.example.Book.Management.System.importer;
+
+import com.example.Book.Management.System.dto.ImportReportDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Command-line import: {@code java -jar app.jar --catalog.import.file=titles.csv}.
+ * The format follows the file extension ({@code .jsonl}/{@code .ndjson}, otherwise CSV) unless
+ * {@code catalog.import.format} is given. The application exits when the import is done unless
+ * {@code catalog.import.exit=false}.
+ */
+@Component
+@ConditionalOnProperty(name = "catalog.import.file")
+public class CatalogImportRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogImportRunner.class);
+
+    private final CatalogImportService catalogImportService;
+    private final ApplicationContext applicationContext;
+
+    @Value("${catalog.import.file}")
+    private String file;
+
+    @Value("${catalog.import.format:}")
+    private String format;
+
+    @Value("${catalog.import.exit:true}")
+    private boolean exit;
+
+    public CatalogImportRunner(CatalogImportService catalogImportService, ApplicationContext applicationContext) {
+        this.catalogImportService = catalogImportService;
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        Path path = Paths.get(file);
+        ImportFormat importFormat = format.isBlank()
+                ? ImportFormat.fromFileName(path.getFileName().toString())
+                : ImportFormat.valueOf(format.toUpperCase());
+
+        int exitCode = 0;
+        try (InputStream in = Files.newInputStream(path)) {
+            ImportReportDto report = catalogImportService.importBooks(in, importFormat);
+            report.getErrors().forEach(error ->
+                    logger.warn("Line {} (ISBN {}): {}", error.getLine(), error.getIsbn(), error.getMessage()));
+            if (report.isErrorsTruncated()) {
+                logger.warn("{} further row errors not listed.", report.getFailed() - report.getErrors().size());
+            }
+            exitCode = report.getFailed() > 0 ? 2 : 0;
+        } catch (Exception e) {
+            logger.error("Catalog import from {} failed. Error: {}", path, e.getMessage(), e);
+            exitCode = 1;
+        }
+
+        if (exit) {
+            int code = exitCode;
+            System.exit(SpringApplication.exit(applicationContext, () -> code));
+        }
+    }
+}
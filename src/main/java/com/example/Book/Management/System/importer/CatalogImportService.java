@@ -0,0 +1,411 @@
+package com.example.Book.Management.System.importer;
+
+import com.example.Book.Management.System.cache.ResponseCache;
+import com.example.Book.Management.System.dto.ImportReportDto;
+import com.example.Book.Management.System.entity.Author;
+import com.example.Book.Management.System.entity.BookStatus;
+import com.example.Book.Management.System.entity.CatalogEntityType;
+import com.example.Book.Management.System.entity.EventAggregate;
+import com.example.Book.Management.System.inventory.InventoryService;
+import com.example.Book.Management.System.entity.Publisher;
+import com.example.Book.Management.System.outbox.Outbox;
+import com.example.Book.Management.System.repository.AuthorRepository;
+import com.example.Book.Management.System.repository.PublisherRepository;
+import com.example.Book.Management.System.service.AuthorService;
+import com.example.Book.Management.System.service.CatalogCountService;
+import com.example.Book.Management.System.service.CatalogVersionService;
+import com.example.Book.Management.System.service.PublisherService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streams a CSV or JSON Lines catalog file into the books table.
+ * Rows are parsed one at a time and upserted by ISBN in JDBC batches, so heap use depends on the
+ * batch size rather than the file size. Authors and publishers are resolved through in-memory
+ * name/email maps and created on first sight. A bad row is reported and skipped.
+ *
+ * <p>Columns (CSV header or JSON member names): {@code isbn, title, description, publicationDate,
+ * pageCount, price, status, coverImageUrl, authorName, authorEmail, publisherName, publisherEmail}.
+ */
+@Service
+public class CatalogImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogImportService.class);
+
+    // Circulation status is owned by the borrow flow, so re-imports leave it alone.
+    private static final String UPSERT_SQL = """
+            INSERT INTO books (title, isbn, description, publication_date, page_count, price, status,
+                               cover_image_url, author_id, publisher_id, created_at, updated_at, version)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)
+            ON CONFLICT (isbn) DO UPDATE SET
+                title = EXCLUDED.title,
+                description = EXCLUDED.description,
+                publication_date = EXCLUDED.publication_date,
+                page_count = EXCLUDED.page_count,
+                price = EXCLUDED.price,
+                cover_image_url = EXCLUDED.cover_image_url,
+                author_id = EXCLUDED.author_id,
+                publisher_id = EXCLUDED.publisher_id,
+                updated_at = EXCLUDED.updated_at,
+                version = books.version + 1
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AuthorRepository authorRepository;
+    private final PublisherRepository publisherRepository;
+    private final CatalogVersionService catalogVersionService;
+    private final ResponseCache responseCache;
+    private final ObjectMapper objectMapper;
+    private final InventoryService inventoryService;
+    private final CatalogCountService catalogCounts;
+    private final Outbox outbox;
+
+    @Value("${catalog.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${catalog.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public CatalogImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                AuthorRepository authorRepository, PublisherRepository publisherRepository,
+                                CatalogVersionService catalogVersionService, ResponseCache responseCache,
+                                ObjectMapper objectMapper, InventoryService inventoryService,
+                                CatalogCountService catalogCounts, Outbox outbox) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.authorRepository = authorRepository;
+        this.publisherRepository = publisherRepository;
+        this.catalogVersionService = catalogVersionService;
+        this.responseCache = responseCache;
+        this.objectMapper = objectMapper;
+        this.inventoryService = inventoryService;
+        this.catalogCounts = catalogCounts;
+        this.outbox = outbox;
+    }
+
+    public ImportReportDto importBooks(InputStream input, ImportFormat format) throws IOException {
+        return importBooks(input, format, 0L, null);
+    }
+
+    /**
+     * Resumable variant used by the import job. Rows up to and including {@code skipThroughLine}
+     * are parsed but not applied, and {@code listener} hears about every flushed batch. Upserts are
+     * idempotent, so replaying a batch that was flushed but not yet checkpointed is harmless.
+     */
+    public ImportReportDto importBooks(InputStream input, ImportFormat format, long skipThroughLine,
+                                       BatchListener listener) throws IOException {
+        long start = System.currentTimeMillis();
+        ImportReportDto report = new ImportReportDto();
+        Lookup authors = loadLookup("authors");
+        Lookup publishers = loadLookup("publishers");
+        logger.info("Starting {} catalog import ({} authors, {} publishers known, batch size {}).",
+                format, authors.size(), publishers.size(), batchSize);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 1 << 16);
+        RowSource source = format == ImportFormat.JSONL
+                ? new JsonLinesRowSource(reader, objectMapper)
+                : new CsvRowSource(reader);
+
+        List<BookRow> batch = new ArrayList<>(batchSize);
+        while (true) {
+            Map<String, String> fields;
+            try {
+                fields = source.next();
+            } catch (IllegalArgumentException e) {
+                report.rowRead();
+                report.addError(source.line(), null, e.getMessage(), maxReportedErrors);
+                continue;
+            }
+            if (fields == null) {
+                break;
+            }
+            if (source.line() <= skipThroughLine) {
+                continue;
+            }
+            report.rowRead();
+            try {
+                batch.add(toRow(source.line(), fields, authors, publishers));
+            } catch (IllegalArgumentException e) {
+                report.addError(source.line(), blankToNull(fields.get("isbn")), e.getMessage(), maxReportedErrors);
+                continue;
+            }
+            if (batch.size() >= batchSize) {
+                flush(batch, report);
+                batch.clear();
+                if (listener != null) {
+                    listener.batchFlushed(source.line(), report);
+                }
+            }
+        }
+        flush(batch, report);
+        if (listener != null) {
+            listener.batchFlushed(source.line(), report);
+        }
+
+        if (authors.created > 0) {
+            catalogVersionService.bump(CatalogEntityType.AUTHOR);
+        }
+        if (publishers.created > 0) {
+            catalogVersionService.bump(CatalogEntityType.PUBLISHER);
+        }
+        if (report.getUpserted() > 0 || authors.created > 0 || publishers.created > 0) {
+            responseCache.invalidateAll();
+        }
+        report.setDurationMs(System.currentTimeMillis() - start);
+        logger.info("Catalog import finished: {} rows read, {} upserted, {} failed in {} ms.",
+                report.getRowsRead(), report.getUpserted(), report.getFailed(), report.getDurationMs());
+        return report;
+    }
+
+    private void flush(List<BookRow> batch, ImportReportDto report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            transactionTemplate.executeWithoutResult(status -> upsert(batch, now));
+            report.upserted(batch.size());
+            return;
+        } catch (DataAccessException e) {
+            logger.warn("Import batch of {} rows failed ({}), retrying row by row.", batch.size(),
+                    NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        }
+
+        // Isolate the offending rows; everything else in the batch still goes in.
+        for (BookRow row : batch) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> upsert(List.of(row), now));
+                report.upserted(1);
+            } catch (DataAccessException e) {
+                report.addError(row.line, row.isbn, NestedExceptionUtils.getMostSpecificCause(e).getMessage(),
+                        maxReportedErrors);
+            }
+        }
+    }
+
+    private void upsert(List<BookRow> rows, Timestamp now) {
+        // Re-imports may move titles, so the previous owners are recounted along with the new ones.
+        // Locking the existing rows first keeps them from moving again before the recount.
+        Set<Long> authorIds = new HashSet<>();
+        Set<Long> publisherIds = new HashSet<>();
+        Object[] isbns = rows.stream().map(row -> row.isbn).toArray();
+        jdbcTemplate.query("SELECT author_id, publisher_id FROM books WHERE isbn = ANY (?) ORDER BY id FOR UPDATE",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", isbns)),
+                rs -> {
+                    authorIds.add(rs.getObject(1, Long.class));
+                    publisherIds.add(rs.getObject(2, Long.class));
+                });
+        rows.forEach(row -> {
+            authorIds.add(row.authorId);
+            publisherIds.add(row.publisherId);
+        });
+
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows, rows.size(), (ps, row) -> bind(ps, row, now));
+        inventoryService.stockImportedTitles(rows.stream().map(row -> row.isbn).toList());
+        catalogCounts.recountAuthors(authorIds);
+        catalogCounts.recountPublishers(publisherIds);
+        catalogVersionService.bump(CatalogEntityType.BOOK);
+    }
+
+    private static void bind(PreparedStatement ps, BookRow row, Timestamp now) throws SQLException {
+        ps.setString(1, row.title);
+        ps.setString(2, row.isbn);
+        ps.setString(3, row.description);
+        ps.setObject(4, row.publicationDate, Types.DATE);
+        ps.setObject(5, row.pageCount, Types.INTEGER);
+        ps.setBigDecimal(6, row.price);
+        ps.setString(7, row.status.name());
+        ps.setString(8, row.coverImageUrl);
+        ps.setLong(9, row.authorId);
+        ps.setLong(10, row.publisherId);
+        ps.setTimestamp(11, now);
+        ps.setTimestamp(12, now);
+    }
+
+    private BookRow toRow(long line, Map<String, String> fields, Lookup authors, Lookup publishers) {
+        BookRow row = new BookRow();
+        row.line = line;
+        row.isbn = required(fields, "isbn");
+        if (row.isbn.length() < 10 || row.isbn.length() > 17) {
+            throw new IllegalArgumentException("ISBN must be between 10 and 17 characters.");
+        }
+        row.title = required(fields, "title");
+        if (row.title.length() > 200) {
+            throw new IllegalArgumentException("Title must be at most 200 characters.");
+        }
+        row.description = blankToNull(fields.get("description"));
+        if (row.description != null && row.description.length() > 1000) {
+            throw new IllegalArgumentException("Description must be at most 1000 characters.");
+        }
+        row.coverImageUrl = blankToNull(fields.get("coverImageUrl"));
+
+        try {
+            String date = blankToNull(fields.get("publicationDate"));
+            row.publicationDate = date == null ? null : LocalDate.parse(date);
+            String pages = blankToNull(fields.get("pageCount"));
+            row.pageCount = pages == null ? null : Integer.valueOf(pages);
+            String price = blankToNull(fields.get("price"));
+            row.price = price == null ? null : new BigDecimal(price);
+            String status = blankToNull(fields.get("status"));
+            row.status = status == null ? BookStatus.AVAILABLE : BookStatus.valueOf(status.toUpperCase(Locale.ROOT));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid value: " + e.getMessage());
+        }
+        if (row.pageCount != null && row.pageCount < 1) {
+            throw new IllegalArgumentException("Page count must be at least 1.");
+        }
+
+        row.authorId = authors.resolve(blankToNull(fields.get("authorName")), blankToNull(fields.get("authorEmail")),
+                this::createAuthor);
+        row.publisherId = publishers.resolve(blankToNull(fields.get("publisherName")), blankToNull(fields.get("publisherEmail")),
+                this::createPublisher);
+        return row;
+    }
+
+    // Each in its own transaction with its event, like a create through AuthorService.
+    private long createAuthor(String name, String email) {
+        return transactionTemplate.execute(status -> {
+            Author author = authorRepository.save(new Author(name, email, null, null));
+            outbox.record(EventAggregate.AUTHOR, author.getId(), "AuthorCreated", AuthorService.eventPayload(author));
+            return author.getId();
+        });
+    }
+
+    private long createPublisher(String name, String email) {
+        return transactionTemplate.execute(status -> {
+            Publisher publisher = publisherRepository.save(new Publisher(name, email, null, null));
+            outbox.record(EventAggregate.PUBLISHER, publisher.getId(), "PublisherCreated",
+                    PublisherService.eventPayload(publisher));
+            return publisher.getId();
+        });
+    }
+
+    private Lookup loadLookup(String table) {
+        Lookup lookup = new Lookup(table);
+        jdbcTemplate.query("SELECT id, name, email FROM " + table, rs -> {
+            lookup.add(rs.getLong(1), rs.getString(2), rs.getString(3));
+        });
+        return lookup;
+    }
+
+    private static String required(Map<String, String> fields, String name) {
+        String value = blankToNull(fields.get(name));
+        if (value == null) {
+            throw new IllegalArgumentException("Missing required field '" + name + "'.");
+        }
+        return value;
+    }
+
+    private static String blankToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static final class BookRow {
+        private long line;
+        private String isbn;
+        private String title;
+        private String description;
+        private LocalDate publicationDate;
+        private Integer pageCount;
+        private BigDecimal price;
+        private BookStatus status;
+        private String coverImageUrl;
+        private long authorId;
+        private long publisherId;
+    }
+
+    /**
+     * Name/email to id map for authors or publishers. Email wins when both are given.
+     */
+    private static final class Lookup {
+        private final String kind;
+        private final Map<String, Long> byEmail = new HashMap<>();
+        private final Map<String, Long> byName = new HashMap<>();
+        private int created;
+
+        private Lookup(String kind) {
+            this.kind = kind;
+        }
+
+        private void add(long id, String name, String email) {
+            if (email != null) {
+                byEmail.putIfAbsent(email.toLowerCase(Locale.ROOT), id);
+            }
+            if (name != null) {
+                byName.putIfAbsent(name.toLowerCase(Locale.ROOT), id);
+            }
+        }
+
+        private long resolve(String name, String email, Creator creator) {
+            Long id = email != null ? byEmail.get(email.toLowerCase(Locale.ROOT)) : null;
+            if (id == null && name != null) {
+                id = byName.get(name.toLowerCase(Locale.ROOT));
+            }
+            if (id != null) {
+                return id;
+            }
+            if (name == null) {
+                throw new IllegalArgumentException("Unknown " + kind + " and no name given to create one.");
+            }
+            try {
+                id = creator.create(name, email);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Could not create " + kind + " '" + name + "': "
+                        + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            }
+            created++;
+            add(id, name, email);
+            return id;
+        }
+
+        private int size() {
+            return byName.size();
+        }
+    }
+
+    @FunctionalInterface
+    public interface BatchListener {
+        /**
+         * @param lastLine the last input line covered by the flushed batch
+         */
+        void batchFlushed(long lastLine, ImportReportDto report);
+    }
+
+    @FunctionalInterface
+    private interface Creator {
+        long create(String name, String email);
+    }
+}
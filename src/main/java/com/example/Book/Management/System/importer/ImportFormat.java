@@ -0,0 +1,11 @@
+package com.example.Book.Management.System.importer;
+
+public enum ImportFormat {
+    CSV,
+    JSONL;
+
+    public static ImportFormat fromFileName(String fileName) {
+        String lower = fileName.toLowerCase();
+        return lower.endsWith(".jsonl") || lower.endsWith(".ndjson") ? JSONL : CSV;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.Book.Management.System.importer;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Pulls one record at a time from an import stream, keyed by column/member name.
+ */
+interface RowSource {
+
+    /**
+     * @return the next record, or {@code null} at end of input
+     * @throws IllegalArgumentException if the record is malformed; the source stays usable
+     */
+    Map<String, String> next() throws IOException;
+
+    /**
+     * Line on which the record last returned (or rejected) by {@link #next()} started.
+     */
+    long line();
+}
@@ -0,0 +1,110 @@
+package com.example.Book.Management.System.inventory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory available-copy counts per title, so availability checks and doomed borrow attempts
+ * on a sold-out title never reach the database.
+ *
+ * <p>Each title's count is a committed base plus a {@link LongAdder} of local adjustments: its
+ * cells are striped across threads, so hundreds of borrowers adjusting one hot title do not
+ * contend on a single word. Local borrows and returns adjust the count after commit; a poll of
+ * {@code books.updated_at} brings in changes made on other instances by swapping in a fresh
+ * counter, unless the one held was read at a later {@code updated_at}. An adjustment racing the
+ * swap may be lost or counted twice, but the row is polled again for
+ * {@code inventory.counters.refresh-overlap-seconds}, which settles it. Counts are advisory: the
+ * guarded decrement in {@link InventoryService} has the final word.
+ */
+@Component
+public class AvailabilityCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityCounters.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<Long, Counter> counters;
+
+    @Value("${inventory.counters.refresh-overlap-seconds:10}")
+    private long overlapSeconds;
+
+    private LocalDateTime lastPoll = LocalDateTime.now();
+
+    public AvailabilityCounters(JdbcTemplate jdbcTemplate,
+                                @Value("${inventory.counters.max-titles:200000}") long maxTitles) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.counters = Caffeine.newBuilder().maximumSize(maxTitles).build();
+    }
+
+    /**
+     * @return available copies of the title, or -1 if it does not exist
+     */
+    public long available(Long bookId) {
+        Counter counter = counters.get(bookId, this::load);
+        return counter == null ? -1 : counter.available();
+    }
+
+    public void adjust(Long bookId, long delta) {
+        Counter counter = counters.getIfPresent(bookId);
+        if (counter != null) {
+            counter.adjustments.add(delta);
+        }
+    }
+
+    public void forget(Long bookId) {
+        counters.invalidate(bookId);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.counters.refresh-interval-ms:1000}")
+    public void refreshChanged() {
+        LocalDateTime start = LocalDateTime.now();
+        try {
+            List<Object[]> changed = jdbcTemplate.query(
+                    "SELECT id, available_copies, updated_at FROM books WHERE updated_at > ?",
+                    (rs, i) -> new Object[]{rs.getLong(1), new Counter(rs.getLong(2), rs.getTimestamp(3))},
+                    Timestamp.valueOf(lastPoll.minusSeconds(overlapSeconds)));
+            for (Object[] row : changed) {
+                Counter committed = (Counter) row[1];
+                // Replace, never add to, the held counter; drift from local adjustments ends here.
+                counters.asMap().computeIfPresent((Long) row[0],
+                        (id, held) -> committed.stamp >= held.stamp ? committed : held);
+            }
+            lastPoll = start;
+        } catch (RuntimeException e) {
+            logger.warn("Availability counter refresh failed: {}", e.getMessage());
+        }
+    }
+
+    private Counter load(Long bookId) {
+        List<Counter> rows = jdbcTemplate.query("SELECT available_copies, updated_at FROM books WHERE id = ?",
+                (rs, i) -> new Counter(rs.getLong(1), rs.getTimestamp(2)), bookId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private static final class Counter {
+        private final long committed;
+        // updated_at of the row the committed value was read from, in micros
+        private final long stamp;
+        private final LongAdder adjustments = new LongAdder();
+
+        private Counter(long committed, Timestamp updatedAt) {
+            this.committed = committed;
+            this.stamp = updatedAt == null ? Long.MIN_VALUE
+                    : updatedAt.getTime() / 1000 * 1_000_000L + updatedAt.getNanos() / 1_000;
+        }
+
+        private long available() {
+            return committed + adjustments.sum();
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.Book.Management.System.inventory;
+
+import com.example.Book.Management.System.dto.AvailabilityChangeDto;
+import com.example.Book.Management.System.entity.BookStatus;
+import com.example.Book.Management.System.entity.EventAggregate;
+import com.example.Book.Management.System.outbox.OutboxMessage;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes title availability changes to Server-Sent Events subscribers on this instance.
+ *
+ * <p>Changes come from the outbox stream ({@link #EVENT_TYPE} from {@link InventoryService},
+ * plus book creates, edits and deletes), which every instance tails. Subscribers are indexed by
+ * book, author and publisher id, so routing a change touches only the subscribers it matches.
+ * Routing only appends to each subscriber's bounded buffer; a small pool of sender threads
+ * drains the buffers. Idle connections hold no thread, only their emitter and filter. A client
+ * that does not take a write within {@code inventory.feed.send-timeout-ms} is disconnected and
+ * its sender interrupted, so a stalled socket cannot keep a sender from the other subscribers.
+ */
+@Component
+public class AvailabilityFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityFeed.class);
+
+    public static final String EVENT_TYPE = "BookAvailabilityChanged";
+    private static final Set<String> BOOK_EVENTS = Set.of("BookCreated", "BookUpdated", "BookDeleted");
+
+    private final ObjectMapper objectMapper;
+    private final Set<FeedSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Set<FeedSubscriber> unfiltered = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Set<FeedSubscriber>> byBook = new ConcurrentHashMap<>();
+    private final Map<Long, Set<FeedSubscriber>> byAuthor = new ConcurrentHashMap<>();
+    private final Map<Long, Set<FeedSubscriber>> byPublisher = new ConcurrentHashMap<>();
+    private final ExecutorService senders;
+
+    @Value("${inventory.feed.max-subscribers:50000}")
+    private int maxSubscribers;
+
+    @Value("${inventory.feed.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${inventory.feed.timeout-ms:3600000}")
+    private long timeoutMs;
+
+    @Value("${inventory.feed.send-timeout-ms:5000}")
+    private long sendTimeoutMs;
+
+    public AvailabilityFeed(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                            @Value("${inventory.feed.sender-threads:4}") int senderThreads) {
+        this.objectMapper = objectMapper;
+        this.senders = Executors.newFixedThreadPool(senderThreads, r -> {
+            Thread thread = new Thread(r, "availability-feed-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("availability.feed.subscribers", subscribers, Set::size).register(meterRegistry);
+    }
+
+    /**
+     * @return the emitter, or {@code null} when this instance is at {@code inventory.feed.max-subscribers}
+     */
+    public SseEmitter subscribe(Set<Long> bookIds, Set<Long> authorIds, Set<Long> publisherIds, FeedPolicy policy) {
+        if (subscribers.size() >= maxSubscribers) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        FeedSubscriber subscriber = new FeedSubscriber(emitter, bookIds, authorIds, publisherIds, policy, bufferSize);
+        emitter.onCompletion(() -> unregister(subscriber));
+        emitter.onTimeout(() -> unregister(subscriber));
+        emitter.onError(e -> unregister(subscriber));
+
+        subscribers.add(subscriber);
+        if (subscriber.unfiltered()) {
+            unfiltered.add(subscriber);
+        }
+        bookIds.forEach(id -> addTo(byBook, id, subscriber));
+        authorIds.forEach(id -> addTo(byAuthor, id, subscriber));
+        publisherIds.forEach(id -> addTo(byPublisher, id, subscriber));
+        return emitter;
+    }
+
+    @EventListener
+    public void on(OutboxMessage message) {
+        if (message.getAggregateType() != EventAggregate.BOOK
+                || !(EVENT_TYPE.equals(message.getEventType()) || BOOK_EVENTS.contains(message.getEventType()))) {
+            return;
+        }
+        AvailabilityChangeDto change;
+        try {
+            change = toChange(message);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Unreadable {} event {}: {}", message.getEventType(), message.getEventId(), e.getMessage());
+            return;
+        }
+
+        // A subscriber matching on several ids still gets the change once.
+        Set<FeedSubscriber> targets = Collections.newSetFromMap(new IdentityHashMap<>());
+        targets.addAll(unfiltered);
+        addAll(targets, byBook, change.getBookId());
+        addAll(targets, byAuthor, change.getAuthorId());
+        addAll(targets, byPublisher, change.getPublisherId());
+        for (FeedSubscriber subscriber : targets) {
+            subscriber.offer(change);
+            schedule(subscriber);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.feed.heartbeat-ms:20000}")
+    public void heartbeat() {
+        for (FeedSubscriber subscriber : subscribers) {
+            subscriber.requestHeartbeat();
+            schedule(subscriber);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.feed.send-check-ms:1000}")
+    public void closeStalled() {
+        long deadline = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        for (FeedSubscriber subscriber : subscribers) {
+            if (subscriber.interruptIfSendingSince(deadline)) {
+                logger.debug("Closing availability subscriber: write stalled for over {} ms", sendTimeoutMs);
+                unregister(subscriber);
+                subscriber.emitter.completeWithError(new IOException("Write timed out"));
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+
+    private void schedule(FeedSubscriber subscriber) {
+        if (!subscriber.closed && subscriber.scheduled.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(FeedSubscriber subscriber) {
+        while (true) {
+            FeedSubscriber.Batch batch = subscriber.drain();
+            if (batch.isEmpty()) {
+                subscriber.scheduled.set(false);
+                // Re-check: an offer may have landed after the drain but before the flag was cleared.
+                if (subscriber.isEmpty() || !subscriber.scheduled.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            subscriber.beginSend();
+            try {
+                send(subscriber.emitter, batch);
+            } catch (IOException | IllegalStateException e) {
+                logger.debug("Closing availability subscriber: {}", e.getMessage());
+                unregister(subscriber);
+                subscriber.emitter.completeWithError(e);
+                return;
+            } finally {
+                subscriber.endSend();
+            }
+            if (subscriber.closed) {
+                return;
+            }
+        }
+    }
+
+    private void send(SseEmitter emitter, FeedSubscriber.Batch batch) throws IOException {
+        if (batch.dropped > 0) {
+            // The client missed changes and should re-read the titles it shows.
+            emitter.send(SseEmitter.event().name("overflow")
+                    .data(Map.of("dropped", batch.dropped), MediaType.APPLICATION_JSON));
+        }
+        for (AvailabilityChangeDto change : batch.changes) {
+            emitter.send(SseEmitter.event().name("availability").data(change, MediaType.APPLICATION_JSON));
+        }
+        if (batch.heartbeat && batch.changes.isEmpty()) {
+            emitter.send(SseEmitter.event().comment("keep-alive"));
+        }
+    }
+
+    private void unregister(FeedSubscriber subscriber) {
+        subscriber.closed = true;
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        unfiltered.remove(subscriber);
+        subscriber.bookIds.forEach(id -> removeFrom(byBook, id, subscriber));
+        subscriber.authorIds.forEach(id -> removeFrom(byAuthor, id, subscriber));
+        subscriber.publisherIds.forEach(id -> removeFrom(byPublisher, id, subscriber));
+    }
+
+    private AvailabilityChangeDto toChange(OutboxMessage message) throws IOException {
+        if (EVENT_TYPE.equals(message.getEventType())) {
+            return objectMapper.readValue(message.getPayload(), AvailabilityChangeDto.class);
+        }
+        // BookDto for creates and edits, {id, authorId, publisherId} for deletes
+        JsonNode book = objectMapper.readTree(message.getPayload());
+        AvailabilityChangeDto change = new AvailabilityChangeDto(message.getAggregateId(),
+                book.hasNonNull("status") ? BookStatus.valueOf(book.get("status").asText()) : null,
+                book.path("availableCopies").asInt(), book.path("totalCopies").asInt(),
+                book.hasNonNull("authorId") ? book.get("authorId").asLong() : null,
+                book.hasNonNull("publisherId") ? book.get("publisherId").asLong() : null);
+        change.setDeleted("BookDeleted".equals(message.getEventType()));
+        return change;
+    }
+
+    private static void addAll(Set<FeedSubscriber> targets, Map<Long, Set<FeedSubscriber>> index, Long id) {
+        if (id != null) {
+            Set<FeedSubscriber> matching = index.get(id);
+            if (matching != null) {
+                targets.addAll(matching);
+            }
+        }
+    }
+
+    // Inside compute(), so a concurrent removeFrom() cannot drop the set we are adding to.
+    private static void addTo(Map<Long, Set<FeedSubscriber>> index, Long id, FeedSubscriber subscriber) {
+        index.compute(id, (k, set) -> {
+            Set<FeedSubscriber> target = set == null ? ConcurrentHashMap.newKeySet() : set;
+            target.add(subscriber);
+            return target;
+        });
+    }
+
+    private static void removeFrom(Map<Long, Set<FeedSubscriber>> index, Long id, FeedSubscriber subscriber) {
+        index.computeIfPresent(id, (k, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.Book.Management.System.inventory;
+
+/**
+ * What a feed subscriber's buffer does when changes arrive faster than they can be sent.
+ */
+public enum FeedPolicy {
+    // Keep only the latest change per title; when the buffer holds too many titles, drop the oldest.
+    COALESCE,
+    // Keep every change in order; when the buffer is full, drop the oldest.
+    DROP_OLDEST
+}
@@ -0,0 +1,145 @@
+package com.example.Book.Management.System.inventory;
+
+import com.example.Book.Management.System.dto.AvailabilityChangeDto;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One availability feed connection with its filter and bounded outgoing buffer. Producers only
+ * ever append to the buffer; a sender thread drains it, so a slow client costs its own buffer
+ * and, because a write that stalls is cut off after a deadline, at most that long of one sender.
+ */
+final class FeedSubscriber {
+
+    final SseEmitter emitter;
+    final Set<Long> bookIds;
+    final Set<Long> authorIds;
+    final Set<Long> publisherIds;
+    private final FeedPolicy policy;
+    private final int capacity;
+
+    // Guarded by this. Only the one the policy needs is allocated: most subscribers sit idle.
+    private final LinkedHashMap<Long, AvailabilityChangeDto> latest;
+    private final ArrayDeque<AvailabilityChangeDto> queue;
+    private long dropped;
+    private boolean heartbeatDue;
+
+    // Set while the subscriber is queued for, or being drained by, a sender thread.
+    final AtomicBoolean scheduled = new AtomicBoolean();
+    volatile boolean closed;
+
+    // Guarded by this: the thread writing to the client and since when, or null between writes.
+    private Thread sender;
+    private long sendingSince;
+
+    FeedSubscriber(SseEmitter emitter, Set<Long> bookIds, Set<Long> authorIds, Set<Long> publisherIds,
+                   FeedPolicy policy, int capacity) {
+        this.emitter = emitter;
+        this.bookIds = bookIds;
+        this.authorIds = authorIds;
+        this.publisherIds = publisherIds;
+        this.policy = policy;
+        this.capacity = capacity;
+        this.latest = policy == FeedPolicy.COALESCE ? new LinkedHashMap<>() : null;
+        this.queue = policy == FeedPolicy.DROP_OLDEST ? new ArrayDeque<>() : null;
+    }
+
+    boolean unfiltered() {
+        return bookIds.isEmpty() && authorIds.isEmpty() && publisherIds.isEmpty();
+    }
+
+    synchronized void offer(AvailabilityChangeDto change) {
+        if (policy == FeedPolicy.COALESCE) {
+            // Re-inserting moves the title to the back, so a busy title cannot starve the others.
+            latest.remove(change.getBookId());
+            latest.put(change.getBookId(), change);
+            if (latest.size() > capacity) {
+                Iterator<Map.Entry<Long, AvailabilityChangeDto>> oldest = latest.entrySet().iterator();
+                oldest.next();
+                oldest.remove();
+                dropped++;
+            }
+        } else {
+            queue.addLast(change);
+            if (queue.size() > capacity) {
+                queue.pollFirst();
+                dropped++;
+            }
+        }
+    }
+
+    synchronized void requestHeartbeat() {
+        heartbeatDue = true;
+    }
+
+    /**
+     * Takes everything buffered so far.
+     */
+    synchronized Batch drain() {
+        List<AvailabilityChangeDto> changes;
+        if (policy == FeedPolicy.COALESCE) {
+            changes = new ArrayList<>(latest.values());
+            latest.clear();
+        } else {
+            changes = new ArrayList<>(queue);
+            queue.clear();
+        }
+        Batch batch = new Batch(changes, dropped, heartbeatDue);
+        dropped = 0;
+        heartbeatDue = false;
+        return batch;
+    }
+
+    synchronized void beginSend() {
+        sender = Thread.currentThread();
+        sendingSince = System.nanoTime();
+    }
+
+    synchronized void endSend() {
+        sender = null;
+        // A deadline that fired just as the write finished must not leak into the next one.
+        Thread.interrupted();
+    }
+
+    /**
+     * Interrupts the sender if its current write started before {@code deadline}.
+     *
+     * @return whether a write was overdue
+     */
+    synchronized boolean interruptIfSendingSince(long deadline) {
+        if (sender == null || sendingSince - deadline > 0) {
+            return false;
+        }
+        sender.interrupt();
+        return true;
+    }
+
+    synchronized boolean isEmpty() {
+        boolean buffered = policy == FeedPolicy.COALESCE ? !latest.isEmpty() : !queue.isEmpty();
+        return !buffered && dropped == 0 && !heartbeatDue;
+    }
+
+    static final class Batch {
+        final List<AvailabilityChangeDto> changes;
+        final long dropped;
+        final boolean heartbeat;
+
+        private Batch(List<AvailabilityChangeDto> changes, long dropped, boolean heartbeat) {
+            this.changes = changes;
+            this.dropped = dropped;
+            this.heartbeat = heartbeat;
+        }
+
+        boolean isEmpty() {
+            return changes.isEmpty() && dropped == 0 && !heartbeat;
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.example.Book.Management.System.inventory;
+
+import com.example.Book.Management.System.cluster.ClusterSingleton;
+import com.example.Book.Management.System.dto.AvailabilityChangeDto;
+import com.example.Book.Management.System.entity.BookStatus;
+import com.example.Book.Management.System.entity.CopyStatus;
+import com.example.Book.Management.System.entity.EventAggregate;
+import com.example.Book.Management.System.outbox.Outbox;
+import com.example.Book.Management.System.service.CatalogCountService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Copy-level inventory behind each title.
+ *
+ * <p>A borrow first claims one AVAILABLE copy with {@code FOR UPDATE SKIP LOCKED}, so concurrent
+ * borrowers of a popular title each land on a different copy instead of queueing, and only then
+ * decrements {@code books.available_copies} with a guarded UPDATE as the last statement of the
+ * transaction. The title row is therefore locked only for the moment between that UPDATE and
+ * the commit. All methods join the caller's transaction.
+ *
+ * <p>Every change to {@code available_copies} goes through here, so this is also where a title
+ * emptying or restocking is reported to {@link CatalogCountService}. Circulation moves
+ * {@code updated_at}, which the book's ETag follows, but not {@code version}: that guards
+ * editorial changes, and a borrow must not turn an editor's save into a conflict. The entity
+ * never writes the circulation columns, so the two cannot overwrite each other.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class InventoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryService.class);
+
+    private static final String CLAIM_SQL = """
+            SELECT id FROM book_copies
+            WHERE book_id = ? AND status = 'AVAILABLE'
+            ORDER BY id LIMIT 1
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    // DAMAGED and OUT_OF_PRINT are title-level blocks set by staff.
+    private static final String DECREMENT_SQL = """
+            UPDATE books SET available_copies = available_copies - 1,
+                status = CASE
+                    WHEN available_copies > 1 THEN 'AVAILABLE'
+                    WHEN EXISTS (SELECT 1 FROM book_copies c WHERE c.book_id = books.id AND c.status = 'RESERVED') THEN 'RESERVED'
+                    ELSE 'BORROWED' END,
+                updated_at = ?
+            WHERE id = ? AND available_copies > 0 AND status NOT IN ('DAMAGED', 'OUT_OF_PRINT')
+            RETURNING id, status, available_copies, total_copies, author_id, publisher_id
+            """;
+
+    private static final String REFRESH_STATUS_SQL = """
+            UPDATE books SET available_copies = available_copies + ?,
+                status = CASE
+                    WHEN status IN ('DAMAGED', 'OUT_OF_PRINT') THEN status
+                    WHEN available_copies + ? > 0 THEN 'AVAILABLE'
+                    WHEN EXISTS (SELECT 1 FROM book_copies c WHERE c.book_id = books.id AND c.status = 'RESERVED') THEN 'RESERVED'
+                    ELSE 'BORROWED' END,
+                updated_at = ?
+            WHERE id = ?
+            RETURNING id, status, available_copies, total_copies, author_id, publisher_id
+            """;
+
+    private static final String INSERT_COPY_SQL =
+            "INSERT INTO book_copies (book_id, barcode, status, created_at) VALUES (?, ?, ?, ?)";
+
+    // One copy per title that has none yet, mirroring the title's old single-copy status.
+    private static final String BACKFILL_COPIES_SQL = """
+            INSERT INTO book_copies (book_id, barcode, status, created_at)
+            SELECT b.id, b.isbn || '-1',
+                   CASE b.status WHEN 'BORROWED' THEN 'BORROWED' WHEN 'RESERVED' THEN 'RESERVED' ELSE 'AVAILABLE' END, ?
+            FROM books b
+            WHERE b.id IN (%s) AND NOT EXISTS (SELECT 1 FROM book_copies c WHERE c.book_id = b.id)
+            """;
+
+    private static final RowMapper<AvailabilityChangeDto> CHANGE_MAPPER = (rs, n) -> new AvailabilityChangeDto(
+            rs.getLong("id"), BookStatus.valueOf(rs.getString("status")), rs.getInt("available_copies"),
+            rs.getInt("total_copies"), rs.getObject("author_id", Long.class), rs.getObject("publisher_id", Long.class));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AvailabilityCounters counters;
+    private final Outbox outbox;
+    private final CatalogCountService catalogCounts;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${inventory.backfill.chunk-size:1000}")
+    private int backfillChunkSize;
+
+    public InventoryService(JdbcTemplate jdbcTemplate, AvailabilityCounters counters, Outbox outbox,
+                            CatalogCountService catalogCounts, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.counters = counters;
+        this.outbox = outbox;
+        this.catalogCounts = catalogCounts;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Claims any free copy of the title and takes it out of the available count.
+     *
+     * @return the claimed copy, or empty if none is free (the transaction can carry on)
+     */
+    public Optional<Long> borrowAnyCopy(Long bookId) {
+        List<Long> free = jdbcTemplate.queryForList(CLAIM_SQL, Long.class, bookId);
+        if (free.isEmpty()) {
+            return Optional.empty();
+        }
+        long copyId = free.get(0);
+        jdbcTemplate.update("UPDATE book_copies SET status = 'BORROWED' WHERE id = ?", copyId);
+        return Optional.of(copyId);
+    }
+
+    /**
+     * Must be the last statement before commit: it takes the title row lock (and, when it lends
+     * the last copy, the author and publisher row locks for their counts).
+     *
+     * @return the title's new state
+     * @throws RuntimeException if the title is blocked or its count says no copy is left
+     */
+    public AvailabilityChangeDto decrementAvailable(Long bookId) {
+        List<AvailabilityChangeDto> changed = jdbcTemplate.query(DECREMENT_SQL, CHANGE_MAPPER,
+                Timestamp.valueOf(LocalDateTime.now()), bookId);
+        if (changed.isEmpty()) {
+            throw new RuntimeException("Book is not available");
+        }
+        recordChange(changed.get(0), -1);
+        afterCommit(() -> counters.adjust(bookId, -1));
+        return changed.get(0);
+    }
+
+    /**
+     * Lends out the copy set aside for a READY hold. The available count is untouched: reserved
+     * copies were never counted as available.
+     *
+     * @return the title's new state, or {@code null} if the title is gone
+     */
+    public AvailabilityChangeDto borrowReservedCopy(Long bookId, Long copyId) {
+        jdbcTemplate.update("UPDATE book_copies SET status = 'BORROWED' WHERE id = ?", copyId);
+        return refreshStatus(bookId, 0);
+    }
+
+    public void reserveCopy(Long bookId, Long copyId) {
+        jdbcTemplate.update("UPDATE book_copies SET status = 'RESERVED' WHERE id = ?", copyId);
+        refreshStatus(bookId, 0);
+    }
+
+    public void makeAvailable(Long bookId, Long copyId) {
+        jdbcTemplate.update("UPDATE book_copies SET status = 'AVAILABLE' WHERE id = ?", copyId);
+        refreshStatus(bookId, 1);
+        afterCommit(() -> counters.adjust(bookId, 1));
+    }
+
+    /**
+     * Finds a copy in the given state, for loans and holds recorded before copies existed.
+     */
+    public Optional<Long> anyCopy(Long bookId, CopyStatus status) {
+        return jdbcTemplate.queryForList("SELECT id FROM book_copies WHERE book_id = ? AND status = ? ORDER BY id LIMIT 1",
+                Long.class, bookId, status.name()).stream().findFirst();
+    }
+
+    /**
+     * Creates copies for a title. They start WITHDRAWN and count towards the total only; the
+     * caller puts each one into circulation (available, or reserved for a hold).
+     *
+     * @return ids of the new copies
+     */
+    public List<Long> createCopies(Long bookId, String isbn, int count) {
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM book_copies WHERE book_id = ?",
+                Integer.class, bookId);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int first = (existing == null ? 0 : existing) + 1;
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String barcode = isbn + "-" + (first + i);
+            KeyHolder key = new GeneratedKeyHolder();
+            jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(INSERT_COPY_SQL, new String[]{"id"});
+                ps.setLong(1, bookId);
+                ps.setString(2, barcode);
+                ps.setString(3, CopyStatus.WITHDRAWN.name());
+                ps.setTimestamp(4, now);
+                return ps;
+            }, key);
+            ids.add(key.getKey().longValue());
+        }
+        jdbcTemplate.update("UPDATE books SET total_copies = ?, updated_at = ? WHERE id = ?", first - 1 + count, now, bookId);
+        return ids;
+    }
+
+    /**
+     * Gives a brand-new title its copies. The title row already says they are all available.
+     */
+    public void stockNewTitle(Long bookId, String isbn, int count) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_COPY_SQL, IntStream.rangeClosed(1, count)
+                .mapToObj(n -> new Object[]{bookId, isbn + "-" + n, CopyStatus.AVAILABLE.name(), now})
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Adds the single copy for imported titles that have none. Imported rows get the column
+     * defaults of one total and one available copy.
+     */
+    public void stockImportedTitles(Collection<String> isbns) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO book_copies (book_id, barcode, status, created_at)
+                SELECT b.id, b.isbn || '-1', 'AVAILABLE', ? FROM books b
+                WHERE b.isbn = ? AND NOT EXISTS (SELECT 1 FROM book_copies c WHERE c.book_id = b.id)
+                """, isbns.stream().map(isbn -> new Object[]{now, isbn}).collect(Collectors.toList()));
+    }
+
+    /**
+     * Deletes a title's copies along with the title.
+     */
+    public void removeTitle(Long bookId) {
+        jdbcTemplate.update("DELETE FROM book_copies WHERE book_id = ?", bookId);
+        afterCommit(() -> counters.forget(bookId));
+    }
+
+    /**
+     * Gives every title that predates copy tracking one copy matching its old status, and points
+     * open loans and READY holds at it. Chunked and idempotent, so it is safe to interrupt.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @ClusterSingleton
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void backfillCopies() {
+        long afterId = 0;
+        long titles = 0;
+        try {
+            while (true) {
+                long cursor = afterId;
+                List<Long> ids = jdbcTemplate.queryForList("""
+                        SELECT b.id FROM books b
+                        WHERE b.id > ? AND NOT EXISTS (SELECT 1 FROM book_copies c WHERE c.book_id = b.id)
+                        ORDER BY b.id LIMIT ?
+                        """, Long.class, cursor, backfillChunkSize);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                String in = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.update(String.format(BACKFILL_COPIES_SQL, in), Timestamp.valueOf(LocalDateTime.now()));
+                    jdbcTemplate.update("UPDATE books SET total_copies = 1, available_copies = "
+                            + "CASE WHEN status IN ('BORROWED', 'RESERVED') THEN 0 ELSE 1 END WHERE id IN (" + in + ")");
+                    jdbcTemplate.update("UPDATE borrow_record SET copy_id = (SELECT MIN(c.id) FROM book_copies c "
+                            + "WHERE c.book_id = borrow_record.book_id) WHERE book_id IN (" + in + ") "
+                            + "AND copy_id IS NULL AND status <> 'RETURNED'");
+                    jdbcTemplate.update("UPDATE book_holds SET copy_id = (SELECT MIN(c.id) FROM book_copies c "
+                            + "WHERE c.book_id = book_holds.book_id) WHERE book_id IN (" + in + ") "
+                            + "AND copy_id IS NULL AND status = 'READY'");
+                    catalogCounts.recountForTitles(ids);
+                });
+                ids.forEach(counters::forget);
+                titles += ids.size();
+                afterId = ids.get(ids.size() - 1);
+            }
+        } catch (RuntimeException e) {
+            // Committed chunks stay; the next start continues with the titles still missing copies.
+            logger.error("Inventory backfill stopped after {} titles. Error: {}", titles, e.getMessage(), e);
+        }
+        if (titles > 0) {
+            logger.info("Inventory backfill created copies for {} titles.", titles);
+        }
+    }
+
+    private AvailabilityChangeDto refreshStatus(Long bookId, int availableDelta) {
+        List<AvailabilityChangeDto> changed = jdbcTemplate.query(REFRESH_STATUS_SQL, CHANGE_MAPPER, availableDelta,
+                availableDelta, Timestamp.valueOf(LocalDateTime.now()), bookId);
+        changed.forEach(change -> recordChange(change, availableDelta));
+        return changed.isEmpty() ? null : changed.get(0);
+    }
+
+    // Feeds the availability stream (see AvailabilityFeed) and the author and publisher counts.
+    private void recordChange(AvailabilityChangeDto change, int availableDelta) {
+        outbox.record(EventAggregate.BOOK, change.getBookId(), AvailabilityFeed.EVENT_TYPE, change);
+        boolean availableBefore = change.getAvailableCopies() - availableDelta > 0;
+        if (availableBefore != change.getAvailableCopies() > 0) {
+            catalogCounts.availabilityChanged(change.getAuthorId(), change.getPublisherId(), availableBefore ? -1 : 1);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
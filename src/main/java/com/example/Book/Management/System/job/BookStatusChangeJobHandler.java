@@ -0,0 +1,126 @@
+package com.example.Book.Management.System.job;
+
+import com.example.Book.Management.System.cache.ResponseCache;
+import com.example.Book.Management.System.entity.BookStatus;
+import com.example.Book.Management.System.entity.CatalogEntityType;
+import com.example.Book.Management.System.service.CatalogVersionService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Moves every book in status {@code from} to status {@code to}, optionally limited to one
+ * {@code authorId} or {@code publisherId}. Books are walked in id order in chunks; each chunk's
+ * UPDATE, catalog version bump and checkpoint (the last id seen) commit together, so a resumed
+ * job continues exactly where the last one stopped.
+ */
+@Component
+public class BookStatusChangeJobHandler implements JobHandler {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogVersionService catalogVersionService;
+    private final ResponseCache responseCache;
+
+    @Value("${jobs.chunk-size:500}")
+    private int chunkSize;
+
+    public BookStatusChangeJobHandler(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                      CatalogVersionService catalogVersionService, ResponseCache responseCache) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.catalogVersionService = catalogVersionService;
+        this.responseCache = responseCache;
+    }
+
+    @Override
+    public String type() {
+        return "book-status-change";
+    }
+
+    @Override
+    public void validate(JobContext.Params params) {
+        BookStatus from = status(params.required("from"));
+        BookStatus to = status(params.required("to"));
+        if (from == to) {
+            throw new IllegalArgumentException("'from' and 'to' must differ.");
+        }
+        if (params.optional("authorId") != null && params.optional("publisherId") != null) {
+            throw new IllegalArgumentException("Give at most one of 'authorId' and 'publisherId'.");
+        }
+        id(params, "authorId");
+        id(params, "publisherId");
+    }
+
+    @Override
+    public Object run(JobContext context) {
+        JobContext.Params params = context.params();
+        BookStatus from = status(params.required("from"));
+        BookStatus to = status(params.required("to"));
+        Long authorId = id(params, "authorId");
+        Long publisherId = id(params, "publisherId");
+
+        String filter = authorId != null ? " AND author_id = " + authorId
+                : publisherId != null ? " AND publisher_id = " + publisherId : "";
+        Long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books WHERE status = ?" + filter,
+                Long.class, from.name());
+        context.setTotal(total == null ? 0L : total);
+
+        long afterId = context.checkpoint() == null ? 0L : Long.parseLong(context.checkpoint());
+        long changed = context.processed();
+        while (true) {
+            long cursor = afterId;
+            List<Long> ids = jdbcTemplate.queryForList(
+                    "SELECT id FROM books WHERE id > ? AND status = ?" + filter + " ORDER BY id LIMIT ?",
+                    Long.class, cursor, from.name(), chunkSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            long lastId = ids.get(ids.size() - 1);
+            long soFar = changed;
+            changed = transactionTemplate.execute(status -> {
+                // Re-checked in the UPDATE: a book borrowed since the SELECT keeps its new status.
+                String in = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+                int updated = jdbcTemplate.update("UPDATE books SET status = ?, updated_at = ?, version = version + 1"
+                                + " WHERE id IN (" + in + ") AND status = ?",
+                        to.name(), Timestamp.valueOf(LocalDateTime.now()), from.name());
+                catalogVersionService.bump(CatalogEntityType.BOOK);
+                responseCache.invalidateBooksAfterCommit(new ArrayList<>(ids));
+                context.saveCheckpoint(String.valueOf(lastId), soFar + updated);
+                return soFar + updated;
+            });
+            afterId = lastId;
+        }
+        return Map.of("changed", changed, "from", from, "to", to);
+    }
+
+    private static BookStatus status(String value) {
+        try {
+            return BookStatus.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown book status: " + value);
+        }
+    }
+
+    private static Long id(JobContext.Params params, String name) {
+        String value = params.optional(name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("'" + name + "' must be a number.");
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.Book.Management.System.job;
+
+import com.example.Book.Management.System.archive.BorrowArchive;
+import com.example.Book.Management.System.archive.BorrowRecordPartitions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+/**
+ * Moves RETURNED loans borrowed before {@code before} (a first of the month; default
+ * {@code borrow.archive.min-age-months} ago) from {@code borrow_record} into the archive, one
+ * month per step, oldest first. Each month's rows are deleted in the transaction that commits
+ * its archive file and the checkpoint, so an interrupted run resumes with the next month and a
+ * repeated run only picks up loans returned since. Monthly partitions left empty are dropped.
+ *
+ * <p>Circulation rollups of archived days can no longer be rebuilt, so
+ * {@code circulation-rollup-backfill} starts after them.
+ */
+@Component
+public class BorrowArchiveJobHandler implements JobHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(BorrowArchiveJobHandler.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BorrowArchive archive;
+    private final BorrowRecordPartitions partitions;
+
+    @Value("${borrow.archive.min-age-months:12}")
+    private int minAgeMonths;
+
+    public BorrowArchiveJobHandler(JdbcTemplate jdbcTemplate, BorrowArchive archive, BorrowRecordPartitions partitions) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.archive = archive;
+        this.partitions = partitions;
+    }
+
+    @Override
+    public String type() {
+        return "borrow-archive";
+    }
+
+    @Override
+    public void validate(JobContext.Params params) {
+        LocalDate before = before(params);
+        if (before != null && (before.getDayOfMonth() != 1 || before.isAfter(LocalDate.now().withDayOfMonth(1)))) {
+            throw new IllegalArgumentException("'before' must be the first day of this or an earlier month.");
+        }
+    }
+
+    @Override
+    public Object run(JobContext context) throws Exception {
+        LocalDate before = before(context.params());
+        if (before == null) {
+            before = LocalDate.now().withDayOfMonth(1).minusMonths(minAgeMonths);
+        }
+        Date first = jdbcTemplate.queryForObject(
+                "SELECT MIN(borrow_date) FROM borrow_record WHERE status = 'RETURNED' AND borrow_date < ?",
+                Date.class, Date.valueOf(before));
+        // Checkpoint is the last month archived
+        LocalDate month = context.checkpoint() != null ? LocalDate.parse(context.checkpoint()).plusMonths(1)
+                : first == null ? before : first.toLocalDate().withDayOfMonth(1);
+        long processed = context.processed();
+        context.setTotal(processed + Math.max(0, ChronoUnit.MONTHS.between(month, before)));
+
+        long archived = 0;
+        for (; month.isBefore(before); month = month.plusMonths(1)) {
+            LocalDate current = month;
+            long done = ++processed;
+            int moved = archive.archiveMonth(current, () -> context.saveCheckpoint(current.toString(), done));
+            if (moved > 0) {
+                logger.info("Archived {} returned loans borrowed in {}.", moved, YearMonth.from(current));
+                partitions.dropIfEmpty(current);
+            }
+            archived += moved;
+        }
+        return Map.of("before", before.toString(), "archived", archived);
+    }
+
+    private static LocalDate before(JobContext.Params params) {
+        String value = params.optional("before");
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("'before' must be a date like 2024-01-01.");
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.Book.Management.System.job;
+
+import com.example.Book.Management.System.archive.BorrowRecordPartitions;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Builds the borrow history indexes and partitions {@code borrow_record} by month, off the
+ * startup path (see {@link BorrowRecordPartitions}). Queued automatically at startup while either
+ * is outstanding; submitting it by hand is harmless. Every step checks what is already done, so an
+ * interrupted run simply starts over.
+ */
+@Component
+public class BorrowPartitioningJobHandler implements JobHandler {
+
+    private final BorrowRecordPartitions partitions;
+
+    public BorrowPartitioningJobHandler(BorrowRecordPartitions partitions) {
+        this.partitions = partitions;
+    }
+
+    @Override
+    public String type() {
+        return BorrowRecordPartitions.PREPARE_JOB;
+    }
+
+    @Override
+    public Object run(JobContext context) {
+        partitions.prepare();
+        return Map.of("partitioned", partitions.isPartitioned());
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.Book.Management.System.job;
+
+import com.example.Book.Management.System.service.CatalogCountService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recomputes {@code book_count} and {@code available_count} of every author, then every
+ * publisher, in chunks of ids. Each chunk locks its rows, so it is safe alongside live borrows
+ * and edits. Run it once after upgrading to fill the new columns, and whenever drift is
+ * suspected; the result says how many rows were off.
+ */
+@Component
+public class CatalogCountReconcileJobHandler implements JobHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogCountReconcileJobHandler.class);
+
+    private static final String AUTHORS = "authors";
+    private static final String PUBLISHERS = "publishers";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogCountService catalogCounts;
+
+    @Value("${catalog.counts.reconcile-chunk-size:500}")
+    private int chunkSize;
+
+    public CatalogCountReconcileJobHandler(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                           CatalogCountService catalogCounts) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.catalogCounts = catalogCounts;
+    }
+
+    @Override
+    public String type() {
+        return "catalog-count-reconcile";
+    }
+
+    @Override
+    public Object run(JobContext context) {
+        Long authors = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM authors", Long.class);
+        Long publishers = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM publishers", Long.class);
+        context.setTotal((authors == null ? 0L : authors) + (publishers == null ? 0L : publishers));
+
+        // Checkpoint is "<table>:<last id>"
+        String checkpoint = context.checkpoint();
+        String table = checkpoint == null ? AUTHORS : checkpoint.substring(0, checkpoint.indexOf(':'));
+        long afterId = checkpoint == null ? 0L : Long.parseLong(checkpoint.substring(checkpoint.indexOf(':') + 1));
+        long processed = context.processed();
+        long corrected = 0;
+        while (true) {
+            long cursor = afterId;
+            List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM " + table + " WHERE id > ? ORDER BY id LIMIT ?",
+                    Long.class, cursor, chunkSize);
+            if (ids.isEmpty()) {
+                if (PUBLISHERS.equals(table)) {
+                    break;
+                }
+                table = PUBLISHERS;
+                afterId = 0L;
+                continue;
+            }
+            String chunkTable = table;
+            long lastId = ids.get(ids.size() - 1);
+            long done = processed + ids.size();
+            corrected += transactionTemplate.execute(status -> {
+                int drifted = AUTHORS.equals(chunkTable) ? catalogCounts.recountAuthors(ids) : catalogCounts.recountPublishers(ids);
+                context.saveCheckpoint(chunkTable + ":" + lastId, done);
+                return drifted;
+            });
+            processed = done;
+            afterId = lastId;
+        }
+        if (corrected > 0) {
+            logger.warn("Corrected book counts of {} authors and publishers.", corrected);
+        }
+        return Map.of("processed", processed, "corrected", corrected);
+    }
+}
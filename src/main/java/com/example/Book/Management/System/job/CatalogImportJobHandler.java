@@ -0,0 +1,61 @@
+package com.example.Book.Management.System.job;
+
+import com.example.Book.Management.System.dto.ImportReportDto;
+import com.example.Book.Management.System.importer.CatalogImportService;
+import com.example.Book.Management.System.importer.ImportFormat;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Imports a catalog file that is already on the server ({@code file}, optional {@code format}).
+ * The checkpoint is the last input line of the last flushed batch; a resumed job re-reads the
+ * file and skips up to it.
+ */
+@Component
+public class CatalogImportJobHandler implements JobHandler {
+
+    private final CatalogImportService importService;
+
+    public CatalogImportJobHandler(CatalogImportService importService) {
+        this.importService = importService;
+    }
+
+    @Override
+    public String type() {
+        return "catalog-import";
+    }
+
+    @Override
+    public void validate(JobContext.Params params) {
+        Path file = Paths.get(params.required("file"));
+        if (!Files.isReadable(file)) {
+            throw new IllegalArgumentException("Import file is not readable: " + file);
+        }
+        format(params, file);
+    }
+
+    @Override
+    public Object run(JobContext context) throws Exception {
+        Path file = Paths.get(context.params().required("file"));
+        ImportFormat format = format(context.params(), file);
+        long skipThroughLine = context.checkpoint() == null ? 0L : Long.parseLong(context.checkpoint());
+        long alreadyProcessed = context.processed();
+
+        try (InputStream in = Files.newInputStream(file)) {
+            ImportReportDto report = importService.importBooks(in, format, skipThroughLine,
+                    (lastLine, progress) -> context.saveCheckpoint(String.valueOf(lastLine),
+                            alreadyProcessed + progress.getRowsRead()));
+            return report;
+        }
+    }
+
+    private static ImportFormat format(JobContext.Params params, Path file) {
+        String format = params.optional("format");
+        return format != null ? ImportFormat.valueOf(format.toUpperCase())
+                : ImportFormat.fromFileName(file.getFileName().toString());
+    }
+}
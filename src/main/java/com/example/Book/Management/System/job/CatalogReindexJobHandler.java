@@ -0,0 +1,32 @@
+package com.example.Book.Management.System.job;
+
+import com.example.Book.Management.System.catalog.CatalogSnapshotService;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Rebuilds the in-memory catalog index from scratch and rewrites its snapshot file.
+ * The rebuild is a single pass, so an interrupted job simply starts over.
+ */
+@Component
+public class CatalogReindexJobHandler implements JobHandler {
+
+    private final CatalogSnapshotService snapshotService;
+
+    public CatalogReindexJobHandler(CatalogSnapshotService snapshotService) {
+        this.snapshotService = snapshotService;
+    }
+
+    @Override
+    public String type() {
+        return "catalog-reindex";
+    }
+
+    @Override
+    public Object run(JobContext context) {
+        int books = snapshotService.rebuild();
+        context.saveCheckpoint("done", books);
+        return Map.of("booksIndexed", books);
+    }
+}
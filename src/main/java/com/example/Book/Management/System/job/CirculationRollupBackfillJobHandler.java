@@ -0,0 +1,139 @@
+package com.example.Book.Management.System.job;
+
+import com.example.Book.Management.System.archive.BorrowArchive;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+/**
+ * Recomputes the DAY rows of {@code circulation_rollups} from {@code borrow_record} for the days
+ * {@code from} (default: the first borrow) through {@code through} (default: yesterday). Each
+ * chunk of days is deleted and re-inserted in one transaction together with its checkpoint, so
+ * the job can be resumed or simply run again to repair drift. Today is left to the live rollups.
+ *
+ * <p>Borrow dates carry no time of day, so HOUR rows are only ever written live. Loans are
+ * attributed to the title's current author and publisher. Days up to the last return of an
+ * archived loan are skipped, since those loans are no longer in {@code borrow_record}.
+ */
+@Component
+public class CirculationRollupBackfillJobHandler implements JobHandler {
+
+    private static final String DELETE_SQL =
+            "DELETE FROM circulation_rollups WHERE grain = 'DAY' AND bucket_start >= ? AND bucket_start < ?";
+
+    // One pass per chunk: GROUPING SETS yields the library, author, publisher and patron rows together.
+    private static final String INSERT_SQL = """
+            INSERT INTO circulation_rollups (dimension, dimension_id, grain, bucket_start, borrows, returns)
+            SELECT dimension, dimension_id, 'DAY', day, borrows, returns FROM (
+                SELECT e.day,
+                       CASE WHEN GROUPING(b.author_id) = 0 THEN 'AUTHOR'
+                            WHEN GROUPING(b.publisher_id) = 0 THEN 'PUBLISHER'
+                            WHEN GROUPING(e.user_id) = 0 THEN 'USER' ELSE 'ALL' END AS dimension,
+                       CASE WHEN GROUPING(b.author_id) = 0 THEN b.author_id
+                            WHEN GROUPING(b.publisher_id) = 0 THEN b.publisher_id
+                            WHEN GROUPING(e.user_id) = 0 THEN e.user_id ELSE 0 END AS dimension_id,
+                       SUM(e.borrowed) AS borrows, SUM(e.returned) AS returns
+                FROM (
+                    SELECT CAST(borrow_date AS timestamp) AS day, book_id, user_id, 1 AS borrowed, 0 AS returned
+                    FROM borrow_record WHERE borrow_date >= ? AND borrow_date < ?
+                    UNION ALL
+                    SELECT CAST(return_date AS timestamp), book_id, user_id, 0, 1
+                    FROM borrow_record WHERE return_date >= ? AND return_date < ?
+                ) e LEFT JOIN books b ON b.id = e.book_id
+                GROUP BY GROUPING SETS ((e.day), (e.day, b.author_id), (e.day, b.publisher_id), (e.day, e.user_id))
+            ) g WHERE dimension_id IS NOT NULL
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BorrowArchive archive;
+
+    @Value("${stats.backfill.days-per-chunk:7}")
+    private int daysPerChunk;
+
+    public CirculationRollupBackfillJobHandler(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                               BorrowArchive archive) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archive = archive;
+    }
+
+    @Override
+    public String type() {
+        return "circulation-rollup-backfill";
+    }
+
+    @Override
+    public void validate(JobContext.Params params) {
+        LocalDate from = date(params, "from");
+        LocalDate through = date(params, "through");
+        if (through != null && !through.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("'through' must be before today.");
+        }
+        if (from != null && through != null && from.isAfter(through)) {
+            throw new IllegalArgumentException("'from' must not be after 'through'.");
+        }
+    }
+
+    @Override
+    public Object run(JobContext context) {
+        JobContext.Params params = context.params();
+        LocalDate through = date(params, "through");
+        if (through == null) {
+            through = LocalDate.now().minusDays(1);
+        }
+        LocalDate from = date(params, "from");
+        if (from == null) {
+            Date first = jdbcTemplate.queryForObject("SELECT MIN(borrow_date) FROM borrow_record", Date.class);
+            if (first == null) {
+                return Map.of("days", 0);
+            }
+            from = first.toLocalDate();
+        }
+        // Archived loans are gone from borrow_record; recomputing their days would erase them.
+        LocalDate floor = archive.rollupRebuildFloor();
+        if (floor != null && from.isBefore(floor)) {
+            from = floor;
+        }
+        if (from.isAfter(through)) {
+            return Map.of("days", 0);
+        }
+        long days = ChronoUnit.DAYS.between(from, through) + 1;
+        context.setTotal(Math.max(days, 0));
+
+        LocalDate next = context.checkpoint() == null ? from : LocalDate.parse(context.checkpoint()).plusDays(1);
+        while (!next.isAfter(through)) {
+            LocalDate start = next;
+            LocalDate end = start.plusDays(daysPerChunk).isAfter(through) ? through.plusDays(1) : start.plusDays(daysPerChunk);
+            long done = ChronoUnit.DAYS.between(from, end);
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update(DELETE_SQL, Timestamp.valueOf(start.atStartOfDay()), Timestamp.valueOf(end.atStartOfDay()));
+                jdbcTemplate.update(INSERT_SQL, Date.valueOf(start), Date.valueOf(end), Date.valueOf(start), Date.valueOf(end));
+                context.saveCheckpoint(end.minusDays(1).toString(), done);
+            });
+            next = end;
+        }
+        return Map.of("from", from.toString(), "through", through.toString(), "days", Math.max(days, 0));
+    }
+
+    private static LocalDate date(JobContext.Params params, String name) {
+        String value = params.optional(name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("'" + name + "' must be a date like 2024-01-31.");
+        }
+    }
+}
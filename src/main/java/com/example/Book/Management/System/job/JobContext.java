@@ -0,0 +1,122 @@
+package com.example.Book.Management.System.job;
+
+import com.example.Book.Management.System.entity.AdminJob;
+import com.example.Book.Management.System.entity.JobStatus;
+import com.example.Book.Management.System.repository.AdminJobRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.LocalDateTime;
+
+/**
+ * What a running {@link JobHandler} sees of its job: parameters, the last checkpoint and a way
+ * to record progress.
+ */
+public class JobContext {
+
+    private final Long jobId;
+    private final String owner;
+    private final Params params;
+    private final AdminJobRepository jobRepository;
+    private String checkpoint;
+    private long processed;
+
+    JobContext(AdminJob job, String owner, Params params, AdminJobRepository jobRepository) {
+        this.jobId = job.getId();
+        this.owner = owner;
+        this.params = params;
+        this.checkpoint = job.getCheckpoint();
+        this.processed = job.getProcessed();
+        this.jobRepository = jobRepository;
+    }
+
+    public Long jobId() {
+        return jobId;
+    }
+
+    public Params params() {
+        return params;
+    }
+
+    /**
+     * @return where the previous run stopped, or {@code null} on a fresh start
+     */
+    public String checkpoint() {
+        return checkpoint;
+    }
+
+    public long processed() {
+        return processed;
+    }
+
+    public void setTotal(long total) {
+        jobRepository.saveTotal(jobId, owner, total);
+    }
+
+    /**
+     * Records progress. Joins the caller's transaction when there is one, so a chunk and its
+     * checkpoint commit together.
+     *
+     * @throws JobStoppedException if the job was cancelled or another node has taken it over;
+     *                             the handler should let it propagate
+     */
+    public void saveCheckpoint(String checkpoint, long processed) {
+        int updated = jobRepository.saveCheckpoint(jobId, owner, checkpoint, processed, LocalDateTime.now(),
+                JobStatus.RUNNING);
+        if (updated == 0) {
+            throw new JobStoppedException(isCancellationRequested());
+        }
+        this.checkpoint = checkpoint;
+        this.processed = processed;
+    }
+
+    public boolean isCancellationRequested() {
+        return jobRepository.findById(jobId).map(AdminJob::isCancelRequested).orElse(true);
+    }
+
+    /**
+     * Thrown out of a handler when its job must stop: cancelled by a user, or no longer owned by
+     * this node.
+     */
+    public static class JobStoppedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final boolean cancelled;
+
+        JobStoppedException(boolean cancelled) {
+            super(cancelled ? "Job cancelled" : "Job ownership lost");
+            this.cancelled = cancelled;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    /**
+     * Typed access to the submitted JSON parameters.
+     */
+    public static class Params {
+        private final JsonNode node;
+
+        Params(JsonNode node) {
+            this.node = node;
+        }
+
+        public String required(String name) {
+            String value = optional(name);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing job parameter '" + name + "'.");
+            }
+            return value;
+        }
+
+        public String optional(String name) {
+            JsonNode value = node == null ? null : node.get(name);
+            return value == null || value.isNull() ? null : value.asText();
+        }
+
+        public JsonNode asJson() {
+            return node;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.Book.Management.System.job;
+
+/**
+ * One kind of admin job. Implementations are Spring beans and are looked up by {@link #type()}.
+ *
+ * <p>A handler must be restartable: when {@link JobContext#checkpoint()} is non-null the job was
+ * interrupted and should continue after that position. Work should be done in chunks, each followed
+ * by {@link JobContext#saveCheckpoint}; committing the chunk and its checkpoint in the same
+ * transaction makes resumption exact.
+ */
+public interface JobHandler {
+
+    String type();
+
+    /**
+     * Rejects bad parameters at submission time instead of when the job runs.
+     */
+    default void validate(JobContext.Params params) {
+    }
+
+    /**
+     * @return a JSON-serializable summary stored as the job result, or {@code null}
+     */
+    Object run(JobContext context) throws Exception;
+}
@@ -0,0 +1,210 @@
+package com.example.Book.Management.System.job;
+
+import com.example.Book.Management.System.config.NodeIdentity;
+import com.example.Book.Management.System.entity.AdminJob;
+import com.example.Book.Management.System.entity.JobStatus;
+import com.example.Book.Management.System.repository.AdminJobRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Runs {@link JobHandler}s in the background on a bounded pool, outside any HTTP request.
+ *
+ * <p>The {@code admin_jobs} table is the queue. A node takes a job with a conditional UPDATE, so
+ * several instances can share the table. While a job runs, its node keeps a heartbeat. A job whose
+ * heartbeat goes stale (crash, kill, redeploy) is put back in the queue and resumes from its last
+ * checkpoint wherever it is picked up next.
+ */
+@Service
+public class JobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobService.class);
+
+    private final AdminJobRepository jobRepository;
+    private final Map<String, JobHandler> handlers;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor executor;
+    private final Set<Long> runningHere = ConcurrentHashMap.newKeySet();
+    private final String nodeId;
+
+    @Value("${jobs.stale-after-seconds:60}")
+    private long staleAfterSeconds;
+
+    public JobService(AdminJobRepository jobRepository, List<JobHandler> handlers, ObjectMapper objectMapper,
+                      NodeIdentity nodeIdentity, @Value("${jobs.workers:2}") int workers,
+                      @Value("${jobs.queue-capacity:16}") int queueCapacity) {
+        this.jobRepository = jobRepository;
+        this.handlers = handlers.stream().collect(Collectors.toMap(JobHandler::type, Function.identity()));
+        this.objectMapper = objectMapper;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+            Thread thread = new Thread(r, "admin-job-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.nodeId = nodeIdentity.getId();
+    }
+
+    public AdminJob submit(String type, JsonNode params, String submittedBy) {
+        JobHandler handler = handlers.get(type);
+        if (handler == null) {
+            throw new IllegalArgumentException("Unknown job type: " + type + ". Known types: " + handlers.keySet());
+        }
+        handler.validate(new JobContext.Params(params));
+
+        AdminJob job = jobRepository.save(new AdminJob(type, params == null ? null : params.toString(), submittedBy));
+        logger.info("Job {} of type {} submitted by {}.", job.getId(), type, submittedBy);
+        dispatch(job.getId());
+        return job;
+    }
+
+    public Optional<AdminJob> getJob(Long id) {
+        return jobRepository.findById(id);
+    }
+
+    public List<AdminJob> recentJobs(int limit) {
+        return jobRepository.findAllByOrderByIdDesc(PageRequest.of(0, Math.max(1, Math.min(limit, 200))));
+    }
+
+    /**
+     * Queued jobs are cancelled at once. Running ones stop at their next checkpoint.
+     *
+     * @return the job after the request, or empty if it does not exist
+     */
+    public Optional<AdminJob> cancel(Long id) {
+        if (jobRepository.cancelQueued(id, LocalDateTime.now(), JobStatus.QUEUED, JobStatus.CANCELLED) == 0) {
+            jobRepository.requestCancel(id, JobStatus.RUNNING);
+        }
+        logger.info("Cancellation requested for job {}.", id);
+        return jobRepository.findById(id);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeOnStartup() {
+        logger.info("Job node {} started with {} handlers: {}.", nodeId, handlers.size(), handlers.keySet());
+        pollQueue();
+    }
+
+    /**
+     * Re-queues stale jobs and picks up queued ones this node has room for.
+     * Submissions are dispatched directly; this covers restarts, other nodes' crashes and
+     * submissions the pool had to turn away.
+     */
+    @Scheduled(fixedDelayString = "${jobs.poll-interval-ms:5000}", initialDelayString = "${jobs.poll-interval-ms:5000}")
+    public void pollQueue() {
+        try {
+            LocalDateTime staleBefore = LocalDateTime.now().minusSeconds(staleAfterSeconds);
+            jobRepository.cancelStale(staleBefore, LocalDateTime.now(), JobStatus.RUNNING, JobStatus.CANCELLED);
+            int requeued = jobRepository.requeueStale(staleBefore, JobStatus.QUEUED, JobStatus.RUNNING);
+            if (requeued > 0) {
+                logger.warn("Re-queued {} jobs whose node stopped heartbeating.", requeued);
+            }
+
+            int capacity = executor.getQueue().remainingCapacity() + executor.getMaximumPoolSize() - executor.getActiveCount();
+            if (capacity <= 0) {
+                return;
+            }
+            for (AdminJob job : jobRepository.findByStatusOrderByIdAsc(JobStatus.QUEUED, PageRequest.of(0, capacity))) {
+                dispatch(job.getId());
+            }
+        } catch (RuntimeException e) {
+            logger.error("Job queue poll failed. Error: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jobs.heartbeat-interval-ms:10000}")
+    public void heartbeat() {
+        if (!runningHere.isEmpty()) {
+            jobRepository.heartbeat(Set.copyOf(runningHere), nodeId, LocalDateTime.now(), JobStatus.RUNNING);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Running jobs are abandoned; their heartbeat lapses and another start picks them up.
+        executor.shutdownNow();
+    }
+
+    private void dispatch(Long jobId) {
+        try {
+            executor.execute(() -> run(jobId));
+        } catch (RejectedExecutionException e) {
+            logger.debug("Job pool full, job {} stays queued.", jobId);
+        }
+    }
+
+    private void run(Long jobId) {
+        if (jobRepository.claim(jobId, nodeId, LocalDateTime.now(), JobStatus.QUEUED, JobStatus.RUNNING) == 0) {
+            return;
+        }
+        runningHere.add(jobId);
+        MDC.put("jobId", String.valueOf(jobId));
+        try {
+            AdminJob job = jobRepository.findById(jobId).orElseThrow();
+            MDC.put("jobType", job.getType());
+            JobHandler handler = handlers.get(job.getType());
+            if (handler == null) {
+                finish(jobId, JobStatus.FAILED, "No handler for job type " + job.getType(), null);
+                return;
+            }
+            logger.info("Job {} started{}.", jobId, job.getCheckpoint() == null ? "" : " from checkpoint " + job.getCheckpoint());
+            JsonNode params = job.getParams() == null ? null : objectMapper.readTree(job.getParams());
+            Object result = handler.run(new JobContext(job, nodeId, new JobContext.Params(params), jobRepository));
+            finish(jobId, JobStatus.SUCCEEDED, null, result);
+        } catch (JobContext.JobStoppedException e) {
+            if (e.isCancelled()) {
+                finish(jobId, JobStatus.CANCELLED, "Cancelled by request", null);
+            } else {
+                logger.warn("Job {} was taken over by another node; stopping here.", jobId);
+            }
+        } catch (Exception e) {
+            logger.error("Job {} failed. Error: {}", jobId, e.getMessage(), e);
+            finish(jobId, JobStatus.FAILED, e.getMessage(), null);
+        } finally {
+            runningHere.remove(jobId);
+            MDC.clear();
+        }
+    }
+
+    private void finish(Long jobId, JobStatus status, String message, Object result) {
+        String json = null;
+        if (result != null) {
+            try {
+                json = objectMapper.writeValueAsString(result);
+            } catch (JsonProcessingException e) {
+                logger.warn("Could not serialize result of job {}: {}", jobId, e.getMessage());
+            }
+        }
+        if (message != null && message.length() > 1000) {
+            message = message.substring(0, 1000);
+        }
+        jobRepository.finish(jobId, nodeId, status, message, json, LocalDateTime.now(), JobStatus.RUNNING);
+        logger.info("Job {} finished with status {}.", jobId, status);
+    }
+}
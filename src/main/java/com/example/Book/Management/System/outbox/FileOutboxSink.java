@@ -0,0 +1,82 @@
+package com.example.Book.Management.System.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends published events to an NDJSON file, one line per event, and forces each batch to disk
+ * before the relay marks it published. The relay runs on whichever instance holds its lease, so
+ * in a cluster the path should be on storage all instances share.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.file.path")
+public class FileOutboxSink implements OutboxSink {
+
+    private final ObjectMapper objectMapper;
+    private final Path path;
+    private FileChannel channel;
+
+    public FileOutboxSink(ObjectMapper objectMapper, @Value("${outbox.file.path}") String path) {
+        this.objectMapper = objectMapper;
+        this.path = Paths.get(path);
+    }
+
+    @Override
+    public String name() {
+        return "file:" + path;
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxMessage> batch) throws IOException {
+        StringBuilder lines = new StringBuilder(batch.size() * 256);
+        for (OutboxMessage message : batch) {
+            ObjectNode line = objectMapper.createObjectNode();
+            line.put("seq", message.getSeq());
+            line.put("eventId", message.getEventId());
+            line.put("aggregateType", message.getAggregateType().name());
+            line.put("aggregateId", message.getAggregateId());
+            line.put("eventType", message.getEventType());
+            line.put("createdAt", message.getCreatedAt().toString());
+            line.set("payload", objectMapper.readTree(message.getPayload()));
+            lines.append(objectMapper.writeValueAsString(line)).append('\n');
+        }
+        FileChannel out = channel();
+        ByteBuffer bytes = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        while (bytes.hasRemaining()) {
+            out.write(bytes);
+        }
+        out.force(false);
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+}
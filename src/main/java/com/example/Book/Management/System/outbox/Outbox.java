@@ -0,0 +1,37 @@
+package com.example.Book.Management.System.outbox;
+
+import com.example.Book.Management.System.entity.EventAggregate;
+import com.example.Book.Management.System.entity.OutboxEvent;
+import com.example.Book.Management.System.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Records domain events in {@code outbox_events}. Must be called inside the transaction that
+ * makes the change, so the event exists exactly when the change does.
+ */
+@Component
+public class Outbox {
+
+    private final OutboxEventRepository eventRepository;
+    private final ObjectMapper objectMapper;
+
+    public Outbox(OutboxEventRepository eventRepository, ObjectMapper objectMapper) {
+        this.eventRepository = eventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(EventAggregate aggregateType, Long aggregateId, String eventType, Object payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + eventType + " event", e);
+        }
+        eventRepository.save(new OutboxEvent(aggregateType, aggregateId, eventType, json));
+    }
+}
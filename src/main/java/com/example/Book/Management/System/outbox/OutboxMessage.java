@@ -0,0 +1,53 @@
+package com.example.Book.Management.System.outbox;
+
+import com.example.Book.Management.System.entity.EventAggregate;
+import com.example.Book.Management.System.entity.OutboxEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * A published outbox event as sinks and in-process listeners see it. Delivery is at-least-once:
+ * consumers should skip an {@code eventId} they have already handled.
+ */
+public class OutboxMessage {
+
+    private final long seq;
+    private final long eventId;
+    private final EventAggregate aggregateType;
+    private final long aggregateId;
+    private final String eventType;
+    private final String payload;
+    private final LocalDateTime createdAt;
+
+    public OutboxMessage(long seq, long eventId, EventAggregate aggregateType, long aggregateId,
+                         String eventType, String payload, LocalDateTime createdAt) {
+        this.seq = seq;
+        this.eventId = eventId;
+        this.aggregateType = aggregateType;
+        this.aggregateId = aggregateId;
+        this.eventType = eventType;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+
+    static OutboxMessage of(OutboxEvent event) {
+        return new OutboxMessage(event.getSeq(), event.getId(), event.getAggregateType(), event.getAggregateId(),
+                event.getEventType(), event.getPayload(), event.getCreatedAt());
+    }
+
+    // Position in the stream; gap-free and increasing, assigned by the relay
+    public long getSeq() { return seq; }
+
+    public long getEventId() { return eventId; }
+
+    public EventAggregate getAggregateType() { return aggregateType; }
+
+    public long getAggregateId() { return aggregateId; }
+
+    public String getEventType() { return eventType; }
+
+    // JSON
+    public String getPayload() { return payload; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
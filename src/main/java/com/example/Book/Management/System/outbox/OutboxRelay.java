@@ -0,0 +1,118 @@
+package com.example.Book.Management.System.outbox;
+
+import com.example.Book.Management.System.cluster.ClusterLeaseService;
+import com.example.Book.Management.System.cluster.ClusterSingleton;
+import com.example.Book.Management.System.entity.OutboxEvent;
+import com.example.Book.Management.System.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Publishes outbox events in batches, on one instance at a time. Each batch gets consecutive
+ * {@code seq} numbers, is handed to every {@link OutboxSink}, and is then marked published in the
+ * same transaction that assigned the numbers. A crash after the sinks accepted a batch but before
+ * the commit re-publishes it, so delivery is at-least-once.
+ *
+ * <p>Events are taken in id order among those committed when the batch is read. An event whose
+ * transaction commits late is published with the next batch, behind events with higher ids.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository eventRepository;
+    private final List<OutboxSink> sinks;
+    private final ClusterLeaseService leaseService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${outbox.retention-hours:72}")
+    private long retentionHours;
+
+    @Value("${outbox.purge-chunk-size:5000}")
+    private int purgeChunkSize;
+
+    public OutboxRelay(OutboxEventRepository eventRepository, ObjectProvider<OutboxSink> sinks,
+                       ClusterLeaseService leaseService, PlatformTransactionManager transactionManager) {
+        this.eventRepository = eventRepository;
+        this.sinks = sinks.orderedStream().toList();
+        this.leaseService = leaseService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @ClusterSingleton
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:1000}")
+    public void relay() {
+        long published = 0;
+        try {
+            int batch;
+            do {
+                batch = transactionTemplate.execute(status -> publishNextBatch());
+                published += batch;
+            } while (batch == batchSize);
+        } catch (RuntimeException e) {
+            // Nothing in the failed batch was marked; the next run retries it.
+            logger.error("Outbox relay stopped after {} events. Error: {}", published, e.getMessage(), e);
+        }
+        if (published > 0) {
+            logger.debug("Outbox relay published {} events.", published);
+        }
+    }
+
+    @ClusterSingleton
+    @Scheduled(fixedDelayString = "${outbox.purge-interval-ms:3600000}",
+            initialDelayString = "${outbox.purge-interval-ms:3600000}")
+    public void purgePublished() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        long purged = 0;
+        int deleted;
+        do {
+            deleted = eventRepository.purgePublishedBefore(cutoff, purgeChunkSize);
+            purged += deleted;
+        } while (deleted == purgeChunkSize);
+        if (purged > 0) {
+            logger.info("Purged {} published outbox events older than {} hours.", purged, retentionHours);
+        }
+    }
+
+    private int publishNextBatch() {
+        // Holds the lease row until commit, so a new relay cannot number events concurrently.
+        leaseService.fence();
+        List<OutboxEvent> events = eventRepository.findUnpublished(PageRequest.of(0, batchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        long seq = eventRepository.findMaxSeq();
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxMessage> batch = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            event.setSeq(++seq);
+            event.setPublishedAt(now);
+            batch.add(OutboxMessage.of(event));
+        }
+        for (OutboxSink sink : sinks) {
+            try {
+                sink.publish(batch);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Outbox sink " + sink.name() + " failed", e);
+            }
+        }
+        return events.size();
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.Book.Management.System.outbox;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination the relay publishes to. A batch counts as published only once every sink has
+ * accepted it; a failing sink makes the relay retry the same batch, so sinks may see duplicates.
+ */
+public interface OutboxSink {
+
+    String name();
+
+    void publish(List<OutboxMessage> batch) throws IOException;
+}
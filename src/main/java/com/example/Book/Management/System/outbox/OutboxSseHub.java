@@ -0,0 +1,254 @@
+package com.example.Book.Management.System.outbox;
+
+import com.example.Book.Management.System.entity.EventAggregate;
+import com.example.Book.Management.System.entity.OutboxEvent;
+import com.example.Book.Management.System.repository.OutboxEventRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Serves the change stream over Server-Sent Events. The SSE event id is the stream {@code seq},
+ * so a client that reconnects with {@code Last-Event-ID} first gets what it missed (up to
+ * {@code outbox.sse.max-replay} events) from the table, then the live stream.
+ *
+ * <p>Dispatch only appends to each subscriber's bounded buffer ({@code outbox.sse.buffer-size});
+ * a small pool of sender threads writes to the clients, so the tailer never waits on a socket.
+ * A subscriber whose buffer fills loses what is buffered and gets a {@code resync} event, as
+ * when it reconnects too far behind.
+ */
+@Component
+public class OutboxSseHub {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxSseHub.class);
+
+    private final OutboxEventRepository eventRepository;
+    private final OutboxTailer tailer;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService senders;
+
+    @Value("${outbox.sse.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${outbox.sse.max-replay:1000}")
+    private int maxReplay;
+
+    @Value("${outbox.sse.buffer-size:1000}")
+    private int bufferSize;
+
+    public OutboxSseHub(OutboxEventRepository eventRepository, OutboxTailer tailer,
+                        @Value("${outbox.sse.sender-threads:2}") int senderThreads) {
+        this.eventRepository = eventRepository;
+        this.tailer = tailer;
+        this.senders = Executors.newFixedThreadPool(senderThreads, r -> {
+            Thread thread = new Thread(r, "outbox-sse-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param types aggregates to receive; empty for all
+     * @param lastEventId seq of the last event the client saw, or {@code null} to start live
+     */
+    public SseEmitter subscribe(Set<EventAggregate> types, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, types, Math.max(bufferSize, 1));
+        emitter.onCompletion(() -> close(subscriber));
+        emitter.onTimeout(() -> close(subscriber));
+        emitter.onError(e -> close(subscriber));
+
+        // Dispatch waits on this lock, so nothing is published between the replay and joining.
+        // The replay is only buffered here; the senders write it ahead of the live events.
+        synchronized (this) {
+            if (lastEventId != null) {
+                replay(subscriber, lastEventId, tailer.cursor());
+            }
+            subscribers.add(subscriber);
+        }
+        schedule(subscriber);
+        return emitter;
+    }
+
+    @EventListener
+    public synchronized void on(OutboxMessage message) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.accepts(message)) {
+                subscriber.offer(message);
+                schedule(subscriber);
+            }
+        }
+    }
+
+    // Idle proxies drop silent connections, and a failed write is how a gone client is noticed.
+    @Scheduled(fixedDelayString = "${outbox.sse.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.requestHeartbeat();
+            schedule(subscriber);
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+
+    private void replay(Subscriber subscriber, long afterSeq, long upToSeq) {
+        if (upToSeq - afterSeq > maxReplay) {
+            // The client has to reload its state; it can then follow the live stream.
+            subscriber.requestResync();
+            return;
+        }
+        List<OutboxEvent> missed = eventRepository.findPublishedAfter(afterSeq, PageRequest.of(0, maxReplay));
+        for (OutboxEvent event : missed) {
+            if (event.getSeq() > upToSeq) {
+                break;
+            }
+            OutboxMessage message = OutboxMessage.of(event);
+            if (subscriber.accepts(message)) {
+                subscriber.offer(message);
+            }
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (!subscriber.closed && subscriber.scheduled.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            Batch batch = subscriber.drain();
+            if (batch.isEmpty()) {
+                subscriber.scheduled.set(false);
+                // Re-check: an offer may have landed after the drain but before the flag was cleared.
+                if (subscriber.isEmpty() || !subscriber.scheduled.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            try {
+                send(subscriber.emitter, batch);
+            } catch (IOException | IllegalStateException e) {
+                logger.debug("Dropping SSE subscriber: {}", e.getMessage());
+                close(subscriber);
+                subscriber.emitter.completeWithError(e);
+                return;
+            }
+        }
+    }
+
+    private static void send(SseEmitter emitter, Batch batch) throws IOException {
+        if (batch.resync) {
+            emitter.send(SseEmitter.event().name("resync").data("{}", MediaType.APPLICATION_JSON));
+        }
+        for (OutboxMessage message : batch.messages) {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(message.getSeq()))
+                    .name(message.getEventType())
+                    .data(message.getPayload(), MediaType.APPLICATION_JSON));
+        }
+        if (batch.heartbeat && batch.messages.isEmpty() && !batch.resync) {
+            emitter.send(SseEmitter.event().comment("keep-alive"));
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscribers.remove(subscriber);
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<EventAggregate> types;
+        private final int capacity;
+
+        // Guarded by this
+        private final ArrayDeque<OutboxMessage> queue = new ArrayDeque<>();
+        private boolean resyncDue;
+        private boolean heartbeatDue;
+
+        // Set while the subscriber is queued for, or being drained by, a sender thread.
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter, Set<EventAggregate> types, int capacity) {
+            this.emitter = emitter;
+            this.types = types;
+            this.capacity = capacity;
+        }
+
+        private boolean accepts(OutboxMessage message) {
+            return types.isEmpty() || types.contains(message.getAggregateType());
+        }
+
+        private synchronized void offer(OutboxMessage message) {
+            if (queue.size() >= capacity) {
+                // A gap in the sequence is useless to the client; tell it to reload instead.
+                queue.clear();
+                resyncDue = true;
+            }
+            queue.addLast(message);
+        }
+
+        private synchronized void requestResync() {
+            queue.clear();
+            resyncDue = true;
+        }
+
+        private synchronized void requestHeartbeat() {
+            heartbeatDue = true;
+        }
+
+        private synchronized Batch drain() {
+            Batch batch = new Batch(new ArrayList<>(queue), resyncDue, heartbeatDue);
+            queue.clear();
+            resyncDue = false;
+            heartbeatDue = false;
+            return batch;
+        }
+
+        private synchronized boolean isEmpty() {
+            return queue.isEmpty() && !resyncDue && !heartbeatDue;
+        }
+    }
+
+    private static final class Batch {
+        private final List<OutboxMessage> messages;
+        private final boolean resync;
+        private final boolean heartbeat;
+
+        private Batch(List<OutboxMessage> messages, boolean resync, boolean heartbeat) {
+            this.messages = messages;
+            this.resync = resync;
+            this.heartbeat = heartbeat;
+        }
+
+        private boolean isEmpty() {
+            return messages.isEmpty() && !resync && !heartbeat;
+        }
+    }
+}
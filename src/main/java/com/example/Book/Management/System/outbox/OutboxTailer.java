@@ -0,0 +1,85 @@
+package com.example.Book.Management.System.outbox;
+
+import com.example.Book.Management.System.entity.OutboxEvent;
+import com.example.Book.Management.System.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Follows the published stream on every instance and re-publishes each event as an
+ * {@link OutboxMessage} application event, in {@code seq} order. In-process consumers use
+ * {@code @EventListener(OutboxMessage.class)}; listeners run on the tailer thread, so they should
+ * hand slow work off. The tailer starts at the end of the stream; events published while an
+ * instance was down are not replayed to it.
+ */
+@Component
+public class OutboxTailer {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxTailer.class);
+
+    private final OutboxEventRepository eventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${outbox.tail.page-size:500}")
+    private int pageSize;
+
+    private volatile long cursor = -1;
+
+    public OutboxTailer(OutboxEventRepository eventRepository, ApplicationEventPublisher eventPublisher) {
+        this.eventRepository = eventRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (cursor < 0) {
+            cursor = eventRepository.findMaxSeq();
+            logger.info("Outbox tailer starting after seq {}.", cursor);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.tail.interval-ms:500}")
+    public synchronized void tail() {
+        if (cursor < 0) {
+            return;
+        }
+        try {
+            List<OutboxEvent> events;
+            do {
+                events = eventRepository.findPublishedAfter(cursor, PageRequest.of(0, pageSize));
+                for (OutboxEvent event : events) {
+                    dispatch(OutboxMessage.of(event));
+                    cursor = event.getSeq();
+                }
+            } while (events.size() == pageSize);
+        } catch (RuntimeException e) {
+            logger.error("Outbox tail after seq {} failed. Error: {}", cursor, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Last seq handed to listeners on this instance.
+     */
+    public long cursor() {
+        return cursor;
+    }
+
+    private void dispatch(OutboxMessage message) {
+        try {
+            eventPublisher.publishEvent(message);
+        } catch (RuntimeException e) {
+            // One broken listener must not stall the stream for the others.
+            logger.warn("Listener failed on outbox event {} (seq {}). Error: {}",
+                    message.getEventId(), message.getSeq(), e.getMessage());
+        }
+    }
+}
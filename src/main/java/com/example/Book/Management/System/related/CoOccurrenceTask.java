@@ -0,0 +1,95 @@
+package com.example.Book.Management.System.related;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts, for every pair of titles, how many patrons borrowed both. Splits the patrons in half
+ * until a slice is small enough, counts each slice into its own maps, then merges the halves, so
+ * workers share nothing while counting.
+ *
+ * <p>A popular title is co-borrowed with most of the catalog, so full maps would grow towards
+ * titles squared. Instead, once a title's map in a slice or merged result holds twice
+ * {@code keep} neighbors, it is cut back to its {@code keep} strongest. Counts of neighbors cut in
+ * one slice but strong in another come out low, so {@code keep} should be well above the
+ * neighbors the model retains.
+ */
+class CoOccurrenceTask extends RecursiveTask<Map<Long, LongIntHashMap>> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int SLICE = 512;
+
+    // Per patron: the distinct titles they borrowed
+    private final long[][] histories;
+    private final int from;
+    private final int to;
+    private final int keep;
+
+    CoOccurrenceTask(long[][] histories, int from, int to, int keep) {
+        this.histories = histories;
+        this.from = from;
+        this.to = to;
+        this.keep = keep;
+    }
+
+    @Override
+    protected Map<Long, LongIntHashMap> compute() {
+        if (to - from <= SLICE) {
+            return count();
+        }
+        int middle = (from + to) >>> 1;
+        CoOccurrenceTask left = new CoOccurrenceTask(histories, from, middle, keep);
+        left.fork();
+        Map<Long, LongIntHashMap> right = new CoOccurrenceTask(histories, middle, to, keep).compute();
+        return prune(merge(left.join(), right));
+    }
+
+    private Map<Long, LongIntHashMap> count() {
+        Map<Long, LongIntHashMap> pairs = new HashMap<>();
+        for (int u = from; u < to; u++) {
+            long[] books = histories[u];
+            for (int i = 0; i < books.length; i++) {
+                LongIntHashMap neighbors = pairs.computeIfAbsent(books[i], id -> new LongIntHashMap(16));
+                for (int j = 0; j < books.length; j++) {
+                    if (i != j) {
+                        neighbors.add(books[j], 1);
+                    }
+                }
+            }
+        }
+        return prune(pairs);
+    }
+
+    private Map<Long, LongIntHashMap> prune(Map<Long, LongIntHashMap> pairs) {
+        pairs.replaceAll((book, neighbors) -> neighbors.size() < 2 * keep ? neighbors : top(neighbors, keep));
+        return pairs;
+    }
+
+    private static LongIntHashMap top(LongIntHashMap neighbors, int keep) {
+        NeighborList strongest = NeighborList.top(neighbors, keep);
+        LongIntHashMap kept = new LongIntHashMap(keep);
+        for (int i = 0; i < strongest.size(); i++) {
+            kept.add(strongest.id(i), strongest.count(i));
+        }
+        return kept;
+    }
+
+    private static Map<Long, LongIntHashMap> merge(Map<Long, LongIntHashMap> a, Map<Long, LongIntHashMap> b) {
+        Map<Long, LongIntHashMap> into = a.size() >= b.size() ? a : b;
+        Map<Long, LongIntHashMap> from = into == a ? b : a;
+        from.forEach((book, neighbors) -> {
+            LongIntHashMap target = into.get(book);
+            if (target == null) {
+                into.put(book, neighbors);
+            } else if (target.size() >= neighbors.size()) {
+                neighbors.forEach(target::add);
+            } else {
+                target.forEach(neighbors::add);
+                into.put(book, neighbors);
+            }
+        });
+        return into;
+    }
+}
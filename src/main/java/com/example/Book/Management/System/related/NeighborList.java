@@ -0,0 +1,107 @@
+package com.example.Book.Management.System.related;
+
+import java.util.Arrays;
+
+/**
+ * A title's strongest co-borrowed titles as two parallel primitive arrays, highest count first.
+ * Immutable: an update returns a new list, so readers never need a lock.
+ */
+final class NeighborList {
+
+    static final NeighborList EMPTY = new NeighborList(new long[0], new int[0]);
+
+    private final long[] ids;
+    private final int[] counts;
+
+    private NeighborList(long[] ids, int[] counts) {
+        this.ids = ids;
+        this.counts = counts;
+    }
+
+    /**
+     * Keeps the {@code capacity} largest entries of a full count map.
+     */
+    static NeighborList top(LongIntHashMap all, int capacity) {
+        long[] keys = new long[all.size()];
+        long[] packed = new long[all.size()];
+        int[] next = {0};
+        all.forEach((key, value) -> {
+            keys[next[0]] = key;
+            // Count in the high word, position in the low word: a primitive sort orders by count.
+            packed[next[0]] = ((long) value << 32) | next[0];
+            next[0]++;
+        });
+        Arrays.sort(packed);
+        int size = Math.min(capacity, packed.length);
+        long[] ids = new long[size];
+        int[] counts = new int[size];
+        for (int i = 0; i < size; i++) {
+            long entry = packed[packed.length - 1 - i];
+            ids[i] = keys[(int) entry];
+            counts[i] = (int) (entry >>> 32);
+        }
+        return new NeighborList(ids, counts);
+    }
+
+    /**
+     * Counts one more patron who borrowed both titles. When the list is full, a new neighbor
+     * replaces the weakest and inherits its count plus one (Space-Saving), so a rising title can
+     * still get in; counts are then upper bounds.
+     */
+    NeighborList increment(long id, int capacity) {
+        int index = indexOf(id);
+        long[] newIds;
+        int[] newCounts;
+        if (index >= 0) {
+            newIds = ids.clone();
+            newCounts = counts.clone();
+            newCounts[index]++;
+        } else if (ids.length < capacity) {
+            newIds = Arrays.copyOf(ids, ids.length + 1);
+            newCounts = Arrays.copyOf(counts, counts.length + 1);
+            index = ids.length;
+            newIds[index] = id;
+            newCounts[index] = 1;
+        } else if (capacity > 0) {
+            newIds = ids.clone();
+            newCounts = counts.clone();
+            index = ids.length - 1;
+            newIds[index] = id;
+            newCounts[index]++;
+        } else {
+            return this;
+        }
+        // Restore descending order; only the touched entry can be out of place.
+        while (index > 0 && newCounts[index] > newCounts[index - 1]) {
+            long swapId = newIds[index];
+            newIds[index] = newIds[index - 1];
+            newIds[index - 1] = swapId;
+            int swapCount = newCounts[index];
+            newCounts[index] = newCounts[index - 1];
+            newCounts[index - 1] = swapCount;
+            index--;
+        }
+        return new NeighborList(newIds, newCounts);
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    long id(int index) {
+        return ids[index];
+    }
+
+    int count(int index) {
+        return counts[index];
+    }
+
+    private int indexOf(long id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,318 @@
+package com.example.Book.Management.System.related;
+
+import com.example.Book.Management.System.archive.BorrowArchive;
+import com.example.Book.Management.System.catalog.CatalogEntry;
+import com.example.Book.Management.System.catalog.CatalogIndex;
+import com.example.Book.Management.System.dto.RelatedBookDto;
+import com.example.Book.Management.System.entity.EventAggregate;
+import com.example.Book.Management.System.outbox.OutboxMessage;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * "Patrons who borrowed this also borrowed": an item-item co-occurrence model held in memory on
+ * every instance.
+ *
+ * <p>A rebuild streams the distinct titles of every patron out of {@code borrow_record}, then
+ * the {@link BorrowArchive} newest month first (capped at the most recent
+ * {@code related.max-history-per-user}), counts title pairs with a fork-join
+ * pass over the patrons, and keeps the top {@code related.neighbors} per title. Between rebuilds,
+ * {@code BookBorrowed} events from the outbox stream update the model, so every instance sees
+ * every borrow. A borrow of a title already in the patron's history changes nothing, which also
+ * makes redelivered events harmless.
+ */
+@Component
+public class RelatedBooks {
+
+    private static final Logger logger = LoggerFactory.getLogger(RelatedBooks.class);
+
+    private static final String HISTORY_SQL =
+            "SELECT user_id, book_id FROM borrow_record WHERE user_id IS NOT NULL AND book_id IS NOT NULL "
+                    + "ORDER BY user_id, id DESC";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTx;
+    private final ObjectMapper objectMapper;
+    private final CatalogIndex catalogIndex;
+    private final BorrowArchive archive;
+    private final ExecutorService builder;
+
+    @Value("${related.neighbors:20}")
+    private int capacity;
+
+    @Value("${related.max-history-per-user:200}")
+    private int maxHistory;
+
+    // Neighbors per title kept while counting; see CoOccurrenceTask
+    @Value("${related.slice-neighbors:500}")
+    private int sliceNeighbors;
+
+    // 0 means one worker per available processor
+    @Value("${related.parallelism:0}")
+    private int parallelism;
+
+    // Borrows arriving during a rebuild wait here; beyond this they are left to the next rebuild.
+    @Value("${related.max-pending:100000}")
+    private int maxPending;
+
+    private volatile Map<Long, NeighborList> neighbors = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    // Guarded by this
+    private Map<Long, long[]> histories = new HashMap<>();
+    private List<long[]> pending;
+
+    public RelatedBooks(DataSource dataSource, PlatformTransactionManager transactionManager,
+                        ObjectMapper objectMapper, CatalogIndex catalogIndex, BorrowArchive archive,
+                        @Value("${related.fetch-size:5000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.catalogIndex = catalogIndex;
+        this.archive = archive;
+        this.builder = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "related-books-builder");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return up to {@code limit} titles most often borrowed by patrons who also borrowed {@code bookId}
+     */
+    public List<RelatedBookDto> related(long bookId, int limit) {
+        NeighborList list = neighbors.getOrDefault(bookId, NeighborList.EMPTY);
+        boolean indexed = catalogIndex.size() > 0;
+        List<RelatedBookDto> related = new ArrayList<>(Math.min(limit, list.size()));
+        for (int i = 0; i < list.size() && related.size() < limit; i++) {
+            Optional<CatalogEntry> book = catalogIndex.getBook(list.id(i));
+            // Skip deleted titles once the catalog index is loaded
+            if (book.isEmpty() && indexed) {
+                continue;
+            }
+            related.add(new RelatedBookDto(list.id(i), book.map(CatalogEntry::getIsbn).orElse(null),
+                    book.map(CatalogEntry::getStatus).orElse(null), list.count(i)));
+        }
+        return related;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        builder.execute(this::rebuild);
+    }
+
+    // Per instance: the model lives in each instance's memory. Also drops long-deleted titles.
+    @Scheduled(cron = "${related.rebuild-cron:0 30 3 * * *}")
+    public void scheduledRebuild() {
+        builder.execute(this::rebuild);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        builder.shutdownNow();
+    }
+
+    @EventListener
+    public void on(OutboxMessage message) {
+        if (message.getAggregateType() == EventAggregate.BOOK && "BookDeleted".equals(message.getEventType())) {
+            neighbors.remove(message.getAggregateId());
+            return;
+        }
+        if (message.getAggregateType() != EventAggregate.BORROW || !"BookBorrowed".equals(message.getEventType())) {
+            return;
+        }
+        try {
+            JsonNode payload = objectMapper.readTree(message.getPayload());
+            JsonNode userId = payload.get("userId");
+            JsonNode bookId = payload.get("bookId");
+            if (userId != null && bookId != null && !userId.isNull() && !bookId.isNull()) {
+                record(userId.asLong(), bookId.asLong());
+            }
+        } catch (IOException e) {
+            logger.warn("Unreadable {} event {}: {}", message.getEventType(), message.getEventId(), e.getMessage());
+        }
+    }
+
+    private synchronized void record(long userId, long bookId) {
+        if (pending != null) {
+            if (pending.size() < maxPending) {
+                pending.add(new long[]{userId, bookId});
+            }
+            return;
+        }
+        apply(histories, neighbors, userId, bookId);
+    }
+
+    // Caller holds the monitor.
+    private void apply(Map<Long, long[]> histories, Map<Long, NeighborList> neighbors, long userId, long bookId) {
+        long[] history = histories.getOrDefault(userId, new long[0]);
+        if (contains(history, history.length, bookId)) {
+            return;
+        }
+        for (long borrowed : history) {
+            neighbors.compute(borrowed, (id, list) -> (list == null ? NeighborList.EMPTY : list).increment(bookId, capacity));
+            neighbors.compute(bookId, (id, list) -> (list == null ? NeighborList.EMPTY : list).increment(borrowed, capacity));
+        }
+        // Most recent first, so the cap drops the oldest title
+        long[] updated = new long[Math.min(history.length + 1, maxHistory)];
+        updated[0] = bookId;
+        System.arraycopy(history, 0, updated, 1, updated.length - 1);
+        histories.put(userId, updated);
+    }
+
+    void rebuild() {
+        synchronized (this) {
+            pending = new ArrayList<>();
+        }
+        long start = System.currentTimeMillis();
+        ForkJoinPool pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        try {
+            Map<Long, long[]> loaded = loadHistories();
+            long[][] all = loaded.values().toArray(new long[0][]);
+            Map<Long, LongIntHashMap> pairs = pool.invoke(new CoOccurrenceTask(all, 0, all.length,
+                    Math.max(capacity, sliceNeighbors)));
+            Map<Long, NeighborList> built = new ConcurrentHashMap<>(Math.max(16, pairs.size() * 4 / 3));
+            pool.submit(() -> pairs.entrySet().parallelStream()
+                    .forEach(entry -> built.put(entry.getKey(), NeighborList.top(entry.getValue(), capacity)))).join();
+
+            synchronized (this) {
+                for (long[] borrow : pending) {
+                    apply(loaded, built, borrow[0], borrow[1]);
+                }
+                histories = loaded;
+                neighbors = built;
+                pending = null;
+                ready = true;
+            }
+            logger.info("Related-books model built from {} patrons: {} titles with neighbors in {} ms.",
+                    loaded.size(), built.size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            logger.error("Related-books rebuild failed; keeping the previous model. Error: {}", e.getMessage(), e);
+            synchronized (this) {
+                for (long[] borrow : pending) {
+                    apply(histories, neighbors, borrow[0], borrow[1]);
+                }
+                pending = null;
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private Map<Long, long[]> loadHistories() {
+        // Rows arrive grouped by patron, newest first, through a server-side cursor.
+        return readOnlyTx.execute(status -> jdbcTemplate.query(HISTORY_SQL, (ResultSetExtractor<Map<Long, long[]>>) rs -> {
+            Map<Long, long[]> loaded = new HashMap<>();
+            long userId = -1;
+            long[] books = new long[16];
+            int size = 0;
+            while (rs.next()) {
+                long user = rs.getLong(1);
+                if (user != userId) {
+                    if (size > 0) {
+                        loaded.put(userId, Arrays.copyOf(books, size));
+                    }
+                    userId = user;
+                    size = 0;
+                }
+                long book = rs.getLong(2);
+                if (size == maxHistory || contains(books, size, book)) {
+                    continue;
+                }
+                if (size == books.length) {
+                    books = Arrays.copyOf(books, Math.min(books.length * 2, maxHistory));
+                }
+                books[size++] = book;
+            }
+            if (size > 0) {
+                loaded.put(userId, Arrays.copyOf(books, size));
+            }
+            addArchived(loaded);
+            return loaded;
+        }));
+    }
+
+    // Archived loans are older than those still in borrow_record, so they only fill histories up.
+    private void addArchived(Map<Long, long[]> loaded) {
+        Map<Long, Titles> extended = new HashMap<>();
+        try {
+            archive.forEachLoan(true, (id, userId, bookId, copyId, borrowDate, dueDate, returnDate) -> {
+                if (userId == null || bookId == null) {
+                    return;
+                }
+                long[] current = loaded.get(userId);
+                if (current != null && current.length >= maxHistory) {
+                    return;
+                }
+                extended.computeIfAbsent(userId, user -> new Titles(current)).add(bookId, maxHistory);
+            });
+        } catch (IOException e) {
+            logger.warn("Related-books rebuild is leaving out part of the borrow archive. Error: {}", e.getMessage());
+        }
+        extended.forEach((userId, titles) -> loaded.put(userId, Arrays.copyOf(titles.books, titles.size)));
+    }
+
+    private static final class Titles {
+        private long[] books;
+        private int size;
+
+        private Titles(long[] initial) {
+            this.books = initial == null ? new long[16] : Arrays.copyOf(initial, Math.max(16, initial.length * 2));
+            this.size = initial == null ? 0 : initial.length;
+        }
+
+        private void add(long book, int max) {
+            if (size == max || contains(books, size, book)) {
+                return;
+            }
+            if (size == books.length) {
+                books = Arrays.copyOf(books, Math.min(books.length * 2, max));
+            }
+            books[size++] = book;
+        }
+    }
+
+    private static boolean contains(long[] books, int size, long book) {
+        for (int i = 0; i < size; i++) {
+            if (books[i] == book) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.Book.Management.System.repository;
+
+import com.example.Book.Management.System.entity.AdminJob;
+import com.example.Book.Management.System.entity.JobStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AdminJobRepository extends JpaRepository<AdminJob, Long> {
+
+    List<AdminJob> findByStatusOrderByIdAsc(JobStatus status, Pageable pageable);
+
+    List<AdminJob> findAllByOrderByIdDesc(Pageable pageable);
+
+    boolean existsByTypeAndStatusIn(String type, Collection<JobStatus> statuses);
+
+    /**
+     * Atomically takes a queued job; only one node can win.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE AdminJob j SET j.status = :running, j.owner = :owner, j.heartbeatAt = :now, " +
+            "j.startedAt = COALESCE(j.startedAt, :now) WHERE j.id = :id AND j.status = :queued AND j.cancelRequested = false")
+    int claim(@Param("id") Long id, @Param("owner") String owner, @Param("now") LocalDateTime now,
+              @Param("queued") JobStatus queued, @Param("running") JobStatus running);
+
+    /**
+     * Saves progress. Returns 0 if the job was cancelled or taken over by another node.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE AdminJob j SET j.checkpoint = :checkpoint, j.processed = :processed, j.heartbeatAt = :now " +
+            "WHERE j.id = :id AND j.owner = :owner AND j.status = :running AND j.cancelRequested = false")
+    int saveCheckpoint(@Param("id") Long id, @Param("owner") String owner, @Param("checkpoint") String checkpoint,
+                       @Param("processed") long processed, @Param("now") LocalDateTime now,
+                       @Param("running") JobStatus running);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE AdminJob j SET j.total = :total WHERE j.id = :id AND j.owner = :owner")
+    int saveTotal(@Param("id") Long id, @Param("owner") String owner, @Param("total") Long total);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE AdminJob j SET j.heartbeatAt = :now WHERE j.id IN :ids AND j.owner = :owner AND j.status = :running")
+    int heartbeat(@Param("ids") Collection<Long> ids, @Param("owner") String owner, @Param("now") LocalDateTime now,
+                  @Param("running") JobStatus running);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE AdminJob j SET j.status = :status, j.message = :message, j.result = :result, j.finishedAt = :now " +
+            "WHERE j.id = :id AND j.owner = :owner AND j.status = :running")
+    int finish(@Param("id") Long id, @Param("owner") String owner, @Param("status") JobStatus status,
+               @Param("message") String message, @Param("result") String result, @Param("now") LocalDateTime now,
+               @Param("running") JobStatus running);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE AdminJob j SET j.status = :cancelled, j.owner = null, j.finishedAt = :now " +
+            "WHERE j.status = :running AND j.cancelRequested = true AND (j.heartbeatAt IS NULL OR j.heartbeatAt < :staleBefore)")
+    int cancelStale(@Param("staleBefore") LocalDateTime staleBefore, @Param("now") LocalDateTime now,
+                    @Param("running") JobStatus running, @Param("cancelled") JobStatus cancelled);
+
+    /**
+     * Puts jobs whose node stopped heartbeating back in the queue.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE AdminJob j SET j.status = :queued, j.owner = null " +
+            "WHERE j.status = :running AND (j.heartbeatAt IS NULL OR j.heartbeatAt < :staleBefore)")
+    int requeueStale(@Param("staleBefore") LocalDateTime staleBefore, @Param("queued") JobStatus queued,
+                     @Param("running") JobStatus running);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE AdminJob j SET j.status = :cancelled, j.cancelRequested = true, j.finishedAt = :now " +
+            "WHERE j.id = :id AND j.status = :queued")
+    int cancelQueued(@Param("id") Long id, @Param("now") LocalDateTime now,
+                     @Param("queued") JobStatus queued, @Param("cancelled") JobStatus cancelled);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE AdminJob j SET j.cancelRequested = true WHERE j.id = :id AND j.status = :running")
+    int requestCancel(@Param("id") Long id, @Param("running") JobStatus running);
+}
@@ -1,11 +1,15 @@
 package com.example.Book.Management.System.repository;
 
+import com.example.Book.Management.System.catalog.CatalogNameRow;
 import com.example.Book.Management.System.entity.Author;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,9 +20,27 @@ public interface AuthorRepository extends JpaRepository<Author, Long> {
     @Query("SELECT a FROM Author a WHERE LOWER(a.name) LIKE LOWER(CONCAT('%', :name, '%'))")
     List<Author> findByNameContainingIgnoreCase(@Param("name") String name);
 
-    @Query("SELECT a FROM Author a JOIN a.books b GROUP BY a.id ORDER BY COUNT(b) DESC")
-    List<Author> findAuthorsOrderByBookCount();
+    // Both rankings walk an index on the maintained count; no join with books.
+    @Query("SELECT a FROM Author a ORDER BY a.bookCount DESC, a.id")
+    Page<Author> findAuthorsOrderByBookCount(Pageable pageable);
+
+    @Query("SELECT a FROM Author a ORDER BY a.availableCount DESC, a.id")
+    Page<Author> findAuthorsOrderByAvailableCount(Pageable pageable);
 
     boolean existsByEmail(String email);
-}
 
+    @Query("SELECT a.id AS id, a.updatedAt AS updatedAt FROM Author a WHERE a.updatedAt > :since")
+    List<VersionStamp> findStampsUpdatedAfter(@Param("since") LocalDateTime since, Pageable pageable);
+
+    @Query("SELECT a.id AS id, a.updatedAt AS updatedAt FROM Author a WHERE a.id = :id")
+    Optional<VersionStamp> findStampById(@Param("id") Long id);
+
+    @Query("SELECT new com.example.Book.Management.System.catalog.CatalogNameRow(a.id, a.name, a.updatedAt) " +
+            "FROM Author a WHERE a.id > :afterId ORDER BY a.id")
+    List<CatalogNameRow> findCatalogNamesAfterId(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT new com.example.Book.Management.System.catalog.CatalogNameRow(a.id, a.name, a.updatedAt) " +
+            "FROM Author a WHERE a.updatedAt > :since AND a.id > :afterId ORDER BY a.id")
+    List<CatalogNameRow> findCatalogNamesUpdatedAfter(@Param("since") LocalDateTime since,
+                                                      @Param("afterId") Long afterId, Pageable pageable);
+}
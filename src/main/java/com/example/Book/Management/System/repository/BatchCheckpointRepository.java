@@ -0,0 +1,19 @@
+package com.example.Book.Management.System.repository;
+
+import com.example.Book.Management.System.entity.BatchCheckpoint;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface BatchCheckpointRepository extends JpaRepository<BatchCheckpoint, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM BatchCheckpoint c WHERE c.name = :name")
+    Optional<BatchCheckpoint> findForUpdate(@Param("name") String name);
+}
@@ -0,0 +1,44 @@
+package com.example.Book.Management.System.repository;
+
+import com.example.Book.Management.System.entity.BookHold;
+import com.example.Book.Management.System.entity.HoldStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BookHoldRepository extends JpaRepository<BookHold, Long> {
+
+    Optional<BookHold> findFirstByBookIdAndStatusOrderByIdAsc(Long bookId, HoldStatus status);
+
+    Optional<BookHold> findFirstByBookIdAndUserIdAndStatus(Long bookId, Long userId, HoldStatus status);
+
+    // Conditional close: of two racing transitions (e.g. pickup and expiry) only one matches.
+    @Modifying
+    @Query("UPDATE BookHold h SET h.status = :to, h.closedAt = :now WHERE h.id = :id AND h.status IN :from")
+    int transition(@Param("id") Long id, @Param("from") Collection<HoldStatus> from,
+                   @Param("to") HoldStatus to, @Param("now") LocalDateTime now);
+
+    boolean existsByBookIdAndUserIdAndStatusIn(Long bookId, Long userId, Collection<HoldStatus> statuses);
+
+    List<BookHold> findByUserIdAndStatusInOrderByIdAsc(Long userId, Collection<HoldStatus> statuses);
+
+    long countByBookIdAndStatusAndIdLessThan(Long bookId, HoldStatus status, Long id);
+
+    @Query("SELECT h.bookId FROM BookHold h WHERE h.id = :id")
+    Optional<Long> findBookId(@Param("id") Long id);
+
+    @Query("SELECT h FROM BookHold h WHERE h.status = :status AND h.pickupDeadline < :before ORDER BY h.pickupDeadline")
+    List<BookHold> findByStatusAndDeadlineBefore(@Param("status") HoldStatus status,
+                                                 @Param("before") LocalDateTime before);
+
+    @Query("SELECT h.id AS id, h.pickupDeadline AS pickupDeadline FROM BookHold h WHERE h.status = :status")
+    List<HoldDeadline> findDeadlines(@Param("status") HoldStatus status);
+}
@@ -1,13 +1,18 @@
 package com.example.Book.Management.System.repository;
 
+import com.example.Book.Management.System.catalog.CatalogBookRow;
 import com.example.Book.Management.System.entity.Book;
 import com.example.Book.Management.System.entity.BookStatus;
 import com.example.Book.Management.System.entity.Publisher;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,6 +20,11 @@ import java.util.Optional;
 public interface BookRepository extends JpaRepository<Book, Long> {
     Optional<Book> findByIsbn(String isbn);
 
+    // Serializes circulation changes (borrow, return, holds) on one book.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Book b WHERE b.id = :id")
+    Optional<Book> findByIdForUpdate(@Param("id") Long id);
+
     @Query("SELECT b FROM Book b WHERE LOWER(b.title) LIKE LOWER(CONCAT('%', :title, '%'))")
     List<Book> findByTitleContainingIgnoreCase(@Param("title") String title);
 
@@ -26,5 +36,29 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     List<Book> findByAuthorIdAndStatus(@Param("authorId") Long authorId, @Param("status") BookStatus status);
 
     Optional<Book> findByTitle(String title);
+
+    @Query("SELECT b.id AS id, b.updatedAt AS updatedAt FROM Book b WHERE b.updatedAt > :since")
+    List<VersionStamp> findStampsUpdatedAfter(@Param("since") LocalDateTime since, Pageable pageable);
+
+    @Query("SELECT b.id AS id, b.updatedAt AS updatedAt FROM Book b WHERE b.id = :id")
+    Optional<VersionStamp> findStampById(@Param("id") Long id);
+
+    @Query("SELECT b.id AS id, b.updatedAt AS updatedAt FROM Book b WHERE b.isbn = :isbn")
+    Optional<VersionStamp> findStampByIsbn(@Param("isbn") String isbn);
+
+    @Query("SELECT b FROM Book b JOIN FETCH b.author JOIN FETCH b.publisher " +
+            "WHERE (b.updatedAt > :since OR (b.updatedAt = :since AND b.id > :afterId)) AND b.updatedAt < :until " +
+            "ORDER BY b.updatedAt, b.id")
+    List<Book> findChangesAfter(@Param("since") LocalDateTime since, @Param("afterId") Long afterId,
+                                @Param("until") LocalDateTime until, Pageable pageable);
+
+    @Query("SELECT new com.example.Book.Management.System.catalog.CatalogBookRow(b.id, b.isbn, b.status, b.author.id, b.publisher.id, b.updatedAt) " +
+            "FROM Book b WHERE b.id > :afterId ORDER BY b.id")
+    List<CatalogBookRow> findCatalogRowsAfterId(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT new com.example.Book.Management.System.catalog.CatalogBookRow(b.id, b.isbn, b.status, b.author.id, b.publisher.id, b.updatedAt) " +
+            "FROM Book b WHERE b.updatedAt > :since AND b.id > :afterId ORDER BY b.id")
+    List<CatalogBookRow> findCatalogRowsUpdatedAfter(@Param("since") LocalDateTime since,
+                                                     @Param("afterId") Long afterId, Pageable pageable);
 }
 
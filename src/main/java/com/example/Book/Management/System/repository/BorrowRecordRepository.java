@@ -3,9 +3,7 @@ package com.example.Book.Management.System.repository;
 import com.example.Book.Management.System.entity.BorrowRecord;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-import java.util.List;
-
+// Per-user and per-book history is paged by BorrowHistoryService.
 public interface BorrowRecordRepository extends JpaRepository<BorrowRecord, Long> {
-    List<BorrowRecord> findByUserId(Long userId);
 }
 
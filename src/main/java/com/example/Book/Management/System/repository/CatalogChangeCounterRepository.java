@@ -0,0 +1,22 @@
+package com.example.Book.Management.System.repository;
+
+import com.example.Book.Management.System.entity.CatalogChangeCounter;
+import com.example.Book.Management.System.entity.CatalogEntityType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CatalogChangeCounterRepository extends JpaRepository<CatalogChangeCounter, CatalogEntityType> {
+
+    @Modifying
+    @Query("UPDATE CatalogChangeCounter c SET c.version = c.version + 1 WHERE c.entityType = :type")
+    int increment(@Param("type") CatalogEntityType type);
+
+    @Query("SELECT c.version FROM CatalogChangeCounter c WHERE c.entityType = :type")
+    Optional<Long> findVersion(@Param("type") CatalogEntityType type);
+}
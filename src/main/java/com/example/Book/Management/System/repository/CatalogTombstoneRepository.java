@@ -0,0 +1,37 @@
+package com.example.Book.Management.System.repository;
+
+import com.example.Book.Management.System.entity.CatalogEntityType;
+import com.example.Book.Management.System.entity.CatalogTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CatalogTombstoneRepository extends JpaRepository<CatalogTombstone, Long> {
+
+    @Query("SELECT t FROM CatalogTombstone t WHERE t.entityType = :type " +
+            "AND (t.deletedAt > :since OR (t.deletedAt = :since AND t.id > :afterId)) AND t.deletedAt < :until " +
+            "ORDER BY t.deletedAt, t.id")
+    List<CatalogTombstone> findChangesAfter(@Param("type") CatalogEntityType type,
+                                            @Param("since") LocalDateTime since,
+                                            @Param("afterId") Long afterId,
+                                            @Param("until") LocalDateTime until,
+                                            Pageable pageable);
+
+    @Query("SELECT t FROM CatalogTombstone t WHERE t.entityType = :type AND t.deletedAt > :since AND t.id > :afterId " +
+            "ORDER BY t.id")
+    List<CatalogTombstone> findDeletedAfter(@Param("type") CatalogEntityType type,
+                                            @Param("since") LocalDateTime since,
+                                            @Param("afterId") Long afterId,
+                                            Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM CatalogTombstone t WHERE t.deletedAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
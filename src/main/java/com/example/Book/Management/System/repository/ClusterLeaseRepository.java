@@ -0,0 +1,48 @@
+package com.example.Book.Management.System.repository;
+
+import com.example.Book.Management.System.entity.ClusterLease;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface ClusterLeaseRepository extends JpaRepository<ClusterLease, String> {
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ClusterLease l SET l.owner = :owner, l.token = l.token + 1, l.expiresAt = :expiresAt, "
+            + "l.acquiredAt = :now, l.heartbeatAt = :now "
+            + "WHERE l.name = :name AND (l.expiresAt IS NULL OR l.expiresAt < :now)")
+    int acquire(@Param("name") String name, @Param("owner") String owner,
+                @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ClusterLease l SET l.expiresAt = :expiresAt, l.heartbeatAt = :now "
+            + "WHERE l.name = :name AND l.owner = :owner AND l.token = :token AND l.expiresAt >= :now")
+    int renew(@Param("name") String name, @Param("owner") String owner, @Param("token") long token,
+              @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ClusterLease l SET l.expiresAt = :expiresAt "
+            + "WHERE l.name = :name AND l.owner = :owner AND l.token = :token")
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("token") long token,
+                @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Query("SELECT l.token FROM ClusterLease l WHERE l.name = :name AND l.owner = :owner")
+    Optional<Long> findToken(@Param("name") String name, @Param("owner") String owner);
+
+    // Shared row lock: a takeover (an UPDATE of this row) waits until the caller's transaction ends.
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT l FROM ClusterLease l WHERE l.name = :name")
+    Optional<ClusterLease> findForShare(@Param("name") String name);
+}
@@ -0,0 +1,11 @@
+package com.example.Book.Management.System.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Just enough of a READY hold to put it on the expiry wheel.
+ */
+public interface HoldDeadline {
+    Long getId();
+    LocalDateTime getPickupDeadline();
+}
@@ -0,0 +1,52 @@
+package com.example.Book.Management.System.repository;
+
+import com.example.Book.Management.System.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    // save() would merge into an existing row; this only ever inserts.
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (id, request_hash, created_at, expires_at) "
+            + "VALUES (:id, :hash, :now, :expiresAt) ON CONFLICT (id) DO NOTHING", nativeQuery = true)
+    int claim(@Param("id") String id, @Param("hash") String hash,
+              @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    // Takes over a key whose stored response has expired or whose first request never finished.
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.requestHash = :hash, k.responseStatus = NULL, k.contentType = NULL, "
+            + "k.responseBody = NULL, k.createdAt = :now, k.expiresAt = :expiresAt "
+            + "WHERE k.id = :id AND k.expiresAt < :now")
+    int takeOver(@Param("id") String id, @Param("hash") String hash,
+                 @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.responseStatus = :status, k.contentType = :contentType, "
+            + "k.responseBody = :body, k.expiresAt = :expiresAt "
+            + "WHERE k.id = :id AND k.requestHash = :hash AND k.responseStatus IS NULL")
+    int complete(@Param("id") String id, @Param("hash") String hash, @Param("status") int status,
+                 @Param("contentType") String contentType, @Param("body") byte[] body,
+                 @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.id = :id AND k.requestHash = :hash AND k.responseStatus IS NULL")
+    int release(@Param("id") String id, @Param("hash") String hash);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_keys WHERE id IN "
+            + "(SELECT id FROM idempotency_keys WHERE expires_at < :now LIMIT :limit)", nativeQuery = true)
+    int purgeExpired(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
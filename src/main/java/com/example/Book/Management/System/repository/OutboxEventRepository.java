@@ -0,0 +1,32 @@
+package com.example.Book.Management.System.repository;
+
+import com.example.Book.Management.System.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    @Query("SELECT e FROM OutboxEvent e WHERE e.publishedAt IS NULL ORDER BY e.id")
+    List<OutboxEvent> findUnpublished(Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(e.seq), 0) FROM OutboxEvent e")
+    long findMaxSeq();
+
+    @Query("SELECT e FROM OutboxEvent e WHERE e.seq > :afterSeq ORDER BY e.seq")
+    List<OutboxEvent> findPublishedAfter(@Param("afterSeq") long afterSeq, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM outbox_events WHERE id IN (SELECT id FROM outbox_events "
+            + "WHERE published_at < :cutoff LIMIT :limit)", nativeQuery = true)
+    int purgePublishedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+}
@@ -1,11 +1,15 @@
 package com.example.Book.Management.System.repository;
 
+import com.example.Book.Management.System.catalog.CatalogNameRow;
 import com.example.Book.Management.System.entity.Publisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,4 +23,25 @@ public interface PublisherRepository extends JpaRepository<Publisher, Long> {
     Optional<Publisher> findByName(String bantamBooks);
 
     boolean existsByName(String name);
+
+    @Query("SELECT p FROM Publisher p ORDER BY p.bookCount DESC, p.id")
+    Page<Publisher> findPublishersOrderByBookCount(Pageable pageable);
+
+    @Query("SELECT p FROM Publisher p ORDER BY p.availableCount DESC, p.id")
+    Page<Publisher> findPublishersOrderByAvailableCount(Pageable pageable);
+
+    @Query("SELECT p.id AS id, p.updatedAt AS updatedAt FROM Publisher p WHERE p.updatedAt > :since")
+    List<VersionStamp> findStampsUpdatedAfter(@Param("since") LocalDateTime since, Pageable pageable);
+
+    @Query("SELECT p.id AS id, p.updatedAt AS updatedAt FROM Publisher p WHERE p.id = :id")
+    Optional<VersionStamp> findStampById(@Param("id") Long id);
+
+    @Query("SELECT new com.example.Book.Management.System.catalog.CatalogNameRow(p.id, p.name, p.updatedAt) " +
+            "FROM Publisher p WHERE p.id > :afterId ORDER BY p.id")
+    List<CatalogNameRow> findCatalogNamesAfterId(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT new com.example.Book.Management.System.catalog.CatalogNameRow(p.id, p.name, p.updatedAt) " +
+            "FROM Publisher p WHERE p.updatedAt > :since AND p.id > :afterId ORDER BY p.id")
+    List<CatalogNameRow> findCatalogNamesUpdatedAfter(@Param("since") LocalDateTime since,
+                                                      @Param("afterId") Long afterId, Pageable pageable);
 }
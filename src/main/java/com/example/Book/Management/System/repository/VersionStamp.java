@@ -0,0 +1,11 @@
+package com.example.Book.Management.System.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Minimal projection used to answer conditional GETs without loading the entity.
+ */
+public interface VersionStamp {
+    Long getId();
+    LocalDateTime getUpdatedAt();
+}
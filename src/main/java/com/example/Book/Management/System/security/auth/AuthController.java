@@ -4,25 +4,33 @@ import com.example.Book.Management.System.security.auth.AuthRequest;
 import com.example.Book.Management.System.security.auth.AuthResponse;
 import com.example.Book.Management.System.security.auth.RegisterRequest;
 import com.example.Book.Management.System.security.auth.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
 public class AuthController {
 
     private final AuthService authService;
+    private final LoginThrottle loginThrottle;
 
+    // Throttled before any hashing; the response is written once the hashing pool is done.
     @PostMapping("/register")
-    public ResponseEntity<String> register(@RequestBody RegisterRequest request) {
-        authService.register(request);
-        return ResponseEntity.ok("User registered successfully");
+    public CompletableFuture<ResponseEntity<String>> register(@RequestBody RegisterRequest request,
+                                                              HttpServletRequest httpRequest) {
+        loginThrottle.checkIp(httpRequest.getRemoteAddr());
+        return authService.register(request).thenApply(done -> ResponseEntity.ok("User registered successfully"));
     }
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@RequestBody AuthRequest request) {
-        return ResponseEntity.ok(authService.login(request));
+    public CompletableFuture<ResponseEntity<AuthResponse>> login(@RequestBody AuthRequest request,
+                                                                 HttpServletRequest httpRequest) {
+        loginThrottle.checkLogin(httpRequest.getRemoteAddr(), request.getUsername());
+        return authService.login(request).thenApply(ResponseEntity::ok);
     }
 }
@@ -7,41 +7,81 @@ import com.example.Book.Management.System.security.auth.RegisterRequest;
 import com.example.Book.Management.System.entity.User;
 import com.example.Book.Management.System.repository.UserRepository;
 import com.example.Book.Management.System.security.jwt.JwtUtils;
-import lombok.RequiredArgsConstructor;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import com.example.Book.Management.System.service.CustomUserDetailsService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.security.authentication.AccountStatusUserDetailsChecker;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
 @Service
-@RequiredArgsConstructor
 public class AuthService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtils jwtUtils;
-    private final AuthenticationManager authenticationManager;
+    private final CustomUserDetailsService userDetailsService;
+    private final PasswordHashingExecutor hashingExecutor;
+    private final AsyncTaskExecutor taskExecutor;
+    private final AccountStatusUserDetailsChecker accountChecker = new AccountStatusUserDetailsChecker();
+    // Unknown usernames are checked against this hash so they cost the same BCrypt round as real ones.
+    private final String unknownUserHash;
     private  UserRole userRole;
 
-    public void register(RegisterRequest request) {
-        User user = new User();
-        user.setUsername(request.getUsername());
-        user.setFirstName(request.getFirstName());
-        user.setLastName(request.getLastName());
-        user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
-        user.setRole(request.getRole() != null ? request.getRole() : UserRole.USER);
+    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtUtils jwtUtils,
+                       CustomUserDetailsService userDetailsService, PasswordHashingExecutor hashingExecutor,
+                       @Qualifier("applicationTaskExecutor") AsyncTaskExecutor taskExecutor) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.jwtUtils = jwtUtils;
+        this.userDetailsService = userDetailsService;
+        this.hashingExecutor = hashingExecutor;
+        this.taskExecutor = taskExecutor;
+        this.unknownUserHash = passwordEncoder.encode("userNotFoundPassword");
+    }
+
+    // BCrypt runs on the hashing pool, never on the request thread. The insert then moves to the
+    // application task executor, so a slow database cannot hold a hashing thread.
+    public CompletableFuture<Void> register(RegisterRequest request) {
+        return hashingExecutor.submit(() -> passwordEncoder.encode(request.getPassword())).thenAcceptAsync(hash -> {
+            User user = new User();
+            user.setUsername(request.getUsername());
+            user.setFirstName(request.getFirstName());
+            user.setLastName(request.getLastName());
+            user.setEmail(request.getEmail());
+            user.setPassword(hash);
+            user.setRole(request.getRole() != null ? request.getRole() : UserRole.USER);
 
-        userRepository.save(user);
+            userRepository.save(user);
+        }, taskExecutor);
     }
 
-    public AuthResponse login(AuthRequest request) {
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
-        );
+    // The user lookup and token signing run on the application task executor; only the BCrypt
+    // comparison is submitted to the hashing pool, so its threads never wait on JDBC.
+    public CompletableFuture<AuthResponse> login(AuthRequest request) {
+        return CompletableFuture.supplyAsync(() -> loadUser(request.getUsername()), taskExecutor)
+                .thenCompose(user -> hashingExecutor.submit(() -> passwordEncoder.matches(
+                        request.getPassword(), user.map(UserDetails::getPassword).orElse(unknownUserHash)))
+                        .thenApplyAsync(matches -> {
+                            if (!matches || user.isEmpty()) {
+                                throw new BadCredentialsException("Bad credentials");
+                            }
+                            accountChecker.check(user.get());
+                            return new AuthResponse(jwtUtils.generateToken(user.get().getUsername()));
+                        }, taskExecutor));
+    }
 
-        String token = jwtUtils.generateToken(request.getUsername());
-        return new AuthResponse(token);
+    private Optional<UserDetails> loadUser(String username) {
+        try {
+            return Optional.of(userDetailsService.loadUserByUsername(username));
+        } catch (UsernameNotFoundException e) {
+            return Optional.empty();
+        }
     }
 }
-
@@ -0,0 +1,108 @@
+package com.example.Book.Management.System.security.auth;
+
+import com.example.Book.Management.System.exception.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token buckets in front of the auth endpoints, one per client IP and one per username, checked
+ * before any password is hashed. The IP bucket caps what a single client can spend; the username
+ * bucket caps guessing at one account from many addresses. Buckets live in memory on each
+ * instance and idle ones are dropped, so at most {@code auth.throttle.max-tracked} of each are
+ * kept. The client IP is the request's remote address; behind a proxy, set
+ * {@code server.forward-headers-strategy} so it is the caller's.
+ */
+@Component
+public class LoginThrottle {
+
+    private final Cache<String, TokenBucket> byIp;
+    private final Cache<String, TokenBucket> byUsername;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${auth.throttle.ip.capacity:20}")
+    private int ipCapacity;
+
+    @Value("${auth.throttle.ip.per-minute:60}")
+    private int ipPerMinute;
+
+    @Value("${auth.throttle.username.capacity:5}")
+    private int usernameCapacity;
+
+    @Value("${auth.throttle.username.per-minute:5}")
+    private int usernamePerMinute;
+
+    public LoginThrottle(@Value("${auth.throttle.max-tracked:100000}") long maxTracked, MeterRegistry meterRegistry) {
+        // With any sensible rate, a bucket idle this long has refilled anyway.
+        this.byIp = Caffeine.newBuilder().maximumSize(maxTracked).expireAfterAccess(Duration.ofMinutes(10)).build();
+        this.byUsername = Caffeine.newBuilder().maximumSize(maxTracked).expireAfterAccess(Duration.ofMinutes(10)).build();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Takes a token from the client's and the account's bucket.
+     *
+     * @throws TooManyRequestsException if either is empty
+     */
+    public void checkLogin(String ip, String username) {
+        checkIp(ip);
+        if (username == null || username.isBlank()) {
+            return;
+        }
+        String key = username.trim().toLowerCase(Locale.ROOT);
+        long waitNanos = byUsername.get(key, k -> new TokenBucket(usernameCapacity, usernamePerMinute)).take();
+        if (waitNanos > 0) {
+            throw throttled("username", waitNanos);
+        }
+    }
+
+    /**
+     * Takes a token from the client's bucket only, for sign-ups.
+     */
+    public void checkIp(String ip) {
+        long waitNanos = byIp.get(ip, k -> new TokenBucket(ipCapacity, ipPerMinute)).take();
+        if (waitNanos > 0) {
+            throw throttled("ip", waitNanos);
+        }
+    }
+
+    private TooManyRequestsException throttled(String scope, long waitNanos) {
+        meterRegistry.counter("auth.throttled", "scope", scope).increment();
+        long seconds = Math.max(1, (long) Math.ceil(waitNanos / 1e9));
+        return new TooManyRequestsException("Too many sign-in attempts, retry in " + seconds + " s.", seconds);
+    }
+
+    private static final class TokenBucket {
+        private final double capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long refilledAt;
+
+        private TokenBucket(int capacity, int perMinute) {
+            this.capacity = capacity;
+            this.tokensPerNano = Math.max(1, perMinute) / (double) TimeUnit.MINUTES.toNanos(1);
+            this.tokens = capacity;
+            this.refilledAt = System.nanoTime();
+        }
+
+        /**
+         * @return 0 if a token was taken, otherwise the nanoseconds until one is available
+         */
+        private synchronized long take() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / tokensPerNano);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.Book.Management.System.security.auth;
+
+import com.example.Book.Management.System.exception.ServerBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt hashing and verification on a small fixed pool, so a burst of sign-ins can use at
+ * most {@code auth.hashing.threads} cores and request threads are free for everything else.
+ * Work beyond the pool waits in a short queue; when that is full, or a task has already waited
+ * longer than {@code auth.hashing.max-queue-wait-ms}, it fails fast with
+ * {@link ServerBusyException} instead of piling up behind a flood.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final long maxQueueWaitNanos;
+    private final Counter rejected;
+
+    public PasswordHashingExecutor(@Value("${auth.hashing.threads:0}") int threads,
+                                   @Value("${auth.hashing.queue-capacity:64}") int queueCapacity,
+                                   @Value("${auth.hashing.max-queue-wait-ms:2000}") long maxQueueWaitMs,
+                                   MeterRegistry meterRegistry) {
+        int workers = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+            Thread thread = new Thread(r, "password-hashing-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.maxQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMs);
+        this.rejected = Counter.builder("auth.hashing.rejected").register(meterRegistry);
+        Gauge.builder("auth.hashing.queued", executor, e -> e.getQueue().size()).register(meterRegistry);
+    }
+
+    /**
+     * @return a future completed on a hashing thread, or failed with {@link ServerBusyException}
+     * when the pool is saturated
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long queuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                // The client has likely given up by now; hashing for it would only delay the next one.
+                if (System.nanoTime() - queuedAt > maxQueueWaitNanos) {
+                    result.completeExceptionally(busy());
+                    return;
+                }
+                try {
+                    result.complete(task.get());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(busy());
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private ServerBusyException busy() {
+        rejected.increment();
+        return new ServerBusyException("Too many sign-in requests, please retry shortly.", 1);
+    }
+}
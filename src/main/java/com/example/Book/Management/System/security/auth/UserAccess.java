@@ -0,0 +1,43 @@
+package com.example.Book.Management.System.security.auth;
+
+import com.example.Book.Management.System.entity.UserRole;
+import com.example.Book.Management.System.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ownership checks for {@code @PreAuthorize} expressions, e.g.
+ * {@code hasRole('ADMIN') or @userAccess.isSelf(authentication, #id)}. The principal only carries
+ * a username, so the check resolves the user record and compares names. Services that only learn
+ * the owner after loading a record call {@link #checkSelfOrAdmin}.
+ */
+@Component("userAccess")
+@RequiredArgsConstructor
+public class UserAccess {
+
+    private final UserRepository userRepository;
+
+    public boolean isSelf(Authentication authentication, Long userId) {
+        if (authentication == null || userId == null) {
+            return false;
+        }
+        return userRepository.findById(userId)
+                .map(user -> user.getUsername().equals(authentication.getName()))
+                .orElse(false);
+    }
+
+    /**
+     * @throws AccessDeniedException unless the current caller is an admin or the given user
+     */
+    public void checkSelfOrAdmin(Long userId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean admin = authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(authority -> UserRole.ADMIN.getAuthority().equals(authority.getAuthority()));
+        if (!admin && !isSelf(authentication, userId)) {
+            throw new AccessDeniedException("Access denied");
+        }
+    }
+}
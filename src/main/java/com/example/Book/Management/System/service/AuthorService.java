@@ -1,26 +1,69 @@
 package com.example.Book.Management.System.service;
 
+import com.example.Book.Management.System.cache.ResponseCache;
+import com.example.Book.Management.System.cache.SingleFlight;
 import com.example.Book.Management.System.entity.Author;
+import com.example.Book.Management.System.entity.CatalogEntityType;
+import com.example.Book.Management.System.entity.CatalogTombstone;
+import com.example.Book.Management.System.entity.EventAggregate;
+import com.example.Book.Management.System.exception.ConcurrentUpdateException;
+import com.example.Book.Management.System.outbox.Outbox;
 import com.example.Book.Management.System.repository.AuthorRepository;
+import com.example.Book.Management.System.repository.CatalogTombstoneRepository;
+import com.example.Book.Management.System.repository.VersionStamp;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
 import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Slf4j
 @Transactional(readOnly = true)
 public class AuthorService {
 
-    private final AuthorRepository authorRepository;
+    private static final Set<String> PATCHABLE_FIELDS = Set.of("name", "email", "birthDate", "biography");
 
-    public AuthorService(AuthorRepository authorRepository)
+    private final AuthorRepository authorRepository;
+    private final CatalogTombstoneRepository tombstoneRepository;
+    private final CatalogVersionService catalogVersionService;
+    private final ResponseCache responseCache;
+    private final OptimisticRetryExecutor retryExecutor;
+    private final JsonMergePatch mergePatch;
+    private final Outbox outbox;
+    private final TransactionTemplate readOnlyTx;
+    private final SingleFlight<Long, Optional<Author>> authorByIdFlight;
+
+    public AuthorService(AuthorRepository authorRepository, CatalogTombstoneRepository tombstoneRepository,
+                         CatalogVersionService catalogVersionService, ResponseCache responseCache,
+                         PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                         OptimisticRetryExecutor retryExecutor, JsonMergePatch mergePatch, Outbox outbox)
     {
         this.authorRepository = authorRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.catalogVersionService = catalogVersionService;
+        this.responseCache = responseCache;
+        this.retryExecutor = retryExecutor;
+        this.mergePatch = mergePatch;
+        this.outbox = outbox;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.authorByIdFlight = new SingleFlight<>("author.byId", meterRegistry);
     }
 
     public List<Author> getAllAuthors() {
@@ -28,10 +71,26 @@ public class AuthorService {
         return authorRepository.findAll();
     }
 
+    /**
+     * @param byAvailable rank by titles with a copy on the shelf rather than by all titles
+     */
+    public Page<Author> getTopAuthors(boolean byAvailable, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        return byAvailable ? authorRepository.findAuthorsOrderByAvailableCount(pageable)
+                : authorRepository.findAuthorsOrderByBookCount(pageable);
+    }
+
+    // Coalesced like BookService.getBookById. The shared entity is handed to several request
+    // threads, so its books are initialized inside the load rather than lazily per caller.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Optional<Author> getAuthorById(Long id) {
         MDC.put("authorId", String.valueOf(id));
         log.info("Starting lookup for author by ID.");
-        Optional<Author> author = authorRepository.findById(id);
+        Optional<Author> author = authorByIdFlight.execute(id, () -> readOnlyTx.execute(status -> {
+            Optional<Author> loaded = authorRepository.findById(id);
+            loaded.ifPresent(a -> Hibernate.initialize(a.getBooks()));
+            return loaded;
+        }));
         if (author.isEmpty()) {
             log.warn("Author not found for ID.");
         }
@@ -39,6 +98,10 @@ public class AuthorService {
         return author;
     }
 
+    public Optional<VersionStamp> getAuthorStamp(Long id) {
+        return authorRepository.findStampById(id);
+    }
+
     @Transactional // Override to enable write/rollback behavior
     public Author saveAuthor(Author author) {
         MDC.put("operation", "SAVE_AUTHOR");
@@ -50,43 +113,99 @@ public class AuthorService {
             MDC.clear();
             throw new RuntimeException("Email already exists: " + author.getEmail());
         }
+        author.setVersion(null);
 
         Author savedAuthor = authorRepository.save(author);
+        outbox.record(EventAggregate.AUTHOR, savedAuthor.getId(), "AuthorCreated", eventPayload(savedAuthor));
+        catalogVersionService.bump(CatalogEntityType.AUTHOR);
+        responseCache.invalidateAllAfterCommit();
         log.info("Author saved successfully with ID: {}", savedAuthor.getId());
         MDC.clear();
         return savedAuthor;
     }
 
-    @Transactional // Override to enable write/rollback behavior
+    // Each attempt runs in its own transaction; see OptimisticRetryExecutor.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Author updateAuthor(Long id, Author authorDetails) {
         MDC.put("operation", "UPDATE_AUTHOR");
         MDC.put("authorId", String.valueOf(id));
         log.info("Starting update for author ID {}.", id);
 
         try {
-            Author author = authorRepository.findById(id)
-                    .orElseThrow(() -> {
-                        log.warn("Update failed: Author ID not found.");
-                        return new RuntimeException("Author not found with id: " + id);
-                    });
-
-            // Log the key changes
-            log.debug("Applying updates: Email={}, BirthDate={}",
-                    authorDetails.getEmail(), authorDetails.getBirthDate());
-
-            author.setName(authorDetails.getName());
-            author.setEmail(authorDetails.getEmail());
-            author.setBirthDate(authorDetails.getBirthDate());
-            author.setBiography(authorDetails.getBiography());
-
-            Author updatedAuthor = authorRepository.save(author);
-            log.info("Author updated successfully.");
-            return updatedAuthor;
+            return retryExecutor.execute("Author", id, () -> applyUpdate(id, authorDetails),
+                    () -> authorRepository.findById(id).map(Author::getVersion).orElse(null));
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    private Author applyUpdate(Long id, Author authorDetails) {
+        Author author = authorRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.warn("Update failed: Author ID not found.");
+                    return new RuntimeException("Author not found with id: " + id);
+                });
+
+        if (authorDetails.getVersion() != null && !authorDetails.getVersion().equals(author.getVersion())) {
+            log.warn("Update rejected: stale version {} (current {}).", authorDetails.getVersion(), author.getVersion());
+            throw new ConcurrentUpdateException("Author", id, author.getVersion());
+        }
+
+        // Log the key changes
+        log.debug("Applying updates: Email={}, BirthDate={}",
+                authorDetails.getEmail(), authorDetails.getBirthDate());
+
+        author.setName(authorDetails.getName());
+        author.setEmail(authorDetails.getEmail());
+        author.setBirthDate(authorDetails.getBirthDate());
+        author.setBiography(authorDetails.getBiography());
+
+        // Flush so the returned version is the incremented one.
+        Author updatedAuthor = authorRepository.saveAndFlush(author);
+        outbox.record(EventAggregate.AUTHOR, id, "AuthorUpdated", eventPayload(updatedAuthor));
+        catalogVersionService.bump(CatalogEntityType.AUTHOR);
+        responseCache.invalidateAllAfterCommit();
+        log.info("Author updated successfully.");
+        return updatedAuthor;
+    }
+
+    // Only the columns the patch actually changes are written (@DynamicUpdate on Author).
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Author patchAuthor(Long id, JsonNode patch) {
+        MDC.put("operation", "PATCH_AUTHOR");
+        MDC.put("authorId", String.valueOf(id));
+        log.info("Applying merge patch to author ID {}.", id);
+
+        try {
+            return retryExecutor.execute("Author", id, () -> applyPatch(id, patch),
+                    () -> authorRepository.findById(id).map(Author::getVersion).orElse(null));
         } finally {
             MDC.clear();
         }
     }
 
+    private Author applyPatch(Long id, JsonNode patch) {
+        Author author = authorRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.warn("Patch failed: Author ID not found.");
+                    return new RuntimeException("Author not found with id: " + id);
+                });
+
+        Long expected = JsonMergePatch.expectedVersion(patch);
+        if (expected != null && !expected.equals(author.getVersion())) {
+            log.warn("Patch rejected: stale version {} (current {}).", expected, author.getVersion());
+            throw new ConcurrentUpdateException("Author", id, author.getVersion());
+        }
+
+        mergePatch.apply(author, patch, PATCHABLE_FIELDS);
+        Author patchedAuthor = authorRepository.saveAndFlush(author);
+        outbox.record(EventAggregate.AUTHOR, id, "AuthorUpdated", eventPayload(patchedAuthor));
+        catalogVersionService.bump(CatalogEntityType.AUTHOR);
+        responseCache.invalidateAllAfterCommit();
+        log.info("Author patched successfully.");
+        return patchedAuthor;
+    }
+
     @Transactional // Override to enable write/rollback behavior and handle exceptions
     public void deleteAuthor(Long id) {
         MDC.put("operation", "DELETE_AUTHOR");
@@ -99,6 +218,10 @@ public class AuthorService {
                 return;
             }
             authorRepository.deleteById(id);
+            tombstoneRepository.save(new CatalogTombstone(CatalogEntityType.AUTHOR, id));
+            outbox.record(EventAggregate.AUTHOR, id, "AuthorDeleted", Map.of("id", id));
+            catalogVersionService.bump(CatalogEntityType.AUTHOR);
+            responseCache.invalidateAllAfterCommit();
             log.info("Author deleted successfully.");
         } catch (Exception e) {
             // Log the exception details for foreign key constraint failures
@@ -118,4 +241,15 @@ public class AuthorService {
         log.debug("Looking up author by email: {}", email);
         return authorRepository.findByEmail(email);
     }
+
+    // Explicit fields: serializing the entity would load its books. Also used by the catalog import.
+    public static Map<String, Object> eventPayload(Author author) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("id", author.getId());
+        payload.put("name", author.getName());
+        payload.put("email", author.getEmail());
+        payload.put("birthDate", author.getBirthDate());
+        payload.put("version", author.getVersion());
+        return payload;
+    }
 }
@@ -1,13 +1,27 @@
 package com.example.Book.Management.System.service;
 
+import com.example.Book.Management.System.cache.ResponseCache;
+import com.example.Book.Management.System.cache.SingleFlight;
 import com.example.Book.Management.System.dto.BookDto;
 import com.example.Book.Management.System.entity.Book;
 import com.example.Book.Management.System.entity.BookStatus;
 import com.example.Book.Management.System.entity.Author;
 import com.example.Book.Management.System.entity.Publisher;
+import com.example.Book.Management.System.entity.CatalogEntityType;
+import com.example.Book.Management.System.entity.CatalogTombstone;
+import com.example.Book.Management.System.entity.EventAggregate;
+import com.example.Book.Management.System.exception.ConcurrentUpdateException;
+import com.example.Book.Management.System.exception.ResourceNotFoundException;
+import com.example.Book.Management.System.inventory.InventoryService;
+import com.example.Book.Management.System.outbox.Outbox;
 import com.example.Book.Management.System.repository.BookRepository;
 import com.example.Book.Management.System.repository.AuthorRepository;
 import com.example.Book.Management.System.repository.PublisherRepository;
+import com.example.Book.Management.System.repository.CatalogTombstoneRepository;
+import com.example.Book.Management.System.repository.VersionStamp;
+import com.example.Book.Management.System.trending.TrendingCounters;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,9 +31,17 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,15 +51,52 @@ public class BookService {
     private final BookRepository bookRepository;
     private final AuthorRepository authorRepository;
     private final PublisherRepository publisherRepository;
+    private final CatalogTombstoneRepository tombstoneRepository;
+    private final CatalogVersionService catalogVersionService;
+    private final ResponseCache responseCache;
     private final ModelMapper modelMapper;
+    private final OptimisticRetryExecutor retryExecutor;
+    private final JsonMergePatch mergePatch;
+    private final InventoryService inventoryService;
+    private final HoldService holdService;
+    private final Outbox outbox;
+    private final TrendingCounters trendingCounters;
+    private final CatalogCountService catalogCounts;
+    private final TransactionTemplate snapshotTx;
+    private final SingleFlight<Long, Optional<StampedBook>> bookByIdFlight;
+    private final SingleFlight<String, Optional<StampedBook>> bookByIsbnFlight;
     private static final Logger logger = LoggerFactory.getLogger(BookService.class);
+    // Status follows the copies on the shelf (see InventoryService), so it is not patchable.
+    private static final Set<String> PATCHABLE_FIELDS = Set.of("title", "isbn", "description", "publicationDate",
+            "pageCount", "price", "coverImageUrl", "authorId", "publisherId");
 
     public BookService(BookRepository bookRepository, AuthorRepository authorRepository,
-                       PublisherRepository publisherRepository, ModelMapper modelMapper) {
+                       PublisherRepository publisherRepository, CatalogTombstoneRepository tombstoneRepository,
+                       CatalogVersionService catalogVersionService, ResponseCache responseCache,
+                       ModelMapper modelMapper, PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry, OptimisticRetryExecutor retryExecutor,
+                       JsonMergePatch mergePatch, InventoryService inventoryService,
+                       HoldService holdService, Outbox outbox, TrendingCounters trendingCounters,
+                       CatalogCountService catalogCounts) {
         this.bookRepository = bookRepository;
         this.authorRepository = authorRepository;
         this.publisherRepository = publisherRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.catalogVersionService = catalogVersionService;
+        this.responseCache = responseCache;
         this.modelMapper = modelMapper;
+        this.retryExecutor = retryExecutor;
+        this.mergePatch = mergePatch;
+        this.inventoryService = inventoryService;
+        this.holdService = holdService;
+        this.outbox = outbox;
+        this.trendingCounters = trendingCounters;
+        this.catalogCounts = catalogCounts;
+        this.snapshotTx = new TransactionTemplate(transactionManager);
+        this.snapshotTx.setReadOnly(true);
+        this.snapshotTx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.bookByIdFlight = new SingleFlight<>("book.byId", meterRegistry);
+        this.bookByIsbnFlight = new SingleFlight<>("book.byIsbn", meterRegistry);
     }
 
     public Page<BookDto> getAllBooks(int pageNumber , int pageSize , String feild) {
@@ -48,17 +107,46 @@ public class BookService {
                 .map(book -> modelMapper.map(book, BookDto.class));
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Optional<BookDto> getBookById(Long id) {
+        return getStampedBook(id).map(StampedBook::book);
+    }
+
+    // Concurrent misses for the same book share one load. The load opens its own read-only
+    // transaction, so callers waiting on it do not hold a pooled connection. It returns the
+    // book with its ETag inputs, so a caller handed an older shared load also gets the older tag.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<StampedBook> getStampedBook(Long id) {
         MDC.put("bookId", String.valueOf(id));
         logger.info("Attempting to find book by ID.");
-        Optional<BookDto> dto = bookRepository.findById(id)
-                .map(book -> modelMapper.map(book, BookDto.class));
+        Optional<StampedBook> stamped = bookByIdFlight.execute(id, () -> snapshotTx.execute(status ->
+                bookRepository.findById(id).map(book -> stamp(book, modelMapper.map(book, BookDto.class)))));
 
-        if (dto.isEmpty()) {
+        if (stamped.isEmpty()) {
             logger.warn("Book not found for ID.");
+        } else {
+            trendingCounters.recordView(id);
         }
         MDC.clear();
-        return dto;
+        return stamped;
+    }
+
+    /**
+     * Runs {@code read} in one read-only REPEATABLE READ transaction. Separate transactions may be
+     * routed to replicas at different replay points, so anything that must agree, such as an ETag
+     * and the body it tags, is read in one.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public <T> T inSnapshot(Supplier<T> read) {
+        return snapshotTx.execute(status -> read.get());
+    }
+
+    public Optional<VersionStamp> getBookStamp(Long id) {
+        return bookRepository.findStampById(id);
+    }
+
+    public Optional<VersionStamp> getBookStampByIsbn(String isbn) {
+        return bookRepository.findStampByIsbn(isbn);
     }
 
     @Transactional
@@ -68,7 +156,17 @@ public class BookService {
 
         try {
             Book book = convertToEntity(bookDto); // This method includes lookups
+            int copies = bookDto.getTotalCopies() == null ? 1 : bookDto.getTotalCopies();
+            book.setTotalCopies(copies);
+            book.setAvailableCopies(copies);
+            // Status follows the copies, as the availability SQL derives it; a client cannot set it.
+            book.setStatus(copies > 0 ? BookStatus.AVAILABLE : BookStatus.BORROWED);
             Book savedBook = bookRepository.save(book);
+            inventoryService.stockNewTitle(savedBook.getId(), savedBook.getIsbn(), copies);
+            catalogCounts.titleAdded(savedBook.getAuthor().getId(), savedBook.getPublisher().getId(), copies > 0);
+            outbox.record(EventAggregate.BOOK, savedBook.getId(), "BookCreated", convertToDto(savedBook));
+            catalogVersionService.bump(CatalogEntityType.BOOK);
+            responseCache.invalidateBooksAfterCommit(List.of(savedBook.getId()));
             logger.info("Book saved successfully with ID: {}", savedBook.getId());
             return modelMapper.map(savedBook, BookDto.class);
         } finally {
@@ -76,47 +174,147 @@ public class BookService {
         }
     }
 
-    @Transactional
+    // Each attempt runs in its own transaction; see OptimisticRetryExecutor.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public BookDto updateBook(Long id, BookDto bookDto) {
         MDC.put("operation", "UPDATE_BOOK");
         MDC.put("bookId", String.valueOf(id));
         logger.info("Starting update for book ID {}.", id);
 
         try {
-            Book book = bookRepository.findById(id)
-                    .orElseThrow(() -> {
-                        logger.warn("Update failed: Book ID not found.");
-                        return new RuntimeException("Book not found with id: " + id);
-                    });
-
-            // Log major changes (DEBUG level)
-            logger.debug("Updating fields: ISBN={}, Title={}", bookDto.getIsbn(), bookDto.getTitle());
-
-            // 1. Update basic fields
-            // NOTE: Use ModelMapper here for a cleaner update if possible, e.g., modelMapper.map(bookDto, book);
-            // Assuming you must set manually due to partial updates:
-            book.settitle(bookDto.getTitle());
-            book.setIsbn(bookDto.getIsbn());
-            book.setDescription(bookDto.getDescription());
-            // ... (other fields)
-
-            // 2. Update Author (requires transaction for lookup/association)
-            if (bookDto.getAuthorId() != null) {
-                Author author = authorRepository.findById(bookDto.getAuthorId())
-                        .orElseThrow(() -> new RuntimeException("Author not found with id: " + bookDto.getAuthorId()));
-                book.setAuthor(author);
-            }
+            return retryExecutor.execute("Book", id, () -> applyUpdate(id, bookDto),
+                    () -> bookRepository.findById(id).map(Book::getVersion).orElse(null));
+        } finally {
+            MDC.clear();
+        }
+    }
 
-            // 3. Update Publisher (requires transaction for lookup/association)
-            if (bookDto.getPublisherId() != null) {
-                Publisher publisher = publisherRepository.findById(bookDto.getPublisherId())
-                        .orElseThrow(() -> new RuntimeException("Publisher not found with id: " + bookDto.getPublisherId()));
-                book.setPublisher(publisher);
-            }
+    private BookDto applyUpdate(Long id, BookDto bookDto) {
+        Book book = bookRepository.findById(id)
+                .orElseThrow(() -> {
+                    logger.warn("Update failed: Book ID not found.");
+                    return new RuntimeException("Book not found with id: " + id);
+                });
+
+        if (bookDto.getVersion() != null && !bookDto.getVersion().equals(book.getVersion())) {
+            logger.warn("Update rejected: stale version {} (current {}).", bookDto.getVersion(), book.getVersion());
+            throw new ConcurrentUpdateException("Book", id, book.getVersion());
+        }
+
+        // Log major changes (DEBUG level)
+        logger.debug("Updating fields: ISBN={}, Title={}", bookDto.getIsbn(), bookDto.getTitle());
+        Long oldAuthorId = book.getAuthor().getId();
+        Long oldPublisherId = book.getPublisher().getId();
+
+        // 1. Update basic fields
+        // NOTE: Use ModelMapper here for a cleaner update if possible, e.g., modelMapper.map(bookDto, book);
+        // Assuming you must set manually due to partial updates:
+        book.settitle(bookDto.getTitle());
+        book.setIsbn(bookDto.getIsbn());
+        book.setDescription(bookDto.getDescription());
+        // ... (other fields)
+
+        // 2. Update Author (requires transaction for lookup/association)
+        if (bookDto.getAuthorId() != null) {
+            Author author = authorRepository.findById(bookDto.getAuthorId())
+                    .orElseThrow(() -> new RuntimeException("Author not found with id: " + bookDto.getAuthorId()));
+            book.setAuthor(author);
+        }
+
+        // 3. Update Publisher (requires transaction for lookup/association)
+        if (bookDto.getPublisherId() != null) {
+            Publisher publisher = publisherRepository.findById(bookDto.getPublisherId())
+                    .orElseThrow(() -> new RuntimeException("Publisher not found with id: " + bookDto.getPublisherId()));
+            book.setPublisher(publisher);
+        }
+
+        // Flush so the returned version is the incremented one.
+        Book updatedBook = bookRepository.saveAndFlush(book);
+        catalogCounts.titleMoved(oldAuthorId, updatedBook.getAuthor().getId(), oldPublisherId,
+                updatedBook.getPublisher().getId(), updatedBook.getAvailableCopies() > 0);
+        outbox.record(EventAggregate.BOOK, id, "BookUpdated", convertToDto(updatedBook));
+        catalogVersionService.bump(CatalogEntityType.BOOK);
+        responseCache.invalidateBooksAfterCommit(List.of(id));
+        logger.info("Book updated successfully.");
+        return modelMapper.map(updatedBook, BookDto.class);
+    }
+
+    // Only the columns the patch actually changes are written (@DynamicUpdate on Book).
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BookDto patchBook(Long id, JsonNode patch) {
+        MDC.put("operation", "PATCH_BOOK");
+        MDC.put("bookId", String.valueOf(id));
+        logger.info("Applying merge patch to book ID {}.", id);
+
+        try {
+            return retryExecutor.execute("Book", id, () -> applyPatch(id, patch),
+                    () -> bookRepository.findById(id).map(Book::getVersion).orElse(null));
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    private BookDto applyPatch(Long id, JsonNode patch) {
+        Book book = bookRepository.findById(id)
+                .orElseThrow(() -> {
+                    logger.warn("Patch failed: Book ID not found.");
+                    return new ResourceNotFoundException("Book not found with id: " + id);
+                });
+
+        Long expected = JsonMergePatch.expectedVersion(patch);
+        if (expected != null && !expected.equals(book.getVersion())) {
+            logger.warn("Patch rejected: stale version {} (current {}).", expected, book.getVersion());
+            throw new ConcurrentUpdateException("Book", id, book.getVersion());
+        }
 
-            Book updatedBook = bookRepository.save(book);
-            logger.info("Book updated successfully.");
-            return modelMapper.map(updatedBook, BookDto.class);
+        BookDto patched = mergePatch.apply(convertToDto(book), patch, PATCHABLE_FIELDS);
+        Long oldAuthorId = book.getAuthor().getId();
+        Long oldPublisherId = book.getPublisher().getId();
+        book.settitle(patched.getTitle());
+        book.setIsbn(patched.getIsbn());
+        book.setDescription(patched.getDescription());
+        book.setPublicationDate(patched.getPublicationDate());
+        book.setPageCount(patched.getPageCount());
+        book.setPrice(patched.getPrice());
+        book.setCoverImageUrl(patched.getCoverImageUrl());
+        // A title always has an author and a publisher; null cannot clear them.
+        if (patched.getAuthorId() == null || patched.getPublisherId() == null) {
+            throw new IllegalArgumentException("authorId and publisherId cannot be null.");
+        }
+        if (!patched.getAuthorId().equals(book.getAuthor().getId())) {
+            book.setAuthor(authorRepository.findById(patched.getAuthorId())
+                    .orElseThrow(() -> new IllegalArgumentException("Author not found with id: " + patched.getAuthorId())));
+        }
+        if (!patched.getPublisherId().equals(book.getPublisher().getId())) {
+            book.setPublisher(publisherRepository.findById(patched.getPublisherId())
+                    .orElseThrow(() -> new IllegalArgumentException("Publisher not found with id: " + patched.getPublisherId())));
+        }
+
+        Book patchedBook = bookRepository.saveAndFlush(book);
+        catalogCounts.titleMoved(oldAuthorId, patchedBook.getAuthor().getId(), oldPublisherId,
+                patchedBook.getPublisher().getId(), patchedBook.getAvailableCopies() > 0);
+        outbox.record(EventAggregate.BOOK, id, "BookUpdated", convertToDto(patchedBook));
+        catalogVersionService.bump(CatalogEntityType.BOOK);
+        responseCache.invalidateBooksAfterCommit(List.of(id));
+        logger.info("Book patched successfully.");
+        return convertToDto(patchedBook);
+    }
+
+    /**
+     * Adds copies to a title. Each one goes to the next waiting hold first, like a returned copy.
+     */
+    @Transactional
+    public void addCopies(Long id, int count) {
+        MDC.put("operation", "ADD_COPIES");
+        MDC.put("bookId", String.valueOf(id));
+        try {
+            Book book = bookRepository.findByIdForUpdate(id)
+                    .orElseThrow(() -> new RuntimeException("Book not found with id: " + id));
+            for (Long copyId : inventoryService.createCopies(id, book.getIsbn(), count)) {
+                holdService.releaseCopy(id, copyId);
+            }
+            outbox.record(EventAggregate.BOOK, id, "BookCopiesAdded", Map.of("id", id, "added", count));
+            logger.info("Added {} copies to book ID {}.", count, id);
         } finally {
             MDC.clear();
         }
@@ -129,11 +327,22 @@ public class BookService {
         logger.info("Attempting to delete book by ID.");
 
         try {
-            if (!bookRepository.existsById(id)) {
+            Book book = bookRepository.findById(id).orElse(null);
+            if (book == null) {
                 logger.warn("Delete skipped: Book ID not found.");
                 return;
             }
+            Map<String, Object> deleted = Map.of("id", id, "authorId", book.getAuthor().getId(),
+                    "publisherId", book.getPublisher().getId());
+            inventoryService.removeTitle(id);
             bookRepository.deleteById(id);
+            bookRepository.flush();
+            catalogCounts.titleRemoved(book.getAuthor().getId(), book.getPublisher().getId(),
+                    book.getAvailableCopies() > 0);
+            tombstoneRepository.save(new CatalogTombstone(CatalogEntityType.BOOK, id));
+            outbox.record(EventAggregate.BOOK, id, "BookDeleted", deleted);
+            catalogVersionService.bump(CatalogEntityType.BOOK);
+            responseCache.invalidateBooksAfterCommit(List.of(id));
             logger.info("Book deleted successfully.");
         } catch (Exception e) {
             // Log the exception details and stack trace
@@ -169,9 +378,38 @@ public class BookService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Optional<BookDto> findByIsbn(String isbn) {
-        return bookRepository.findByIsbn(isbn)
-                .map(this::convertToDto);
+        return findStampedByIsbn(isbn).map(StampedBook::book);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<StampedBook> findStampedByIsbn(String isbn) {
+        return bookByIsbnFlight.execute(isbn, () -> snapshotTx.execute(status ->
+                bookRepository.findByIsbn(isbn).map(book -> stamp(book, convertToDto(book)))));
+    }
+
+    private StampedBook stamp(Book book, BookDto dto) {
+        return new StampedBook(dto, book.getUpdatedAt(), catalogVersionService.current(CatalogEntityType.AUTHOR),
+                catalogVersionService.current(CatalogEntityType.PUBLISHER));
+    }
+
+    /**
+     * A book together with the inputs of its ETag, all read in the same transaction. The body
+     * embeds author and publisher names, so their change counters are part of the tag.
+     */
+    public record StampedBook(BookDto book, LocalDateTime updatedAt, long authorVersion, long publisherVersion)
+            implements VersionStamp {
+
+        @Override
+        public Long getId() {
+            return book.getId();
+        }
+
+        @Override
+        public LocalDateTime getUpdatedAt() {
+            return updatedAt;
+        }
     }
 
     private BookDto convertToDto(Book book) {
@@ -184,16 +422,21 @@ public class BookService {
         dto.setPageCount(book.getPageCount());
         dto.setPrice(book.getPrice());
         dto.setStatus(book.getStatus());
+        dto.setTotalCopies(book.getTotalCopies());
+        dto.setAvailableCopies(book.getAvailableCopies());
         dto.setCoverImageUrl(book.getCoverImageUrl());
         dto.setAuthorId(book.getAuthor().getId());
         dto.setAuthorName(book.getAuthor().getName());
         dto.setPublisherId(book.getPublisher().getId());
         dto.setPublisherName(book.getPublisher().getName());
+        dto.setVersion(book.getVersion());
         return dto;
     }
 
     private Book convertToEntity(BookDto dto) {
         Book book = modelMapper.map(dto, Book.class); // Map common fields
+        book.setVersion(null); // New rows start at the initial version, whatever the client sent
+        book.setStatus(null); // Derived from the copy counts by the caller
 
         // Handle Author lookup and association
         Author author = authorRepository.findById(dto.getAuthorId())
@@ -205,11 +448,6 @@ public class BookService {
                 .orElseThrow(() -> new RuntimeException("Publisher not found with id: " + dto.getPublisherId()));
         book.setPublisher(publisher);
 
-        // Set default status if not provided (good business logic check)
-        if (book.getStatus() == null) {
-            book.setStatus(BookStatus.AVAILABLE);
-        }
-
         return book;
     }
 }
@@ -0,0 +1,139 @@
+package com.example.Book.Management.System.service;
+
+import com.example.Book.Management.System.archive.BorrowArchive;
+import com.example.Book.Management.System.dto.BorrowHistoryDto;
+import com.example.Book.Management.System.dto.BorrowHistoryPageDto;
+import com.example.Book.Management.System.entity.BorrowStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Borrow history of one patron or one title, newest first, in keyset order
+ * {@code (borrow_date, id)}. A page seeks straight to its cursor on the composite index, so the
+ * thousandth page costs the same as the first. With {@code activeOnly} the query repeats the
+ * predicate of the partial indexes created by {@code BorrowHistoryIndexes} and reads only open
+ * loans. Records without a borrow date, which nothing writes any more, are not listed.
+ * Read-only, so it can be served by a replica.
+ *
+ * <p>Loans moved to the {@link BorrowArchive} are all RETURNED, so pages that can include
+ * returned loans merge the next archived rows in; the cursor works the same across both.
+ */
+@Service
+@Transactional(readOnly = true)
+public class BorrowHistoryService {
+
+    private static final String SELECT_SQL =
+            "SELECT id, user_id, book_id, copy_id, borrow_date, due_date, return_date, status FROM borrow_record WHERE ";
+
+    private static final RowMapper<BorrowHistoryDto> MAPPER = (rs, n) -> {
+        BorrowHistoryDto dto = new BorrowHistoryDto();
+        dto.setId(rs.getLong("id"));
+        dto.setUserId(rs.getObject("user_id", Long.class));
+        dto.setBookId(rs.getObject("book_id", Long.class));
+        dto.setCopyId(rs.getObject("copy_id", Long.class));
+        dto.setBorrowDate(rs.getObject("borrow_date", LocalDate.class));
+        dto.setDueDate(rs.getObject("due_date", LocalDate.class));
+        dto.setReturnDate(rs.getObject("return_date", LocalDate.class));
+        String status = rs.getString("status");
+        dto.setStatus(status == null ? null : BorrowStatus.valueOf(status));
+        return dto;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BorrowArchive archive;
+
+    public BorrowHistoryService(JdbcTemplate jdbcTemplate, BorrowArchive archive) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.archive = archive;
+    }
+
+    public BorrowHistoryPageDto userHistory(Long userId, String cursor, boolean activeOnly,
+                                            Set<BorrowStatus> statuses, int limit) {
+        return history("user_id", userId, cursor, activeOnly, statuses, limit);
+    }
+
+    public BorrowHistoryPageDto bookHistory(Long bookId, String cursor, boolean activeOnly,
+                                            Set<BorrowStatus> statuses, int limit) {
+        return history("book_id", bookId, cursor, activeOnly, statuses, limit);
+    }
+
+    private BorrowHistoryPageDto history(String column, Long id, String cursor, boolean activeOnly,
+                                         Set<BorrowStatus> statuses, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT_SQL).append(column).append(" = ? AND borrow_date IS NOT NULL");
+        List<Object> args = new ArrayList<>(List.of(id));
+        Cursor after = cursor == null ? null : Cursor.decode(cursor);
+        if (after != null) {
+            sql.append(" AND (borrow_date, id) < (?, ?)");
+            args.add(Date.valueOf(after.borrowDate));
+            args.add(after.id);
+        }
+        // Literals rather than parameters, so the planner can match the partial index predicate.
+        if (activeOnly) {
+            sql.append(" AND status <> 'RETURNED'");
+        }
+        if (statuses != null && !statuses.isEmpty()) {
+            sql.append(statuses.stream().map(status -> "'" + status.name() + "'")
+                    .collect(Collectors.joining(", ", " AND status IN (", ")")));
+        }
+        sql.append(" ORDER BY borrow_date DESC, id DESC LIMIT ?");
+        args.add(limit + 1);
+
+        List<BorrowHistoryDto> records = jdbcTemplate.query(sql.toString(), MAPPER, args.toArray());
+        if (!activeOnly && (statuses == null || statuses.isEmpty() || statuses.contains(BorrowStatus.RETURNED))) {
+            // Read after the live rows: a month archived in between then shows up in both, never in neither.
+            Set<Long> live = records.stream().map(BorrowHistoryDto::getId).collect(Collectors.toSet());
+            List<BorrowHistoryDto> merged = new ArrayList<>(records);
+            archive.history(column.equals("user_id"), id, after == null ? null : after.borrowDate,
+                    after == null ? 0L : after.id, limit + 1).stream()
+                    .filter(record -> !live.contains(record.getId()))
+                    .forEach(merged::add);
+            merged.sort(BorrowArchive.HISTORY_ORDER);
+            records = merged.size() > limit + 1 ? merged.subList(0, limit + 1) : merged;
+        }
+        boolean hasMore = records.size() > limit;
+        if (hasMore) {
+            records = records.subList(0, limit);
+        }
+        String next = cursor;
+        if (!records.isEmpty()) {
+            BorrowHistoryDto last = records.get(records.size() - 1);
+            next = new Cursor(last.getBorrowDate(), last.getId()).encode();
+        }
+        return new BorrowHistoryPageDto(records, next, hasMore);
+    }
+
+    private static final class Cursor {
+        private final LocalDate borrowDate;
+        private final long id;
+
+        private Cursor(LocalDate borrowDate, long id) {
+            this.borrowDate = borrowDate;
+            this.id = id;
+        }
+
+        private String encode() {
+            String raw = borrowDate + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static Cursor decode(String token) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+                return new Cursor(LocalDate.parse(parts[0]), Long.parseLong(parts[1]));
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Invalid history cursor: " + token);
+            }
+        }
+    }
+}
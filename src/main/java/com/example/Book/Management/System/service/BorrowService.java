@@ -1,17 +1,27 @@
 package com.example.Book.Management.System.service;
 
+import com.example.Book.Management.System.cache.ResponseCache;
+import com.example.Book.Management.System.dto.AvailabilityChangeDto;
 import com.example.Book.Management.System.entity.*;
+import com.example.Book.Management.System.inventory.AvailabilityCounters;
+import com.example.Book.Management.System.inventory.InventoryService;
+import com.example.Book.Management.System.outbox.Outbox;
 import com.example.Book.Management.System.repository.BookRepository;
 import com.example.Book.Management.System.repository.BorrowRecordRepository;
 import com.example.Book.Management.System.repository.UserRepository;
+import com.example.Book.Management.System.trending.TrendingCounters;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
 @Transactional
@@ -20,12 +30,33 @@ public class BorrowService {
     private final BorrowRecordRepository borrowRepo;
     private final BookRepository bookRepo;
     private final UserRepository userRepo;
+    private final CatalogVersionService catalogVersionService;
+    private final ResponseCache responseCache;
+    private final HoldService holdService;
+    private final InventoryService inventoryService;
+    private final AvailabilityCounters availabilityCounters;
+    private final Outbox outbox;
+    private final TrendingCounters trendingCounters;
     private static final Logger logger = LoggerFactory.getLogger(BorrowService.class);
 
-    public BorrowService(BorrowRecordRepository borrowRepo, BookRepository bookRepo, UserRepository userRepo) {
+    @Value("${borrow.loan-days:14}")
+    private int loanDays;
+
+    public BorrowService(BorrowRecordRepository borrowRepo, BookRepository bookRepo, UserRepository userRepo,
+                         CatalogVersionService catalogVersionService, ResponseCache responseCache,
+                         HoldService holdService, InventoryService inventoryService,
+                         AvailabilityCounters availabilityCounters, Outbox outbox,
+                         TrendingCounters trendingCounters) {
         this.borrowRepo = borrowRepo;
         this.bookRepo = bookRepo;
         this.userRepo = userRepo;
+        this.catalogVersionService = catalogVersionService;
+        this.responseCache = responseCache;
+        this.holdService = holdService;
+        this.inventoryService = inventoryService;
+        this.availabilityCounters = availabilityCounters;
+        this.outbox = outbox;
+        this.trendingCounters = trendingCounters;
     }
 
     public BorrowRecord borrowBook(Long userId, Long bookId) {
@@ -36,17 +67,12 @@ public class BorrowService {
         logger.info("Starting book borrow attempt for user {} and book {}.", userId, bookId);
 
         try {
-            // 2. Fetch and Validate Book
-            Book book = bookRepo.findById(bookId)
-                    .orElseThrow(() -> {
-                        logger.warn("Borrow failed: Book not found with ID: {}", bookId);
-                        return new RuntimeException("Book not found");
-                    });
-
-            if (!book.getStatus().equals(BookStatus.AVAILABLE)) {
-                logger.warn("Borrow failed: Book ID {} is currently unavailable (Status: {}).",
-                        bookId, book.getStatus());
-                throw new RuntimeException("Book is not available");
+            // 2. Check the title exists via the in-memory counter (no row lock, no query when warm).
+            // Its count may lag a return on another instance, so it never refuses a borrow.
+            long available = availabilityCounters.available(bookId);
+            if (available < 0) {
+                logger.warn("Borrow failed: Book not found with ID: {}", bookId);
+                throw new RuntimeException("Book not found");
             }
 
             // 3. Fetch User (Essential for validation, though assumed present here)
@@ -56,21 +82,38 @@ public class BorrowService {
                         return new RuntimeException("User not found");
                     });
 
-            // 4. Create Record and Update Book Status
+            // 4. Claim a copy: the one reserved for this patron's hold, otherwise any free one
+            Long copyId = holdService.fulfilReservation(bookId, userId).orElse(null);
+            boolean reserved = copyId != null;
+            if (!reserved) {
+                // The guarded claim is the real availability check.
+                copyId = inventoryService.borrowAnyCopy(bookId).orElseThrow(() -> {
+                    logger.warn("Borrow failed: Book ID {} has no free copy left.", bookId);
+                    return new RuntimeException("Book is not available");
+                });
+            }
+
+            // 5. Create Record
             BorrowRecord record = new BorrowRecord();
-            record.setBook(book);
+            record.setBook(bookRepo.getReferenceById(bookId));
+            record.setCopyId(copyId);
             record.setUser(user);
             record.setBorrowDate(LocalDate.now());
+            record.setDueDate(record.getBorrowDate().plusDays(loanDays));
             record.setStatus(BorrowStatus.BORROWED);
-
-            book.setStatus(BookStatus.BORROWED);
-
-            // 5. Persist (changes will be flushed atomically by the transaction)
-            // Note: If using JPA, the status update on 'book' is tracked automatically.
-            bookRepo.save(book);
             BorrowRecord savedRecord = borrowRepo.save(record);
 
-            logger.info("Book successfully borrowed. New Borrow Record ID: {}.", savedRecord.getId());
+            // 6. Update the title last, so its row lock is held only until commit
+            AvailabilityChangeDto title = reserved
+                    ? inventoryService.borrowReservedCopy(bookId, copyId)
+                    : inventoryService.decrementAvailable(bookId);
+            outbox.record(EventAggregate.BORROW, savedRecord.getId(), "BookBorrowed", eventPayload(savedRecord, bookId,
+                    title == null ? null : title.getAuthorId(), title == null ? null : title.getPublisherId()));
+            catalogVersionService.bump(CatalogEntityType.BOOK);
+            responseCache.invalidateBooksAfterCommit(List.of(bookId));
+            trendingCounters.recordBorrow(bookId);
+
+            logger.info("Book successfully borrowed. New Borrow Record ID: {}, copy {}.", savedRecord.getId(), copyId);
             return savedRecord;
 
         } catch (RuntimeException e) {
@@ -104,17 +147,24 @@ public class BorrowService {
             record.setReturnDate(LocalDate.now());
             record.setStatus(BorrowStatus.RETURNED);
 
-            // 4. Update Book Status
-            Book book = record.getBook();
-            book.setStatus(BookStatus.AVAILABLE);
-            // bookRepo.save(book); // Can often be omitted, but included for clarity
+            // 4. Put the copy back: reserved for the next hold in line, otherwise available
+            Long bookId = record.getBook().getId();
+            Book book = bookRepo.findByIdForUpdate(bookId)
+                    .orElseThrow(() -> new RuntimeException("Book not found"));
+            // Loans taken before copies existed carry no copy id.
+            Long copyId = record.getCopyId() != null ? record.getCopyId()
+                    : inventoryService.anyCopy(bookId, CopyStatus.BORROWED)
+                            .orElseThrow(() -> new RuntimeException("No borrowed copy found for record " + recordId));
+            holdService.releaseCopy(bookId, copyId);
 
             // 5. Persist (changes flushed atomically)
-            bookRepo.save(book);
             BorrowRecord returnedRecord = borrowRepo.save(record);
+            outbox.record(EventAggregate.BORROW, recordId, "BookReturned", eventPayload(returnedRecord, bookId,
+                    book.getAuthor() == null ? null : book.getAuthor().getId(),
+                    book.getPublisher() == null ? null : book.getPublisher().getId()));
 
-            logger.info("Book return processed successfully for record ID {}. Book ID {} now AVAILABLE.",
-                    recordId, book.getId());
+            logger.info("Book return processed successfully for record ID {}. Copy {} of book ID {} released.",
+                    recordId, copyId, bookId);
             return returnedRecord;
 
         } catch (RuntimeException e) {
@@ -125,4 +175,20 @@ public class BorrowService {
             MDC.clear(); // Clean up context
         }
     }
+
+    // Author and publisher as of the event, for the circulation rollups.
+    private static Map<String, Object> eventPayload(BorrowRecord record, Long bookId, Long authorId, Long publisherId) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("recordId", record.getId());
+        payload.put("bookId", bookId);
+        payload.put("authorId", authorId);
+        payload.put("publisherId", publisherId);
+        payload.put("copyId", record.getCopyId());
+        payload.put("userId", record.getUser().getId());
+        payload.put("borrowDate", record.getBorrowDate());
+        payload.put("dueDate", record.getDueDate());
+        payload.put("returnDate", record.getReturnDate());
+        payload.put("status", record.getStatus());
+        return payload;
+    }
 }
@@ -0,0 +1,145 @@
+package com.example.Book.Management.System.service;
+
+import com.example.Book.Management.System.cluster.ClusterSingleton;
+import com.example.Book.Management.System.dto.BookDto;
+import com.example.Book.Management.System.dto.ChangeDto;
+import com.example.Book.Management.System.dto.ChangeFeedDto;
+import com.example.Book.Management.System.entity.Book;
+import com.example.Book.Management.System.entity.CatalogEntityType;
+import com.example.Book.Management.System.entity.CatalogTombstone;
+import com.example.Book.Management.System.repository.BookRepository;
+import com.example.Book.Management.System.repository.CatalogTombstoneRepository;
+import org.modelmapper.ModelMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Delta feed over the books table: upserts come from {@code updated_at}, deletes from tombstones.
+ * Both streams are merged in keyset order {@code (changedAt, op, id)}, so a cursor never skips rows.
+ */
+@Service
+@Transactional(readOnly = true)
+public class CatalogChangeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogChangeService.class);
+    private static final int MAX_LIMIT = 1000;
+
+    private final BookRepository bookRepository;
+    private final CatalogTombstoneRepository tombstoneRepository;
+    private final ModelMapper modelMapper;
+
+    // Rows are stamped before commit; holding the feed back a few seconds keeps late commits behind the cursor.
+    @Value("${catalog.changes.settle-seconds:5}")
+    private long settleSeconds;
+
+    @Value("${catalog.changes.tombstone-retention-days:30}")
+    private long retentionDays;
+
+    public CatalogChangeService(BookRepository bookRepository, CatalogTombstoneRepository tombstoneRepository,
+                                ModelMapper modelMapper) {
+        this.bookRepository = bookRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.modelMapper = modelMapper;
+    }
+
+    public ChangeFeedDto getBookChanges(LocalDateTime since, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+        Cursor from = cursor != null ? Cursor.decode(cursor) : new Cursor(since, ChangeDto.Operation.UPSERT, 0L);
+        LocalDateTime until = LocalDateTime.now().minusSeconds(settleSeconds);
+        logger.debug("Fetching book changes after {} (limit {}).", from, pageSize);
+
+        // Upserts sort before deletes at the same timestamp.
+        long upsertAfterId = from.op == ChangeDto.Operation.UPSERT ? from.id : Long.MAX_VALUE;
+        long deleteAfterId = from.op == ChangeDto.Operation.UPSERT ? -1L : from.id;
+
+        List<Book> books = bookRepository.findChangesAfter(from.at, upsertAfterId, until,
+                PageRequest.of(0, pageSize + 1));
+        List<CatalogTombstone> tombstones = tombstoneRepository.findChangesAfter(CatalogEntityType.BOOK,
+                from.at, deleteAfterId, until, PageRequest.of(0, pageSize + 1));
+
+        List<ChangeDto> changes = new ArrayList<>(pageSize);
+        int b = 0;
+        int t = 0;
+        while (changes.size() < pageSize && (b < books.size() || t < tombstones.size())) {
+            boolean takeBook = t >= tombstones.size()
+                    || (b < books.size() && !books.get(b).getUpdatedAt().isAfter(tombstones.get(t).getDeletedAt()));
+            if (takeBook) {
+                Book book = books.get(b++);
+                changes.add(new ChangeDto(ChangeDto.Operation.UPSERT, book.getId(), book.getUpdatedAt(),
+                        modelMapper.map(book, BookDto.class)));
+            } else {
+                CatalogTombstone tombstone = tombstones.get(t++);
+                changes.add(new ChangeDto(ChangeDto.Operation.DELETE, tombstone.getEntityId(),
+                        tombstone.getDeletedAt(), null));
+            }
+        }
+
+        boolean hasMore = b < books.size() || t < tombstones.size();
+        Cursor next = from;
+        if (!changes.isEmpty()) {
+            ChangeDto last = changes.get(changes.size() - 1);
+            long lastKey = last.getOp() == ChangeDto.Operation.UPSERT ? last.getId() : tombstones.get(t - 1).getId();
+            next = new Cursor(last.getChangedAt(), last.getOp(), lastKey);
+        }
+        return new ChangeFeedDto(changes, next.encode(), hasMore);
+    }
+
+    /**
+     * Deletes older than the tombstone retention are gone, so such cursors need a full resync.
+     */
+    public boolean requiresFullResync(LocalDateTime since, String cursor) {
+        LocalDateTime from = cursor != null ? Cursor.decode(cursor).at : since;
+        return from.isBefore(LocalDateTime.now().minusDays(retentionDays));
+    }
+
+    @ClusterSingleton
+    @Transactional
+    @Scheduled(cron = "${catalog.changes.purge-cron:0 30 3 * * *}")
+    public void purgeExpiredTombstones() {
+        int removed = tombstoneRepository.deleteOlderThan(LocalDateTime.now().minusDays(retentionDays));
+        logger.info("Purged {} expired catalog tombstones.", removed);
+    }
+
+    private static final class Cursor {
+        private final LocalDateTime at;
+        private final ChangeDto.Operation op;
+        private final long id;
+
+        private Cursor(LocalDateTime at, ChangeDto.Operation op, long id) {
+            this.at = at;
+            this.op = op;
+            this.id = id;
+        }
+
+        private String encode() {
+            String raw = at + "|" + op.name() + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static Cursor decode(String token) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+                return new Cursor(LocalDateTime.parse(parts[0]), ChangeDto.Operation.valueOf(parts[1]),
+                        Long.parseLong(parts[2]));
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Invalid change cursor: " + token);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return at + "/" + op + "/" + id;
+        }
+    }
+}
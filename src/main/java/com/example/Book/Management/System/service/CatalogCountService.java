@@ -0,0 +1,135 @@
+package com.example.Book.Management.System.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps {@code book_count} and {@code available_count} on authors and publishers in step with
+ * their titles. A title counts as available while at least one of its copies is on the shelf.
+ *
+ * <p>Adjustments are plain increments in the caller's transaction, issued after the title row
+ * has been written, so every writer takes the title lock before the author and publisher locks.
+ * Borrows and returns only touch the counts when a title's last copy goes out or its first one
+ * comes back. Neither {@code version} nor {@code updated_at} changes: the counts are derived data,
+ * and bumping them would fail concurrent edits of the author for no reason.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class CatalogCountService {
+
+    private static final String AUTHORS = "authors";
+    private static final String PUBLISHERS = "publishers";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CatalogCountService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void titleAdded(Long authorId, Long publisherId, boolean available) {
+        adjust(AUTHORS, authorId, 1, available ? 1 : 0);
+        adjust(PUBLISHERS, publisherId, 1, available ? 1 : 0);
+    }
+
+    public void titleRemoved(Long authorId, Long publisherId, boolean available) {
+        adjust(AUTHORS, authorId, -1, available ? -1 : 0);
+        adjust(PUBLISHERS, publisherId, -1, available ? -1 : 0);
+    }
+
+    /**
+     * Moves a title's counts from its old author and publisher to the new ones. Unchanged ids are
+     * left alone.
+     */
+    public void titleMoved(Long fromAuthorId, Long toAuthorId, Long fromPublisherId, Long toPublisherId,
+                           boolean available) {
+        move(AUTHORS, fromAuthorId, toAuthorId, available);
+        move(PUBLISHERS, fromPublisherId, toPublisherId, available);
+    }
+
+    /**
+     * @param delta +1 when a title's first copy returns to the shelf, -1 when its last one leaves
+     */
+    public void availabilityChanged(Long authorId, Long publisherId, int delta) {
+        adjust(AUTHORS, authorId, 0, delta);
+        adjust(PUBLISHERS, publisherId, 0, delta);
+    }
+
+    /**
+     * Recomputes the counts of the authors and publishers of the given titles, for bulk writers
+     * that do not track each title's previous owner. Call after the titles have been written.
+     */
+    public void recountForTitles(Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        String in = in(bookIds);
+        recount(AUTHORS, jdbcTemplate.queryForList(
+                "SELECT DISTINCT author_id FROM books WHERE author_id IS NOT NULL AND id IN (" + in + ")", Long.class));
+        recount(PUBLISHERS, jdbcTemplate.queryForList(
+                "SELECT DISTINCT publisher_id FROM books WHERE publisher_id IS NOT NULL AND id IN (" + in + ")", Long.class));
+    }
+
+    public int recountAuthors(Collection<Long> authorIds) {
+        return recount(AUTHORS, authorIds);
+    }
+
+    public int recountPublishers(Collection<Long> publisherIds) {
+        return recount(PUBLISHERS, publisherIds);
+    }
+
+    /**
+     * Locks the rows first, so the count below runs on a snapshot taken after every concurrent
+     * adjustment to them has either committed (and is counted) or is still waiting (and will
+     * apply on top of the fresh value).
+     *
+     * @return how many rows had drifted
+     */
+    private int recount(String table, Collection<Long> ids) {
+        List<Long> present = ids.stream().filter(Objects::nonNull).distinct().sorted().toList();
+        if (present.isEmpty()) {
+            return 0;
+        }
+        String in = in(present);
+        String column = AUTHORS.equals(table) ? "author_id" : "publisher_id";
+        jdbcTemplate.queryForList("SELECT id FROM " + table + " WHERE id IN (" + in + ") ORDER BY id FOR UPDATE", Long.class);
+        return jdbcTemplate.update("UPDATE " + table + " t SET book_count = c.books, available_count = c.available "
+                + "FROM (SELECT x.id, COUNT(b.id) AS books, COUNT(b.id) FILTER (WHERE b.available_copies > 0) AS available "
+                + "FROM " + table + " x LEFT JOIN books b ON b." + column + " = x.id "
+                + "WHERE x.id IN (" + in + ") GROUP BY x.id) c "
+                + "WHERE t.id = c.id AND (t.book_count <> c.books OR t.available_count <> c.available)");
+    }
+
+    // Lower id first, so two moves in opposite directions cannot deadlock.
+    private void move(String table, Long from, Long to, boolean available) {
+        if (Objects.equals(from, to)) {
+            return;
+        }
+        int availableDelta = available ? 1 : 0;
+        if (from != null && (to == null || from < to)) {
+            adjust(table, from, -1, -availableDelta);
+            adjust(table, to, 1, availableDelta);
+        } else {
+            adjust(table, to, 1, availableDelta);
+            adjust(table, from, -1, -availableDelta);
+        }
+    }
+
+    private void adjust(String table, Long id, int books, int available) {
+        if (id == null || (books == 0 && available == 0)) {
+            return;
+        }
+        jdbcTemplate.update("UPDATE " + table + " SET book_count = book_count + ?, available_count = available_count + ? "
+                + "WHERE id = ?", books, available, id);
+    }
+
+    private static String in(Collection<Long> ids) {
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.Book.Management.System.service;
+
+import com.example.Book.Management.System.entity.CatalogChangeCounter;
+import com.example.Book.Management.System.entity.CatalogEntityType;
+import com.example.Book.Management.System.repository.CatalogChangeCounterRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Cluster-wide per-table change counters. Writers call {@link #bump} inside their transaction,
+ * but the counter row is only updated after that transaction commits, in a short transaction
+ * of its own, and once per type however many writes it made. The row is hot, so holding its
+ * lock until a borrow or import commits would serialize every writer in the cluster on it.
+ *
+ * <p>The price is a window of a few milliseconds after a commit in which a list ETag still
+ * carries the old version; a conditional GET in that window may get a {@code 304} for data that
+ * has just changed. A bump that fails is remembered and retried every
+ * {@code catalog.version.retry-ms}, folded into the next bump if that comes first, so the window
+ * lasts until the database is reachable again and no longer.
+ */
+@Service
+public class CatalogVersionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogVersionService.class);
+
+    private final CatalogChangeCounterRepository counterRepository;
+    private final TransactionTemplate bumpTransaction;
+    // Types whose bump failed after their change committed; guarded by this.
+    private final Set<CatalogEntityType> missed = EnumSet.noneOf(CatalogEntityType.class);
+
+    public CatalogVersionService(CatalogChangeCounterRepository counterRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.counterRepository = counterRepository;
+        this.bumpTransaction = new TransactionTemplate(transactionManager);
+        // afterCommit still sees the finished transaction's resources; the bump needs its own.
+        this.bumpTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public void bump(CatalogEntityType type) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            increment(EnumSet.of(type));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<CatalogEntityType> pending = (Set<CatalogEntityType>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<CatalogEntityType> types = EnumSet.noneOf(CatalogEntityType.class);
+            TransactionSynchronizationManager.bindResource(this, types);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CatalogVersionService.this);
+                    if (status == STATUS_COMMITTED) {
+                        increment(types);
+                    }
+                }
+            });
+            pending = types;
+        }
+        pending.add(type);
+    }
+
+    @Transactional(readOnly = true)
+    public long current(CatalogEntityType type) {
+        return counterRepository.findVersion(type).orElse(0L);
+    }
+
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureCounters() {
+        for (CatalogEntityType type : CatalogEntityType.values()) {
+            if (!counterRepository.existsById(type)) {
+                counterRepository.save(new CatalogChangeCounter(type, 0L));
+                logger.info("Initialised change counter for {}.", type);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.version.retry-ms:1000}")
+    public void retryMissed() {
+        boolean pending;
+        synchronized (this) {
+            pending = !missed.isEmpty();
+        }
+        if (pending) {
+            increment(EnumSet.noneOf(CatalogEntityType.class));
+        }
+    }
+
+    private void increment(Set<CatalogEntityType> types) {
+        Set<CatalogEntityType> all = EnumSet.noneOf(CatalogEntityType.class);
+        all.addAll(types);
+        synchronized (this) {
+            all.addAll(missed);
+            missed.clear();
+        }
+        if (all.isEmpty()) {
+            return;
+        }
+        try {
+            bumpTransaction.executeWithoutResult(status -> {
+                // Fixed order, so two committers bumping several types cannot deadlock.
+                for (CatalogEntityType type : all) {
+                    if (counterRepository.increment(type) == 0) {
+                        counterRepository.save(new CatalogChangeCounter(type, 1L));
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // The change is committed; until a retry succeeds its list ETags would answer 304.
+            synchronized (this) {
+                missed.addAll(all);
+            }
+            logger.error("Could not bump change counters {}, will retry. Error: {}", all, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.example.Book.Management.System.service;
+
+import com.example.Book.Management.System.cache.ResponseCache;
+import com.example.Book.Management.System.cluster.ClusterSingleton;
+import com.example.Book.Management.System.entity.Book;
+import com.example.Book.Management.System.entity.BookHold;
+import com.example.Book.Management.System.entity.BookStatus;
+import com.example.Book.Management.System.entity.CatalogEntityType;
+import com.example.Book.Management.System.entity.CopyStatus;
+import com.example.Book.Management.System.entity.HoldStatus;
+import com.example.Book.Management.System.hold.HoldExpiryWheel;
+import com.example.Book.Management.System.inventory.InventoryService;
+import com.example.Book.Management.System.repository.BookHoldRepository;
+import com.example.Book.Management.System.repository.BookRepository;
+import com.example.Book.Management.System.repository.HoldDeadline;
+import com.example.Book.Management.System.repository.UserRepository;
+import com.example.Book.Management.System.security.auth.UserAccess;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Per-title FIFO hold queues. A returned copy goes to the oldest waiting hold as RESERVED with a
+ * pickup deadline; the deadline is tracked by {@link HoldExpiryWheel}, which is rebuilt from the
+ * READY holds at startup. Returns, holds and expiry lock the title row first; a borrow only takes
+ * that lock at the end, so closing a hold is a conditional update that exactly one side wins.
+ */
+@Service
+@Transactional
+public class HoldService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HoldService.class);
+    private static final Set<HoldStatus> ACTIVE = EnumSet.of(HoldStatus.WAITING, HoldStatus.READY);
+
+    private final BookHoldRepository holdRepository;
+    private final BookRepository bookRepository;
+    private final UserRepository userRepository;
+    private final CatalogVersionService catalogVersionService;
+    private final ResponseCache responseCache;
+    private final HoldExpiryWheel expiryWheel;
+    private final InventoryService inventoryService;
+    private final TransactionTemplate transactionTemplate;
+    private final UserAccess userAccess;
+
+    @Value("${holds.pickup-hours:48}")
+    private long pickupHours;
+
+    public HoldService(BookHoldRepository holdRepository, BookRepository bookRepository, UserRepository userRepository,
+                       CatalogVersionService catalogVersionService, ResponseCache responseCache,
+                       HoldExpiryWheel expiryWheel, InventoryService inventoryService,
+                       PlatformTransactionManager transactionManager, UserAccess userAccess) {
+        this.holdRepository = holdRepository;
+        this.bookRepository = bookRepository;
+        this.userRepository = userRepository;
+        this.catalogVersionService = catalogVersionService;
+        this.responseCache = responseCache;
+        this.expiryWheel = expiryWheel;
+        this.inventoryService = inventoryService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userAccess = userAccess;
+        expiryWheel.onExpiry(this::expireHold);
+    }
+
+    public BookHold placeHold(Long userId, Long bookId) {
+        MDC.put("operation", "PLACE_HOLD");
+        MDC.put("userId", String.valueOf(userId));
+        MDC.put("bookId", String.valueOf(bookId));
+        try {
+            Book book = bookRepository.findByIdForUpdate(bookId)
+                    .orElseThrow(() -> new RuntimeException("Book not found"));
+            if (!userRepository.existsById(userId)) {
+                throw new RuntimeException("User not found");
+            }
+            if (book.getStatus() == BookStatus.DAMAGED || book.getStatus() == BookStatus.OUT_OF_PRINT) {
+                throw new RuntimeException("Book cannot be held while " + book.getStatus());
+            }
+            if (book.getAvailableCopies() > 0) {
+                throw new RuntimeException("Book is available; borrow it instead of placing a hold");
+            }
+            if (holdRepository.existsByBookIdAndUserIdAndStatusIn(bookId, userId, ACTIVE)) {
+                throw new RuntimeException("User already has an active hold on this book");
+            }
+
+            BookHold hold = holdRepository.save(new BookHold(bookId, userId));
+            logger.info("Hold {} placed on book {} by user {}.", hold.getId(), bookId, userId);
+            return hold;
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    /**
+     * @throws org.springframework.security.access.AccessDeniedException if the hold is another user's
+     */
+    @Transactional(readOnly = true)
+    public Optional<BookHold> getHold(Long holdId) {
+        Optional<BookHold> hold = holdRepository.findById(holdId);
+        hold.ifPresent(h -> userAccess.checkSelfOrAdmin(h.getUserId()));
+        return hold;
+    }
+
+    @Transactional(readOnly = true)
+    public List<BookHold> getActiveHolds(Long userId) {
+        return holdRepository.findByUserIdAndStatusInOrderByIdAsc(userId, ACTIVE);
+    }
+
+    /**
+     * @return 1 for the head of the queue, 0 for holds that are not waiting
+     */
+    @Transactional(readOnly = true)
+    public long queuePosition(BookHold hold) {
+        if (hold.getStatus() != HoldStatus.WAITING) {
+            return 0;
+        }
+        return holdRepository.countByBookIdAndStatusAndIdLessThan(hold.getBookId(), HoldStatus.WAITING, hold.getId()) + 1;
+    }
+
+    /**
+     * @throws org.springframework.security.access.AccessDeniedException if the hold is another user's
+     */
+    public BookHold cancelHold(Long holdId) {
+        Long bookId = holdRepository.findBookId(holdId)
+                .orElseThrow(() -> new RuntimeException("Hold not found"));
+        // Lock first, then load the hold, so its state cannot change underneath us.
+        bookRepository.findByIdForUpdate(bookId)
+                .orElseThrow(() -> new RuntimeException("Book not found"));
+        BookHold hold = holdRepository.findById(holdId)
+                .orElseThrow(() -> new RuntimeException("Hold not found"));
+        userAccess.checkSelfOrAdmin(hold.getUserId());
+        HoldStatus previous = hold.getStatus();
+        if (!ACTIVE.contains(previous) || !close(hold, EnumSet.of(previous), HoldStatus.CANCELLED)) {
+            throw new RuntimeException("Hold is already " + (ACTIVE.contains(previous) ? "closed" : previous));
+        }
+        if (previous == HoldStatus.READY) {
+            releaseCopy(bookId, reservedCopy(hold));
+        }
+        logger.info("Hold {} on book {} cancelled.", holdId, hold.getBookId());
+        return hold;
+    }
+
+    /**
+     * Called with the title row locked whenever a copy comes back into circulation: reserves it
+     * for the oldest waiting hold, or makes it available when nobody is waiting.
+     */
+    public void releaseCopy(Long bookId, Long copyId) {
+        Optional<BookHold> next = holdRepository.findFirstByBookIdAndStatusOrderByIdAsc(bookId, HoldStatus.WAITING);
+        if (next.isEmpty()) {
+            inventoryService.makeAvailable(bookId, copyId);
+        } else {
+            BookHold hold = next.get();
+            LocalDateTime now = LocalDateTime.now();
+            hold.setStatus(HoldStatus.READY);
+            hold.setReadyAt(now);
+            hold.setPickupDeadline(now.plusHours(pickupHours));
+            hold.setCopyId(copyId);
+            inventoryService.reserveCopy(bookId, copyId);
+            afterCommit(() -> expiryWheel.schedule(hold.getId(), hold.getPickupDeadline()));
+            logger.info("Copy {} of book {} reserved for hold {} (user {}) until {}.",
+                    copyId, bookId, hold.getId(), hold.getUserId(), hold.getPickupDeadline());
+        }
+        catalogVersionService.bump(CatalogEntityType.BOOK);
+        responseCache.invalidateBooksAfterCommit(List.of(bookId));
+    }
+
+    /**
+     * Closes the user's READY hold on the title so its reserved copy can be lent to them.
+     *
+     * @return the reserved copy, or empty if the user has no READY hold (or lost the race with
+     * its expiry)
+     */
+    public Optional<Long> fulfilReservation(Long bookId, Long userId) {
+        Optional<BookHold> ready = holdRepository.findFirstByBookIdAndUserIdAndStatus(bookId, userId, HoldStatus.READY);
+        if (ready.isEmpty() || !close(ready.get(), EnumSet.of(HoldStatus.READY), HoldStatus.FULFILLED)) {
+            return Optional.empty();
+        }
+        return Optional.of(reservedCopy(ready.get()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuildExpiryWheel() {
+        List<HoldDeadline> ready = holdRepository.findDeadlines(HoldStatus.READY);
+        ready.forEach(h -> expiryWheel.schedule(h.getId(), h.getPickupDeadline()));
+        logger.info("Hold expiry wheel rebuilt with {} reserved holds.", ready.size());
+    }
+
+    /**
+     * Safety net for deadlines no wheel fired: the instance that reserved the book died, or the
+     * expiry failed. The wheel handles the normal case; this runs rarely and on one instance.
+     */
+    @ClusterSingleton
+    @Scheduled(fixedDelayString = "${holds.missed-expiry-check-ms:300000}",
+            initialDelayString = "${holds.missed-expiry-check-ms:300000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void expireMissedHolds() {
+        List<BookHold> missed = holdRepository.findByStatusAndDeadlineBefore(HoldStatus.READY,
+                LocalDateTime.now().minusMinutes(1));
+        for (BookHold hold : missed) {
+            expireHold(hold.getId());
+        }
+        if (!missed.isEmpty()) {
+            logger.warn("Expired {} holds whose pickup deadline was missed by the wheel.", missed.size());
+        }
+    }
+
+    private void expireHold(long holdId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Long bookId = holdRepository.findBookId(holdId).orElse(null);
+            if (bookId == null) {
+                return;
+            }
+            Book book = bookRepository.findByIdForUpdate(bookId).orElse(null);
+            // Loaded under the book lock: the patron may have cancelled meanwhile.
+            BookHold hold = holdRepository.findById(holdId).orElse(null);
+            if (book == null || hold == null || hold.getStatus() != HoldStatus.READY
+                    || hold.getPickupDeadline().isAfter(LocalDateTime.now())) {
+                return;
+            }
+            // A borrow does not take the book lock first, so the patron can still win here.
+            if (!close(hold, EnumSet.of(HoldStatus.READY), HoldStatus.EXPIRED)) {
+                return;
+            }
+            logger.info("Hold {} on book {} expired unclaimed.", holdId, bookId);
+            releaseCopy(bookId, reservedCopy(hold));
+        });
+    }
+
+    /**
+     * @return {@code false} if the hold had already left {@code from}
+     */
+    private boolean close(BookHold hold, Set<HoldStatus> from, HoldStatus status) {
+        LocalDateTime now = LocalDateTime.now();
+        if (holdRepository.transition(hold.getId(), from, status, now) == 0) {
+            return false;
+        }
+        hold.setStatus(status);
+        hold.setClosedAt(now);
+        if (hold.getPickupDeadline() != null) {
+            afterCommit(() -> expiryWheel.cancel(hold.getId()));
+        }
+        return true;
+    }
+
+    // Holds that became READY before copies existed carry no copy id.
+    private Long reservedCopy(BookHold hold) {
+        if (hold.getCopyId() != null) {
+            return hold.getCopyId();
+        }
+        return inventoryService.anyCopy(hold.getBookId(), CopyStatus.RESERVED)
+                .orElseThrow(() -> new RuntimeException("No reserved copy found for hold " + hold.getId()));
+    }
+
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
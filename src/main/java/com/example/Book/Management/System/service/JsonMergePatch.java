@@ -0,0 +1,75 @@
+package com.example.Book.Management.System.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * RFC 7386 JSON Merge Patch applied to a bean.
+ * Patchable members are all scalars, so the merge reduces to: a member set to a value replaces the
+ * property, a member set to {@code null} clears it, and absent members are left alone. A top-level
+ * {@code version} member is not applied; it is the version the client expects to be patching.
+ */
+@Component
+public class JsonMergePatch {
+
+    public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    private static final String VERSION = "version";
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    public JsonMergePatch(ObjectMapper objectMapper, Validator validator) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    public static Long expectedVersion(JsonNode patch) {
+        JsonNode version = patch.get(VERSION);
+        return version == null || version.isNull() ? null : version.asLong();
+    }
+
+    /**
+     * Merges {@code patch} into {@code target} in place and validates the touched properties.
+     *
+     * @throws IllegalArgumentException if the patch is not an object, names a non-patchable member
+     *                                  or has a value of the wrong type
+     * @throws ConstraintViolationException if a patched property fails bean validation
+     */
+    public <T> T apply(T target, JsonNode patch, Set<String> patchable) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("Merge patch must be a JSON object.");
+        }
+        ObjectNode members = ((ObjectNode) patch).deepCopy();
+        members.remove(VERSION);
+        for (Iterator<String> it = members.fieldNames(); it.hasNext(); ) {
+            String name = it.next();
+            if (!patchable.contains(name)) {
+                throw new IllegalArgumentException("Field '" + name + "' cannot be patched.");
+            }
+        }
+
+        try {
+            objectMapper.readerForUpdating(target).readValue(members);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid merge patch: " + e.getMessage());
+        }
+
+        Set<ConstraintViolation<T>> violations = new HashSet<>();
+        members.fieldNames().forEachRemaining(name -> violations.addAll(validator.validateProperty(target, name)));
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        return target;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.Book.Management.System.service;
+
+import com.example.Book.Management.System.exception.ConcurrentUpdateException;
+import jakarta.persistence.OptimisticLockException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a read-modify-write in its own transaction and re-runs it when the {@code @Version} check
+ * fails at flush. Each attempt re-reads the row, so the update is applied on top of the winning
+ * write instead of overwriting it. Backoff is "full jitter" so colliding writers spread out.
+ */
+@Component
+public class OptimisticRetryExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticRetryExecutor.class);
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${concurrency.update.max-attempts:4}")
+    private int maxAttempts;
+
+    @Value("${concurrency.update.base-backoff-ms:10}")
+    private long baseBackoffMs;
+
+    @Value("${concurrency.update.max-backoff-ms:200}")
+    private long maxBackoffMs;
+
+    public OptimisticRetryExecutor(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @param currentVersion reads the version to report once retries are exhausted
+     */
+    public <T> T execute(String entity, Long id, Supplier<T> update, Supplier<Long> currentVersion) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> update.get());
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                if (attempt >= maxAttempts) {
+                    Long version = currentVersion.get();
+                    logger.warn("Giving up on {} {} after {} conflicting attempts (current version {}).",
+                            entity, id, attempt, version);
+                    throw new ConcurrentUpdateException(entity, id, version);
+                }
+                logger.debug("Version conflict on {} {} (attempt {}), retrying.", entity, id, attempt);
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        long cap = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt, 16));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while retrying update.", e);
+        }
+    }
+}
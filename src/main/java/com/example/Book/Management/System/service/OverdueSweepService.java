@@ -0,0 +1,178 @@
+package com.example.Book.Management.System.service;
+
+import com.example.Book.Management.System.cluster.ClusterLeaseService;
+import com.example.Book.Management.System.cluster.ClusterSingleton;
+import com.example.Book.Management.System.config.NodeIdentity;
+import com.example.Book.Management.System.entity.BatchCheckpoint;
+import com.example.Book.Management.System.entity.BorrowStatus;
+import com.example.Book.Management.System.repository.BatchCheckpointRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Marks BORROWED loans past their due date as OVERDUE, and OVERDUE loans long past it as LOST.
+ *
+ * <p>Each pass walks one status through the {@code (status, id)} index in keyset windows. A window
+ * is claimed by locking the pass's {@link BatchCheckpoint} row, flipped with one set-based UPDATE
+ * and committed together with the advanced checkpoint, so transactions stay small however large
+ * the table is, and a restart resumes mid-pass. The sweep itself runs on one instance at a time
+ * ({@link ClusterSingleton}); the checkpoint lock still keeps overlapping runs apart should a lease
+ * be lost mid-pass. Loans locked by an in-flight return are skipped and picked up next time.
+ */
+@Service
+public class OverdueSweepService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OverdueSweepService.class);
+
+    static final String OVERDUE_PASS = "borrow-sweep:overdue";
+    static final String LOST_PASS = "borrow-sweep:lost";
+
+    private static final String WINDOW_SQL =
+            "SELECT id FROM borrow_record WHERE status = ? AND id > ? ORDER BY id LIMIT ?";
+
+    // Loans from before due dates existed fall back to borrow date + loan period.
+    private static final String MARK_SQL = """
+            UPDATE borrow_record SET status = ?
+            WHERE status = ? AND id IN (
+                SELECT id FROM borrow_record
+                WHERE status = ? AND id > ? AND id <= ?
+                  AND (due_date < ? OR (due_date IS NULL AND borrow_date < ?))
+                FOR UPDATE SKIP LOCKED)
+            """;
+
+    private final BatchCheckpointRepository checkpointRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ClusterLeaseService leaseService;
+    private final String nodeId;
+
+    @Value("${borrow.loan-days:14}")
+    private int loanDays;
+
+    @Value("${borrow.lost-after-days:60}")
+    private int lostAfterDays;
+
+    @Value("${borrow.sweep.chunk-size:2000}")
+    private int chunkSize;
+
+    // A pass finished by any instance this recently is not started again.
+    @Value("${borrow.sweep.min-pass-interval-minutes:30}")
+    private long minPassIntervalMinutes;
+
+    public OverdueSweepService(BatchCheckpointRepository checkpointRepository, JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                               ClusterLeaseService leaseService, NodeIdentity nodeIdentity) {
+        this.checkpointRepository = checkpointRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.leaseService = leaseService;
+        this.nodeId = nodeIdentity.getId();
+    }
+
+    @ClusterSingleton
+    @Scheduled(cron = "${borrow.sweep.cron:0 5 * * * *}")
+    public void sweep() {
+        LocalDate today = LocalDate.now();
+        try {
+            long overdue = runPass(OVERDUE_PASS, BorrowStatus.BORROWED, BorrowStatus.OVERDUE,
+                    today, today.minusDays(loanDays));
+            LocalDate lostDue = today.minusDays(lostAfterDays);
+            long lost = runPass(LOST_PASS, BorrowStatus.OVERDUE, BorrowStatus.LOST,
+                    lostDue, lostDue.minusDays(loanDays));
+            if (overdue > 0 || lost > 0) {
+                logger.info("Borrow sweep marked {} loans overdue and {} lost.", overdue, lost);
+            }
+        } catch (RuntimeException e) {
+            // The checkpoint holds; the next run resumes from the last committed window.
+            logger.error("Borrow sweep failed. Error: {}", e.getMessage(), e);
+        }
+    }
+
+    private long runPass(String pass, BorrowStatus from, BorrowStatus to, LocalDate dueBefore, LocalDate borrowedBefore) {
+        ensureCheckpoint(pass);
+        LocalDateTime notBefore = LocalDateTime.now().minusMinutes(minPassIntervalMinutes);
+        long start = System.currentTimeMillis();
+        long marked = 0;
+        int windows = 0;
+
+        while (true) {
+            Integer updated = transactionTemplate.execute(status -> markNextWindow(pass, from, to, dueBefore,
+                    borrowedBefore, notBefore));
+            if (updated == null) {
+                break;
+            }
+            marked += updated;
+            windows++;
+        }
+
+        if (windows > 0) {
+            meterRegistry.counter("borrow.sweep.marked", "status", to.name()).increment(marked);
+            logger.debug("Sweep pass {} processed {} windows, marked {} in {} ms.",
+                    pass, windows, marked, System.currentTimeMillis() - start);
+        }
+        return marked;
+    }
+
+    /**
+     * @return rows marked in the window, or {@code null} when the pass is complete
+     */
+    private Integer markNextWindow(String pass, BorrowStatus from, BorrowStatus to, LocalDate dueBefore,
+                                   LocalDate borrowedBefore, LocalDateTime notBefore) {
+        leaseService.fence();
+        BatchCheckpoint checkpoint = checkpointRepository.findForUpdate(pass).orElseThrow();
+        LocalDateTime now = LocalDateTime.now();
+        if (checkpoint.getLastId() == 0) {
+            if (checkpoint.getPassFinishedAt() != null && checkpoint.getPassFinishedAt().isAfter(notBefore)) {
+                return null;
+            }
+            checkpoint.setPassStartedAt(now);
+        }
+
+        List<Long> window = jdbcTemplate.queryForList(WINDOW_SQL, Long.class,
+                from.name(), checkpoint.getLastId(), chunkSize);
+        if (window.isEmpty()) {
+            checkpoint.setLastId(0);
+            checkpoint.setPassFinishedAt(now);
+            stamp(checkpoint, now);
+            return null;
+        }
+
+        long upperId = window.get(window.size() - 1);
+        int updated = jdbcTemplate.update(MARK_SQL, to.name(), from.name(), from.name(),
+                checkpoint.getLastId(), upperId, Date.valueOf(dueBefore), Date.valueOf(borrowedBefore));
+        checkpoint.setLastId(upperId);
+        stamp(checkpoint, now);
+        return updated;
+    }
+
+    private void stamp(BatchCheckpoint checkpoint, LocalDateTime now) {
+        checkpoint.setUpdatedBy(nodeId);
+        checkpoint.setUpdatedAt(now);
+    }
+
+    private void ensureCheckpoint(String pass) {
+        if (checkpointRepository.existsById(pass)) {
+            return;
+        }
+        try {
+            checkpointRepository.save(new BatchCheckpoint(pass));
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Checkpoint {} created concurrently by another instance.", pass);
+        }
+    }
+}
@@ -1,16 +1,38 @@
 package com.example.Book.Management.System.service;
 
+import com.example.Book.Management.System.cache.ResponseCache;
+import com.example.Book.Management.System.cache.SingleFlight;
+import com.example.Book.Management.System.entity.CatalogEntityType;
+import com.example.Book.Management.System.entity.CatalogTombstone;
+import com.example.Book.Management.System.entity.EventAggregate;
 import com.example.Book.Management.System.entity.Publisher;
+import com.example.Book.Management.System.exception.ConcurrentUpdateException;
+import com.example.Book.Management.System.outbox.Outbox;
+import com.example.Book.Management.System.repository.CatalogTombstoneRepository;
 import com.example.Book.Management.System.repository.PublisherRepository;
+import com.example.Book.Management.System.repository.VersionStamp;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Transactional
@@ -19,7 +41,35 @@ public class PublisherService {
     @Autowired
     private PublisherRepository publisherRepository;
 
+    @Autowired
+    private CatalogTombstoneRepository tombstoneRepository;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private OptimisticRetryExecutor retryExecutor;
+
+    @Autowired
+    private JsonMergePatch mergePatch;
+
+    @Autowired
+    private Outbox outbox;
+
+    private TransactionTemplate readOnlyTx;
+    private SingleFlight<Long, Optional<Publisher>> publisherByIdFlight;
+
     private static final Logger logger = LoggerFactory.getLogger(PublisherService.class);
+    private static final Set<String> PATCHABLE_FIELDS = Set.of("name", "email", "address", "phoneNumber");
 
     @Transactional(readOnly = true)
     public List<Publisher> getAllPublishers() {
@@ -29,10 +79,32 @@ public class PublisherService {
         return publishers;
     }
 
+    /**
+     * @param byAvailable rank by titles with a copy on the shelf rather than by all titles
+     */
     @Transactional(readOnly = true)
+    public Page<Publisher> getTopPublishers(boolean byAvailable, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        return byAvailable ? publisherRepository.findPublishersOrderByAvailableCount(pageable)
+                : publisherRepository.findPublishersOrderByBookCount(pageable);
+    }
+
+    @PostConstruct
+    void initReadPath() {
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+        publisherByIdFlight = new SingleFlight<>("publisher.byId", meterRegistry);
+    }
+
+    // Concurrent lookups of the same publisher share one load; see BookService.getBookById.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Optional<Publisher> getPublisherById(Long id) {
         logger.info("Starting lookup for publisher by ID: {}", id);
-        Optional<Publisher> publisher = publisherRepository.findById(id);
+        Optional<Publisher> publisher = publisherByIdFlight.execute(id, () -> readOnlyTx.execute(status -> {
+            Optional<Publisher> loaded = publisherRepository.findById(id);
+            loaded.ifPresent(p -> Hibernate.initialize(p.getBooks()));
+            return loaded;
+        }));
 
         if (publisher.isPresent()) {
             logger.info("Publisher found with ID: {}", id);
@@ -42,6 +114,10 @@ public class PublisherService {
         return publisher;
     }
 
+    @Transactional(readOnly = true)
+    public Optional<VersionStamp> getPublisherStamp(Long id) {
+        return publisherRepository.findStampById(id);
+    }
 
     public Publisher savePublisher(Publisher publisher) {
         MDC.put("Publisher name" , publisher.getName());
@@ -55,27 +131,45 @@ public class PublisherService {
             MDC.clear();
             throw new RuntimeException("Publisher name already exists: " + publisher.getName());
         }
+        publisher.setVersion(null);
 
         Publisher savedPublisher = publisherRepository.save(publisher);
+        outbox.record(EventAggregate.PUBLISHER, savedPublisher.getId(), "PublisherCreated", eventPayload(savedPublisher));
+        catalogVersionService.bump(CatalogEntityType.PUBLISHER);
+        responseCache.invalidateAllAfterCommit();
         logger.info("Publisher saved successfully with ID: {}", savedPublisher.getId());
         MDC.clear(); // Important: clear MDC after the transaction
         return savedPublisher;
     }
 
-    @Transactional
+    // Each attempt runs in its own transaction; see OptimisticRetryExecutor.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Publisher updatePublisher(Long id, Publisher publisherDetails) {
         MDC.put("targetPublisherId", String.valueOf(id));
         MDC.put("operation", "UPDATE_PUBLISHER");
         logger.info("Attempting to update publisher with ID: {}", id);
 
+        try {
+            return retryExecutor.execute("Publisher", id, () -> applyUpdate(id, publisherDetails),
+                    () -> publisherRepository.findById(id).map(Publisher::getVersion).orElse(null));
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    private Publisher applyUpdate(Long id, Publisher publisherDetails) {
         Publisher publisher = publisherRepository.findById(id)
                 .orElseThrow(() -> {
                     // Log failure before throwing the exception
                     logger.error("Update failed: Publisher not found with ID: {}", id);
-                    MDC.clear();
                     return new RuntimeException("Publisher not found with id: " + id);
                 });
 
+        if (publisherDetails.getVersion() != null && !publisherDetails.getVersion().equals(publisher.getVersion())) {
+            logger.warn("Update rejected: stale version {} (current {}).", publisherDetails.getVersion(), publisher.getVersion());
+            throw new ConcurrentUpdateException("Publisher", id, publisher.getVersion());
+        }
+
         // Log the field changes being applied
         logger.debug("Applying updates: Name={}, Email={}, Phone={}",
                 publisherDetails.getName(), publisherDetails.getEmail(), publisherDetails.getPhoneNumber());
@@ -85,12 +179,52 @@ public class PublisherService {
         publisher.setAddress(publisherDetails.getAddress());
         publisher.setPhoneNumber(publisherDetails.getPhoneNumber());
 
-        Publisher updatedPublisher = publisherRepository.save(publisher);
+        // Flush so the returned version is the incremented one.
+        Publisher updatedPublisher = publisherRepository.saveAndFlush(publisher);
+        outbox.record(EventAggregate.PUBLISHER, id, "PublisherUpdated", eventPayload(updatedPublisher));
+        catalogVersionService.bump(CatalogEntityType.PUBLISHER);
+        responseCache.invalidateAllAfterCommit();
         logger.info("Publisher updated successfully for ID: {}", updatedPublisher.getId());
-        MDC.clear();
         return updatedPublisher;
     }
 
+    // Only the columns the patch actually changes are written (@DynamicUpdate on Publisher).
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Publisher patchPublisher(Long id, JsonNode patch) {
+        MDC.put("targetPublisherId", String.valueOf(id));
+        MDC.put("operation", "PATCH_PUBLISHER");
+        logger.info("Applying merge patch to publisher ID: {}", id);
+
+        try {
+            return retryExecutor.execute("Publisher", id, () -> applyPatch(id, patch),
+                    () -> publisherRepository.findById(id).map(Publisher::getVersion).orElse(null));
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    private Publisher applyPatch(Long id, JsonNode patch) {
+        Publisher publisher = publisherRepository.findById(id)
+                .orElseThrow(() -> {
+                    logger.error("Patch failed: Publisher not found with ID: {}", id);
+                    return new RuntimeException("Publisher not found with id: " + id);
+                });
+
+        Long expected = JsonMergePatch.expectedVersion(patch);
+        if (expected != null && !expected.equals(publisher.getVersion())) {
+            logger.warn("Patch rejected: stale version {} (current {}).", expected, publisher.getVersion());
+            throw new ConcurrentUpdateException("Publisher", id, publisher.getVersion());
+        }
+
+        mergePatch.apply(publisher, patch, PATCHABLE_FIELDS);
+        Publisher patchedPublisher = publisherRepository.saveAndFlush(publisher);
+        outbox.record(EventAggregate.PUBLISHER, id, "PublisherUpdated", eventPayload(patchedPublisher));
+        catalogVersionService.bump(CatalogEntityType.PUBLISHER);
+        responseCache.invalidateAllAfterCommit();
+        logger.info("Publisher patched successfully for ID: {}", id);
+        return patchedPublisher;
+    }
+
     public void deletePublisher(Long id) {
         MDC.put("targetPublisherId", String.valueOf(id));
         MDC.put("operation", "DELETE_PUBLISHER");
@@ -105,6 +239,10 @@ public class PublisherService {
             }
 
             publisherRepository.deleteById(id);
+            tombstoneRepository.save(new CatalogTombstone(CatalogEntityType.PUBLISHER, id));
+            outbox.record(EventAggregate.PUBLISHER, id, "PublisherDeleted", Map.of("id", id));
+            catalogVersionService.bump(CatalogEntityType.PUBLISHER);
+            responseCache.invalidateAllAfterCommit();
             logger.info("Publisher successfully deleted with ID: {}", id);
         } catch (Exception e) {
             // Log the exception details and stack trace for operational failure
@@ -126,4 +264,14 @@ public class PublisherService {
         logger.debug("Looking up publisher by email: {}", email);
         return publisherRepository.findByEmail(email);
     }
+
+    // Explicit fields: serializing the entity would load its books. Also used by the catalog import.
+    public static Map<String, Object> eventPayload(Publisher publisher) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("id", publisher.getId());
+        payload.put("name", publisher.getName());
+        payload.put("email", publisher.getEmail());
+        payload.put("version", publisher.getVersion());
+        return payload;
+    }
 }
@@ -1,15 +1,24 @@
 package com.example.Book.Management.System.service;
 
+import com.example.Book.Management.System.entity.EventAggregate;
 import com.example.Book.Management.System.entity.User;
 import com.example.Book.Management.System.entity.UserRole;
+import com.example.Book.Management.System.exception.ConcurrentUpdateException;
+import com.example.Book.Management.System.outbox.Outbox;
 import com.example.Book.Management.System.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class UserService {
@@ -17,7 +26,19 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private OptimisticRetryExecutor retryExecutor;
+
+    @Autowired
+    private JsonMergePatch mergePatch;
+
+    @Autowired
+    private Outbox outbox;
+
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
+    // Username and password have their own flows, and role is only changed by an admin's PUT, so none
+    // of them is patchable; users may patch their own record.
+    private static final Set<String> PATCHABLE_FIELDS = Set.of("firstName", "lastName", "email");
 
     public List<User> getAllUsers() {
         logger.debug("Attempting to fetch all users.");
@@ -38,6 +59,7 @@ public class UserService {
         return user;
     }
 
+    @Transactional
     public User saveUser(User user) {
 
         logger.info("Starting user creation for username: {}", user.getUsername());
@@ -50,7 +72,9 @@ public class UserService {
             logger.error("User creation failed: Email '{}' already exists.", user.getEmail());
             throw new RuntimeException("Email already exists: " + user.getEmail());
         }
+        user.setVersion(null);
         User savedUser = userRepository.save(user);
+        outbox.record(EventAggregate.USER, savedUser.getId(), "UserCreated", eventPayload(savedUser));
         logger.info("User created successfully with ID: {}", savedUser.getId());
         return savedUser;
     }
@@ -59,6 +83,11 @@ public class UserService {
 
         logger.info("Attempting to update user ID: {}", id);
 
+        return retryExecutor.execute("User", id, () -> applyUpdate(id, userDetails),
+                () -> userRepository.findById(id).map(User::getVersion).orElse(null));
+    }
+
+    private User applyUpdate(Long id, User userDetails) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> {
                     // Log the failure to find before throwing the exception
@@ -66,6 +95,12 @@ public class UserService {
                     return new RuntimeException("User not found with id: " + id);
                 });
 
+        if (userDetails.getVersion() != null && !userDetails.getVersion().equals(user.getVersion())) {
+            logger.warn("Update rejected for user ID {}: stale version {} (current {}).",
+                    id, userDetails.getVersion(), user.getVersion());
+            throw new ConcurrentUpdateException("User", id, user.getVersion());
+        }
+
         logger.debug("Updating user ID {} fields: email={}, role={}",
                 id, userDetails.getEmail(), userDetails.getRole());
 
@@ -74,11 +109,41 @@ public class UserService {
         user.setEmail(userDetails.getEmail());
         user.setRole(userDetails.getRole());
 
-        User updatedUser = userRepository.save(user);
+        // Flush so the returned version is the incremented one.
+        User updatedUser = userRepository.saveAndFlush(user);
+        outbox.record(EventAggregate.USER, id, "UserUpdated", eventPayload(updatedUser));
         logger.info("User updated successfully for ID: {}", id);
         return updatedUser;
     }
 
+    public User patchUser(Long id, JsonNode patch) {
+        logger.info("Applying merge patch to user ID: {}", id);
+
+        return retryExecutor.execute("User", id, () -> applyPatch(id, patch),
+                () -> userRepository.findById(id).map(User::getVersion).orElse(null));
+    }
+
+    private User applyPatch(Long id, JsonNode patch) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> {
+                    logger.error("Patch failed: User not found with ID: {}", id);
+                    return new RuntimeException("User not found with id: " + id);
+                });
+
+        Long expected = JsonMergePatch.expectedVersion(patch);
+        if (expected != null && !expected.equals(user.getVersion())) {
+            logger.warn("Patch rejected for user ID {}: stale version {} (current {}).", id, expected, user.getVersion());
+            throw new ConcurrentUpdateException("User", id, user.getVersion());
+        }
+
+        mergePatch.apply(user, patch, PATCHABLE_FIELDS);
+        User patchedUser = userRepository.saveAndFlush(user);
+        outbox.record(EventAggregate.USER, id, "UserUpdated", eventPayload(patchedUser));
+        logger.info("User patched successfully for ID: {}", id);
+        return patchedUser;
+    }
+
+    @Transactional
     public void deleteUser(Long id) {
         logger.info("Attempting to delete user by ID: {}", id);
 
@@ -90,6 +155,7 @@ public class UserService {
             }
 
             userRepository.deleteById(id);
+            outbox.record(EventAggregate.USER, id, "UserDeleted", Map.of("id", id));
             logger.info("User deleted successfully with ID: {}", id);
         } catch (Exception e) {
             // Log the exception details for actual operational failure
@@ -108,4 +174,17 @@ public class UserService {
     public List<User> getUsersByRole(UserRole role) {
             return userRepository.findByRole(role);
     }
+
+    // Explicit fields: never the password hash, and no lazy borrow records.
+    private static Map<String, Object> eventPayload(User user) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("id", user.getId());
+        payload.put("username", user.getUsername());
+        payload.put("firstName", user.getFirstName());
+        payload.put("lastName", user.getLastName());
+        payload.put("email", user.getEmail());
+        payload.put("role", user.getRole());
+        payload.put("version", user.getVersion());
+        return payload;
+    }
 }
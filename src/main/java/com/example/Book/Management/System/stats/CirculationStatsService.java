@@ -0,0 +1,88 @@
+package com.example.Book.Management.System.stats;
+
+import com.example.Book.Management.System.cluster.ClusterSingleton;
+import com.example.Book.Management.System.dto.ActiveLoansDto;
+import com.example.Book.Management.System.dto.StatsBucketDto;
+import com.example.Book.Management.System.dto.StatsTotalDto;
+import com.example.Book.Management.System.entity.RollupDimension;
+import com.example.Book.Management.System.entity.RollupGrain;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Dashboard reads over {@code circulation_rollups}. Every query touches at most one row per
+ * bucket and dimension id in the range, however many loans the range holds. Read-only, so they
+ * can be served by a replica.
+ */
+@Service
+@Transactional(readOnly = true)
+public class CirculationStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CirculationStatsService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${stats.hourly-retention-days:90}")
+    private long hourlyRetentionDays;
+
+    public CirculationStatsService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return non-empty buckets in {@code [from, to)}, oldest first
+     */
+    public List<StatsBucketDto> series(RollupDimension dimension, long id, RollupGrain grain,
+                                       LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.query("""
+                        SELECT bucket_start, borrows, returns FROM circulation_rollups
+                        WHERE dimension = ? AND dimension_id = ? AND grain = ? AND bucket_start >= ? AND bucket_start < ?
+                        ORDER BY bucket_start
+                        """,
+                (rs, i) -> new StatsBucketDto(rs.getTimestamp(1).toLocalDateTime(), rs.getLong(2), rs.getLong(3)),
+                dimension.name(), id, grain.name(), Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    /**
+     * @return the authors, publishers or users with the most borrows in {@code [from, to)}
+     */
+    public List<StatsTotalDto> top(RollupDimension dimension, LocalDateTime from, LocalDateTime to, int limit) {
+        return jdbcTemplate.query("""
+                        SELECT dimension_id, SUM(borrows) AS borrows, SUM(returns) AS returns FROM circulation_rollups
+                        WHERE dimension = ? AND grain = 'DAY' AND bucket_start >= ? AND bucket_start < ?
+                        GROUP BY dimension_id ORDER BY borrows DESC, dimension_id LIMIT ?
+                        """,
+                (rs, i) -> new StatsTotalDto(dimension, rs.getLong(1), rs.getLong(2), rs.getLong(3)),
+                dimension.name(), Timestamp.valueOf(from), Timestamp.valueOf(to), limit);
+    }
+
+    public ActiveLoansDto activeLoans(RollupDimension dimension, long id) {
+        Long active = jdbcTemplate.queryForObject("""
+                        SELECT COALESCE(SUM(borrows - returns), 0) FROM circulation_rollups
+                        WHERE dimension = ? AND dimension_id = ? AND grain = 'DAY'
+                        """,
+                Long.class, dimension.name(), id);
+        return new ActiveLoansDto(dimension, id, active == null ? 0L : active);
+    }
+
+    // DAY rows are kept for good; hourly detail only matters for recent activity.
+    @ClusterSingleton
+    @Transactional
+    @Scheduled(cron = "${stats.hourly-purge-cron:0 15 4 * * *}")
+    public void purgeHourly() {
+        int deleted = jdbcTemplate.update("DELETE FROM circulation_rollups WHERE grain = 'HOUR' AND bucket_start < ?",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(hourlyRetentionDays)));
+        if (deleted > 0) {
+            logger.info("Purged {} hourly circulation rollups older than {} days.", deleted, hourlyRetentionDays);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.Book.Management.System.trending;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size frequency estimator: {@code depth} rows of {@code width} counters, each row indexed by
+ * its own hash. An estimate is the smallest of the key's counters, so it never undercounts and
+ * overcounts by roughly {@code total / width} at most.
+ *
+ * <p>Not thread-safe; {@link TrendingCounters} updates it from a single drain thread.
+ */
+class CountMinSketch {
+
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L,
+            0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x94D049BB133111EBL, 0xBF58476D1CE4E5B9L
+    };
+
+    private final int depth;
+    private final int mask;
+    private final int[] counters;
+
+    /**
+     * @param width counters per row, rounded up to a power of two
+     * @param depth number of rows, at most 8
+     */
+    CountMinSketch(int width, int depth) {
+        if (depth < 1 || depth > SEEDS.length) {
+            throw new IllegalArgumentException("depth must be between 1 and " + SEEDS.length);
+        }
+        int size = Integer.highestOneBit(Math.max(width, 2) - 1) << 1;
+        this.depth = depth;
+        this.mask = size - 1;
+        this.counters = new int[size * depth];
+    }
+
+    void add(long key) {
+        for (int row = 0; row < depth; row++) {
+            int slot = slot(row, key);
+            if (counters[slot] != Integer.MAX_VALUE) {
+                counters[slot]++;
+            }
+        }
+    }
+
+    long estimate(long key) {
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters[slot(row, key)]);
+        }
+        return min;
+    }
+
+    void clear() {
+        Arrays.fill(counters, 0);
+    }
+
+    private int slot(int row, long key) {
+        // MurmurHash3 finalizer over the row-seeded key
+        long h = key ^ SEEDS[row];
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return row * (mask + 1) + (int) (h & mask);
+    }
+}
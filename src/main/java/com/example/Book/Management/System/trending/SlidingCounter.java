@@ -0,0 +1,86 @@
+package com.example.Book.Management.System.trending;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * One metric over one {@link TrendingWindow}: a ring of time buckets, each with its own
+ * {@link CountMinSketch} and {@link SpaceSaving} candidates. A bucket is cleared when the ring
+ * comes back round to it, so memory is fixed by the window shape and not by the catalog.
+ *
+ * <p>Not thread-safe; updated and ranked from the single drain thread.
+ */
+class SlidingCounter {
+
+    private final TrendingWindow window;
+    private final Bucket[] ring;
+
+    SlidingCounter(TrendingWindow window, int sketchWidth, int sketchDepth, int candidates) {
+        this.window = window;
+        // One extra bucket: the current, partly filled one
+        this.ring = new Bucket[window.getBuckets() + 1];
+        for (int i = 0; i < ring.length; i++) {
+            ring[i] = new Bucket(new CountMinSketch(sketchWidth, sketchDepth), new SpaceSaving(candidates));
+        }
+    }
+
+    void add(long key, long nowMillis) {
+        long epoch = nowMillis / window.getBucketMillis();
+        Bucket bucket = ring[(int) (epoch % ring.length)];
+        if (bucket.epoch != epoch) {
+            bucket.sketch.clear();
+            bucket.candidates.clear();
+            bucket.epoch = epoch;
+        }
+        bucket.sketch.add(key);
+        bucket.candidates.offer(key);
+    }
+
+    /**
+     * Ranks the union of all live buckets' candidates by their summed sketch estimates.
+     *
+     * @return up to {@code limit} {@code {key, estimate}} pairs, highest first
+     */
+    List<long[]> top(long nowMillis, int limit) {
+        long current = nowMillis / window.getBucketMillis();
+        long oldest = current - window.getBuckets();
+        double oldestWeight = 1.0 - (double) (nowMillis % window.getBucketMillis()) / window.getBucketMillis();
+
+        Set<Long> keys = new HashSet<>();
+        for (Bucket bucket : ring) {
+            if (bucket.epoch >= oldest && bucket.epoch <= current) {
+                keys.addAll(bucket.candidates.keys());
+            }
+        }
+        List<long[]> ranked = new ArrayList<>(keys.size());
+        for (Long key : keys) {
+            double estimate = 0;
+            for (Bucket bucket : ring) {
+                if (bucket.epoch >= oldest && bucket.epoch <= current) {
+                    long count = bucket.sketch.estimate(key);
+                    estimate += bucket.epoch == oldest ? count * oldestWeight : count;
+                }
+            }
+            long rounded = Math.round(estimate);
+            if (rounded > 0) {
+                ranked.add(new long[]{key, rounded});
+            }
+        }
+        ranked.sort(Comparator.comparingLong((long[] entry) -> entry[1]).reversed());
+        return ranked.size() > limit ? ranked.subList(0, limit) : ranked;
+    }
+
+    private static final class Bucket {
+        private final CountMinSketch sketch;
+        private final SpaceSaving candidates;
+        private long epoch = -1;
+
+        private Bucket(CountMinSketch sketch, SpaceSaving candidates) {
+            this.sketch = sketch;
+            this.candidates = candidates;
+        }
+    }
+}
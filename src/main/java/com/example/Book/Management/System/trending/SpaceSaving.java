@@ -0,0 +1,68 @@
+package com.example.Book.Management.System.trending;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Space-Saving heavy-hitter tracker: at most {@code capacity} monitored keys. An unmonitored key
+ * replaces the one with the smallest count and inherits that count, so any key whose true
+ * frequency exceeds {@code total / capacity} is guaranteed to be monitored.
+ *
+ * <p>Only the key set is used for ranking; counts come from the bucket's {@link CountMinSketch},
+ * which is tighter. Not thread-safe; updated from the single drain thread.
+ */
+class SpaceSaving {
+
+    private final int capacity;
+    private final Map<Long, long[]> counts;
+    private long minKey;
+    private long minCount = -1;
+
+    SpaceSaving(int capacity) {
+        this.capacity = capacity;
+        this.counts = new HashMap<>(capacity * 2);
+    }
+
+    void offer(long key) {
+        long[] count = counts.get(key);
+        if (count != null) {
+            count[0]++;
+            if (key == minKey) {
+                minCount = -1;
+            }
+            return;
+        }
+        if (counts.size() < capacity) {
+            counts.put(key, new long[]{1});
+            minCount = -1;
+            return;
+        }
+        if (minCount < 0) {
+            findMin();
+        }
+        counts.remove(minKey);
+        counts.put(key, new long[]{minCount + 1});
+        minCount = -1;
+    }
+
+    Set<Long> keys() {
+        return counts.keySet();
+    }
+
+    void clear() {
+        counts.clear();
+        minCount = -1;
+    }
+
+    private void findMin() {
+        long min = Long.MAX_VALUE;
+        for (Map.Entry<Long, long[]> entry : counts.entrySet()) {
+            if (entry.getValue()[0] < min) {
+                min = entry.getValue()[0];
+                minKey = entry.getKey();
+            }
+        }
+        minCount = min;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.Book.Management.System.trending;
+
+import com.example.Book.Management.System.catalog.CatalogEntry;
+import com.example.Book.Management.System.catalog.CatalogIndex;
+import com.example.Book.Management.System.dto.TrendingBookDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-instance "popular now" rankings of titles by borrows and by detail views, over sliding
+ * 1h, 24h and 7d windows, without ever grouping {@code borrow_record}.
+ *
+ * <p>Request threads only append the book id to a bounded lock-free queue; when the queue is full
+ * the event is dropped and counted rather than blocking. A single scheduled drain feeds the
+ * {@link SlidingCounter}s and then publishes ranked lists as an immutable snapshot, so
+ * {@link #top} is a volatile read. Memory is fixed by {@code trending.*} settings, whatever the
+ * catalog size. Counts restart empty with the instance and cover only its own traffic.
+ */
+@Component
+public class TrendingCounters {
+
+    private final CatalogIndex catalogIndex;
+    private final ConcurrentLinkedQueue<Long> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Map<TrendingMetric, Map<TrendingWindow, SlidingCounter>> counters = new EnumMap<>(TrendingMetric.class);
+    private final Counter dropped;
+    private final int queueCapacity;
+    private final int maxResults;
+
+    @Value("${trending.publish-interval-ms:1000}")
+    private long publishIntervalMs;
+
+    private long lastPublish;
+    private volatile Map<TrendingMetric, Map<TrendingWindow, List<TrendingBookDto>>> snapshot = new EnumMap<>(TrendingMetric.class);
+
+    public TrendingCounters(CatalogIndex catalogIndex, MeterRegistry meterRegistry,
+                            @Value("${trending.queue-capacity:65536}") int queueCapacity,
+                            @Value("${trending.max-results:100}") int maxResults,
+                            @Value("${trending.sketch.width:2048}") int sketchWidth,
+                            @Value("${trending.sketch.depth:4}") int sketchDepth) {
+        this.catalogIndex = catalogIndex;
+        this.queueCapacity = queueCapacity;
+        this.maxResults = maxResults;
+        // Twice the served list, so titles near the cut-off are still tracked per bucket
+        int candidates = maxResults * 2;
+        for (TrendingMetric metric : TrendingMetric.values()) {
+            Map<TrendingWindow, SlidingCounter> windows = new EnumMap<>(TrendingWindow.class);
+            for (TrendingWindow window : TrendingWindow.values()) {
+                windows.put(window, new SlidingCounter(window, sketchWidth, sketchDepth, candidates));
+            }
+            counters.put(metric, windows);
+        }
+        this.dropped = Counter.builder("trending.events.dropped").register(meterRegistry);
+    }
+
+    /**
+     * Counts a borrow once the surrounding transaction commits, so failed borrows are not counted.
+     */
+    public void recordBorrow(Long bookId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(TrendingMetric.BORROWS, bookId);
+                }
+            });
+        } else {
+            record(TrendingMetric.BORROWS, bookId);
+        }
+    }
+
+    public void recordView(Long bookId) {
+        record(TrendingMetric.VIEWS, bookId);
+    }
+
+    /**
+     * @return at most {@code limit} titles from the last published ranking, highest count first
+     */
+    public List<TrendingBookDto> top(TrendingMetric metric, TrendingWindow window, int limit) {
+        List<TrendingBookDto> ranked = snapshot.getOrDefault(metric, Map.of()).getOrDefault(window, List.of());
+        return ranked.size() > limit ? ranked.subList(0, limit) : ranked;
+    }
+
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    @Scheduled(fixedDelayString = "${trending.drain-interval-ms:250}")
+    public void drain() {
+        long now = System.currentTimeMillis();
+        // Bounded per run, so producers outpacing the drain cannot keep it looping
+        for (int i = 0; i < queueCapacity; i++) {
+            Long event = queue.poll();
+            if (event == null) {
+                break;
+            }
+            queued.decrementAndGet();
+            TrendingMetric metric = TrendingMetric.values()[(int) (event & 1)];
+            for (SlidingCounter counter : counters.get(metric).values()) {
+                counter.add(event >>> 1, now);
+            }
+        }
+        // Ranking is the costly part, so it runs on its own interval; this also keeps the
+        // windows sliding when traffic stops.
+        if (now - lastPublish >= publishIntervalMs) {
+            publish(now);
+        }
+    }
+
+    private void record(TrendingMetric metric, Long bookId) {
+        if (bookId == null) {
+            return;
+        }
+        if (queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            dropped.increment();
+            return;
+        }
+        queue.offer(bookId << 1 | metric.ordinal());
+    }
+
+    private void publish(long now) {
+        boolean indexed = catalogIndex.size() > 0;
+        Map<TrendingMetric, Map<TrendingWindow, List<TrendingBookDto>>> next = new EnumMap<>(TrendingMetric.class);
+        counters.forEach((metric, windows) -> {
+            Map<TrendingWindow, List<TrendingBookDto>> lists = new EnumMap<>(TrendingWindow.class);
+            windows.forEach((window, counter) -> {
+                List<long[]> ranked = counter.top(now, maxResults * 2);
+                List<TrendingBookDto> books = new ArrayList<>(Math.min(ranked.size(), maxResults));
+                for (long[] entry : ranked) {
+                    Optional<CatalogEntry> book = catalogIndex.getBook(entry[0]);
+                    // Skip deleted titles once the catalog index is loaded
+                    if (book.isEmpty() && indexed) {
+                        continue;
+                    }
+                    books.add(new TrendingBookDto(entry[0], book.map(CatalogEntry::getIsbn).orElse(null),
+                            book.map(CatalogEntry::getStatus).orElse(null), entry[1]));
+                    if (books.size() == maxResults) {
+                        break;
+                    }
+                }
+                lists.put(window, List.copyOf(books));
+            });
+            next.put(metric, lists);
+        });
+        snapshot = next;
+        lastPublish = now;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.Book.Management.System.trending;
+
+/**
+ * What {@code /api/books/trending} ranks titles by.
+ */
+public enum TrendingMetric {
+    BORROWS, VIEWS
+}
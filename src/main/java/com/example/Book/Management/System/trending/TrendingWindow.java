@@ -0,0 +1,41 @@
+package com.example.Book.Management.System.trending;
+
+import java.time.Duration;
+
+/**
+ * Windows served by {@code /api/books/trending}. Each slides in steps of one bucket; the oldest
+ * bucket is weighted by how much of it still lies inside the window.
+ */
+public enum TrendingWindow {
+    HOUR("1h", Duration.ofMinutes(5), 12),
+    DAY("24h", Duration.ofHours(1), 24),
+    WEEK("7d", Duration.ofHours(6), 28);
+
+    private final String label;
+    private final long bucketMillis;
+    private final int buckets;
+
+    TrendingWindow(String label, Duration bucket, int buckets) {
+        this.label = label;
+        this.bucketMillis = bucket.toMillis();
+        this.buckets = buckets;
+    }
+
+    public String getLabel() { return label; }
+
+    long getBucketMillis() { return bucketMillis; }
+
+    int getBuckets() { return buckets; }
+
+    /**
+     * @return the window for a label such as {@code 24h}, or {@code null} if there is none
+     */
+    public static TrendingWindow fromLabel(String label) {
+        for (TrendingWindow window : values()) {
+            if (window.label.equalsIgnoreCase(label)) {
+                return window;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.Book.Management.System.archive;
+
+import com.example.Book.Management.System.dto.BorrowHistoryDto;
+import com.example.Book.Management.System.entity.BorrowStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ArchiveSegmentTest {
+
+    private static final LocalDate MONTH = LocalDate.of(2024, 3, 1);
+    private static final int DAY = (int) MONTH.toEpochDay();
+
+    @Test
+    void builderRejectsRowsOutOfIdOrder() {
+        ArchiveSegment.Builder builder = new ArchiveSegment.Builder(MONTH, 2);
+        builder.add(5, 1, 1, 1, DAY, DAY, DAY);
+
+        assertThrows(IllegalArgumentException.class, () -> builder.add(5, 1, 1, 1, DAY, DAY, DAY));
+        assertThrows(IllegalArgumentException.class, () -> builder.add(4, 1, 1, 1, DAY, DAY, DAY));
+    }
+
+    @Test
+    void builderGrowsPastItsInitialCapacity() {
+        ArchiveSegment.Builder builder = new ArchiveSegment.Builder(MONTH, 0);
+        for (long id = 1; id <= 100; id++) {
+            builder.add(id, id, id, id, DAY, DAY + 14, DAY + 10);
+        }
+
+        ArchiveSegment segment = builder.build();
+
+        assertEquals(100, segment.size);
+        assertEquals(100, segment.ids.length);
+        assertEquals(100, segment.ids[99]);
+    }
+
+    @Test
+    void mergeInterleavesByIdAndPrefersTheNewerRow() {
+        ArchiveSegment older = segment(new long[]{1, 3, 5}, 10);
+        ArchiveSegment newer = segment(new long[]{2, 3, 6}, 20);
+
+        ArchiveSegment merged = ArchiveSegment.merge(older, newer);
+
+        assertArrayEquals(new long[]{1, 2, 3, 5, 6}, merged.ids);
+        assertArrayEquals(new long[]{10, 20, 20, 10, 20}, merged.userIds);
+    }
+
+    @Test
+    void collectFiltersByMemberAndCursor() {
+        ArchiveSegment.Builder builder = new ArchiveSegment.Builder(MONTH, 4);
+        builder.add(1, 7, 100, 1000, DAY, DAY + 14, DAY + 3);
+        builder.add(2, 8, 100, 1001, DAY + 1, DAY + 15, DAY + 4);
+        builder.add(3, 7, 101, 0, DAY + 2, ArchiveSegment.NO_DATE, DAY + 5);
+        builder.add(4, 7, 102, 1002, DAY + 2, DAY + 16, DAY + 6);
+        ArchiveSegment segment = builder.build();
+
+        List<BorrowHistoryDto> byUser = new ArrayList<>();
+        // Before (day + 2, id 4): excludes row 4 itself, keeps row 3 on the same day.
+        segment.collect(true, 7, DAY + 2, 4, byUser);
+        assertEquals(List.of(1L, 3L), byUser.stream().map(BorrowHistoryDto::getId).toList());
+
+        BorrowHistoryDto row = byUser.get(1);
+        assertEquals(101L, row.getBookId());
+        assertNull(row.getCopyId());
+        assertNull(row.getDueDate());
+        assertEquals(MONTH.plusDays(2), row.getBorrowDate());
+        assertEquals(MONTH.plusDays(5), row.getReturnDate());
+        assertEquals(BorrowStatus.RETURNED, row.getStatus());
+
+        List<BorrowHistoryDto> byBook = new ArrayList<>();
+        segment.collect(false, 100, Integer.MAX_VALUE, Long.MAX_VALUE, byBook);
+        assertEquals(List.of(1L, 2L), byBook.stream().map(BorrowHistoryDto::getId).toList());
+    }
+
+    private static ArchiveSegment segment(long[] ids, long userId) {
+        ArchiveSegment.Builder builder = new ArchiveSegment.Builder(MONTH, ids.length);
+        for (long id : ids) {
+            builder.add(id, userId, 1, 1, DAY, DAY + 14, DAY + 7);
+        }
+        return builder.build();
+    }
+}
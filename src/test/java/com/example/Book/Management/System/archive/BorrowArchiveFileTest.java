@@ -0,0 +1,108 @@
+package com.example.Book.Management.System.archive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BorrowArchiveFileTest {
+
+    private static final LocalDate MONTH = LocalDate.of(2023, 11, 1);
+    private static final int DAY = (int) MONTH.toEpochDay();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsEveryField() throws IOException {
+        ArchiveSegment.Builder builder = new ArchiveSegment.Builder(MONTH, 0);
+        Random random = new Random(11);
+        long id = 0;
+        for (int i = 0; i < 5_000; i++) {
+            id += 1 + random.nextInt(i % 100 == 0 ? 1_000_000 : 3);
+            int borrowDay = DAY + random.nextInt(30);
+            builder.add(id,
+                    random.nextInt(10) == 0 ? 0 : 1 + random.nextInt(100_000),
+                    random.nextInt(10) == 0 ? 0 : Long.MAX_VALUE - random.nextInt(1_000),
+                    random.nextInt(10) == 0 ? 0 : 1 + random.nextInt(1_000_000),
+                    borrowDay,
+                    random.nextInt(10) == 0 ? ArchiveSegment.NO_DATE : borrowDay + 14,
+                    // Includes returns recorded before the borrow date.
+                    random.nextInt(10) == 0 ? ArchiveSegment.NO_DATE : borrowDay + random.nextInt(80) - 10);
+        }
+        ArchiveSegment written = builder.build();
+        Path file = dir.resolve("2023-11.seg");
+
+        BorrowArchiveFile.write(written, file);
+        ArchiveSegment read = BorrowArchiveFile.read(file);
+
+        assertEquals(MONTH, read.month);
+        assertEquals(written.size, read.size);
+        assertArrayEquals(written.ids, read.ids);
+        assertArrayEquals(written.userIds, read.userIds);
+        assertArrayEquals(written.bookIds, read.bookIds);
+        assertArrayEquals(written.copyIds, read.copyIds);
+        assertArrayEquals(written.borrowDays, read.borrowDays);
+        assertArrayEquals(written.dueDays, read.dueDays);
+        assertArrayEquals(written.returnDays, read.returnDays);
+        assertFalse(Files.exists(dir.resolve("2023-11.seg.tmp")));
+    }
+
+    @Test
+    void roundTripsAnEmptySegment() throws IOException {
+        Path file = dir.resolve("nested/empty.seg");
+
+        BorrowArchiveFile.write(new ArchiveSegment.Builder(MONTH, 0).build(), file);
+        ArchiveSegment read = BorrowArchiveFile.read(file);
+
+        assertEquals(MONTH, read.month);
+        assertEquals(0, read.size);
+    }
+
+    @Test
+    void rewriteReplacesTheFile() throws IOException {
+        Path file = dir.resolve("seg");
+        ArchiveSegment.Builder first = new ArchiveSegment.Builder(MONTH, 1);
+        first.add(1, 1, 1, 1, DAY, DAY, DAY);
+        ArchiveSegment.Builder second = new ArchiveSegment.Builder(MONTH, 2);
+        second.add(1, 1, 1, 1, DAY, DAY, DAY);
+        second.add(2, 2, 2, 2, DAY, DAY, DAY);
+
+        BorrowArchiveFile.write(first.build(), file);
+        BorrowArchiveFile.write(second.build(), file);
+
+        assertArrayEquals(new long[]{1, 2}, BorrowArchiveFile.read(file).ids);
+    }
+
+    @Test
+    void rejectsForeignAndCorruptFiles() throws IOException {
+        Path foreign = dir.resolve("foreign");
+        Files.write(foreign, new byte[]{1, 2, 3, 4, 0, 0, 0, 1});
+        assertThrows(IOException.class, () -> BorrowArchiveFile.read(foreign));
+
+        ArchiveSegment.Builder builder = new ArchiveSegment.Builder(MONTH, 0);
+        for (long id = 1; id <= 1_000; id++) {
+            builder.add(id, id, id, id, DAY, DAY + 14, DAY + 7);
+        }
+        Path file = dir.resolve("corrupt");
+        BorrowArchiveFile.write(builder.build(), file);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x5A;
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> BorrowArchiveFile.read(file));
+
+        Path truncated = dir.resolve("truncated");
+        Files.write(truncated, Arrays.copyOf(bytes, 20));
+        assertThrows(IOException.class, () -> BorrowArchiveFile.read(truncated));
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.Book.Management.System.cache;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    private static final int FOLLOWERS = 8;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight<String, Object> singleFlight = new SingleFlight<>("test", meterRegistry);
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Object value = new Object();
+        AtomicReferenceArray<Object> results = new AtomicReferenceArray<>(FOLLOWERS + 1);
+
+        Thread leader = start(() -> results.set(0, singleFlight.execute("k", () -> {
+            loads.incrementAndGet();
+            awaitQuietly(release);
+            return value;
+        })));
+        waitUntil(() -> singleFlight.inFlight() == 1);
+
+        List<Thread> followers = new ArrayList<>();
+        for (int i = 1; i <= FOLLOWERS; i++) {
+            int slot = i;
+            followers.add(start(() -> results.set(slot, singleFlight.execute("k", () -> {
+                loads.incrementAndGet();
+                return new Object();
+            }))));
+        }
+        // Parked in join() means the follower found the leader's flight.
+        for (Thread follower : followers) {
+            waitUntil(() -> follower.getState() == Thread.State.WAITING);
+        }
+        release.countDown();
+        leader.join(5_000);
+        for (Thread follower : followers) {
+            follower.join(5_000);
+        }
+
+        assertEquals(1, loads.get());
+        for (int i = 0; i <= FOLLOWERS; i++) {
+            assertSame(value, results.get(i));
+        }
+        assertEquals(0, singleFlight.inFlight());
+        DistributionSummary callers = meterRegistry.get("singleflight.callers").tag("name", "test").summary();
+        assertEquals(1, callers.count());
+        assertEquals(FOLLOWERS + 1, callers.totalAmount());
+    }
+
+    @Test
+    void failureReachesEveryCallerOfTheLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReferenceArray<Throwable> errors = new AtomicReferenceArray<>(2);
+
+        Thread leader = start(() -> {
+            try {
+                singleFlight.execute("k", () -> {
+                    awaitQuietly(release);
+                    throw new IllegalStateException("database down");
+                });
+            } catch (RuntimeException e) {
+                errors.set(0, e);
+            }
+        });
+        waitUntil(() -> singleFlight.inFlight() == 1);
+        Thread follower = start(() -> {
+            try {
+                singleFlight.execute("k", Object::new);
+            } catch (RuntimeException e) {
+                errors.set(1, e);
+            }
+        });
+        waitUntil(() -> follower.getState() == Thread.State.WAITING);
+        release.countDown();
+        leader.join(5_000);
+        follower.join(5_000);
+
+        assertTrue(errors.get(0) instanceof IllegalStateException);
+        assertSame(errors.get(0), errors.get(1));
+    }
+
+    @Test
+    void nothingIsKeptOnceTheLoadCompletes() {
+        AtomicInteger loads = new AtomicInteger();
+
+        singleFlight.execute("k", loads::incrementAndGet);
+        singleFlight.execute("k", loads::incrementAndGet);
+        assertThrows(IllegalArgumentException.class, () -> singleFlight.execute("k", () -> {
+            throw new IllegalArgumentException();
+        }));
+        singleFlight.execute("k", loads::incrementAndGet);
+
+        assertEquals(3, loads.get());
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    void differentKeysLoadIndependently() {
+        // "b" is loaded while "a" is still in flight, so it must not wait on or share "a".
+        Object result = singleFlight.execute("a", () -> {
+            Object inner = singleFlight.execute("b", () -> "b");
+            assertEquals(1, singleFlight.inFlight());
+            return "a" + inner;
+        });
+
+        assertEquals("ab", result);
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    private static Thread start(Runnable task) {
+        Thread thread = new Thread(task);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("condition not reached within 5 s");
+            }
+            Thread.sleep(1);
+        }
+    }
+}
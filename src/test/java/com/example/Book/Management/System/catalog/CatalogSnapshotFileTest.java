@@ -0,0 +1,78 @@
+package com.example.Book.Management.System.catalog;
+
+import com.example.Book.Management.System.entity.BookStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CatalogSnapshotFileTest {
+
+    private static final LocalDateTime WATERMARK = LocalDateTime.of(2024, 5, 17, 9, 30, 12, 123_456_789);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsBooksNamesAndWatermark() throws IOException {
+        CatalogIndex index = new CatalogIndex();
+        index.putAuthorName(1, "Ursula K. Le Guin");
+        index.putAuthorName(2, "Stanisław Lem");
+        index.putAuthorName(3, "");
+        index.putPublisherName(10, "Ace");
+        // Same string as an author's name; both refer to one string-table entry.
+        index.putPublisherName(11, "Stanisław Lem");
+        index.putBook(new CatalogEntry(100, "9780441478125", BookStatus.AVAILABLE, 1, 10));
+        index.putBook(new CatalogEntry(101, "9780156027601", BookStatus.BORROWED, 2, 11));
+        index.putBook(new CatalogEntry(102, null, null, 3, 10));
+        Path file = dir.resolve("snapshots/catalog.bin");
+
+        CatalogSnapshotFile.write(index, WATERMARK, file);
+        CatalogIndex loaded = new CatalogIndex();
+        LocalDateTime watermark = CatalogSnapshotFile.read(file, loaded);
+
+        assertEquals(WATERMARK, watermark);
+        assertEquals(index.authorNames(), loaded.authorNames());
+        assertEquals(index.publisherNames(), loaded.publisherNames());
+        assertSame(loaded.getAuthorName(2), loaded.getPublisherName(11));
+        assertEquals(3, loaded.size());
+        for (CatalogEntry expected : index.books()) {
+            CatalogEntry actual = loaded.getBook(expected.getId()).orElseThrow();
+            assertEquals(expected.getIsbn(), actual.getIsbn());
+            assertEquals(expected.getStatus(), actual.getStatus());
+            assertEquals(expected.getAuthorId(), actual.getAuthorId());
+            assertEquals(expected.getPublisherId(), actual.getPublisherId());
+        }
+        assertEquals(101L, loaded.getBookByIsbn("9780156027601").orElseThrow().getId());
+        assertNull(loaded.getBook(102).orElseThrow().getStatus());
+        assertFalse(Files.exists(file.resolveSibling("catalog.bin.tmp")));
+    }
+
+    @Test
+    void roundTripsAnEmptyCatalog() throws IOException {
+        Path file = dir.resolve("empty.bin");
+
+        CatalogSnapshotFile.write(new CatalogIndex(), WATERMARK, file);
+        CatalogIndex loaded = new CatalogIndex();
+
+        assertEquals(WATERMARK, CatalogSnapshotFile.read(file, loaded));
+        assertEquals(0, loaded.size());
+    }
+
+    @Test
+    void rejectsFilesWithoutTheMagicNumber() throws IOException {
+        Path file = dir.resolve("foreign.bin");
+        Files.write(file, new byte[]{0, 0, 0, 0, 0, 0, 0, 1});
+
+        assertThrows(IOException.class, () -> CatalogSnapshotFile.read(file, new CatalogIndex()));
+    }
+}
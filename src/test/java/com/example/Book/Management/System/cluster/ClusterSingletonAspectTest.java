@@ -0,0 +1,158 @@
+package com.example.Book.Management.System.cluster;
+
+import com.example.Book.Management.System.config.NodeIdentity;
+import com.example.Book.Management.System.repository.ClusterLeaseRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Calls {@code @ClusterSingleton} methods through real Spring AOP proxies, so advisor ordering and
+ * annotation binding are exercised as they are at runtime.
+ */
+@SpringJUnitConfig(ClusterSingletonAspectTest.Config.class)
+class ClusterSingletonAspectTest {
+
+    @Autowired
+    private Jobs jobs;
+
+    // Not a bean: its @Transactional queries would be proxied ahead of the stubbing.
+    private final ClusterLeaseRepository leaseRepository = Config.LEASE_REPOSITORY;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ClusterLeaseService leaseService;
+
+    @BeforeEach
+    void leaseIsFree() {
+        reset(leaseRepository, transactionManager);
+        when(leaseRepository.existsById(anyString())).thenReturn(true);
+        when(leaseRepository.acquire(anyString(), anyString(), any(), any())).thenReturn(1);
+        when(leaseRepository.findToken(anyString(), anyString())).thenReturn(Optional.of(7L));
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        jobs.clear();
+    }
+
+    @Test
+    void runsTheMethodUnderItsLease() {
+        assertEquals("done", jobs.defaultName());
+
+        assertEquals("Jobs.defaultName", jobs.seen().name());
+        assertEquals(7L, jobs.seen().token());
+        assertNull(leaseService.current());
+        verify(leaseRepository).release(eq("Jobs.defaultName"), anyString(), eq(7L), any());
+    }
+
+    @Test
+    void takesTheLeaseOutsideTheTransaction() {
+        jobs.transactional();
+
+        assertEquals("nightly", jobs.seen().name());
+        InOrder order = inOrder(leaseRepository, transactionManager);
+        order.verify(leaseRepository).acquire(eq("nightly"), anyString(), any(), any());
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(transactionManager).commit(any());
+        order.verify(leaseRepository).release(eq("nightly"), anyString(), anyLong(), any());
+    }
+
+    @Test
+    void skipsTheMethodWhenAnotherInstanceHoldsTheLease() {
+        when(leaseRepository.acquire(anyString(), anyString(), any(), any())).thenReturn(0);
+
+        assertNull(jobs.defaultName());
+
+        assertNull(jobs.seen());
+        verify(leaseRepository, never()).release(anyString(), anyString(), anyLong(), any());
+    }
+
+    static class Jobs {
+        private final ClusterLeaseService leaseService;
+        private ClusterLeaseService.Lease seen;
+
+        Jobs(ClusterLeaseService leaseService) {
+            this.leaseService = leaseService;
+        }
+
+        // Accessed through the proxy, so they must be methods and not fields.
+        public ClusterLeaseService.Lease seen() {
+            return seen;
+        }
+
+        public void clear() {
+            seen = null;
+        }
+
+        @ClusterSingleton
+        public String defaultName() {
+            seen = leaseService.current();
+            return "done";
+        }
+
+        @ClusterSingleton("nightly")
+        @Transactional
+        public void transactional() {
+            seen = leaseService.current();
+        }
+    }
+
+    @Configuration
+    @EnableAspectJAutoProxy
+    @EnableTransactionManagement
+    static class Config {
+
+        static final ClusterLeaseRepository LEASE_REPOSITORY = mock(ClusterLeaseRepository.class);
+
+        @Bean
+        PlatformTransactionManager transactionManager() {
+            return mock(PlatformTransactionManager.class);
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        ClusterLeaseService leaseService() {
+            return new ClusterLeaseService(LEASE_REPOSITORY, new NodeIdentity());
+        }
+
+        @Bean
+        ClusterSingletonAspect clusterSingletonAspect(ClusterLeaseService leaseService, MeterRegistry meterRegistry) {
+            return new ClusterSingletonAspect(leaseService, meterRegistry);
+        }
+
+        @Bean
+        Jobs jobs(ClusterLeaseService leaseService) {
+            return new Jobs(leaseService);
+        }
+    }
+}
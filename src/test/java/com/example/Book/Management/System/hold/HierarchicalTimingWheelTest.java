@@ -0,0 +1,101 @@
+package com.example.Book.Management.System.hold;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HierarchicalTimingWheelTest {
+
+    private static final long TICK = 10;
+
+    // Levels span 80, 640 and 5120 ms; anything later starts in the overflow set.
+    private final HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(TICK, 8, 3, 1_000);
+
+    @Test
+    void firesEveryDeadlineWithinOneTickAndNeverEarly() {
+        Random random = new Random(42);
+        Map<Integer, Long> deadlines = new HashMap<>();
+        for (int key = 0; key < 2_000; key++) {
+            long deadline = 1_001 + random.nextInt(20_000);
+            deadlines.put(key, deadline);
+            assertTrue(wheel.schedule(key, deadline));
+        }
+
+        Map<Integer, Long> firedAt = new HashMap<>();
+        for (long now = 1_000 + TICK; now <= 22_000; now += TICK) {
+            for (Integer key : wheel.advance(now)) {
+                assertEquals(null, firedAt.put(key, now), "fired twice: " + key);
+            }
+        }
+
+        assertEquals(deadlines.keySet(), firedAt.keySet());
+        deadlines.forEach((key, deadline) -> {
+            long at = firedAt.get(key);
+            assertTrue(at >= deadline, "key " + key + " due " + deadline + " fired early at " + at);
+            assertTrue(at <= deadline + TICK, "key " + key + " due " + deadline + " fired late at " + at);
+        });
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cascadesFromCoarseLevelsAndOverflowInOneLargeAdvance() {
+        wheel.schedule(1, 1_050);
+        wheel.schedule(2, 1_500);
+        wheel.schedule(3, 4_000);
+        wheel.schedule(4, 50_000);
+
+        assertEquals(List.of(1, 2), wheel.advance(3_999));
+        assertEquals(List.of(3), wheel.advance(4_010));
+        assertEquals(List.of(), wheel.advance(49_990));
+        assertEquals(List.of(4), wheel.advance(50_010));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancelledKeysNeverFire() {
+        wheel.schedule(1, 1_050);
+        wheel.schedule(2, 3_000);
+        wheel.schedule(3, 50_000);
+
+        assertTrue(wheel.cancel(1));
+        assertTrue(wheel.cancel(2));
+        assertTrue(wheel.cancel(3));
+        assertFalse(wheel.cancel(3));
+        assertEquals(0, wheel.size());
+        assertEquals(List.of(), wheel.advance(60_000));
+    }
+
+    @Test
+    void cancelAfterCascadeRemovesFromTheFinerSlot() {
+        wheel.schedule(1, 2_005);
+        // Moves the key from its level-2 slot down to level 0.
+        assertEquals(List.of(), wheel.advance(1_990));
+
+        assertTrue(wheel.cancel(1));
+        assertEquals(List.of(), wheel.advance(3_000));
+    }
+
+    @Test
+    void rescheduleReplacesTheEarlierDeadline() {
+        wheel.schedule(1, 1_050);
+        wheel.schedule(1, 5_000);
+
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(), wheel.advance(4_990));
+        assertEquals(List.of(1), wheel.advance(5_010));
+    }
+
+    @Test
+    void refusesDeadlinesThatHavePassed() {
+        assertFalse(wheel.schedule(1, 1_000));
+        assertFalse(wheel.schedule(2, 500));
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.Book.Management.System.related;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LongIntHashMapTest {
+
+    @Test
+    void matchesAHashMapThroughRepeatedGrowth() {
+        LongIntHashMap map = new LongIntHashMap(2);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 50_000; i++) {
+            // Includes negatives and keys that collide after masking.
+            long key = random.nextBoolean() ? random.nextInt(5_000) + 1 : -(random.nextInt(5_000) + 1) * 1024L;
+            int delta = random.nextInt(5) + 1;
+            map.add(key, delta);
+            expected.merge(key, delta, Integer::sum);
+        }
+
+        assertEquals(expected.size(), map.size());
+        Map<Long, Integer> actual = new HashMap<>();
+        map.forEach((key, value) -> assertNull(actual.put(key, value), "key visited twice: " + key));
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void addsToExistingKeys() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        map.add(7, 1);
+        map.add(7, 2);
+        map.add(9, 5);
+
+        Map<Long, Integer> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertEquals(Map.of(7L, 3, 9L, 5), actual);
+        assertEquals(2, map.size());
+    }
+}
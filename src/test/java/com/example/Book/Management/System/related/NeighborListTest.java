@@ -0,0 +1,73 @@
+package com.example.Book.Management.System.related;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class NeighborListTest {
+
+    @Test
+    void topKeepsTheLargestCountsInDescendingOrder() {
+        LongIntHashMap all = new LongIntHashMap(8);
+        all.add(1, 4);
+        all.add(2, 9);
+        all.add(3, 1);
+        all.add(4, 7);
+        all.add(5, 2);
+
+        NeighborList top = NeighborList.top(all, 3);
+
+        assertList(top, new long[]{2, 4, 1}, new int[]{9, 7, 4});
+    }
+
+    @Test
+    void topOfASmallMapKeepsEverything() {
+        LongIntHashMap all = new LongIntHashMap(4);
+        all.add(10, 1);
+        all.add(20, 3);
+
+        assertList(NeighborList.top(all, 5), new long[]{20, 10}, new int[]{3, 1});
+        assertEquals(0, NeighborList.top(new LongIntHashMap(4), 5).size());
+    }
+
+    @Test
+    void incrementMovesAnEntryUpPastSmallerCounts() {
+        NeighborList list = NeighborList.EMPTY.increment(1, 3).increment(1, 3).increment(2, 3).increment(3, 3);
+        assertList(list, new long[]{1, 2, 3}, new int[]{2, 1, 1});
+
+        list = list.increment(3, 3).increment(3, 3);
+
+        assertList(list, new long[]{3, 1, 2}, new int[]{3, 2, 1});
+    }
+
+    @Test
+    void fullListReplacesTheWeakestWhichInheritsItsCount() {
+        NeighborList list = NeighborList.EMPTY.increment(1, 2).increment(1, 2).increment(1, 2).increment(2, 2);
+
+        list = list.increment(3, 2);
+
+        assertList(list, new long[]{1, 3}, new int[]{3, 2});
+        list = list.increment(3, 2).increment(3, 2);
+        assertList(list, new long[]{3, 1}, new int[]{4, 3});
+    }
+
+    @Test
+    void incrementLeavesTheOriginalUntouched() {
+        NeighborList before = NeighborList.EMPTY.increment(1, 2);
+
+        NeighborList after = before.increment(1, 2);
+
+        assertList(before, new long[]{1}, new int[]{1});
+        assertList(after, new long[]{1}, new int[]{2});
+        assertSame(NeighborList.EMPTY, NeighborList.EMPTY.increment(1, 0));
+    }
+
+    private static void assertList(NeighborList list, long[] ids, int[] counts) {
+        assertEquals(ids.length, list.size());
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(ids[i], list.id(i), "id at " + i);
+            assertEquals(counts[i], list.count(i), "count at " + i);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.Book.Management.System.security.auth;
+
+import com.example.Book.Management.System.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoginThrottleTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void ipBucketAllowsItsCapacityThenAsksToWaitForTheNextToken() {
+        LoginThrottle throttle = throttle(3, 1, 100, 100);
+
+        for (int i = 0; i < 3; i++) {
+            throttle.checkIp("10.0.0.1");
+        }
+        TooManyRequestsException e = assertThrows(TooManyRequestsException.class, () -> throttle.checkIp("10.0.0.1"));
+
+        // One token a minute
+        assertTrue(e.getRetryAfterSeconds() > 55 && e.getRetryAfterSeconds() <= 60, "retry after " + e.getRetryAfterSeconds());
+        assertDoesNotThrow(() -> throttle.checkIp("10.0.0.2"));
+        assertEquals(1, meterRegistry.get("auth.throttled").tag("scope", "ip").counter().count());
+    }
+
+    @Test
+    void usernameBucketIsSharedAcrossAddressesAndSpellings() {
+        LoginThrottle throttle = throttle(100, 100, 2, 1);
+
+        throttle.checkLogin("10.0.0.1", "Alice");
+        throttle.checkLogin("10.0.0.2", " alice ");
+        TooManyRequestsException e = assertThrows(TooManyRequestsException.class,
+                () -> throttle.checkLogin("10.0.0.3", "ALICE"));
+
+        assertTrue(e.getRetryAfterSeconds() >= 1);
+        assertDoesNotThrow(() -> throttle.checkLogin("10.0.0.3", "bob"));
+        assertEquals(1, meterRegistry.get("auth.throttled").tag("scope", "username").counter().count());
+    }
+
+    @Test
+    void blankUsernameSpendsOnlyTheIpToken() {
+        LoginThrottle throttle = throttle(100, 100, 1, 1);
+
+        throttle.checkLogin("10.0.0.1", null);
+        throttle.checkLogin("10.0.0.1", " ");
+        throttle.checkLogin("10.0.0.1", "");
+
+        assertDoesNotThrow(() -> throttle.checkLogin("10.0.0.1", "alice"));
+    }
+
+    @Test
+    void ipIsCheckedBeforeTheUsername() {
+        LoginThrottle throttle = throttle(1, 1, 5, 1);
+
+        throttle.checkLogin("10.0.0.1", "alice");
+        assertThrows(TooManyRequestsException.class, () -> throttle.checkLogin("10.0.0.1", "alice"));
+
+        // The rejected attempt did not spend alice's token: four remain.
+        for (int i = 0; i < 4; i++) {
+            int ip = i;
+            assertDoesNotThrow(() -> throttle.checkLogin("10.0.1." + ip, "alice"));
+        }
+        assertThrows(TooManyRequestsException.class, () -> throttle.checkLogin("10.0.2.1", "alice"));
+    }
+
+    @Test
+    void emptyBucketRefillsOverTime() throws InterruptedException {
+        // 1000 tokens a second
+        LoginThrottle throttle = throttle(1, 60_000, 100, 100);
+
+        throttle.checkIp("10.0.0.1");
+        assertThrows(TooManyRequestsException.class, () -> throttle.checkIp("10.0.0.1"));
+        Thread.sleep(20);
+
+        assertDoesNotThrow(() -> throttle.checkIp("10.0.0.1"));
+    }
+
+    private LoginThrottle throttle(int ipCapacity, int ipPerMinute, int usernameCapacity, int usernamePerMinute) {
+        LoginThrottle throttle = new LoginThrottle(1_000, meterRegistry);
+        ReflectionTestUtils.setField(throttle, "ipCapacity", ipCapacity);
+        ReflectionTestUtils.setField(throttle, "ipPerMinute", ipPerMinute);
+        ReflectionTestUtils.setField(throttle, "usernameCapacity", usernameCapacity);
+        ReflectionTestUtils.setField(throttle, "usernamePerMinute", usernamePerMinute);
+        return throttle;
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.Book.Management.System.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JsonMergePatchTest {
+
+    private static final Set<String> PATCHABLE = Set.of("title", "subtitle", "pages");
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ValidatorFactory VALIDATION = Validation.buildDefaultValidatorFactory();
+
+    private final JsonMergePatch mergePatch = new JsonMergePatch(MAPPER, VALIDATION.getValidator());
+
+    @AfterAll
+    static void closeValidation() {
+        VALIDATION.close();
+    }
+
+    @Test
+    void replacesGivenMembersAndLeavesAbsentOnesAlone() throws Exception {
+        Target target = new Target("Solaris", "A novel", 204);
+
+        assertSame(target, mergePatch.apply(target, json("{\"title\": \"Fiasco\"}"), PATCHABLE));
+
+        assertEquals("Fiasco", target.getTitle());
+        assertEquals("A novel", target.getSubtitle());
+        assertEquals(204, target.getPages());
+    }
+
+    @Test
+    void nullClearsTheMember() throws Exception {
+        Target target = new Target("Solaris", "A novel", 204);
+
+        mergePatch.apply(target, json("{\"subtitle\": null, \"pages\": null}"), PATCHABLE);
+
+        assertEquals("Solaris", target.getTitle());
+        assertNull(target.getSubtitle());
+        assertNull(target.getPages());
+    }
+
+    @Test
+    void emptyPatchChangesNothing() throws Exception {
+        Target target = new Target("Solaris", "A novel", 204);
+
+        mergePatch.apply(target, json("{}"), PATCHABLE);
+
+        assertEquals("Solaris", target.getTitle());
+        assertEquals("A novel", target.getSubtitle());
+        assertEquals(204, target.getPages());
+    }
+
+    @Test
+    void versionIsNotAppliedButReadAsTheExpectedVersion() throws Exception {
+        JsonNode patch = json("{\"version\": 7, \"title\": \"Fiasco\"}");
+        Target target = new Target("Solaris", null, 1);
+
+        mergePatch.apply(target, patch, PATCHABLE);
+
+        assertEquals("Fiasco", target.getTitle());
+        assertEquals(7L, JsonMergePatch.expectedVersion(patch));
+        assertNull(JsonMergePatch.expectedVersion(json("{\"version\": null}")));
+        assertNull(JsonMergePatch.expectedVersion(json("{}")));
+        // The caller's node still carries its version.
+        assertEquals(7, patch.get("version").asInt());
+    }
+
+    @Test
+    void nestedObjectForAScalarMemberIsRejected() throws Exception {
+        Target target = new Target("Solaris", "A novel", 204);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> mergePatch.apply(target, json("{\"subtitle\": {\"text\": \"x\"}}"), PATCHABLE));
+        assertThrows(IllegalArgumentException.class,
+                () -> mergePatch.apply(target, json("{\"pages\": [1, 2]}"), PATCHABLE));
+    }
+
+    @Test
+    void rejectsNonObjectPatchesAndUnpatchableMembers() throws Exception {
+        Target target = new Target("Solaris", "A novel", 204);
+
+        assertThrows(IllegalArgumentException.class, () -> mergePatch.apply(target, json("[]"), PATCHABLE));
+        assertThrows(IllegalArgumentException.class, () -> mergePatch.apply(target, json("null"), PATCHABLE));
+        assertThrows(IllegalArgumentException.class, () -> mergePatch.apply(target, null, PATCHABLE));
+        assertThrows(IllegalArgumentException.class,
+                () -> mergePatch.apply(target, json("{\"id\": 5}"), PATCHABLE));
+        assertThrows(IllegalArgumentException.class,
+                () -> mergePatch.apply(target, json("{\"pages\": \"many\"}"), PATCHABLE));
+    }
+
+    @Test
+    void validatesOnlyTouchedMembers() throws Exception {
+        // Already invalid: pages below the minimum, but the patch does not touch it.
+        Target target = new Target("Solaris", "A novel", 0);
+        mergePatch.apply(target, json("{\"subtitle\": \"Revised\"}"), PATCHABLE);
+        assertEquals("Revised", target.getSubtitle());
+
+        assertThrows(ConstraintViolationException.class,
+                () -> mergePatch.apply(target, json("{\"title\": null}"), PATCHABLE));
+        assertThrows(ConstraintViolationException.class,
+                () -> mergePatch.apply(target, json("{\"pages\": -1}"), PATCHABLE));
+    }
+
+    private static JsonNode json(String body) throws Exception {
+        return MAPPER.readTree(body);
+    }
+
+    static class Target {
+        @NotBlank
+        private String title;
+        private String subtitle;
+        @Min(1)
+        private Integer pages;
+
+        Target() {}
+
+        Target(String title, String subtitle, Integer pages) {
+            this.title = title;
+            this.subtitle = subtitle;
+            this.pages = pages;
+        }
+
+        public String getTitle() { return title; }
+        public void setTitle(String title) { this.title = title; }
+
+        public String getSubtitle() { return subtitle; }
+        public void setSubtitle(String subtitle) { this.subtitle = subtitle; }
+
+        public Integer getPages() { return pages; }
+        public void setPages(Integer pages) { this.pages = pages; }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.Book.Management.System.service;
+
+import com.example.Book.Management.System.exception.ConcurrentUpdateException;
+import jakarta.persistence.OptimisticLockException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class OptimisticRetryExecutorTest {
+
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final OptimisticRetryExecutor executor = new OptimisticRetryExecutor(transactionManager);
+
+    @BeforeEach
+    void configure() {
+        ReflectionTestUtils.setField(executor, "maxAttempts", 3);
+        ReflectionTestUtils.setField(executor, "baseBackoffMs", 1L);
+        ReflectionTestUtils.setField(executor, "maxBackoffMs", 2L);
+    }
+
+    @Test
+    void retriesVersionConflictsInFreshTransactions() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = executor.execute("Book", 1L, () -> {
+            int attempt = attempts.incrementAndGet();
+            if (attempt == 1) {
+                throw new ObjectOptimisticLockingFailureException("Book", 1L);
+            }
+            if (attempt == 2) {
+                throw new OptimisticLockException();
+            }
+            return "updated";
+        }, () -> 9L);
+
+        assertEquals("updated", result);
+        assertEquals(3, attempts.get());
+        verify(transactionManager, times(3)).getTransaction(any());
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void givesUpAfterMaxAttemptsWithTheCurrentVersion() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        ConcurrentUpdateException e = assertThrows(ConcurrentUpdateException.class,
+                () -> executor.execute("Book", 1L, () -> {
+                    attempts.incrementAndGet();
+                    throw new ObjectOptimisticLockingFailureException("Book", 1L);
+                }, () -> 42L));
+
+        assertEquals(3, attempts.get());
+        assertEquals(42L, e.getCurrentVersion());
+    }
+
+    @Test
+    void otherFailuresAreNotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(DataIntegrityViolationException.class, () -> executor.execute("Book", 1L, () -> {
+            attempts.incrementAndGet();
+            throw new DataIntegrityViolationException("duplicate isbn");
+        }, () -> 1L));
+
+        assertEquals(1, attempts.get());
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.Book.Management.System.trending;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CountMinSketchTest {
+
+    @Test
+    void neverUndercountsAndOvercountsWithinTheWidthBound() {
+        CountMinSketch sketch = new CountMinSketch(1_000, 4);
+        Map<Long, Integer> truth = new HashMap<>();
+        Random random = new Random(7);
+        int total = 200_000;
+        for (int i = 0; i < total; i++) {
+            // Skewed, like borrows: a few books take most of the traffic.
+            long key = (long) Math.floor(Math.pow(random.nextDouble(), 3) * 20_000);
+            sketch.add(key);
+            truth.merge(key, 1, Integer::sum);
+        }
+
+        // Width rounds up to 1024; e * total / width is the classic per-key bound.
+        double bound = Math.E * total / 1024;
+        int overBound = 0;
+        for (Map.Entry<Long, Integer> entry : truth.entrySet()) {
+            long estimate = sketch.estimate(entry.getKey());
+            assertTrue(estimate >= entry.getValue(), "undercount for " + entry.getKey());
+            if (estimate - entry.getValue() > bound) {
+                overBound++;
+            }
+        }
+        // The bound holds per key with probability 1 - e^-depth, about 98% at depth 4.
+        assertTrue(overBound <= truth.size() * 0.02, overBound + " of " + truth.size() + " keys over the bound");
+    }
+
+    @Test
+    void countsExactlyWhenKeysFitTheWidth() {
+        CountMinSketch sketch = new CountMinSketch(4_096, 4);
+        for (long key = 0; key < 10; key++) {
+            for (int i = 0; i <= key; i++) {
+                sketch.add(key);
+            }
+        }
+        for (long key = 0; key < 10; key++) {
+            assertEquals(key + 1, sketch.estimate(key));
+        }
+        assertEquals(0, sketch.estimate(99));
+    }
+
+    @Test
+    void clearResetsEveryCounter() {
+        CountMinSketch sketch = new CountMinSketch(64, 2);
+        sketch.add(1);
+        sketch.add(2);
+        sketch.clear();
+        assertEquals(0, sketch.estimate(1));
+        assertEquals(0, sketch.estimate(2));
+    }
+
+    @Test
+    void rejectsUnsupportedDepth() {
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(64, 0));
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(64, 9));
+    }
+}
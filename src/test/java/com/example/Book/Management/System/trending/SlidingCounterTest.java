@@ -0,0 +1,97 @@
+package com.example.Book.Management.System.trending;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlidingCounterTest {
+
+    // 12 buckets of 5 minutes
+    private static final long BUCKET = TrendingWindow.HOUR.getBucketMillis();
+
+    private final SlidingCounter counter = new SlidingCounter(TrendingWindow.HOUR, 4_096, 4, 16);
+
+    @Test
+    void ranksByCountAcrossBuckets() {
+        add(1, 3, 0);
+        add(2, 5, BUCKET);
+        add(1, 4, 2 * BUCKET);
+        add(3, 1, 2 * BUCKET);
+
+        List<long[]> top = counter.top(2 * BUCKET + 1, 10);
+
+        assertEquals(3, top.size());
+        assertArrayEquals(new long[]{1, 7}, top.get(0));
+        assertArrayEquals(new long[]{2, 5}, top.get(1));
+        assertArrayEquals(new long[]{3, 1}, top.get(2));
+        assertEquals(2, counter.top(2 * BUCKET + 1, 2).size());
+    }
+
+    @Test
+    void weightsTheOldestBucketByWhatIsLeftOfItInTheWindow() {
+        add(1, 10, 0);
+        add(2, 4, 12 * BUCKET);
+
+        // Half of bucket 0 is still inside the window.
+        List<long[]> top = counter.top(12 * BUCKET + BUCKET / 2, 10);
+
+        assertArrayEquals(new long[]{1, 5}, top.get(0));
+        assertArrayEquals(new long[]{2, 4}, top.get(1));
+    }
+
+    @Test
+    void dropsBucketsThatLeftTheWindow() {
+        add(1, 10, 0);
+        add(2, 1, 13 * BUCKET);
+
+        List<long[]> top = counter.top(13 * BUCKET, 10);
+
+        assertEquals(1, top.size());
+        assertArrayEquals(new long[]{2, 1}, top.get(0));
+    }
+
+    @Test
+    void reusedBucketStartsFromZero() {
+        add(1, 10, 0);
+        // The ring has 13 buckets, so epoch 13 lands where epoch 0 was.
+        add(1, 2, 13 * BUCKET);
+
+        List<long[]> top = counter.top(13 * BUCKET, 10);
+
+        assertArrayEquals(new long[]{1, 2}, top.get(0));
+    }
+
+    @Test
+    void estimatesStayWithinSketchErrorUnderLoad() {
+        SlidingCounter small = new SlidingCounter(TrendingWindow.HOUR, 256, 4, 16);
+        long total = 0;
+        for (int bucket = 0; bucket < 12; bucket++) {
+            for (long key = 100; key < 2_000; key++) {
+                small.add(key, bucket * BUCKET);
+                total++;
+            }
+            for (int i = 0; i < 300; i++) {
+                small.add(1, bucket * BUCKET);
+                total++;
+            }
+        }
+
+        List<long[]> top = small.top(11 * BUCKET + 1, 1);
+
+        assertEquals(1, top.get(0)[0]);
+        long exact = 12 * 300;
+        // Each bucket's sketch overcounts by about e * bucketTotal / width at most.
+        assertTrue(top.get(0)[1] >= exact);
+        assertTrue(top.get(0)[1] - exact <= Math.E * total / 256, "estimate " + top.get(0)[1]);
+    }
+
+    private void add(long key, int times, long atMillis) {
+        for (int i = 0; i < times; i++) {
+            counter.add(key, atMillis);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.Book.Management.System.trending;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpaceSavingTest {
+
+    @Test
+    void keepsEveryKeyMoreFrequentThanTotalOverCapacity() {
+        SpaceSaving tracker = new SpaceSaving(10);
+        long unique = 1_000;
+        int total = 0;
+        // Heavy keys 1..3 spread through a long tail of keys seen once.
+        for (int round = 0; round < 500; round++) {
+            for (long heavy = 1; heavy <= 3; heavy++) {
+                tracker.offer(heavy);
+                total++;
+            }
+            for (int i = 0; i < 5; i++) {
+                tracker.offer(unique++);
+                total++;
+            }
+        }
+
+        // Each heavy key has 500 of 4000 offers, above total / capacity = 400.
+        assertEquals(4_000, total);
+        Set<Long> keys = tracker.keys();
+        assertTrue(keys.containsAll(Set.of(1L, 2L, 3L)), "monitored: " + keys);
+        assertEquals(10, keys.size());
+    }
+
+    @Test
+    void neverMonitorsMoreThanCapacity() {
+        SpaceSaving tracker = new SpaceSaving(5);
+        for (long key = 0; key < 100; key++) {
+            tracker.offer(key);
+            assertTrue(tracker.keys().size() <= 5);
+        }
+    }
+
+    @Test
+    void clearForgetsAllKeys() {
+        SpaceSaving tracker = new SpaceSaving(5);
+        tracker.offer(1);
+        tracker.offer(2);
+        tracker.clear();
+        assertTrue(tracker.keys().isEmpty());
+        tracker.offer(3);
+        assertEquals(Set.of(3L), tracker.keys());
+    }
+}